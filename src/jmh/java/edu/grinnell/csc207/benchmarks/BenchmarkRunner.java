@@ -0,0 +1,55 @@
+package edu.grinnell.csc207.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the matrix benchmarks with allocation profiling and JSON output
+ * unless told otherwise. Accepts the usual JMH command-line options, so
+ * `java -jar target/benchmarks.jar get -p size=100 -p impl=MatrixV0`
+ * runs a single benchmark on a single configuration.
+ *
+ * @author David William Stroud
+ */
+public class BenchmarkRunner {
+  /**
+   * Where results go unless the command line says otherwise.
+   */
+  static final String DEFAULT_RESULTS = "target/jmh-results.json";
+
+  /**
+   * Run the benchmarks.
+   *
+   * @param args
+   *   JMH command-line options.
+   *
+   * @throws RunnerException
+   *   If a benchmark fails.
+   * @throws CommandLineOptionException
+   *   If the options are malformed.
+   */
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    CommandLineOptions cmd = new CommandLineOptions(args);
+    OptionsBuilder builder = new OptionsBuilder();
+    if (cmd.getIncludes().isEmpty()) {
+      builder.include(MatrixBenchmarks.class.getSimpleName());
+    } // if
+    if (cmd.getProfilers().isEmpty()) {
+      builder.addProfiler(GCProfiler.class);
+    } // if
+    if (!cmd.getResultFormat().hasValue()) {
+      builder.resultFormat(ResultFormatType.JSON);
+    } // if
+    if (!cmd.getResult().hasValue()) {
+      builder.result(DEFAULT_RESULTS);
+    } // if
+    Options options = builder.parent(cmd).build();
+    new Runner(options).run();
+  } // main(String[])
+} // class BenchmarkRunner
@@ -0,0 +1,499 @@
+package edu.grinnell.csc207.benchmarks;
+
+import edu.grinnell.csc207.experiments.MatrixImplementations;
+import edu.grinnell.csc207.util.Matrix;
+
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for every operation in the Matrix interface, across sizes,
+ * element types and implementations.
+ *
+ * Structural edits (inserting and deleting rows and columns) change the
+ * shape of the matrix, so each is measured on a freshly restored matrix
+ * in its own state class. The restoration happens at invocation level,
+ * which is only reliable for calls that take more than a few microseconds;
+ * for the smallest sizes, treat those numbers as upper bounds.
+ *
+ * @author David William Stroud
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class MatrixBenchmarks {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of random cells visited by get and set.
+   */
+  static final int CELLS = 1024;
+
+  /**
+   * The number of distinct values we put in a matrix.
+   */
+  static final int VALUES = 256;
+
+  // +--------+------------------------------------------------------
+  // | States |
+  // +--------+
+
+  /**
+   * A filled matrix plus everything the read-only and in-place
+   * benchmarks need.
+   */
+  @State(Scope.Thread)
+  public static class Filled {
+    /**
+     * The width and height of the matrix.
+     */
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    /**
+     * The type of the values.
+     */
+    @Param({"Integer", "String"})
+    public String type;
+
+    /**
+     * The implementation, as named in MatrixImplementations.
+     */
+    @Param({"MatrixV0", "VersionedMatrix", "InstrumentedMatrixV0", "ColumnMajorMatrix",
+        "AdaptiveMatrix", "RingBufferMatrix", "RopeMatrix"})
+    public String impl;
+
+    /**
+     * The matrix.
+     */
+    Matrix<Object> matrix;
+
+    /**
+     * An equal matrix, for equals.
+     */
+    Matrix<Object> twin;
+
+    /**
+     * The values we store.
+     */
+    Object[] values;
+
+    /**
+     * Random row indices.
+     */
+    int[] rows;
+
+    /**
+     * Random column indices.
+     */
+    int[] cols;
+
+    /**
+     * The next cell to visit.
+     */
+    int next;
+
+    /**
+     * Build the matrix.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+      this.values = values(this.type);
+      this.matrix = fill(this.impl, this.size, this.values);
+      this.twin = fill(this.impl, this.size, this.values);
+      Random random = new Random(207);
+      this.rows = new int[CELLS];
+      this.cols = new int[CELLS];
+      for (int i = 0; i < CELLS; i++) {
+        this.rows[i] = random.nextInt(this.size);
+        this.cols[i] = random.nextInt(this.size);
+      } // for
+    } // setup()
+
+    /**
+     * Advance to the next random cell.
+     *
+     * @return the index of the cell in rows and cols.
+     */
+    int advance() {
+      this.next = (this.next + 1) & (CELLS - 1);
+      return this.next;
+    } // advance()
+  } // class Filled
+
+  /**
+   * A matrix that is rebuilt before each structural edit.
+   */
+  @State(Scope.Thread)
+  public static class Fresh {
+    /**
+     * The width and height of the matrix.
+     */
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    /**
+     * The type of the values.
+     */
+    @Param({"Integer", "String"})
+    public String type;
+
+    /**
+     * The implementation, as named in MatrixImplementations.
+     */
+    @Param({"MatrixV0", "VersionedMatrix", "InstrumentedMatrixV0", "ColumnMajorMatrix",
+        "AdaptiveMatrix", "RingBufferMatrix", "RopeMatrix"})
+    public String impl;
+
+    /**
+     * The pristine matrix.
+     */
+    Matrix<Object> original;
+
+    /**
+     * The matrix to edit.
+     */
+    Matrix<Object> matrix;
+
+    /**
+     * A row of values, for insertRow.
+     */
+    Object[] row;
+
+    /**
+     * A column of values, for insertCol.
+     */
+    Object[] col;
+
+    /**
+     * Build the pristine matrix.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+      Object[] values = values(this.type);
+      this.original = fill(this.impl, this.size, values);
+      this.row = new Object[this.size];
+      this.col = new Object[this.size];
+      for (int i = 0; i < this.size; i++) {
+        this.row[i] = values[i % VALUES];
+        this.col[i] = values[(i * 7) % VALUES];
+      } // for
+    } // setup()
+
+    /**
+     * Restore the matrix before each edit.
+     */
+    @SuppressWarnings({ "unchecked" })
+    @Setup(Level.Invocation)
+    public void restore() {
+      this.matrix = this.original.clone();
+    } // restore()
+  } // class Fresh
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Build the values of a given type.
+   *
+   * @param type
+   *   The name of the type.
+   *
+   * @return VALUES distinct values.
+   */
+  static Object[] values(String type) {
+    Object[] result = new Object[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      switch (type) {
+        case "Integer":
+          result[i] = Integer.valueOf(i * 1000);
+          break;
+        case "String":
+          result[i] = "value" + i;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown element type: " + type);
+      } // switch
+    } // for
+    return result;
+  } // values(String)
+
+  /**
+   * Build a square matrix filled with a repeating pattern of values.
+   *
+   * @param impl
+   *   The name of the implementation.
+   * @param size
+   *   The width and height.
+   * @param values
+   *   The values.
+   *
+   * @return the matrix.
+   */
+  static Matrix<Object> fill(String impl, int size, Object[] values) {
+    Matrix<Object> matrix = MatrixImplementations.create(impl, size, size, values[0]);
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        matrix.set(row, col, values[(row * 31 + col) % VALUES]);
+      } // for col
+    } // for row
+    return matrix;
+  } // fill(String, int, Object[])
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Read a random cell.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the value in the cell.
+   */
+  @Benchmark
+  public Object get(Filled state) {
+    int i = state.advance();
+    return state.matrix.get(state.rows[i], state.cols[i]);
+  } // get(Filled)
+
+  /**
+   * Write a random cell.
+   *
+   * @param state
+   *   The matrix.
+   */
+  @Benchmark
+  public void set(Filled state) {
+    int i = state.advance();
+    state.matrix.set(state.rows[i], state.cols[i], state.values[i & (VALUES - 1)]);
+  } // set(Filled)
+
+  /**
+   * Insert a row in the middle.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the matrix.
+   */
+  @Benchmark
+  public Object insertRow(Fresh state) {
+    state.matrix.insertRow(state.size / 2);
+    return state.matrix;
+  } // insertRow(Fresh)
+
+  /**
+   * Insert a row of values in the middle.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the matrix.
+   *
+   * @throws Exception
+   *   If the row does not fit, which it always does.
+   */
+  @Benchmark
+  public Object insertRowValues(Fresh state) throws Exception {
+    state.matrix.insertRow(state.size / 2, state.row);
+    return state.matrix;
+  } // insertRowValues(Fresh)
+
+  /**
+   * Insert a column in the middle.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the matrix.
+   */
+  @Benchmark
+  public Object insertCol(Fresh state) {
+    state.matrix.insertCol(state.size / 2);
+    return state.matrix;
+  } // insertCol(Fresh)
+
+  /**
+   * Insert a column of values in the middle.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the matrix.
+   *
+   * @throws Exception
+   *   If the column does not fit, which it always does.
+   */
+  @Benchmark
+  public Object insertColValues(Fresh state) throws Exception {
+    state.matrix.insertCol(state.size / 2, state.col);
+    return state.matrix;
+  } // insertColValues(Fresh)
+
+  /**
+   * Delete the middle row.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the matrix.
+   */
+  @Benchmark
+  public Object deleteRow(Fresh state) {
+    state.matrix.deleteRow(state.size / 2);
+    return state.matrix;
+  } // deleteRow(Fresh)
+
+  /**
+   * Delete the middle column.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the matrix.
+   */
+  @Benchmark
+  public Object deleteCol(Fresh state) {
+    state.matrix.deleteCol(state.size / 2);
+    return state.matrix;
+  } // deleteCol(Fresh)
+
+  /**
+   * Delete the top row and append one at the bottom, as a sliding
+   * window does.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the matrix.
+   */
+  @Benchmark
+  public Object slideRow(Filled state) {
+    state.matrix.deleteRow(0);
+    state.matrix.insertRow(state.size - 1);
+    return state.matrix;
+  } // slideRow(Filled)
+
+  /**
+   * Fill the middle quarter of the matrix.
+   *
+   * @param state
+   *   The matrix.
+   */
+  @Benchmark
+  public void fillRegion(Filled state) {
+    int quarter = state.size / 4;
+    state.matrix.fillRegion(quarter, quarter, state.size - quarter, state.size - quarter,
+        state.values[state.advance() & (VALUES - 1)]);
+  } // fillRegion(Filled)
+
+  /**
+   * Fill the main diagonal.
+   *
+   * @param state
+   *   The matrix.
+   */
+  @Benchmark
+  public void fillLine(Filled state) {
+    state.matrix.fillLine(0, 0, 1, 1, state.size, state.size,
+        state.values[state.advance() & (VALUES - 1)]);
+  } // fillLine(Filled)
+
+  /**
+   * Clone the matrix.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the clone.
+   */
+  @Benchmark
+  public Object cloneMatrix(Filled state) {
+    return state.matrix.clone();
+  } // cloneMatrix(Filled)
+
+  /**
+   * Make a transposed copy of the matrix.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the transposed copy.
+   */
+  @Benchmark
+  public Object transpose(Filled state) {
+    return state.matrix.transpose();
+  } // transpose(Filled)
+
+  /**
+   * Compare the matrix with an equal one.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return whether they are equal.
+   */
+  @Benchmark
+  public boolean equalsMatrix(Filled state) {
+    return state.matrix.equals(state.twin);
+  } // equalsMatrix(Filled)
+
+  /**
+   * Compute the hash code of the matrix.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the hash code.
+   */
+  @Benchmark
+  public int hashCodeMatrix(Filled state) {
+    return state.matrix.hashCode();
+  } // hashCodeMatrix(Filled)
+
+  /**
+   * Print the matrix to a stream that discards its output.
+   *
+   * @param state
+   *   The matrix.
+   * @param hole
+   *   Where the output goes.
+   */
+  @Benchmark
+  public void print(Filled state, Blackhole hole) {
+    PrintWriter pen = new PrintWriter(new OutputStream() {
+      public void write(int b) {
+        hole.consume(b);
+      } // write(int)
+
+      public void write(byte[] b, int off, int len) {
+        hole.consume(len);
+      } // write(byte[], int, int)
+    });
+    Matrix.print(pen, state.matrix);
+    pen.flush();
+  } // print(Filled, Blackhole)
+} // class MatrixBenchmarks
@@ -2,9 +2,18 @@ package edu.grinnell.csc207.experiments;
 
 import edu.grinnell.csc207.util.ArraySizeException;
 import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixTrace;
 import edu.grinnell.csc207.util.MatrixV0;
+import edu.grinnell.csc207.util.TracingMatrix;
+import edu.grinnell.csc207.util.ValueCodec;
 
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Some experiments with matrices.
@@ -12,6 +21,15 @@ import java.io.PrintWriter;
  * @author Samuel A. Rebelsky
  */
 public class MatrixExperiments {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of times each implementation replays a trace.
+   */
+  static final int REPLAY_ROUNDS = 3;
+
   // +-----------+---------------------------------------------------
   // | Utilities |
   // +-----------+
@@ -45,9 +63,10 @@ public class MatrixExperiments {
    *
    * @param pen
    *   The pen used to print out the results.
+   * @param sample
+   *   A 5x6 matrix whose default value is "O".
    */
-  static void assignmentSample(PrintWriter pen) {
-    Matrix<String> sample = new MatrixV0<String>(5, 6, "O");
+  static void assignmentSample(PrintWriter pen, Matrix<String> sample) {
     for (int row = 0; row < 6; row++) {
       for (int col = 0; col < 5; col++) {
         sample.set(row, col, "X");
@@ -96,7 +115,62 @@ public class MatrixExperiments {
 
     sample.fillRegion(4, 2, 6, 6, ".");
     figure(pen, "fillRegion(4, 2, 6, 6, \".\")", sample);
-  } // assignmentSample()
+  } // assignmentSample(PrintWriter, Matrix<String>)
+
+  /**
+   * Run the sample from the assignment, recording a trace of it.
+   *
+   * @param pen
+   *   The pen used to print out the results.
+   * @param file
+   *   Where to write the trace.
+   *
+   * @throws IOException
+   *   If the trace cannot be written.
+   */
+  static void recordSample(PrintWriter pen, String file) throws IOException {
+    try (TracingMatrix<String> sample = new TracingMatrix<String>(
+        new MatrixV0<String>(5, 6, "O"), "O", ValueCodec.strings(),
+        new FileOutputStream(file))) {
+      assignmentSample(pen, sample);
+    } // try
+    pen.println("Trace written to " + file);
+  } // recordSample(PrintWriter, String)
+
+  /**
+   * Replay a trace against several implementations and report how long
+   * each operation took. Each implementation replays the trace a few
+   * times so that the JIT has compiled it; the last replay is reported.
+   *
+   * @param pen
+   *   The pen used to print out the results.
+   * @param file
+   *   The trace.
+   * @param implementations
+   *   The names of the implementations to compare.
+   *
+   * @throws IOException
+   *   If the trace cannot be read.
+   */
+  static void replay(PrintWriter pen, String file, List<String> implementations)
+      throws IOException {
+    MatrixTrace trace;
+    try (InputStream in = new FileInputStream(file)) {
+      trace = new MatrixTrace(in);
+    } // try
+    pen.printf("Trace %s: %dx%d %s matrix%n", file, trace.width(), trace.height(),
+        trace.codecName());
+    for (String name : implementations) {
+      MatrixTrace.Report report = null;
+      for (int round = 0; round < REPLAY_ROUNDS; round++) {
+        report = trace.replay(MatrixImplementations.create(name, trace.width(),
+            trace.height(), trace.defaultValue()));
+      } // for
+      pen.println();
+      pen.println(name);
+      report.print(pen);
+    } // for
+  } // replay(PrintWriter, String, List<String>)
 
   // +------+--------------------------------------------------------
   // | Main |
@@ -105,13 +179,31 @@ public class MatrixExperiments {
   /**
    * Run the experiments.
    *
+   * Command-line arguments:
+   *
+   * * (none) - run the sample from the assignment
+   * * record FILE - run the sample, writing a trace to FILE
+   * * replay FILE [IMPL ...] - replay a trace against the named
+   *   implementations (by default, all of them)
+   *
    * @param args
-   *   Command-line arguments (ignored)
+   *   Command-line arguments.
+   *
+   * @throws IOException
+   *   If a trace cannot be read or written.
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
     PrintWriter pen = new PrintWriter(System.out, true);
 
-    assignmentSample(pen);
+    if (args.length >= 2 && args[0].equals("record")) {
+      recordSample(pen, args[1]);
+    } else if (args.length >= 2 && args[0].equals("replay")) {
+      replay(pen, args[1], args.length > 2
+          ? Arrays.asList(args).subList(2, args.length)
+          : MatrixImplementations.names());
+    } else {
+      assignmentSample(pen, new MatrixV0<String>(5, 6, "O"));
+    } // if/else
 
     pen.close();
   } // main(String[])
@@ -0,0 +1,157 @@
+package edu.grinnell.csc207.experiments;
+
+import edu.grinnell.csc207.util.AdaptiveMatrix;
+import edu.grinnell.csc207.util.ColumnMajorMatrix;
+import edu.grinnell.csc207.util.InstrumentedMatrix;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixMetrics;
+import edu.grinnell.csc207.util.MatrixV0;
+import edu.grinnell.csc207.util.QuadTreeMatrix;
+import edu.grinnell.csc207.util.RingBufferMatrix;
+import edu.grinnell.csc207.util.RopeMatrix;
+import edu.grinnell.csc207.util.VersionedMatrix;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The implementations of Matrix that experiments and benchmarks compare.
+ * New implementations should be registered here so that every harness
+ * picks them up.
+ *
+ * @author David William Stroud
+ */
+public class MatrixImplementations {
+  // +------------+--------------------------------------------------
+  // | Interfaces |
+  // +------------+
+
+  /**
+   * A way of building an empty matrix.
+   */
+  public interface Factory {
+    /**
+     * Build a matrix.
+     *
+     * @param <T>
+     *   The type of the values in the matrix.
+     * @param width
+     *   The width of the matrix.
+     * @param height
+     *   The height of the matrix.
+     * @param def
+     *   The default value of the matrix.
+     *
+     * @return the new matrix.
+     */
+    <T> Matrix<T> create(int width, int height, T def);
+  } // interface Factory
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The registered implementations, in the order they were added.
+   */
+  static final Map<String, Factory> FACTORIES = new LinkedHashMap<String, Factory>();
+
+  static {
+    register("MatrixV0", MatrixV0::new);
+    register("VersionedMatrix", VersionedMatrix::new);
+    register("InstrumentedMatrixV0", MatrixImplementations::instrumented);
+    register("ColumnMajorMatrix", ColumnMajorMatrix::new);
+    register("AdaptiveMatrix", AdaptiveMatrix::new);
+    register("RingBufferMatrix", RingBufferMatrix::new);
+    register("RopeMatrix", RopeMatrix::new);
+    register("QuadTreeMatrix", QuadTreeMatrix::new);
+  } // static
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Build a MatrixV0 wrapped in an InstrumentedMatrix whose metrics are
+   * disabled, so that benchmarks show the cost of leaving the wrapper in
+   * place.
+   *
+   * @param <T>
+   *   The type of the values in the matrix.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value of the matrix.
+   *
+   * @return the new matrix.
+   */
+  static <T> Matrix<T> instrumented(int width, int height, T def) {
+    return new InstrumentedMatrix<T>(new MatrixV0<T>(width, height, def),
+        new MatrixMetrics(false));
+  } // instrumented(int, int, T)
+
+  /**
+   * Register an implementation.
+   *
+   * @param name
+   *   The name of the implementation.
+   * @param factory
+   *   How to build it.
+   */
+  static void register(String name, Factory factory) {
+    FACTORIES.put(name, factory);
+  } // register(String, Factory)
+
+  /**
+   * List the names of the registered implementations.
+   *
+   * @return the names.
+   */
+  public static List<String> names() {
+    return new ArrayList<String>(FACTORIES.keySet());
+  } // names()
+
+  /**
+   * Find an implementation by name.
+   *
+   * @param name
+   *   The name of the implementation.
+   *
+   * @return the factory for that implementation.
+   *
+   * @throws IllegalArgumentException
+   *   If no implementation has that name.
+   */
+  public static Factory factory(String name) {
+    Factory factory = FACTORIES.get(name);
+    if (factory == null) {
+      throw new IllegalArgumentException("Unknown matrix implementation: " + name
+          + " (expected one of " + FACTORIES.keySet() + ")");
+    } // if
+    return factory;
+  } // factory(String)
+
+  /**
+   * Build a matrix with a named implementation.
+   *
+   * @param <T>
+   *   The type of the values in the matrix.
+   * @param name
+   *   The name of the implementation.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value of the matrix.
+   *
+   * @return the new matrix.
+   */
+  public static <T> Matrix<T> create(String name, int width, int height, T def) {
+    return factory(name).create(width, height, def);
+  } // create(String, int, int, T)
+} // class MatrixImplementations
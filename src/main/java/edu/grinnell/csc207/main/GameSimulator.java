@@ -0,0 +1,546 @@
+package edu.grinnell.csc207.main;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays many games of SampleGame1P without any interaction, using all
+ * available cores, and reports the throughput and the distribution of
+ * scores. Useful for balancing the board parameters.
+ *
+ * Each worker thread keeps one game state and resets it for every game,
+ * so the simulation does not allocate a fresh board per game.
+ *
+ * @author David William Stroud
+ */
+public class GameSimulator {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of games below which a task is not split further.
+   */
+  static final int GAMES_PER_TASK = 256;
+
+  // +------------+--------------------------------------------------
+  // | Strategies |
+  // +------------+
+
+  /**
+   * A way of choosing moves.
+   */
+  @FunctionalInterface
+  public interface Strategy {
+    /**
+     * Choose the next move.
+     *
+     * @param state
+     *   The current state of the game.
+     * @param step
+     *   The number of moves made so far.
+     * @param random
+     *   A source of randomness, seeded from the game number.
+     *
+     * @return the next move, or null to stop playing.
+     */
+    Move choose(GameState state, int step, Random random);
+
+    /**
+     * Get a strategy to play one game with. Strategies that remember
+     * where they are in a game return a fresh copy; the default returns
+     * this strategy.
+     *
+     * @return the strategy for the new game.
+     */
+    default Strategy start() {
+      return this;
+    } // start()
+  } // interface Strategy
+
+  /**
+   * A strategy that plays a fixed sequence of moves, skipping any that
+   * are not legal. Each game starts its own copy, which remembers how far
+   * through the script that game has got.
+   */
+  static class Script implements Strategy {
+    /**
+     * The moves to play.
+     */
+    final Move[] moves;
+
+    /**
+     * The position in the script of the next move to try.
+     */
+    int next;
+
+    /**
+     * Start at the beginning of a script.
+     *
+     * @param moves1
+     *   The moves to play.
+     */
+    Script(Move[] moves1) {
+      this.moves = moves1;
+    } // Script(Move[])
+
+    /**
+     * Choose the next legal move in the script, skipping the illegal
+     * moves before it.
+     *
+     * @param state
+     *   The current state of the game.
+     * @param step
+     *   The number of moves made so far.
+     * @param random
+     *   A source of randomness, which is not used.
+     *
+     * @return the next move, or null if the script is used up.
+     */
+    public Move choose(GameState state, int step, Random random) {
+      while (this.next < this.moves.length) {
+        Move move = this.moves[this.next++];
+        if (state.isLegal(move)) {
+          return move;
+        } // if
+      } // while
+      return null;
+    } // choose(GameState, int, Random)
+
+    /**
+     * Start the script again for a new game.
+     *
+     * @return a copy of the script, at its beginning.
+     */
+    public Strategy start() {
+      return new Script(this.moves);
+    } // start()
+  } // class Script
+
+  /**
+   * A strategy that makes random legal moves until none remain.
+   *
+   * @return the strategy.
+   */
+  public static Strategy randomMoves() {
+    return (state, step, random) -> {
+      int total = state.totalRemaining();
+      if (total == 0) {
+        return null;
+      } // if
+      // Pick a kind in proportion to how many of that kind remain.
+      int pick = random.nextInt(total);
+      for (Move.Kind kind : Move.Kind.values()) {
+        pick -= state.remaining(kind);
+        if (pick < 0) {
+          return new Move(kind, random.nextInt(state.indexLimit(kind)));
+        } // if
+      } // for
+      return null;
+    };
+  } // randomMoves()
+
+  /**
+   * A strategy that plays a fixed sequence of moves, skipping any that
+   * are not legal on a particular board.
+   *
+   * @param moves
+   *   The moves to play.
+   *
+   * @return the strategy.
+   */
+  public static Strategy scripted(List<Move> moves) {
+    return new Script(moves.toArray(new Move[0]));
+  } // scripted(List<Move>)
+
+  // +---------+-----------------------------------------------------
+  // | Results |
+  // +---------+
+
+  /**
+   * The results of a simulation.
+   */
+  public static class Results {
+    /**
+     * The number of games played.
+     */
+    long games;
+
+    /**
+     * The number of games with each score.
+     */
+    long[] histogram;
+
+    /**
+     * The sum of the scores.
+     */
+    long total;
+
+    /**
+     * How long the simulation took, in nanoseconds.
+     */
+    long nanos;
+
+    /**
+     * Create an empty set of results.
+     *
+     * @param maxScore
+     *   The largest possible score.
+     */
+    Results(int maxScore) {
+      this.histogram = new long[maxScore + 1];
+    } // Results(int)
+
+    /**
+     * Record the score of one game.
+     *
+     * @param score
+     *   The score.
+     */
+    void record(int score) {
+      this.games++;
+      this.total += score;
+      this.histogram[score]++;
+    } // record(int)
+
+    /**
+     * Add another set of results to these.
+     *
+     * @param other
+     *   The other results.
+     *
+     * @return these results.
+     */
+    Results merge(Results other) {
+      this.games += other.games;
+      this.total += other.total;
+      for (int i = 0; i < this.histogram.length; i++) {
+        this.histogram[i] += other.histogram[i];
+      } // for
+      return this;
+    } // merge(Results)
+
+    /**
+     * Determine the number of games played.
+     *
+     * @return the number of games.
+     */
+    public long games() {
+      return this.games;
+    } // games()
+
+    /**
+     * Determine the number of games with a given score.
+     *
+     * @param score
+     *   The score.
+     *
+     * @return the number of games with that score.
+     */
+    public long count(int score) {
+      return score < 0 || score >= this.histogram.length ? 0 : this.histogram[score];
+    } // count(int)
+
+    /**
+     * Determine the mean score.
+     *
+     * @return the mean score.
+     */
+    public double mean() {
+      return this.games == 0 ? 0 : (double) this.total / this.games;
+    } // mean()
+
+    /**
+     * Determine the score below which a fraction of the games fall.
+     *
+     * @param fraction
+     *   The fraction, between 0 and 1.
+     *
+     * @return the smallest score s such that at least that fraction of
+     *   games scored s or less.
+     */
+    public int percentile(double fraction) {
+      long needed = (long) Math.ceil(fraction * this.games);
+      long seen = 0;
+      for (int score = 0; score < this.histogram.length; score++) {
+        seen += this.histogram[score];
+        if (seen >= needed && seen > 0) {
+          return score;
+        } // if
+      } // for
+      return this.histogram.length - 1;
+    } // percentile(double)
+
+    /**
+     * Determine the number of games per second.
+     *
+     * @return the throughput.
+     */
+    public double gamesPerSecond() {
+      return this.nanos == 0 ? 0 : this.games * 1e9 / this.nanos;
+    } // gamesPerSecond()
+
+    /**
+     * Print a summary of the results.
+     *
+     * @param pen
+     *   What we use for printing.
+     */
+    public void print(PrintWriter pen) {
+      pen.printf("Games:       %d%n", this.games);
+      pen.printf("Time:        %.3f s%n", this.nanos / 1e9);
+      pen.printf("Throughput:  %.0f games/s%n", this.gamesPerSecond());
+      pen.printf("Mean score:  %.3f%n", this.mean());
+      pen.printf("Percentiles: min %d, p10 %d, p50 %d, p90 %d, p99 %d, max %d%n",
+          this.percentile(0), this.percentile(0.1), this.percentile(0.5),
+          this.percentile(0.9), this.percentile(0.99), this.percentile(1));
+      pen.println("Histogram:");
+      long most = 1;
+      for (long count : this.histogram) {
+        most = Math.max(most, count);
+      } // for
+      for (int score = this.percentile(0); score <= this.percentile(1); score++) {
+        pen.printf("%5d %10d %s%n", score, this.histogram[score],
+            "#".repeat((int) (this.histogram[score] * 50 / most)));
+      } // for
+    } // print(PrintWriter)
+  } // class Results
+
+  // +-------+-------------------------------------------------------
+  // | Tasks |
+  // +-------+
+
+  /**
+   * Simulates a range of games, splitting the range across workers.
+   */
+  static class SimulationTask extends RecursiveTask<Results> {
+    /**
+     * The version of the serialized form, which tasks never use.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The width of the boards.
+     */
+    final int width;
+
+    /**
+     * The height of the boards.
+     */
+    final int height;
+
+    /**
+     * The first game number (inclusive).
+     */
+    final long first;
+
+    /**
+     * The last game number (exclusive).
+     */
+    final long last;
+
+    /**
+     * How moves are chosen.
+     */
+    final Strategy strategy;
+
+    /**
+     * Each worker's reusable game state.
+     */
+    final ThreadLocal<GameState> states;
+
+    /**
+     * Create a new task.
+     *
+     * @param width1
+     *   The width of the boards.
+     * @param height1
+     *   The height of the boards.
+     * @param first1
+     *   The first game number (inclusive).
+     * @param last1
+     *   The last game number (exclusive).
+     * @param strategy1
+     *   How moves are chosen.
+     * @param states1
+     *   Each worker's reusable game state.
+     */
+    SimulationTask(int width1, int height1, long first1, long last1, Strategy strategy1,
+        ThreadLocal<GameState> states1) {
+      this.width = width1;
+      this.height = height1;
+      this.first = first1;
+      this.last = last1;
+      this.strategy = strategy1;
+      this.states = states1;
+    } // SimulationTask(int, int, long, long, Strategy, ThreadLocal<GameState>)
+
+    /**
+     * Simulate the games.
+     *
+     * @return the results.
+     */
+    protected Results compute() {
+      if (this.last - this.first <= GAMES_PER_TASK) {
+        Results results = new Results(this.width * this.height);
+        GameState state = this.states.get();
+        for (long game = this.first; game < this.last; game++) {
+          results.record(play(state, this.width, this.height, Math.toIntExact(game),
+              this.strategy));
+        } // for
+        return results;
+      } // if
+      long middle = (this.first + this.last) >>> 1;
+      SimulationTask left = new SimulationTask(this.width, this.height, this.first, middle,
+          this.strategy, this.states);
+      SimulationTask right = new SimulationTask(this.width, this.height, middle, this.last,
+          this.strategy, this.states);
+      left.fork();
+      return right.compute().merge(left.join());
+    } // compute()
+  } // class SimulationTask
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Play one game.
+   *
+   * @param state
+   *   A game state to reuse.
+   * @param width
+   *   The width of the board.
+   * @param height
+   *   The height of the board.
+   * @param game
+   *   The game number.
+   * @param strategy
+   *   How moves are chosen.
+   *
+   * @return the final score.
+   */
+  static int play(GameState state, int width, int height, int game, Strategy strategy) {
+    state.reset(width, height, game);
+    Random random = new Random(~game);
+    Strategy player = strategy.start();
+    int step = 0;
+    Move move;
+    while ((move = player.choose(state, step, random)) != null) {
+      state.apply(move);
+      step++;
+    } // while
+    return state.score();
+  } // play(GameState, int, int, int, Strategy)
+
+  /**
+   * Simulate a range of games in parallel.
+   *
+   * @param width
+   *   The width of the boards.
+   * @param height
+   *   The height of the boards.
+   * @param firstGame
+   *   The first game number.
+   * @param games
+   *   The number of games to play.
+   * @param strategy
+   *   How moves are chosen.
+   * @param pool
+   *   The pool in which to run the games.
+   *
+   * @return the results.
+   *
+   * @throws IllegalArgumentException
+   *   If the number of games is negative or some game number does not
+   *   fit in an int, since game numbers seed the boards.
+   */
+  public static Results simulate(int width, int height, long firstGame, long games,
+      Strategy strategy, ForkJoinPool pool) {
+    if (games < 0 || firstGame < Integer.MIN_VALUE
+        || firstGame + games - 1 > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Games " + firstGame + " to "
+          + (firstGame + games - 1) + " are not all valid game numbers");
+    } // if
+    ThreadLocal<GameState> states =
+        ThreadLocal.withInitial(() -> new GameState(width, height, 0));
+    long start = System.nanoTime();
+    Results results = pool.invoke(new SimulationTask(width, height, firstGame,
+        firstGame + games, strategy, states));
+    results.nanos = System.nanoTime() - start;
+    return results;
+  } // simulate(int, int, long, long, Strategy, ForkJoinPool)
+
+  // +------+--------------------------------------------------------
+  // | Main |
+  // +------+
+
+  /**
+   * Run a simulation.
+   *
+   * Command-line arguments:
+   *
+   * * -width W - the width of the boards
+   * * -height H - the height of the boards
+   * * -games N - the number of games to play
+   * * -first N - the first game number
+   * * -threads T - the number of worker threads
+   * * -moves "RR 3,IC 0,..." - play these moves instead of random ones
+   *
+   * @param args
+   *   Command-line arguments.
+   */
+  public static void main(String[] args) {
+    PrintWriter pen = new PrintWriter(System.out, true);
+    int width = SampleGame1P.DEFAULT_WIDTH;
+    int height = SampleGame1P.DEFAULT_HEIGHT;
+    long games = 1_000_000;
+    long first = 0;
+    int threads = Runtime.getRuntime().availableProcessors();
+    Strategy strategy = randomMoves();
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "-width":
+          width = Integer.parseInt(args[i + 1]);
+          break;
+        case "-height":
+          height = Integer.parseInt(args[i + 1]);
+          break;
+        case "-games":
+          games = Long.parseLong(args[i + 1]);
+          break;
+        case "-first":
+          first = Long.parseLong(args[i + 1]);
+          break;
+        case "-threads":
+          threads = Integer.parseInt(args[i + 1]);
+          break;
+        case "-moves":
+          List<Move> moves = new ArrayList<Move>();
+          for (String move : args[i + 1].split(",")) {
+            moves.add(Move.parse(move));
+          } // for
+          strategy = scripted(moves);
+          break;
+        default:
+          pen.println("Unknown option: " + args[i]);
+          break;
+      } // switch
+    } // for
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      Results results = simulate(width, height, first, games, strategy, pool);
+      pen.printf("Board: %d x %d, %d threads%n", width, height, threads);
+      results.print(pen);
+    } finally {
+      pool.shutdown();
+    } // try/finally
+    pen.close();
+  } // main(String[])
+} // class GameSimulator
@@ -0,0 +1,442 @@
+package edu.grinnell.csc207.main;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds the best possible score for a game of SampleGame1P, along with
+ * a sequence of moves that achieves it. The player may stop at any time,
+ * so the value of a position is the larger of its current score and the
+ * value of its best move.
+ *
+ * The search is a depth-first branch and bound with iterative deepening
+ * on the number of moves. It shares a transposition table between
+ * threads, orders moves by a cheap estimate of their gain, splits the
+ * root moves across the pool, and walks the tree with GameState.undo
+ * rather than copying the board at every node.
+ *
+ * @author David William Stroud
+ */
+public class GameSolver {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The largest number of entries we keep in the transposition table.
+   */
+  static final int MAX_TABLE_SIZE = 1 << 22;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The pool in which root moves are searched.
+   */
+  final ForkJoinPool pool;
+
+  /**
+   * The transposition table. Maps a position key (including the depth
+   * remaining) to twice its value, plus one if the value is exact rather
+   * than an upper bound.
+   */
+  final ConcurrentHashMap<Long, Integer> table = new ConcurrentHashMap<Long, Integer>();
+
+  /**
+   * The number of positions searched.
+   */
+  final AtomicLong nodes = new AtomicLong();
+
+  /**
+   * The best score found so far.
+   */
+  int best;
+
+  /**
+   * The moves that lead to the best score found so far.
+   */
+  List<Move> bestMoves;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new solver.
+   *
+   * @param pool1
+   *   The pool in which root moves are searched.
+   */
+  public GameSolver(ForkJoinPool pool1) {
+    this.pool = pool1;
+  } // GameSolver(ForkJoinPool)
+
+  // +-----------+---------------------------------------------------
+  // | Solutions |
+  // +-----------+
+
+  /**
+   * The result of a search.
+   */
+  public static class Solution {
+    /**
+     * The best score.
+     */
+    final int score;
+
+    /**
+     * A sequence of moves that achieves the best score.
+     */
+    final List<Move> moves;
+
+    /**
+     * The number of positions searched.
+     */
+    final long nodes;
+
+    /**
+     * Create a new solution.
+     *
+     * @param score1
+     *   The best score.
+     * @param moves1
+     *   A sequence of moves that achieves it.
+     * @param nodes1
+     *   The number of positions searched.
+     */
+    Solution(int score1, List<Move> moves1, long nodes1) {
+      this.score = score1;
+      this.moves = Collections.unmodifiableList(moves1);
+      this.nodes = nodes1;
+    } // Solution(int, List<Move>, long)
+
+    /**
+     * Get the best score.
+     *
+     * @return the best score.
+     */
+    public int score() {
+      return this.score;
+    } // score()
+
+    /**
+     * Get a sequence of moves that achieves the best score.
+     *
+     * @return the moves.
+     */
+    public List<Move> moves() {
+      return this.moves;
+    } // moves()
+
+    /**
+     * Get the number of positions searched.
+     *
+     * @return the number of positions.
+     */
+    public long nodes() {
+      return this.nodes;
+    } // nodes()
+  } // class Solution
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Find the best score reachable from a position.
+   *
+   * @param start
+   *   The position. Not modified.
+   *
+   * @return the solution.
+   */
+  public Solution solve(GameState start) {
+    return this.solve(start, start.totalRemaining(), null);
+  } // solve(GameState)
+
+  /**
+   * Find the best score reachable from a position using at most a given
+   * number of moves.
+   *
+   * @param start
+   *   The position. Not modified.
+   * @param maxMoves
+   *   The largest number of moves to consider.
+   * @param progress
+   *   Where to report the result of each iteration, or null.
+   *
+   * @return the solution.
+   */
+  public Solution solve(GameState start, int maxMoves, PrintWriter progress) {
+    this.table.clear();
+    this.nodes.set(0);
+    this.best = start.score();
+    this.bestMoves = new ArrayList<Move>();
+
+    for (int limit = 1; limit <= Math.min(maxMoves, start.totalRemaining()); limit++) {
+      int depth = limit;
+      List<Move> roots = orderedMoves(start);
+      // Each root move gets its own copy of the board; below the root,
+      // the search only uses apply and undo.
+      this.pool.submit(() -> roots.parallelStream().forEach((move) -> {
+        GameState state = new GameState(start);
+        Move[] path = new Move[depth];
+        path[0] = move;
+        state.apply(move);
+        this.search(state, path, 1, depth);
+      })).join();
+      if (progress != null) {
+        progress.printf("Up to %d moves: score %d, %d positions%n",
+            limit, this.best, this.nodes.get());
+      } // if
+    } // for
+    return new Solution(this.best, this.bestMoves, this.nodes.get());
+  } // solve(GameState, int, PrintWriter)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Search below a position.
+   *
+   * @param state
+   *   The position, which is restored before returning.
+   * @param path
+   *   The moves that led to the position.
+   * @param depth
+   *   The number of moves that led to the position.
+   * @param limit
+   *   The largest number of moves to make.
+   *
+   * @return the value of the position if it is greater than the best
+   *   score at the time of the call; otherwise, some value no greater
+   *   than that score.
+   */
+  int search(GameState state, Move[] path, int depth, int limit) {
+    this.nodes.incrementAndGet();
+    int alpha = this.best();
+    int value = state.score();
+    if (value > alpha) {
+      this.improve(value, path, depth);
+      alpha = value;
+    } // if
+
+    int left = Math.min(limit - depth, state.totalRemaining());
+    // No move adds O's, so the best we can hope for is to eliminate
+    // every X and keep every O.
+    if (left == 0 || state.initialX + state.countO() <= alpha) {
+      return value;
+    } // if
+
+    long key = state.key() * 31 + left;
+    Integer entry = this.table.get(key);
+    if (entry != null) {
+      int stored = entry >> 1;
+      if ((entry & 1) == 1 || stored <= alpha) {
+        return Math.max(value, stored);
+      } // if
+    } // if
+
+    int startAlpha = alpha;
+    for (Move move : orderedMoves(state)) {
+      path[depth] = move;
+      state.apply(move);
+      value = Math.max(value, this.search(state, path, depth + 1, limit));
+      state.undo();
+    } // for
+
+    if (this.table.size() < MAX_TABLE_SIZE) {
+      boolean exact = value > startAlpha;
+      this.table.put(key, (exact ? value : startAlpha) * 2 + (exact ? 1 : 0));
+    } // if
+    return value;
+  } // search(GameState, Move[], int, int)
+
+  /**
+   * Get the best score found so far.
+   *
+   * @return the best score.
+   */
+  synchronized int best() {
+    return this.best;
+  } // best()
+
+  /**
+   * Record a new best score if it beats the current one.
+   *
+   * @param score
+   *   The score.
+   * @param path
+   *   The moves that achieve the score.
+   * @param depth
+   *   The number of moves.
+   */
+  synchronized void improve(int score, Move[] path, int depth) {
+    if (score > this.best) {
+      this.best = score;
+      this.bestMoves = new ArrayList<Move>(Arrays.asList(path).subList(0, depth));
+    } // if
+  } // improve(int, Move[], int)
+
+  /**
+   * List the legal moves, most promising first. Removing a line is
+   * promising when it holds X's rather than O's and when it brings
+   * together X's rather than O's; inserting a line never gains anything
+   * immediately, so inserts come last.
+   *
+   * @param state
+   *   The position.
+   *
+   * @return the moves.
+   */
+  static List<Move> orderedMoves(GameState state) {
+    List<Move> moves = state.legalMoves();
+    int[] gains = new int[moves.size()];
+    Integer[] order = new Integer[moves.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+      gains[i] = estimateGain(state, moves.get(i));
+    } // for
+    Arrays.sort(order, (a, b) -> Integer.compare(gains[b], gains[a]));
+    List<Move> result = new ArrayList<Move>(order.length);
+    for (Integer i : order) {
+      result.add(moves.get(i));
+    } // for
+    return result;
+  } // orderedMoves(GameState)
+
+  /**
+   * Estimate how much a move improves the score right away.
+   *
+   * @param state
+   *   The position.
+   * @param move
+   *   The move.
+   *
+   * @return the estimated gain.
+   */
+  static int estimateGain(GameState state, Move move) {
+    int width = state.board().width();
+    int height = state.board().height();
+    int index = move.index();
+    int gain = 0;
+    switch (move.kind()) {
+      case RR:
+        for (int col = 0; col < width; col++) {
+          gain += cellGain(state.board().get(index, col));
+          if (index > 0 && index + 1 < height) {
+            gain += pairGain(state.board().get(index - 1, col),
+                state.board().get(index + 1, col));
+          } // if
+        } // for
+        return gain;
+      case RC:
+        for (int row = 0; row < height; row++) {
+          gain += cellGain(state.board().get(row, index));
+          if (index > 0 && index + 1 < width) {
+            gain += pairGain(state.board().get(row, index - 1),
+                state.board().get(row, index + 1));
+          } // if
+        } // for
+        return gain;
+      default:
+        return Integer.MIN_VALUE;
+    } // switch
+  } // estimateGain(GameState, Move)
+
+  /**
+   * Estimate the gain from removing a cell.
+   *
+   * @param val
+   *   The contents of the cell.
+   *
+   * @return the gain.
+   */
+  static int cellGain(String val) {
+    return "X".equals(val) ? 1 : "O".equals(val) ? -1 : 0;
+  } // cellGain(String)
+
+  /**
+   * Estimate the gain from bringing two cells together.
+   *
+   * @param first
+   *   The contents of one cell.
+   * @param second
+   *   The contents of the other cell.
+   *
+   * @return the gain.
+   */
+  static int pairGain(String first, String second) {
+    return first.equals(second) ? 2 * cellGain(first) : 0;
+  } // pairGain(String, String)
+
+  // +------+--------------------------------------------------------
+  // | Main |
+  // +------+
+
+  /**
+   * Solve a game.
+   *
+   * Command-line arguments:
+   *
+   * * -width W - the width of the board
+   * * -height H - the height of the board
+   * * -game N - the game number
+   * * -moves M - the largest number of moves to consider
+   * * -threads T - the number of worker threads
+   *
+   * @param args
+   *   Command-line arguments.
+   */
+  public static void main(String[] args) {
+    PrintWriter pen = new PrintWriter(System.out, true);
+    int width = SampleGame1P.DEFAULT_WIDTH;
+    int height = SampleGame1P.DEFAULT_HEIGHT;
+    int game = 0;
+    int moves = GameState.MOVES_PER_KIND * Move.Kind.values().length;
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "-width":
+          width = Integer.parseInt(args[i + 1]);
+          break;
+        case "-height":
+          height = Integer.parseInt(args[i + 1]);
+          break;
+        case "-game":
+          game = Integer.parseInt(args[i + 1]);
+          break;
+        case "-moves":
+          moves = Integer.parseInt(args[i + 1]);
+          break;
+        case "-threads":
+          threads = Integer.parseInt(args[i + 1]);
+          break;
+        default:
+          pen.println("Unknown option: " + args[i]);
+          break;
+      } // switch
+    } // for
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      GameSolver solver = new GameSolver(pool);
+      Solution solution = solver.solve(new GameState(width, height, game), moves, pen);
+      pen.println("Game number " + game);
+      pen.println("Best score: " + solution.score());
+      pen.println("Moves: " + solution.moves());
+    } finally {
+      pool.shutdown();
+    } // try/finally
+    pen.close();
+  } // main(String[])
+} // class GameSolver
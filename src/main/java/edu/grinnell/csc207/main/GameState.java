@@ -0,0 +1,702 @@
+package edu.grinnell.csc207.main;
+
+import edu.grinnell.csc207.util.ArraySizeException;
+import edu.grinnell.csc207.util.Components;
+import edu.grinnell.csc207.util.IncrementalComponents;
+import edu.grinnell.csc207.util.Matrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The state of a game of SampleGame1P: the board and the number of
+ * moves of each kind that remain. Applies the rules, including the
+ * elimination of neighboring X's and O's after each move.
+ *
+ * The components of the board are maintained incrementally, so a move
+ * only has to look at the rows or columns it brought together.
+ *
+ * @author David William Stroud
+ */
+public class GameState {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * How many times each kind of move may be made.
+   */
+  static final int MOVES_PER_KIND = 3;
+
+  /**
+   * The contents of a blank cell.
+   */
+  static final String BLANK = " ";
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The board itself.
+   */
+  final Matrix<String> raw;
+
+  /**
+   * The board, with its components of X's and O's.
+   */
+  final IncrementalComponents<String> board;
+
+  /**
+   * The number of moves of each kind that remain, indexed by ordinal.
+   */
+  final int[] remaining = new int[Move.Kind.values().length];
+
+  /**
+   * The number of X's on the board at the start of the game.
+   */
+  int initialX;
+
+  /**
+   * The number of X's currently on the board.
+   */
+  int countX;
+
+  /**
+   * The number of O's currently on the board.
+   */
+  int countO;
+
+  /**
+   * Whether we know that no two neighboring cells match. False until
+   * the first elimination, since the initial board may have pairs.
+   */
+  boolean settled;
+
+  /**
+   * Cells waiting to be eliminated, as row-major indices.
+   */
+  int[] pending = new int[16];
+
+  /**
+   * The elimination in which each cell was last collected.
+   */
+  int[] marks = new int[0];
+
+  /**
+   * The number of the current elimination.
+   */
+  int mark;
+
+  /**
+   * What each move changed, so that it can be undone. Frames are reused
+   * once they have been undone.
+   */
+  Frame[] history = new Frame[0];
+
+  /**
+   * The number of moves made (and not undone).
+   */
+  int made;
+
+  // +--------+------------------------------------------------------
+  // | Frames |
+  // +--------+
+
+  /**
+   * Everything needed to undo one move.
+   */
+  static class Frame {
+    /**
+     * The move.
+     */
+    Move move;
+
+    /**
+     * The contents of the row or column removed by the move.
+     */
+    String[] line = new String[0];
+
+    /**
+     * The cells eliminated after the move, as row-major indices.
+     */
+    int[] cells = new int[8];
+
+    /**
+     * The values of the eliminated cells.
+     */
+    String[] values = new String[8];
+
+    /**
+     * The number of eliminated cells.
+     */
+    int eliminated;
+
+    /**
+     * The number of X's before the move.
+     */
+    int countX;
+
+    /**
+     * The number of O's before the move.
+     */
+    int countO;
+
+    /**
+     * Whether the board was settled before the move.
+     */
+    boolean settled;
+
+    /**
+     * Record an eliminated cell.
+     *
+     * @param cell
+     *   The row-major index of the cell.
+     * @param val
+     *   The value it held.
+     */
+    void eliminate(int cell, String val) {
+      if (this.eliminated == this.cells.length) {
+        this.cells = Arrays.copyOf(this.cells, this.eliminated * 2);
+        this.values = Arrays.copyOf(this.values, this.eliminated * 2);
+      } // if
+      this.cells[this.eliminated] = cell;
+      this.values[this.eliminated] = val;
+      this.eliminated++;
+    } // eliminate(int, String)
+  } // class Frame
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Start a game on a board. The board should only be changed through
+   * the new game state from now on.
+   *
+   * @param raw1
+   *   The board.
+   */
+  public GameState(Matrix<String> raw1) {
+    this.raw = raw1;
+    this.board = new IncrementalComponents<String>(raw1, String::equals,
+        (val) -> !BLANK.equals(val), Components.Connectivity.FOUR);
+    this.restart();
+  } // GameState(Matrix<String>)
+
+  /**
+   * Start a game with the board produced by SampleGame1P.setupBoard.
+   *
+   * @param width
+   *   The width of the board.
+   * @param height
+   *   The height of the board.
+   * @param game
+   *   The game number.
+   */
+  public GameState(int width, int height, int game) {
+    this(SampleGame1P.setupBoard(width, height, game));
+  } // GameState(int, int, int)
+
+  /**
+   * Make an independent copy of another game state. The copy cannot
+   * undo the moves made before it was copied.
+   *
+   * @param other
+   *   The game state to copy.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public GameState(GameState other) {
+    this.raw = (Matrix<String>) other.raw.clone();
+    this.board = new IncrementalComponents<String>(this.raw, String::equals,
+        (val) -> !BLANK.equals(val), Components.Connectivity.FOUR);
+    System.arraycopy(other.remaining, 0, this.remaining, 0, this.remaining.length);
+    this.initialX = other.initialX;
+    this.countX = other.countX;
+    this.countO = other.countO;
+    this.settled = other.settled;
+  } // GameState(GameState)
+
+  // +---------+-----------------------------------------------------
+  // | Queries |
+  // +---------+
+
+  /**
+   * Get the board. The board should not be changed directly.
+   *
+   * @return the board.
+   */
+  public Matrix<String> board() {
+    return this.board;
+  } // board()
+
+  /**
+   * Determine how many moves of a kind remain.
+   *
+   * @param kind
+   *   The kind of move.
+   *
+   * @return the number of moves of that kind that remain.
+   */
+  public int remaining(Move.Kind kind) {
+    return this.remaining[kind.ordinal()];
+  } // remaining(Move.Kind)
+
+  /**
+   * Determine how many moves remain in total.
+   *
+   * @return the number of moves that remain.
+   */
+  public int totalRemaining() {
+    int total = 0;
+    for (int count : this.remaining) {
+      total += count;
+    } // for
+    return total;
+  } // totalRemaining()
+
+  /**
+   * Determine the number of rows or columns a move of a given kind may
+   * refer to.
+   *
+   * @param kind
+   *   The kind of move.
+   *
+   * @return the number of valid indices.
+   */
+  public int indexLimit(Move.Kind kind) {
+    switch (kind) {
+      case RR:
+        return this.board.height();
+      case RC:
+        return this.board.width();
+      case IR:
+        return this.board.height() + 1;
+      default:
+        return this.board.width() + 1;
+    } // switch
+  } // indexLimit(Move.Kind)
+
+  /**
+   * Determine whether a move may be made.
+   *
+   * @param move
+   *   The move.
+   *
+   * @return true if the move is allowed; false otherwise.
+   */
+  public boolean isLegal(Move move) {
+    return this.remaining(move.kind()) > 0
+        && move.index() >= 0 && move.index() < this.indexLimit(move.kind());
+  } // isLegal(Move)
+
+  /**
+   * List all of the moves that may be made.
+   *
+   * @return the legal moves.
+   */
+  public List<Move> legalMoves() {
+    List<Move> moves = new ArrayList<Move>();
+    for (Move.Kind kind : Move.Kind.values()) {
+      if (this.remaining(kind) > 0) {
+        for (int i = 0; i < this.indexLimit(kind); i++) {
+          moves.add(new Move(kind, i));
+        } // for
+      } // if
+    } // for
+    return moves;
+  } // legalMoves()
+
+  /**
+   * Determine the number of X's on the board.
+   *
+   * @return the number of X's.
+   */
+  public int countX() {
+    return this.countX;
+  } // countX()
+
+  /**
+   * Determine the number of O's on the board.
+   *
+   * @return the number of O's.
+   */
+  public int countO() {
+    return this.countO;
+  } // countO()
+
+  /**
+   * Determine how many moves have been made and not undone.
+   *
+   * @return the number of moves that can be undone.
+   */
+  public int movesMade() {
+    return this.made;
+  } // movesMade()
+
+  /**
+   * Compute a 64-bit key identifying the board and the remaining moves,
+   * suitable for a transposition table.
+   *
+   * @return the key.
+   */
+  public long key() {
+    long key = this.board.width() * 0x9E3779B97F4A7C15L + this.board.height();
+    for (int count : this.remaining) {
+      key = key * 31 + count;
+    } // for
+    for (int row = 0; row < this.raw.height(); row++) {
+      long bits = 0;
+      for (int col = 0; col < this.raw.width(); col++) {
+        String val = this.raw.get(row, col);
+        bits = bits * 3 + ("X".equals(val) ? 1 : "O".equals(val) ? 2 : 0);
+      } // for col
+      key = (key ^ bits) * 0xFF51AFD7ED558CCDL;
+      key ^= key >>> 33;
+    } // for row
+    return key;
+  } // key()
+
+  /**
+   * Compute the score: the number of X's eliminated plus the number of
+   * O's kept.
+   *
+   * @return the score.
+   */
+  public int score() {
+    return this.initialX - this.countX + this.countO;
+  } // score()
+
+  // +-------+-------------------------------------------------------
+  // | Moves |
+  // +-------+
+
+  /**
+   * Make a move and eliminate any neighboring X's and O's.
+   *
+   * @param move
+   *   The move.
+   *
+   * @throws IllegalArgumentException
+   *   If the move is not legal.
+   */
+  public void apply(Move move) {
+    if (!this.isLegal(move)) {
+      throw new IllegalArgumentException("Illegal move: " + move);
+    } // if
+    Frame frame = this.push(move);
+    this.remaining[move.kind().ordinal()]--;
+    int index = move.index();
+    switch (move.kind()) {
+      case RR:
+        this.saveLine(frame, index, 0, 0, 1, this.board.width());
+        this.uncount(index, 0, index + 1, this.board.width());
+        this.board.deleteRow(index);
+        this.eliminate(index - 1, 0, index + 1, this.board.width());
+        break;
+      case RC:
+        this.saveLine(frame, 0, index, 1, 0, this.board.height());
+        this.uncount(0, index, this.board.height(), index + 1);
+        this.board.deleteCol(index);
+        this.eliminate(0, index - 1, this.board.height(), index + 1);
+        break;
+      case IR:
+        this.board.insertRow(index);
+        this.eliminate(0, 0, 0, 0);
+        break;
+      default:
+        this.board.insertCol(index);
+        this.eliminate(0, 0, 0, 0);
+        break;
+    } // switch
+  } // apply(Move)
+
+  /**
+   * Undo the most recent move, restoring the board from the recorded
+   * changes rather than from a copy.
+   *
+   * @throws IllegalStateException
+   *   If there is no move to undo.
+   */
+  public void undo() {
+    if (this.made == 0) {
+      throw new IllegalStateException("No moves to undo");
+    } // if
+    Frame frame = this.history[--this.made];
+    int width = this.board.width();
+    for (int i = frame.eliminated - 1; i >= 0; i--) {
+      this.board.set(frame.cells[i] / width, frame.cells[i] % width, frame.values[i]);
+    } // for
+    int index = frame.move.index();
+    try {
+      switch (frame.move.kind()) {
+        case RR:
+          this.board.insertRow(index, frame.line);
+          break;
+        case RC:
+          this.board.insertCol(index, frame.line);
+          break;
+        case IR:
+          this.board.deleteRow(index);
+          break;
+        default:
+          this.board.deleteCol(index);
+          break;
+      } // switch
+    } catch (ArraySizeException e) {
+      throw new IllegalStateException("Saved line does not fit the board", e);
+    } // try/catch
+    this.remaining[frame.move.kind().ordinal()]++;
+    this.countX = frame.countX;
+    this.countO = frame.countO;
+    this.settled = frame.settled;
+  } // undo()
+
+  /**
+   * Start the game over with new contents on the same board, reusing
+   * the board's storage where possible.
+   *
+   * @param width
+   *   The width of the board.
+   * @param height
+   *   The height of the board.
+   * @param game
+   *   The game number.
+   */
+  public void reset(int width, int height, int game) {
+    while (this.raw.height() > height) {
+      this.raw.deleteRow(this.raw.height() - 1);
+    } // while
+    while (this.raw.height() < height) {
+      this.raw.insertRow(this.raw.height());
+    } // while
+    while (this.raw.width() > width) {
+      this.raw.deleteCol(this.raw.width() - 1);
+    } // while
+    while (this.raw.width() < width) {
+      this.raw.insertCol(this.raw.width());
+    } // while
+    SampleGame1P.fillBoard(this.raw, game);
+    this.board.recompute();
+    this.restart();
+  } // reset(int, int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Reset the move counts and X/O counts for the current board.
+   */
+  void restart() {
+    for (int i = 0; i < this.remaining.length; i++) {
+      this.remaining[i] = MOVES_PER_KIND;
+    } // for
+    this.countX = 0;
+    this.countO = 0;
+    for (int row = 0; row < this.raw.height(); row++) {
+      for (int col = 0; col < this.raw.width(); col++) {
+        String val = this.raw.get(row, col);
+        if ("X".equals(val)) {
+          this.countX++;
+        } else if ("O".equals(val)) {
+          this.countO++;
+        } // if/else
+      } // for col
+    } // for row
+    this.initialX = this.countX;
+    this.settled = false;
+    this.made = 0;
+  } // restart()
+
+  /**
+   * Start recording a new move.
+   *
+   * @param move
+   *   The move.
+   *
+   * @return the frame in which to record the move's changes.
+   */
+  Frame push(Move move) {
+    if (this.made == this.history.length) {
+      this.history = Arrays.copyOf(this.history, Math.max(4, this.made * 2));
+    } // if
+    Frame frame = this.history[this.made];
+    if (frame == null) {
+      frame = new Frame();
+      this.history[this.made] = frame;
+    } // if
+    this.made++;
+    frame.move = move;
+    frame.eliminated = 0;
+    frame.countX = this.countX;
+    frame.countO = this.countO;
+    frame.settled = this.settled;
+    return frame;
+  } // push(Move)
+
+  /**
+   * Save the contents of a row or column before removing it.
+   *
+   * @param frame
+   *   The frame in which to save the contents.
+   * @param row
+   *   The row of the first cell.
+   * @param col
+   *   The column of the first cell.
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param length
+   *   The number of cells.
+   */
+  void saveLine(Frame frame, int row, int col, int deltaRow, int deltaCol, int length) {
+    if (frame.line.length != length) {
+      frame.line = new String[length];
+    } // if
+    for (int i = 0; i < length; i++) {
+      frame.line[i] = this.raw.get(row + i * deltaRow, col + i * deltaCol);
+    } // for
+  } // saveLine(Frame, int, int, int, int, int)
+
+  /**
+   * Remove the X's and O's in a rectangle from the counts.
+   *
+   * @param startRow
+   *   The top row (inclusive).
+   * @param startCol
+   *   The left column (inclusive).
+   * @param endRow
+   *   The bottom row (exclusive).
+   * @param endCol
+   *   The right column (exclusive).
+   */
+  void uncount(int startRow, int startCol, int endRow, int endCol) {
+    for (int row = startRow; row < endRow; row++) {
+      for (int col = startCol; col < endCol; col++) {
+        String val = this.raw.get(row, col);
+        if ("X".equals(val)) {
+          this.countX--;
+        } else if ("O".equals(val)) {
+          this.countO--;
+        } // if/else
+      } // for col
+    } // for row
+  } // uncount(int, int, int, int)
+
+  /**
+   * Eliminate every group of two or more neighboring X's or O's that
+   * touches a rectangle. Once the board has settled, new groups can only
+   * form where a move brought rows or columns together, so the rest of
+   * the board does not need to be checked.
+   *
+   * @param startRow
+   *   The top row (inclusive).
+   * @param startCol
+   *   The left column (inclusive).
+   * @param endRow
+   *   The bottom row (exclusive).
+   * @param endCol
+   *   The right column (exclusive).
+   */
+  void eliminate(int startRow, int startCol, int endRow, int endCol) {
+    if (!this.settled) {
+      startRow = 0;
+      startCol = 0;
+      endRow = this.board.height();
+      endCol = this.board.width();
+      this.settled = true;
+    } // if
+    int top = Math.max(0, startRow);
+    int left = Math.max(0, startCol);
+    int bottom = Math.min(this.board.height(), endRow);
+    int right = Math.min(this.board.width(), endCol);
+    for (int row = top; row < bottom; row++) {
+      for (int col = left; col < right; col++) {
+        if (this.board.sizeAt(row, col) >= 2) {
+          this.clearComponent(row, col);
+        } // if
+      } // for col
+    } // for row
+  } // eliminate(int, int, int, int)
+
+  /**
+   * Blank out the component containing a cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   */
+  void clearComponent(int row, int col) {
+    int width = this.board.width();
+    int label = this.board.label(row, col);
+    int size = this.board.size(label);
+    if (this.pending.length < size) {
+      this.pending = new int[Math.max(size, this.pending.length * 2)];
+    } // if
+    if (this.marks.length < width * this.board.height()) {
+      this.marks = new int[width * this.board.height()];
+    } // if
+    this.mark++;
+
+    // Collect the cells first, since blanking them changes the labels.
+    int found = 0;
+    this.pending[found++] = row * width + col;
+    this.marks[row * width + col] = this.mark;
+    for (int i = 0; i < found && found < size; i++) {
+      int r = this.pending[i] / width;
+      int c = this.pending[i] % width;
+      found = this.collect(found, label, r - 1, c);
+      found = this.collect(found, label, r + 1, c);
+      found = this.collect(found, label, r, c - 1);
+      found = this.collect(found, label, r, c + 1);
+    } // for
+
+    String val = this.raw.get(row, col);
+    if ("X".equals(val)) {
+      this.countX -= found;
+    } else {
+      this.countO -= found;
+    } // if/else
+    Frame frame = this.made > 0 ? this.history[this.made - 1] : null;
+    for (int i = 0; i < found; i++) {
+      if (frame != null) {
+        frame.eliminate(this.pending[i], val);
+      } // if
+      this.board.set(this.pending[i] / width, this.pending[i] % width, BLANK);
+    } // for
+  } // clearComponent(int, int)
+
+  /**
+   * Add a cell to the pending cells if it has a given label and has not
+   * already been collected in this elimination.
+   *
+   * @param found
+   *   The number of pending cells.
+   * @param label
+   *   The label we are collecting.
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the new number of pending cells.
+   */
+  int collect(int found, int label, int row, int col) {
+    int width = this.board.width();
+    if (row < 0 || row >= this.board.height() || col < 0 || col >= width
+        || this.board.label(row, col) != label) {
+      return found;
+    } // if
+    int index = row * width + col;
+    if (this.marks[index] == this.mark) {
+      return found;
+    } // if
+    this.marks[index] = this.mark;
+    this.pending[found] = index;
+    return found + 1;
+  } // collect(int, int, int, int)
+} // class GameState
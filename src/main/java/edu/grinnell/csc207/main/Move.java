@@ -0,0 +1,148 @@
+package edu.grinnell.csc207.main;
+
+/**
+ * A single move in the sample one-player game, such as "RR 3" (remove
+ * row 3) or "IC 0" (insert a blank column before column 0).
+ *
+ * @author David William Stroud
+ */
+public final class Move {
+  // +-------+-------------------------------------------------------
+  // | Kinds |
+  // +-------+
+
+  /**
+   * The four kinds of move.
+   */
+  public enum Kind {
+    /**
+     * Remove a row.
+     */
+    RR,
+    /**
+     * Remove a column.
+     */
+    RC,
+    /**
+     * Insert a blank row.
+     */
+    IR,
+    /**
+     * Insert a blank column.
+     */
+    IC
+  } // enum Kind
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * What kind of move this is.
+   */
+  private final Kind kind;
+
+  /**
+   * The row or column the move applies to.
+   */
+  private final int index;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new move.
+   *
+   * @param kind1
+   *   What kind of move this is.
+   * @param index1
+   *   The row or column the move applies to.
+   */
+  public Move(Kind kind1, int index1) {
+    this.kind = kind1;
+    this.index = index1;
+  } // Move(Kind, int)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Parse a move written as a command and an index, such as "RR 3".
+   *
+   * @param str
+   *   The move to parse.
+   *
+   * @return the move.
+   *
+   * @throws IllegalArgumentException
+   *   If the string is not a valid move.
+   */
+  public static Move parse(String str) {
+    String trimmed = str.trim();
+    int space = trimmed.indexOf(' ');
+    if (space < 0) {
+      throw new IllegalArgumentException("Move '" + str + "' has no row or column");
+    } // if
+    try {
+      Kind kind = Kind.valueOf(trimmed.substring(0, space).toUpperCase());
+      int index = Integer.parseInt(trimmed.substring(space + 1).trim());
+      return new Move(kind, index);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid move '" + str + "'", e);
+    } // try/catch
+  } // parse(String)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Determine what kind of move this is.
+   *
+   * @return the kind of move.
+   */
+  public Kind kind() {
+    return this.kind;
+  } // kind()
+
+  /**
+   * Determine the row or column the move applies to.
+   *
+   * @return the index.
+   */
+  public int index() {
+    return this.index;
+  } // index()
+
+  /**
+   * Determine if this move is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if other is the same move; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return other instanceof Move move && move.kind == this.kind && move.index == this.index;
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this move.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return this.kind.ordinal() * 31 + this.index;
+  } // hashCode()
+
+  /**
+   * Write the move in the form accepted by parse.
+   *
+   * @return the move as a string.
+   */
+  public String toString() {
+    return this.kind + " " + this.index;
+  } // toString()
+} // class Move
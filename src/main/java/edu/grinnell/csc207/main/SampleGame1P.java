@@ -5,9 +5,14 @@ import edu.grinnell.csc207.util.Matrix;
 import edu.grinnell.csc207.util.MatrixV0;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.LineNumberReader;
 import java.io.PrintWriter;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import java.util.Random;
 
 /**
@@ -31,6 +36,16 @@ public class SampleGame1P {
    */
   static final int DEFAULT_HEIGHT = 12;
 
+  /**
+   * The commands a player may enter.
+   */
+  static final String[] COMMANDS = new String[] {"RR", "RC", "IR", "IC", "DONE"};
+
+  /**
+   * How many scripted commands to read and check at a time.
+   */
+  static final int BATCH_SIZE = 256;
+
   // +----------------+----------------------------------------------
   // | Helper methods |
   // +----------------+
@@ -66,6 +81,10 @@ public class SampleGame1P {
                 * -height H - set up the height of the board
                 * -game N - choose setup number N (useful if you want to
                   play the same setup multiple times).
+                * -script FILE - play the moves in FILE (or - for standard
+                  input), one per line such as "RR 3", without prompting.
+                * -every N - when playing a script, show the board after
+                  every N moves rather than only at the end.
                 """);
   } // printInstructions(PrintWriter)
 
@@ -82,20 +101,164 @@ public class SampleGame1P {
    * @return the newly created board
    */
   static Matrix<String> setupBoard(int width, int height, int game) {
-    Random setup = new Random(game);
     Matrix<String> board = new MatrixV0<String>(width, height, " ");
-    for (int row = 0; row < height; row++) {
-      for (int col = 0; col < width; col++) {
+    fillBoard(board, game);
+    return board;
+  } // setupBoard(int, int, int)
+
+  /**
+   * Fill an existing board with the setup for a game, so that boards
+   * can be reused from game to game. Produces the same contents as
+   * setupBoard for a board of the same size.
+   *
+   * @param board
+   *   The board to fill.
+   * @param game
+   *   The game number.
+   */
+  static void fillBoard(Matrix<String> board, int game) {
+    Random setup = new Random(game);
+    for (int row = 0; row < board.height(); row++) {
+      for (int col = 0; col < board.width(); col++) {
         double rand = setup.nextDouble();
         if (rand < 0.15) {
           board.set(row, col, "X");
         } else if (rand < 0.3) {
           board.set(row, col, "O");
+        } else {
+          board.set(row, col, " ");
         } // if/else
       } // for col
     } // for row
-    return board;
-  } // setupBoard(int, int, int)
+  } // fillBoard(Matrix<String>, int)
+
+  /**
+   * Play a script of moves, such as a recorded session, without
+   * prompting. Commands are read and checked a batch at a time, and the
+   * board is only printed every so often, so long scripts run at the
+   * speed of the game rather than of the terminal. Every move before an
+   * invalid line or an illegal move is made.
+   *
+   * @param state
+   *   The game to play.
+   * @param eyes
+   *   Where to read the moves, one per line such as "RR 3". Blank lines
+   *   and lines starting with # are skipped, and DONE ends the script.
+   * @param pen
+   *   Where to print the board.
+   * @param every
+   *   Print the board after every this many moves, or never if zero.
+   *
+   * @return the number of moves made.
+   *
+   * @throws IOException
+   *   If the script cannot be read or holds an invalid or illegal move.
+   */
+  static int replay(GameState state, BufferedReader eyes, PrintWriter pen, int every)
+      throws IOException {
+    LineNumberReader lines = new LineNumberReader(eyes);
+    String[] batch = new String[BATCH_SIZE];
+    int moves = 0;
+    int count;
+    do {
+      count = IOUtils.readCommands(lines, COMMANDS, batch);
+      for (int i = 0; i < count; i++) {
+        if ("DONE".equals(batch[i])) {
+          return moves;
+        } // if
+        try {
+          state.apply(Move.parse(batch[i]));
+        } catch (IllegalArgumentException e) {
+          throw new IOException("Move " + (moves + 1) + ": " + e.getMessage(), e);
+        } // try/catch
+        moves++;
+        if (every > 0 && moves % every == 0) {
+          pen.println("After move " + moves + " (" + batch[i] + "):");
+          Matrix.print(pen, state.board());
+        } // if
+      } // for
+    } while (count > 0);
+    return moves;
+  } // replay(GameState, BufferedReader, PrintWriter, int)
+
+  /**
+   * Play interactively, prompting for each move and then for the row or
+   * column it applies to, until the player is done or the input ends.
+   *
+   * @param state
+   *   The game to play.
+   * @param eyes
+   *   Where to read the player's input.
+   * @param pen
+   *   Where to print the board and the prompts.
+   *
+   * @return the number of moves made.
+   *
+   * @throws IOException
+   *   If the input cannot be read.
+   */
+  static int play(GameState state, BufferedReader eyes, PrintWriter pen)
+      throws IOException {
+    int moves = 0;
+    while (true) {
+      Matrix.print(pen, state.board());
+      String command = IOUtils.readCommand(pen, eyes, "Action: ", COMMANDS);
+      if (command == null || "DONE".equals(command)) {
+        return moves;
+      } // if
+      Move.Kind kind = Move.Kind.valueOf(command);
+      if (state.remaining(kind) == 0) {
+        pen.println("You have no " + command + " moves left.");
+        continue;
+      } // if
+      boolean rows = kind == Move.Kind.RR || kind == Move.Kind.IR;
+      int index = readIndex(pen, eyes, rows ? "Row: " : "Column: ", state.indexLimit(kind));
+      if (index < 0) {
+        return moves;
+      } // if
+      state.apply(new Move(kind, index));
+      moves++;
+    } // while
+  } // play(GameState, BufferedReader, PrintWriter)
+
+  /**
+   * Repeatedly prompt for a row or column number until a valid one is
+   * entered.
+   *
+   * @param pen
+   *   Where to print the prompt.
+   * @param eyes
+   *   Where to read the number.
+   * @param prompt
+   *   The prompt to print.
+   * @param limit
+   *   One more than the largest valid number.
+   *
+   * @return the number entered, or -1 if the input ends first.
+   *
+   * @throws IOException
+   *   If the input cannot be read.
+   */
+  static int readIndex(PrintWriter pen, BufferedReader eyes, String prompt, int limit)
+      throws IOException {
+    while (true) {
+      pen.print(prompt);
+      pen.flush();
+      String line = eyes.readLine();
+      if (line == null) {
+        return -1;
+      } // if
+      try {
+        int index = Integer.parseInt(line.trim());
+        if (index >= 0 && index < limit) {
+          return index;
+        } // if
+      } catch (NumberFormatException e) {
+        // Fall through to the reminder
+      } // try/catch
+      pen.println("Please enter a number from 0 to " + (limit - 1) + ".");
+    } // while
+  } // readIndex(PrintWriter, BufferedReader, String, int)
 
   // +------+--------------------------------------------------------
   // | Main |
@@ -108,50 +271,78 @@ public class SampleGame1P {
    *   Command-line arguments.
    */
   public static void main(String[] args) {
-    PrintWriter pen = new PrintWriter(System.out, true);
-    BufferedReader eyes = new BufferedReader(new InputStreamReader(System.in));
-
-    int rrRemaining = 3;
-    int rcRemaining = 3;
-    int icRemaining = 3;
-    int irRemaining = 3;
     int width = DEFAULT_WIDTH;
     int height = DEFAULT_HEIGHT;
     Random rand = new Random();
     int game = rand.nextInt();
+    String script = null;
+    int every = 0;
 
     // Process the command line
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "-width":
+          width = Integer.parseInt(args[i + 1]);
+          break;
+        case "-height":
+          height = Integer.parseInt(args[i + 1]);
+          break;
+        case "-game":
+          game = Integer.parseInt(args[i + 1]);
+          break;
+        case "-script":
+          script = args[i + 1];
+          break;
+        case "-every":
+          every = Integer.parseInt(args[i + 1]);
+          break;
+        default:
+          System.err.println("Unknown option: " + args[i]);
+          break;
+      } // switch
+    } // for
+
+    BufferedReader eyes = new BufferedReader(new InputStreamReader(System.in));
+    if (script != null) {
+      // Buffer the output, since only the board is printed.
+      PrintWriter pen = new PrintWriter(System.out);
+      try (BufferedReader lines = "-".equals(script)
+          ? eyes
+          : Files.newBufferedReader(Path.of(script))) {
+        GameState state = new GameState(width, height, game);
+        int moves = replay(state, lines, pen, every);
+        pen.println("Game number " + game + ", after " + moves + " moves:");
+        Matrix.print(pen, state.board());
+        pen.println("Score: " + state.score());
+      } catch (IOException e) {
+        pen.println("Cannot play " + script + ": " + e.getMessage());
+      } // try/catch
+      pen.close();
+      return;
+    } // if
 
+    PrintWriter pen = new PrintWriter(System.out, true);
     printInstructions(pen);
 
     // Set up the board
-    Matrix<String> board = setupBoard(width, height, game);
+    GameState state = new GameState(width, height, game);
 
     // Run the game
     pen.println("Game number " + game);
     pen.println();
-
-    String[] commands = new String[] {"RR", "RC", "IR", "IC", "DONE"};
-    String command = "";
-    do {
-      Matrix.print(pen, board);
-      command = IOUtils.readCommand(pen, eyes, "Action: ", commands);
-      switch (command) {
-        case "RR":
-          break;
-        case "RC":
-          break;
-        case "IR":
-          break;
-        case "IC":
-          break;
-        default:
-          pen.printf("Unexpected command: '%s'. Please try again.\n", command);
-          break;
-      } // switch
-    } while (!"DONE".equals(command));
+    int moves;
+    try {
+      moves = play(state, eyes, pen);
+    } catch (IOException e) {
+      pen.println("Cannot read your moves: " + e.getMessage());
+      moves = state.movesMade();
+    } // try/catch
 
     // Print final results
+    pen.println();
+    pen.println("After " + moves + " moves:");
+    Matrix.print(pen, state.board());
+    pen.println("Score: " + state.score());
 
     // And we're done
     pen.close();
@@ -0,0 +1,495 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * A matrix that stores its cells row by row or column by column,
+ * whichever suits the recent mix of calls.
+ *
+ * Inserting, deleting, or copying a whole row is cheap in row-major
+ * order and a whole column in column-major order. The matrix keeps a
+ * balance of the two kinds of call, clamped so that it forgets old
+ * phases of work. When the balance reaches SWITCH_AFTER in favour of
+ * the other layout, the cells are transposed in place and the matrix
+ * carries on in the other layout. Needing the full swing from one end
+ * of the balance to the other keeps a mixed workload from switching
+ * back and forth.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class AdaptiveMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * How far the balance of column calls over row calls must lean before
+   * the layout switches. A switch costs about as much as one insertion,
+   * so this is a handful of calls.
+   */
+  static final int SWITCH_AFTER = 16;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The cells: this matrix in row-major order, or its transpose in
+   * column-major order.
+   */
+  final MatrixV0<T> data;
+
+  /**
+   * The cells as this matrix: data itself, or a ColumnMajorMatrix
+   * presenting it.
+   */
+  Matrix<T> view;
+
+  /**
+   * Whether data holds the transpose.
+   */
+  boolean columnMajor;
+
+  /**
+   * The number of recent column calls less the number of recent row
+   * calls, between -SWITCH_AFTER and SWITCH_AFTER.
+   */
+  int balance;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default. It starts in row-major order.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public AdaptiveMatrix(int width, int height, T def) {
+    this(new MatrixV0<T>(width, height, def), false);
+  } // AdaptiveMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public AdaptiveMatrix(int width, int height) {
+    this(width, height, null);
+  } // AdaptiveMatrix(int, int)
+
+  /**
+   * Build a matrix around existing cells.
+   *
+   * @param data1
+   *   The cells.
+   * @param columnMajor1
+   *   Whether data1 holds the transpose of the new matrix.
+   */
+  AdaptiveMatrix(MatrixV0<T> data1, boolean columnMajor1) {
+    this.data = data1;
+    this.columnMajor = columnMajor1;
+    this.view = columnMajor1 ? new ColumnMajorMatrix<T>(data1) : data1;
+  } // AdaptiveMatrix(MatrixV0<T>, boolean)
+
+  // +--------+------------------------------------------------------
+  // | Layout |
+  // +--------+
+
+  /**
+   * Determine how the cells are currently stored.
+   *
+   * @return true if column by column; false if row by row.
+   */
+  public boolean isColumnMajor() {
+    return this.columnMajor;
+  } // isColumnMajor()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    return this.view.get(row, col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    this.view.set(row, col, val);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.view.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.view.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    this.rowCall();
+    this.view.insertRow(row);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    this.rowCall();
+    this.view.insertRow(row, vals);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    this.colCall();
+    this.view.insertCol(col);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    this.colCall();
+    this.view.insertCol(col, vals);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    this.rowCall();
+    this.view.deleteRow(row);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    this.colCall();
+    this.view.deleteCol(col);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    this.view.fillRegion(startRow, startCol, endRow, endCol, val);
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    this.view.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix, in the same layout.
+   *
+   * @return a copy of the matrix.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public Matrix<T> clone() {
+    return new AdaptiveMatrix<T>((MatrixV0<T>) this.data.clone(), this.columnMajor);
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return other instanceof Matrix && Matrix.sameContents(this, (Matrix<?>) other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return Matrix.hashCodeOf(this);
+  } // hashCode()
+
+  // +-------------+-------------------------------------------------
+  // | Bulk copies |
+  // +-------------+
+
+  /**
+   * Copy a row of the matrix into an array.
+   *
+   * @param row
+   *   The number of the row.
+   * @param dst
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @return dst.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If dst is the wrong length.
+   */
+  public T[] getRow(int row, T[] dst) throws ArraySizeException {
+    this.rowCall();
+    return this.view.getRow(row, dst);
+  } // getRow(int, T[])
+
+  /**
+   * Copy an array into a row of the matrix.
+   *
+   * @param row
+   *   The number of the row.
+   * @param src
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If src is the wrong length.
+   */
+  public void setRow(int row, T[] src) throws ArraySizeException {
+    this.rowCall();
+    this.view.setRow(row, src);
+  } // setRow(int, T[])
+
+  /**
+   * Copy a column of the matrix into an array.
+   *
+   * @param col
+   *   The number of the column.
+   * @param dst
+   *   The array, whose length must be the height of the matrix.
+   *
+   * @return dst.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is not in the matrix.
+   * @throws ArraySizeException
+   *   If dst is the wrong length.
+   */
+  public T[] getCol(int col, T[] dst) throws ArraySizeException {
+    this.colCall();
+    return this.view.getCol(col, dst);
+  } // getCol(int, T[])
+
+  /**
+   * Copy an array into a column of the matrix.
+   *
+   * @param col
+   *   The number of the column.
+   * @param src
+   *   The array, whose length must be the height of the matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is not in the matrix.
+   * @throws ArraySizeException
+   *   If src is the wrong length.
+   */
+  public void setCol(int col, T[] src) throws ArraySizeException {
+    this.colCall();
+    this.view.setCol(col, src);
+  } // setCol(int, T[])
+
+  /**
+   * Make a transposed copy of the matrix.
+   *
+   * @return the transpose.
+   */
+  public Matrix<T> transpose() {
+    return this.view.transpose();
+  } // transpose()
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains, which are mostly those of
+   * the MatrixV0 that holds the cells.
+   *
+   * @return the estimate.
+   */
+  public long estimatedBytes() {
+    return MemoryBudget.OBJECT + this.data.estimatedBytes();
+  } // estimatedBytes()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Note a call that works on whole rows, switching to row-major order
+   * if such calls have come to dominate.
+   */
+  void rowCall() {
+    if (this.balance > -SWITCH_AFTER) {
+      this.balance--;
+    } // if
+    if (this.columnMajor && this.balance == -SWITCH_AFTER) {
+      this.relayout();
+    } // if
+  } // rowCall()
+
+  /**
+   * Note a call that works on whole columns, switching to column-major
+   * order if such calls have come to dominate.
+   */
+  void colCall() {
+    if (this.balance < SWITCH_AFTER) {
+      this.balance++;
+    } // if
+    if (!this.columnMajor && this.balance == SWITCH_AFTER) {
+      this.relayout();
+    } // if
+  } // colCall()
+
+  /**
+   * Switch to the other layout, transposing the cells in place.
+   */
+  void relayout() {
+    this.data.transposeInPlace();
+    this.columnMajor = !this.columnMajor;
+    this.view = this.columnMajor ? new ColumnMajorMatrix<T>(this.data) : this.data;
+    this.data.columnMajor = this.columnMajor;
+  } // relayout()
+} // class AdaptiveMatrix
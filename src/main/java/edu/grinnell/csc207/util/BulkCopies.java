@@ -0,0 +1,161 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * Checks shared by the row, column and region copies of the matrix
+ * implementations. Each copy checks its arguments once, here, and then
+ * moves whole runs of cells without checking them again.
+ *
+ * @author David William Stroud
+ */
+class BulkCopies {
+  // +---------+-----------------------------------------------------
+  // | Regions |
+  // +---------+
+
+  /**
+   * Where a region copy reads from and writes to, and how big it is.
+   */
+  static class Region {
+    /**
+     * The top row of the region in the source.
+     */
+    final int srcRow;
+
+    /**
+     * The left column of the region in the source.
+     */
+    final int srcCol;
+
+    /**
+     * The top row of the region in the destination.
+     */
+    final int dstRow;
+
+    /**
+     * The left column of the region in the destination.
+     */
+    final int dstCol;
+
+    /**
+     * The number of rows to copy.
+     */
+    final int height;
+
+    /**
+     * The number of columns to copy.
+     */
+    final int width;
+
+    /**
+     * Describe a region copy.
+     *
+     * @param srcRow1
+     *   The top row of the region in the source.
+     * @param srcCol1
+     *   The left column of the region in the source.
+     * @param dstRow1
+     *   The top row of the region in the destination.
+     * @param dstCol1
+     *   The left column of the region in the destination.
+     * @param height1
+     *   The number of rows to copy.
+     * @param width1
+     *   The number of columns to copy.
+     */
+    Region(int srcRow1, int srcCol1, int dstRow1, int dstCol1, int height1, int width1) {
+      this.srcRow = srcRow1;
+      this.srcCol = srcCol1;
+      this.dstRow = dstRow1;
+      this.dstCol = dstCol1;
+      this.height = height1;
+      this.width = width1;
+    } // Region(int, int, int, int, int, int)
+  } // class Region
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prevent instantiation; all the methods are static.
+   */
+  private BulkCopies() {
+  } // BulkCopies()
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Check that an array is the length of a row or column.
+   *
+   * @param length
+   *   The length of the array.
+   * @param expected
+   *   The width or height of the matrix.
+   * @param dimension
+   *   Either "width" or "height".
+   *
+   * @throws ArraySizeException
+   *   If the lengths differ.
+   */
+  static void checkLength(int length, int expected, String dimension)
+      throws ArraySizeException {
+    if (length != expected) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + length
+                      + " not appropriate for Matrix of "
+                      + dimension
+                      + " "
+                      + expected
+      );
+    } // if
+  } // checkLength(int, int, String)
+
+  /**
+   * Check that the source and destination of a region copy lie within
+   * their matrices.
+   *
+   * @param src
+   *   The matrix to copy from.
+   * @param dst
+   *   The matrix to copy to.
+   * @param region
+   *   Where the copy reads and writes.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either region does not lie within its matrix.
+   */
+  static void checkRegions(Matrix<?> src, Matrix<?> dst, Region region) {
+    GetSetCursor.checkRegion(src.width(), src.height(), region.srcRow, region.srcCol,
+        region.srcRow + region.height, region.srcCol + region.width);
+    GetSetCursor.checkRegion(dst.width(), dst.height(), region.dstRow, region.dstCol,
+        region.dstRow + region.height, region.dstCol + region.width);
+  } // checkRegions(Matrix<?>, Matrix<?>, Region)
+
+  /**
+   * Copy a region between two row-major arrays with one arraycopy per
+   * row. Rows are copied bottom-up when the destination lies below the
+   * source in the same array, so overlapping regions work.
+   *
+   * @param src
+   *   The array to copy from.
+   * @param srcWidth
+   *   The width of the matrix in src.
+   * @param dst
+   *   The array to copy to.
+   * @param dstWidth
+   *   The width of the matrix in dst.
+   * @param region
+   *   Where the copy reads and writes.
+   */
+  static void copyRows(Object src, int srcWidth, Object dst, int dstWidth, Region region) {
+    boolean up = src == dst && region.dstRow > region.srcRow;
+    for (int i = 0; i < region.height; i++) {
+      int row = up ? region.height - 1 - i : i;
+      System.arraycopy(src, (region.srcRow + row) * srcWidth + region.srcCol, dst,
+          (region.dstRow + row) * dstWidth + region.dstCol, region.width);
+    } // for
+  } // copyRows(Object, int, Object, int, Region)
+} // class BulkCopies
@@ -0,0 +1,124 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Helpers shared by the bulk operations (map, replaceAll, zipWith,
+ * reduce and count) of the matrix implementations. The implementations
+ * that work on their own storage go parallel once a matrix has
+ * PARALLEL_CELLS cells; below that, the cost of forking outweighs the
+ * work. The defaults in Matrix stay sequential, since they go through
+ * get and set.
+ *
+ * @author David William Stroud
+ */
+class BulkOperations {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of cells at which bulk operations run in parallel.
+   */
+  static final int PARALLEL_CELLS = 1 << 14;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prevent instantiation; all the methods are static.
+   */
+  private BulkOperations() {
+  } // BulkOperations()
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Determine whether an operation on a number of cells should run in
+   * parallel.
+   *
+   * @param cells
+   *   The number of cells.
+   *
+   * @return true if it should; false otherwise.
+   */
+  static boolean parallel(long cells) {
+    return cells >= PARALLEL_CELLS;
+  } // parallel(long)
+
+  /**
+   * Get a stream of row numbers, parallel if the matrix is large.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the row numbers.
+   */
+  static IntStream rows(int width, int height) {
+    IntStream rows = IntStream.range(0, height);
+    return parallel((long) width * height) ? rows.parallel() : rows;
+  } // rows(int, int)
+
+  /**
+   * Set every element of an array from its index, in parallel if the
+   * array is large.
+   *
+   * @param <T>
+   *   The type of the elements.
+   * @param array
+   *   The array.
+   * @param generator
+   *   Computes the element at each index.
+   */
+  static <T> void setAll(T[] array, IntFunction<? extends T> generator) {
+    if (parallel(array.length)) {
+      Arrays.parallelSetAll(array, generator);
+    } else {
+      Arrays.setAll(array, generator);
+    } // if/else
+  } // setAll(T[], IntFunction<? extends T>)
+
+  /**
+   * Set every element of an array of doubles from its index, in
+   * parallel if the array is large.
+   *
+   * @param array
+   *   The array.
+   * @param generator
+   *   Computes the element at each index.
+   */
+  static void setAll(double[] array, IntToDoubleFunction generator) {
+    if (parallel(array.length)) {
+      Arrays.parallelSetAll(array, generator);
+    } else {
+      Arrays.setAll(array, generator);
+    } // if/else
+  } // setAll(double[], IntToDoubleFunction)
+
+  /**
+   * Check that two matrices have the same width and height.
+   *
+   * @param left
+   *   One matrix.
+   * @param right
+   *   The other matrix.
+   *
+   * @throws ArraySizeException
+   *   If they do not.
+   */
+  static void checkSameShape(Matrix<?> left, Matrix<?> right) throws ArraySizeException {
+    if (left.width() != right.width() || left.height() != right.height()) {
+      throw new ArraySizeException("Cannot combine a " + left.width() + "x"
+          + left.height() + " matrix with a " + right.width() + "x" + right.height()
+          + " matrix");
+    } // if
+  } // checkSameShape(Matrix<?>, Matrix<?>)
+} // class BulkOperations
@@ -0,0 +1,67 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * Turns the text of a cell into a value. The text is passed as a range
+ * of a buffer that GridReader reuses for every row, so a parser that
+ * does not need a String (such as integers()) allocates nothing but its
+ * result.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of the values.
+ */
+public interface CellParser<T> {
+  /**
+   * Parse the text of a cell.
+   *
+   * @param chars
+   *   The buffer that holds the text.
+   * @param start
+   *   The index of the first character (inclusive).
+   * @param end
+   *   The index of the last character (exclusive).
+   *
+   * @return the value.
+   *
+   * @throws IllegalArgumentException
+   *   If the text is not a valid value.
+   */
+  public T parse(CharSequence chars, int start, int end);
+
+  /**
+   * Get a parser that keeps the text as it is.
+   *
+   * @return the parser.
+   */
+  static CellParser<String> strings() {
+    return (chars, start, end) -> chars.subSequence(start, end).toString();
+  } // strings()
+
+  /**
+   * Get a parser for decimal integers, which parses in place.
+   *
+   * @return the parser.
+   */
+  static CellParser<Integer> integers() {
+    return (chars, start, end) -> Integer.parseInt(chars, start, end, 10);
+  } // integers()
+
+  /**
+   * Get a parser for decimal long integers, which parses in place.
+   *
+   * @return the parser.
+   */
+  static CellParser<Long> longs() {
+    return (chars, start, end) -> Long.parseLong(chars, start, end, 10);
+  } // longs()
+
+  /**
+   * Get a parser for doubles.
+   *
+   * @return the parser.
+   */
+  static CellParser<Double> doubles() {
+    return (chars, start, end) -> Double.parseDouble(chars.subSequence(start, end).toString());
+  } // doubles()
+} // interface CellParser<T>
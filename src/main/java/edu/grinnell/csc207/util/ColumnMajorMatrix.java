@@ -0,0 +1,664 @@
+package edu.grinnell.csc207.util;
+
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A two-dimensional matrix stored column by column, so that each column
+ * is contiguous. Inserting or deleting a column moves two runs of
+ * cells, as inserting or deleting a row does in MatrixV0, while
+ * inserting or deleting a row touches every column.
+ *
+ * The cells are kept in a MatrixV0 that holds the transpose of this
+ * matrix, whose row-major layout is exactly our column-major one.
+ * Indices are checked here before they are swapped, so errors name our
+ * rows and columns, and the MatrixV0 reports its edits as ours.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class ColumnMajorMatrix<T> implements Matrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The transpose of this matrix: row i of transposed is column i of
+   * this matrix.
+   */
+  final MatrixV0<T> transposed;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public ColumnMajorMatrix(int width, int height, T def) {
+    this(new MatrixV0<T>(height, width, def));
+  } // ColumnMajorMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public ColumnMajorMatrix(int width, int height) {
+    this(width, height, null);
+  } // ColumnMajorMatrix(int, int)
+
+  /**
+   * Present the transpose of a row-major matrix, sharing its cells. The
+   * matrix reports its edits as edits of the new one from now on.
+   *
+   * @param transposed1
+   *   The transpose of the new matrix.
+   */
+  ColumnMajorMatrix(MatrixV0<T> transposed1) {
+    this.transposed = transposed1;
+    transposed1.columnMajor = true;
+  } // ColumnMajorMatrix(MatrixV0<T>)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    this.checkCell(row, col);
+    return this.transposed.get(col, row);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    this.checkCell(row, col);
+    this.transposed.set(col, row, val);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.transposed.width();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.transposed.height();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    this.checkRow(row, this.height() + 1);
+    this.transposed.insertCol(row);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (vals.length != this.width()) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + vals.length
+                      + " not appropriate for Matrix of width "
+                      + this.width()
+      );
+    } // if
+    this.checkRow(row, this.height() + 1);
+    this.transposed.insertCol(row, vals);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    this.checkCol(col, this.width() + 1);
+    this.transposed.insertRow(col);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (vals.length != this.height()) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + vals.length
+                      + " is not appropriate for Matrix of height "
+                      + this.height()
+      );
+    } // if
+    this.checkCol(col, this.width() + 1);
+    this.transposed.insertRow(col, vals);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    this.checkRow(row, this.height());
+    this.transposed.deleteCol(row);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    this.checkCol(col, this.width());
+    this.transposed.deleteRow(col);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow >= this.height() || startRow < 0) {
+      throw new IndexOutOfBoundsException(
+              "Start row index "
+              + startRow
+              + " is not appropriate for matrix of height "
+              + this.height()
+      );
+    } // if
+    if (startCol >= this.width() || startCol < 0) {
+      throw new IndexOutOfBoundsException(
+              "Start column index "
+              + startCol
+              + " is not appropriate for matrix of width "
+              + this.width()
+      );
+    } // if
+    if (endRow > this.height() || endRow < 0) {
+      throw new IndexOutOfBoundsException(
+              "End row index "
+              + endRow
+              + " is not appropriate for matrix of height "
+              + this.height()
+      );
+    } // if
+    if (endCol > this.width() || endCol < 0) {
+      throw new IndexOutOfBoundsException(
+              "End column index "
+              + endCol
+              + " is not appropriate for matrix of width "
+              + this.width()
+      );
+    } // if
+    this.transposed.fillRegion(startCol, startRow, endCol, endRow, val);
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    if (endRow > this.height() || endRow < -1) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + endRow
+                      + " is not appropriate for matrix of height "
+                      + this.height()
+      );
+    } // if
+    if (endCol > this.width() || endCol < -1) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + endCol
+                      + " is not appropriate for matrix of width "
+                      + this.width()
+      );
+    } // if
+    if (deltaCol * (endCol - startCol) < 0) {
+      throw new IndexOutOfBoundsException(
+              "End column "
+              + endCol
+              + " is before start column "
+              + startCol
+      );
+    } // if
+    if (deltaRow * (endRow - startRow) < 0) {
+      throw new IndexOutOfBoundsException(
+              "End row "
+              + endRow
+              + " is before start row "
+              + startRow
+      );
+    } // if
+
+    for (int i = startRow, j = startCol;
+         VersionedMatrix.isWithin(startRow, endRow, i)
+             && VersionedMatrix.isWithin(startCol, endCol, j);
+         i += deltaRow, j += deltaCol) {
+      this.set(i, j, val);
+    } // for
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix, also stored column by column.
+   *
+   * @return a copy of the matrix.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public Matrix<T> clone() {
+    return new ColumnMajorMatrix<T>((MatrixV0<T>) this.transposed.clone());
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return other instanceof Matrix && Matrix.sameContents(this, (Matrix<?>) other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return Matrix.hashCodeOf(this);
+  } // hashCode()
+
+  // +-------------+-------------------------------------------------
+  // | Bulk copies |
+  // +-------------+
+
+  /**
+   * Copy a row of the matrix into an array.
+   *
+   * @param row
+   *   The number of the row.
+   * @param dst
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @return dst.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If dst is the wrong length.
+   */
+  public T[] getRow(int row, T[] dst) throws ArraySizeException {
+    BulkCopies.checkLength(dst.length, this.width(), "width");
+    this.checkRow(row, this.height());
+    return this.transposed.getCol(row, dst);
+  } // getRow(int, T[])
+
+  /**
+   * Copy an array into a row of the matrix.
+   *
+   * @param row
+   *   The number of the row.
+   * @param src
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If src is the wrong length.
+   */
+  public void setRow(int row, T[] src) throws ArraySizeException {
+    BulkCopies.checkLength(src.length, this.width(), "width");
+    this.checkRow(row, this.height());
+    this.transposed.setCol(row, src);
+  } // setRow(int, T[])
+
+  /**
+   * Copy a column of the matrix into an array, which is a single
+   * arraycopy.
+   *
+   * @param col
+   *   The number of the column.
+   * @param dst
+   *   The array, whose length must be the height of the matrix.
+   *
+   * @return dst.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is not in the matrix.
+   * @throws ArraySizeException
+   *   If dst is the wrong length.
+   */
+  public T[] getCol(int col, T[] dst) throws ArraySizeException {
+    BulkCopies.checkLength(dst.length, this.height(), "height");
+    this.checkCol(col, this.width());
+    return this.transposed.getRow(col, dst);
+  } // getCol(int, T[])
+
+  /**
+   * Copy an array into a column of the matrix, which is a single
+   * arraycopy.
+   *
+   * @param col
+   *   The number of the column.
+   * @param src
+   *   The array, whose length must be the height of the matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is not in the matrix.
+   * @throws ArraySizeException
+   *   If src is the wrong length.
+   */
+  public void setCol(int col, T[] src) throws ArraySizeException {
+    BulkCopies.checkLength(src.length, this.height(), "height");
+    this.checkCol(col, this.width());
+    this.transposed.setRow(col, src);
+  } // setCol(int, T[])
+
+  /**
+   * Make a transposed copy of the matrix, which is a row-major copy of
+   * our cells.
+   *
+   * @return the transpose.
+   */
+  public Matrix<T> transpose() {
+    return this.transposed.clone();
+  } // transpose()
+
+  // +-----------------+---------------------------------------------
+  // | Bulk operations |
+  // +-----------------+
+
+  /**
+   * Make a new matrix by applying a function to every value, working
+   * on the columns in parallel when the matrix is large.
+   *
+   * @param <R>
+   *   The type of the new values.
+   * @param fn
+   *   The function.
+   *
+   * @return the results, with null as the default value.
+   */
+  public <R> Matrix<R> map(Function<? super T, ? extends R> fn) {
+    return new ColumnMajorMatrix<R>(this.transposed.map(fn));
+  } // map(Function<? super T, ? extends R>)
+
+  /**
+   * Make a new matrix by combining corresponding values of this matrix
+   * and another. When the other is also a ColumnMajorMatrix, both sets
+   * of columns are read directly, in parallel when they are large.
+   *
+   * @param <U>
+   *   The type of the values in the other matrix.
+   * @param <R>
+   *   The type of the new values.
+   * @param other
+   *   The other matrix, which must have the same width and height.
+   * @param fn
+   *   How to combine a value of this matrix with a value of the other.
+   *
+   * @return the results, with null as the default value.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public <U, R> Matrix<R> zipWith(Matrix<U> other,
+      BiFunction<? super T, ? super U, ? extends R> fn) throws ArraySizeException {
+    if (!(other instanceof ColumnMajorMatrix)) {
+      return Matrix.super.zipWith(other, fn);
+    } // if
+    BulkOperations.checkSameShape(this, other);
+    return new ColumnMajorMatrix<R>((MatrixV0<R>) this.transposed.zipWith(
+        ((ColumnMajorMatrix<U>) other).transposed, fn));
+  } // zipWith(Matrix<U>, BiFunction<? super T, ? super U, ? extends R>)
+
+  /**
+   * Combine all the values, in row-major order, with an associative
+   * operation. Each row is reduced by stepping through the columns,
+   * in parallel when the matrix is large, and then the rows are
+   * combined.
+   *
+   * @param identity
+   *   The identity of the operation.
+   * @param op
+   *   The operation.
+   *
+   * @return the combined value.
+   */
+  public T reduce(T identity, BinaryOperator<T> op) {
+    T[] values = this.transposed.backing;
+    int height = this.height();
+    int cells = height * this.width();
+    return BulkOperations.rows(this.width(), height).mapToObj((row) -> {
+      T result = identity;
+      for (int i = row; i < cells; i += height) {
+        result = op.apply(result, values[i]);
+      } // for
+      return result;
+    }).reduce(identity, op);
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the values that satisfy a predicate, working on the columns
+   * in parallel when the matrix is large.
+   *
+   * @param pred
+   *   The predicate.
+   *
+   * @return the number of values for which it holds.
+   */
+  public long count(Predicate<? super T> pred) {
+    return this.transposed.count(pred);
+  } // count(Predicate<? super T>)
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains, which are mostly those of
+   * the transposed MatrixV0.
+   *
+   * @return the estimate.
+   */
+  public long estimatedBytes() {
+    return MemoryBudget.OBJECT + this.transposed.estimatedBytes();
+  } // estimatedBytes()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Check that a cell is within the matrix.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column are invalid.
+   */
+  void checkCell(int row, int col) {
+    this.checkRow(row, this.height());
+    this.checkCol(col, this.width());
+  } // checkCell(int, int)
+
+  /**
+   * Check that a row index is in range.
+   *
+   * @param row
+   *   The row.
+   * @param limit
+   *   One more than the largest valid row: the height, or the height
+   *   plus one when inserting.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or not less than the limit.
+   */
+  void checkRow(int row, int limit) {
+    if (row < 0 || row >= limit) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height()
+      );
+    } // if
+  } // checkRow(int, int)
+
+  /**
+   * Check that a column index is in range.
+   *
+   * @param col
+   *   The column.
+   * @param limit
+   *   One more than the largest valid column: the width, or the width
+   *   plus one when inserting.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or not less than the limit.
+   */
+  void checkCol(int col, int limit) {
+    if (col < 0 || col >= limit) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not valid for Matrix of width "
+                      + this.width()
+      );
+    } // if
+  } // checkCol(int, int)
+} // class ColumnMajorMatrix
@@ -0,0 +1,255 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * The result of labelling the connected components of a matrix. Every
+ * cell gets a label; cells that belong to no component get label 0 and
+ * the components are numbered from 1 to count() in the order in which
+ * their first cell appears (row by row, left to right).
+ *
+ * @author David William Stroud
+ */
+public class ComponentLabels {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The label of each cell, in row-major order.
+   */
+  final int[] labels;
+  /**
+   * The width of the labelled matrix.
+   */
+  final int width;
+  /**
+   * The height of the labelled matrix.
+   */
+  final int height;
+  /**
+   * The number of components.
+   */
+  final int count;
+  /**
+   * The number of cells in each component, indexed by label.
+   */
+  final int[] sizes;
+  /**
+   * The top row of each component (inclusive), indexed by label.
+   */
+  final int[] tops;
+  /**
+   * The leftmost column of each component (inclusive), indexed by label.
+   */
+  final int[] lefts;
+  /**
+   * The bottom row of each component (exclusive), indexed by label.
+   */
+  final int[] bottoms;
+  /**
+   * The rightmost column of each component (exclusive), indexed by label.
+   */
+  final int[] rights;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Summarize a finished labelling.
+   *
+   * @param labels1
+   *   The label of each cell, in row-major order.
+   * @param width1
+   *   The width of the labelled matrix.
+   * @param height1
+   *   The height of the labelled matrix.
+   * @param count1
+   *   The number of components.
+   */
+  ComponentLabels(int[] labels1, int width1, int height1, int count1) {
+    this.labels = labels1;
+    this.width = width1;
+    this.height = height1;
+    this.count = count1;
+    this.sizes = new int[count1 + 1];
+    this.tops = new int[count1 + 1];
+    this.lefts = new int[count1 + 1];
+    this.bottoms = new int[count1 + 1];
+    this.rights = new int[count1 + 1];
+    Arrays.fill(this.tops, Integer.MAX_VALUE);
+    Arrays.fill(this.lefts, Integer.MAX_VALUE);
+
+    for (int row = 0, i = 0; row < height1; row++) {
+      for (int col = 0; col < width1; col++, i++) {
+        int label = labels1[i];
+        if (label != 0) {
+          this.sizes[label]++;
+          this.tops[label] = Math.min(this.tops[label], row);
+          this.lefts[label] = Math.min(this.lefts[label], col);
+          this.bottoms[label] = Math.max(this.bottoms[label], row + 1);
+          this.rights[label] = Math.max(this.rights[label], col + 1);
+        } // if
+      } // for col
+    } // for row
+  } // ComponentLabels(int[], int, int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Determine the number of components.
+   *
+   * @return the number of components.
+   */
+  public int count() {
+    return this.count;
+  } // count()
+
+  /**
+   * Get the label of a cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the label of the cell, or 0 if it is in no component.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  public int label(int row, int col) {
+    if (row < 0 || row >= this.height || col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException(
+              "Cell ("
+              + row
+              + ", "
+              + col
+              + ") is not valid for a labelling of size "
+              + this.height
+              + "x"
+              + this.width
+      );
+    } // if
+    return this.labels[row * this.width + col];
+  } // label(int, int)
+
+  /**
+   * Get the number of cells in a component.
+   *
+   * @param label
+   *   The label of the component.
+   *
+   * @return the number of cells in that component.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the label is not between 1 and count().
+   */
+  public int size(int label) {
+    return this.sizes[this.checkLabel(label)];
+  } // size(int)
+
+  /**
+   * Get the top row of a component's bounding box (inclusive).
+   *
+   * @param label
+   *   The label of the component.
+   *
+   * @return the top row.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the label is not between 1 and count().
+   */
+  public int top(int label) {
+    return this.tops[this.checkLabel(label)];
+  } // top(int)
+
+  /**
+   * Get the left column of a component's bounding box (inclusive).
+   *
+   * @param label
+   *   The label of the component.
+   *
+   * @return the left column.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the label is not between 1 and count().
+   */
+  public int left(int label) {
+    return this.lefts[this.checkLabel(label)];
+  } // left(int)
+
+  /**
+   * Get the bottom row of a component's bounding box (exclusive).
+   *
+   * @param label
+   *   The label of the component.
+   *
+   * @return the bottom row.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the label is not between 1 and count().
+   */
+  public int bottom(int label) {
+    return this.bottoms[this.checkLabel(label)];
+  } // bottom(int)
+
+  /**
+   * Get the right column of a component's bounding box (exclusive).
+   *
+   * @param label
+   *   The label of the component.
+   *
+   * @return the right column.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the label is not between 1 and count().
+   */
+  public int right(int label) {
+    return this.rights[this.checkLabel(label)];
+  } // right(int)
+
+  /**
+   * Build a matrix of the labels, with the same shape as the original.
+   *
+   * @return the label matrix.
+   */
+  public Matrix<Integer> labelMatrix() {
+    Matrix<Integer> result = new MatrixV0<Integer>(this.width, this.height, 0);
+    for (int row = 0, i = 0; row < this.height; row++) {
+      for (int col = 0; col < this.width; col++, i++) {
+        if (this.labels[i] != 0) {
+          result.set(row, col, this.labels[i]);
+        } // if
+      } // for col
+    } // for row
+    return result;
+  } // labelMatrix()
+
+  /**
+   * Check that a label names a component.
+   *
+   * @param label
+   *   The label to check.
+   *
+   * @return the label.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the label is not between 1 and count().
+   */
+  int checkLabel(int label) {
+    if (label < 1 || label > this.count) {
+      throw new IndexOutOfBoundsException(
+              "Label "
+              + label
+              + " is not valid for a labelling with "
+              + this.count
+              + " components"
+      );
+    } // if
+    return label;
+  } // checkLabel(int)
+} // class ComponentLabels
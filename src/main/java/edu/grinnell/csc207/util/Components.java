@@ -0,0 +1,347 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Connected-component labelling for matrices.
+ *
+ * Two neighboring cells are in the same component when both are
+ * included and the equivalence predicate holds for their values. The
+ * labelling uses the classic two-pass union-find scheme: one raster scan
+ * unions each cell with its already-visited neighbors, and a second scan
+ * resolves every cell to a compact label. The union-find roots are always
+ * the first cell of their component, so the result is deterministic.
+ *
+ * @author David William Stroud
+ */
+public class Components {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The smallest number of rows we give to each strip when labelling
+   * in parallel.
+   */
+  static final int MIN_STRIP_HEIGHT = 64;
+
+  /**
+   * Which neighbors count as adjacent.
+   */
+  public enum Connectivity {
+    /**
+     * Only the cells above, below, left, and right are neighbors.
+     */
+    FOUR,
+    /**
+     * Diagonal cells are neighbors, too.
+     */
+    EIGHT
+  } // enum Connectivity
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prevent instantiation; all the methods are static.
+   */
+  private Components() {
+  } // Components()
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Label the components of a matrix in which neighboring cells with
+   * equal values are connected.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param matrix
+   *   The matrix to label.
+   * @param connectivity
+   *   Which neighbors count as adjacent.
+   *
+   * @return the labelling.
+   */
+  public static <T> ComponentLabels label(Matrix<T> matrix,
+      Connectivity connectivity) {
+    return label(matrix, Objects::equals, (val) -> true, connectivity);
+  } // label(Matrix<T>, Connectivity)
+
+  /**
+   * Label the components of a matrix.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param matrix
+   *   The matrix to label.
+   * @param same
+   *   Determines whether two neighboring values are connected.
+   * @param include
+   *   Determines whether a cell belongs to any component at all. Cells
+   *   that are not included get label 0.
+   * @param connectivity
+   *   Which neighbors count as adjacent.
+   *
+   * @return the labelling.
+   */
+  public static <T> ComponentLabels label(Matrix<T> matrix,
+      BiPredicate<? super T, ? super T> same, Predicate<? super T> include,
+      Connectivity connectivity) {
+    int width = matrix.width();
+    int height = matrix.height();
+    int[] parent = new int[width * height];
+    scanStrip(matrix, same, include, connectivity, parent, 0, height);
+    return resolve(parent, width, height);
+  } // label(Matrix<T>, BiPredicate, Predicate, Connectivity)
+
+  /**
+   * Label the components of a matrix using all available cores. The rows
+   * are split into strips that are labelled independently, after which
+   * the components that cross strip boundaries are merged. Produces the
+   * same labelling as label().
+   *
+   * The matrix must not be modified while it is being labelled, and its
+   * get method must be safe to call from several threads at once.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param matrix
+   *   The matrix to label.
+   * @param same
+   *   Determines whether two neighboring values are connected.
+   * @param include
+   *   Determines whether a cell belongs to any component at all.
+   * @param connectivity
+   *   Which neighbors count as adjacent.
+   *
+   * @return the labelling.
+   */
+  public static <T> ComponentLabels labelParallel(Matrix<T> matrix,
+      BiPredicate<? super T, ? super T> same, Predicate<? super T> include,
+      Connectivity connectivity) {
+    int width = matrix.width();
+    int height = matrix.height();
+    int strips = Math.min(Runtime.getRuntime().availableProcessors() * 4,
+        height / MIN_STRIP_HEIGHT);
+    if (strips <= 1) {
+      return label(matrix, same, include, connectivity);
+    } // if
+
+    int[] parent = new int[width * height];
+    // Each strip only writes the parent entries of its own cells.
+    IntStream.range(0, strips).parallel().forEach((strip) ->
+        scanStrip(matrix, same, include, connectivity, parent,
+            stripStart(strip, strips, height), stripStart(strip + 1, strips, height)));
+
+    // Stitch the strips together along their top rows.
+    for (int strip = 1; strip < strips; strip++) {
+      int row = stripStart(strip, strips, height);
+      for (int col = 0; col < width; col++) {
+        int index = row * width + col;
+        if (parent[index] >= 0) {
+          T val = matrix.get(row, col);
+          for (int dc = -1; dc <= 1; dc++) {
+            if ((dc == 0 || connectivity == Connectivity.EIGHT)
+                && col + dc >= 0 && col + dc < width) {
+              unionIfSame(matrix, same, parent, index, val, row - 1, col + dc);
+            } // if
+          } // for
+        } // if
+      } // for col
+    } // for strip
+
+    return resolve(parent, width, height);
+  } // labelParallel(Matrix<T>, BiPredicate, Predicate, Connectivity)
+
+  // +------------+--------------------------------------------------
+  // | Union-find |
+  // +------------+
+
+  /**
+   * Find the root of a cell, halving the path along the way.
+   *
+   * @param parent
+   *   The union-find forest.
+   * @param index
+   *   The cell.
+   *
+   * @return the index of the root.
+   */
+  static int find(int[] parent, int index) {
+    while (parent[index] != index) {
+      parent[index] = parent[parent[index]];
+      index = parent[index];
+    } // while
+    return index;
+  } // find(int[], int)
+
+  /**
+   * Join the trees of two cells. The smaller index always becomes the
+   * root, so each root is the first cell of its component.
+   *
+   * @param parent
+   *   The union-find forest.
+   * @param first
+   *   One cell.
+   * @param second
+   *   The other cell.
+   */
+  static void union(int[] parent, int first, int second) {
+    int firstRoot = find(parent, first);
+    int secondRoot = find(parent, second);
+    if (firstRoot < secondRoot) {
+      parent[secondRoot] = firstRoot;
+    } else if (secondRoot < firstRoot) {
+      parent[firstRoot] = secondRoot;
+    } // if/else
+  } // union(int[], int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Run the first pass over a range of rows, ignoring anything above
+   * the first row of the range. Excluded cells get a parent of -1.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param matrix
+   *   The matrix to label.
+   * @param same
+   *   Determines whether two neighboring values are connected.
+   * @param include
+   *   Determines whether a cell belongs to any component at all.
+   * @param connectivity
+   *   Which neighbors count as adjacent.
+   * @param parent
+   *   The union-find forest.
+   * @param startRow
+   *   The first row to scan (inclusive).
+   * @param endRow
+   *   The last row to scan (exclusive).
+   */
+  @SuppressWarnings({ "unchecked" })
+  static <T> void scanStrip(Matrix<T> matrix, BiPredicate<? super T, ? super T> same,
+      Predicate<? super T> include, Connectivity connectivity, int[] parent,
+      int startRow, int endRow) {
+    int width = matrix.width();
+    boolean diagonal = connectivity == Connectivity.EIGHT;
+    // Keep the previous row's values so we read each cell only once.
+    Object[] previous = new Object[width];
+    Object[] current = new Object[width];
+    for (int row = startRow; row < endRow; row++) {
+      boolean hasAbove = row > startRow;
+      for (int col = 0; col < width; col++) {
+        int index = row * width + col;
+        T val = matrix.get(row, col);
+        current[col] = val;
+        if (!include.test(val)) {
+          parent[index] = -1;
+          continue;
+        } // if
+        parent[index] = index;
+        if (col > 0 && parent[index - 1] >= 0 && same.test(val, (T) current[col - 1])) {
+          union(parent, index, index - 1);
+        } // if
+        if (hasAbove) {
+          for (int dc = diagonal ? -1 : 0; dc <= (diagonal ? 1 : 0); dc++) {
+            int above = index - width + dc;
+            if (col + dc >= 0 && col + dc < width && parent[above] >= 0
+                && same.test(val, (T) previous[col + dc])) {
+              union(parent, index, above);
+            } // if
+          } // for
+        } // if
+      } // for col
+      Object[] tmp = previous;
+      previous = current;
+      current = tmp;
+    } // for row
+  } // scanStrip(Matrix<T>, BiPredicate, Predicate, Connectivity, int[], int, int)
+
+  /**
+   * Union a cell with another cell if the other cell is included and has
+   * an equivalent value.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param matrix
+   *   The matrix being labelled.
+   * @param same
+   *   Determines whether two neighboring values are connected.
+   * @param parent
+   *   The union-find forest.
+   * @param index
+   *   The index of the cell.
+   * @param val
+   *   The value of the cell.
+   * @param row
+   *   The row of the other cell.
+   * @param col
+   *   The column of the other cell.
+   */
+  static <T> void unionIfSame(Matrix<T> matrix, BiPredicate<? super T, ? super T> same,
+      int[] parent, int index, T val, int row, int col) {
+    int other = row * matrix.width() + col;
+    if (parent[other] >= 0 && same.test(val, matrix.get(row, col))) {
+      union(parent, index, other);
+    } // if
+  } // unionIfSame(Matrix<T>, BiPredicate, int[], int, T, int, int)
+
+  /**
+   * Run the second pass, replacing each parent with a compact label.
+   *
+   * @param parent
+   *   The union-find forest. Overwritten with the labels.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the labelling.
+   */
+  static ComponentLabels resolve(int[] parent, int width, int height) {
+    int count = 0;
+    // Parents always precede their children, so by the time we reach a
+    // non-root cell, its parent already holds the final label. We store
+    // labels as negative numbers to distinguish them from parents.
+    for (int i = 0; i < parent.length; i++) {
+      int p = parent[i];
+      if (p < 0) {
+        parent[i] = 0;
+      } else if (p == i) {
+        parent[i] = -(++count);
+      } else {
+        parent[i] = parent[p];
+      } // if/else
+    } // for
+    for (int i = 0; i < parent.length; i++) {
+      parent[i] = -parent[i];
+    } // for
+    return new ComponentLabels(parent, width, height, count);
+  } // resolve(int[], int, int)
+
+  /**
+   * Determine the first row of a strip.
+   *
+   * @param strip
+   *   The number of the strip.
+   * @param strips
+   *   The total number of strips.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the first row of the strip.
+   */
+  static int stripStart(int strip, int strips, int height) {
+    return (int) ((long) strip * height / strips);
+  } // stripStart(int, int, int)
+} // class Components
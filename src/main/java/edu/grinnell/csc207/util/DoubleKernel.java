@@ -0,0 +1,120 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * The inner loops of DoubleMatrix arithmetic. There are two versions:
+ * a plain one that the JIT can auto-vectorize, and one that uses the
+ * incubating Vector API. The second is only compiled with the vector
+ * profile (mvn -Pvector) and only used when the JVM is started with
+ * --add-modules jdk.incubator.vector. KERNEL is the best one available.
+ *
+ * @author David William Stroud
+ */
+interface DoubleKernel {
+  /**
+   * The kernel to use.
+   */
+  DoubleKernel KERNEL = DoubleKernel.best();
+
+  /**
+   * Get the name of this kernel.
+   *
+   * @return the name.
+   */
+  String name();
+
+  /**
+   * Add a multiple of one run of values to another: y += a * x.
+   *
+   * @param a
+   *   The multiplier.
+   * @param x
+   *   The array that holds the values to add.
+   * @param xOff
+   *   The index of the first value to add.
+   * @param y
+   *   The array that holds the values to add to.
+   * @param yOff
+   *   The index of the first value to add to.
+   * @param len
+   *   The number of values.
+   */
+  void axpy(double a, double[] x, int xOff, double[] y, int yOff, int len);
+
+  /**
+   * Add two runs of values: out = x + y.
+   *
+   * @param x
+   *   The first values.
+   * @param y
+   *   The second values.
+   * @param out
+   *   Where to store the sums. May be x or y.
+   * @param len
+   *   The number of values.
+   */
+  void add(double[] x, double[] y, double[] out, int len);
+
+  /**
+   * Multiply a run of values: out = a * x.
+   *
+   * @param a
+   *   The multiplier.
+   * @param x
+   *   The values.
+   * @param out
+   *   Where to store the products. May be x.
+   * @param len
+   *   The number of values.
+   */
+  void scale(double a, double[] x, double[] out, int len);
+
+  /**
+   * Get the plain kernel.
+   *
+   * @return the kernel.
+   */
+  static DoubleKernel scalar() {
+    return new DoubleKernel() {
+      public String name() {
+        return "scalar";
+      } // name()
+
+      public void axpy(double a, double[] x, int xOff, double[] y, int yOff, int len) {
+        for (int i = 0; i < len; i++) {
+          y[yOff + i] += a * x[xOff + i];
+        } // for
+      } // axpy(double, double[], int, double[], int, int)
+
+      public void add(double[] x, double[] y, double[] out, int len) {
+        for (int i = 0; i < len; i++) {
+          out[i] = x[i] + y[i];
+        } // for
+      } // add(double[], double[], double[], int)
+
+      public void scale(double a, double[] x, double[] out, int len) {
+        for (int i = 0; i < len; i++) {
+          out[i] = a * x[i];
+        } // for
+      } // scale(double, double[], double[], int)
+    };
+  } // scalar()
+
+  /**
+   * Find the best kernel. The Vector API kernel is loaded by name so
+   * that this class still loads when the incubator module, or the
+   * kernel itself, is absent.
+   *
+   * @return the kernel.
+   */
+  static DoubleKernel best() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      try {
+        return (DoubleKernel) Class.forName("edu.grinnell.csc207.util.VectorDoubleKernel")
+            .getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException | LinkageError e) {
+        // Fall back to the plain kernel.
+      } // try/catch
+    } // if
+    return scalar();
+  } // best()
+} // interface DoubleKernel
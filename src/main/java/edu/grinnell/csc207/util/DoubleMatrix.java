@@ -0,0 +1,1108 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.DoubleStream;
+
+/**
+ * A matrix of doubles, stored unboxed in a row-major array, with
+ * arithmetic: multiply, add, scale and transpose.
+ *
+ * Multiplication is cache-blocked: each row panel of the result is
+ * built from blocks of the right-hand matrix small enough to stay in
+ * cache, and row panels are computed in parallel on the common
+ * fork-join pool. The innermost loop (adding a multiple of one row to
+ * another) is a DoubleKernel, which uses the Vector API when it was
+ * built with the vector profile and the JVM has the jdk.incubator.vector
+ * module, and a plain loop otherwise.
+ *
+ * Because the values are unboxed, null cannot be stored.
+ *
+ * @author David William Stroud
+ */
+public class DoubleMatrix implements Matrix<Double> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of rows of the result that one task computes.
+   */
+  static final int PANEL_ROWS = 32;
+
+  /**
+   * The number of rows of the right-hand matrix in a cache block.
+   */
+  static final int BLOCK_K = 128;
+
+  /**
+   * The number of columns of the right-hand matrix in a cache block.
+   */
+  static final int BLOCK_J = 256;
+
+  /**
+   * The number of multiply-adds below which multiplication is not
+   * parallelized.
+   */
+  static final long PARALLEL_WORK = 1 << 18;
+
+  /**
+   * The side of the square tiles used when transposing.
+   */
+  static final int TILE = 32;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The values, in row-major order.
+   */
+  double[] backing;
+
+  /**
+   * The width of the matrix.
+   */
+  int width;
+
+  /**
+   * The height of the matrix.
+   */
+  int height;
+
+  /**
+   * The default value passed to the constructor.
+   */
+  double defaultValue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the matrix would be too large for an array or for the global
+   *   MemoryBudget.
+   */
+  public DoubleMatrix(int width1, int height1, double def) {
+    if (width1 < 0) {
+      throw new NegativeArraySizeException("Negative width given to DoubleMatrix constructor");
+    } // if
+    if (height1 < 0) {
+      throw new NegativeArraySizeException("Negative height given to DoubleMatrix constructor");
+    } // if
+    MemoryBudget.checkCells(width1, height1, Double.BYTES);
+    this.width = width1;
+    this.height = height1;
+    this.defaultValue = def;
+    this.backing = new double[width1 * height1];
+    if (def != 0) {
+      Arrays.fill(this.backing, def);
+    } // if
+  } // DoubleMatrix(int, int, double)
+
+  /**
+   * Create a new matrix of the specified width and height filled with
+   * zeros.
+   *
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the matrix would be too large for an array or for the global
+   *   MemoryBudget.
+   */
+  public DoubleMatrix(int width1, int height1) {
+    this(width1, height1, 0);
+  } // DoubleMatrix(int, int)
+
+  /**
+   * Create a matrix from an array of rows.
+   *
+   * @param rows
+   *   The rows, which must all have the same length.
+   *
+   * @return the new matrix.
+   *
+   * @throws ArraySizeException
+   *   If the rows have different lengths.
+   */
+  public static DoubleMatrix of(double[][] rows) throws ArraySizeException {
+    int width = rows.length == 0 ? 0 : rows[0].length;
+    DoubleMatrix result = new DoubleMatrix(width, rows.length);
+    for (int row = 0; row < rows.length; row++) {
+      if (rows[row].length != width) {
+        throw new ArraySizeException("Row " + row + " has length " + rows[row].length
+            + ", not " + width);
+      } // if
+      System.arraycopy(rows[row], 0, result.backing, row * width, width);
+    } // for
+    return result;
+  } // of(double[][])
+
+  /**
+   * Copy the matrix into an array of rows.
+   *
+   * @return the rows.
+   */
+  public double[][] toArray() {
+    double[][] result = new double[this.height][];
+    for (int row = 0; row < this.height; row++) {
+      result[row] = Arrays.copyOfRange(this.backing, row * this.width,
+          (row + 1) * this.width);
+    } // for
+    return result;
+  } // toArray()
+
+  // +------------+--------------------------------------------------
+  // | Arithmetic |
+  // +------------+
+
+  /**
+   * Get the value at the given row and column without boxing it.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public double getDouble(int row, int col) {
+    this.checkCell(row, col);
+    return this.backing[row * this.width + col];
+  } // getDouble(int, int)
+
+  /**
+   * Set the value at the given row and column without boxing it.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void setDouble(int row, int col, double val) {
+    this.checkCell(row, col);
+    this.backing[row * this.width + col] = val;
+  } // setDouble(int, int, double)
+
+  /**
+   * Multiply this matrix by another.
+   *
+   * @param other
+   *   The matrix to multiply by; its height must equal this width.
+   *
+   * @return the product, whose width is the other's width and whose
+   *   height is this height.
+   *
+   * @throws ArraySizeException
+   *   If the matrices cannot be multiplied.
+   */
+  public DoubleMatrix multiply(DoubleMatrix other) throws ArraySizeException {
+    return this.multiply(other, DoubleKernel.KERNEL);
+  } // multiply(DoubleMatrix)
+
+  /**
+   * Multiply this matrix by another using a particular kernel.
+   *
+   * @param other
+   *   The matrix to multiply by; its height must equal this width.
+   * @param kernel
+   *   The kernel for the inner loop.
+   *
+   * @return the product.
+   *
+   * @throws ArraySizeException
+   *   If the matrices cannot be multiplied.
+   */
+  DoubleMatrix multiply(DoubleMatrix other, DoubleKernel kernel)
+      throws ArraySizeException {
+    if (this.width != other.height) {
+      throw new ArraySizeException("Cannot multiply a matrix of width " + this.width
+          + " by a matrix of height " + other.height);
+    } // if
+    DoubleMatrix result = new DoubleMatrix(other.width, this.height);
+    long work = (long) this.height * this.width * other.width;
+    if (work < PARALLEL_WORK) {
+      multiplyPanel(kernel, this, other, result, 0, this.height);
+    } else {
+      new MultiplyTask(kernel, this, other, result, 0, this.height).invoke();
+    } // if/else
+    return result;
+  } // multiply(DoubleMatrix, DoubleKernel)
+
+  /**
+   * Add another matrix to this one.
+   *
+   * @param other
+   *   The matrix to add, which must have the same dimensions.
+   *
+   * @return the sum.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different dimensions.
+   */
+  public DoubleMatrix add(DoubleMatrix other) throws ArraySizeException {
+    if (this.width != other.width || this.height != other.height) {
+      throw new ArraySizeException("Cannot add a " + other.width + "x" + other.height
+          + " matrix to a " + this.width + "x" + this.height + " matrix");
+    } // if
+    DoubleMatrix result = new DoubleMatrix(this.width, this.height);
+    DoubleKernel.KERNEL.add(this.backing, other.backing, result.backing, this.backing.length);
+    return result;
+  } // add(DoubleMatrix)
+
+  /**
+   * Multiply every value in this matrix by a number.
+   *
+   * @param factor
+   *   The number.
+   *
+   * @return the scaled matrix.
+   */
+  public DoubleMatrix scale(double factor) {
+    DoubleMatrix result = new DoubleMatrix(this.width, this.height);
+    DoubleKernel.KERNEL.scale(factor, this.backing, result.backing, this.backing.length);
+    return result;
+  } // scale(double)
+
+  /**
+   * Swap the rows and columns of this matrix. Works in square tiles so
+   * that both the reads and the writes stay in cache.
+   *
+   * @return the transposed matrix.
+   */
+  public DoubleMatrix transpose() {
+    DoubleMatrix result = new DoubleMatrix(this.height, this.width);
+    for (int rr = 0; rr < this.height; rr += TILE) {
+      int rowEnd = Math.min(rr + TILE, this.height);
+      for (int cc = 0; cc < this.width; cc += TILE) {
+        int colEnd = Math.min(cc + TILE, this.width);
+        for (int row = rr; row < rowEnd; row++) {
+          for (int col = cc; col < colEnd; col++) {
+            result.backing[col * this.height + row] = this.backing[row * this.width + col];
+          } // for col
+        } // for row
+      } // for cc
+    } // for rr
+    return result;
+  } // transpose()
+
+  /**
+   * Get a stream of the values in the matrix, in row-major order,
+   * without boxing them. Call parallel() on it to use every core.
+   *
+   * @return the stream.
+   */
+  public DoubleStream doubles() {
+    return Arrays.stream(this.backing);
+  } // doubles()
+
+  /**
+   * Make a new matrix by applying a function to every value, without
+   * boxing, in parallel when the matrix is large.
+   *
+   * @param fn
+   *   The function.
+   *
+   * @return the results, with the same default value.
+   */
+  public DoubleMatrix mapDoubles(DoubleUnaryOperator fn) {
+    DoubleMatrix result = new DoubleMatrix(this.width, this.height);
+    result.defaultValue = this.defaultValue;
+    double[] values = this.backing;
+    BulkOperations.setAll(result.backing, (i) -> fn.applyAsDouble(values[i]));
+    return result;
+  } // mapDoubles(DoubleUnaryOperator)
+
+  /**
+   * Replace every value with the result of applying a function to it,
+   * without boxing, in parallel when the matrix is large.
+   *
+   * @param fn
+   *   The function.
+   */
+  public void replaceAllDoubles(DoubleUnaryOperator fn) {
+    double[] values = this.backing;
+    BulkOperations.setAll(values, (i) -> fn.applyAsDouble(values[i]));
+  } // replaceAllDoubles(DoubleUnaryOperator)
+
+  /**
+   * Make a new matrix by combining corresponding values of this matrix
+   * and another, without boxing.
+   *
+   * @param other
+   *   The other matrix, which must have the same width and height.
+   * @param fn
+   *   How to combine a value of this matrix with a value of the other.
+   *
+   * @return the results, with this default value.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public DoubleMatrix zipWithDoubles(DoubleMatrix other, DoubleBinaryOperator fn)
+      throws ArraySizeException {
+    BulkOperations.checkSameShape(this, other);
+    DoubleMatrix result = new DoubleMatrix(this.width, this.height);
+    result.defaultValue = this.defaultValue;
+    double[] values = this.backing;
+    double[] others = other.backing;
+    BulkOperations.setAll(result.backing, (i) -> fn.applyAsDouble(values[i], others[i]));
+    return result;
+  } // zipWithDoubles(DoubleMatrix, DoubleBinaryOperator)
+
+  /**
+   * Copy a rectangular region of another matrix into this one. When the
+   * other matrix is also a DoubleMatrix, each row is a single
+   * arraycopy.
+   *
+   * @param src
+   *   The matrix to copy from.
+   * @param srcRow
+   *   The top row of the region in src.
+   * @param srcCol
+   *   The left column of the region in src.
+   * @param dstRow
+   *   The top row of the region in this matrix.
+   * @param dstCol
+   *   The left column of the region in this matrix.
+   * @param height1
+   *   The number of rows to copy.
+   * @param width1
+   *   The number of columns to copy.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either region does not lie within its matrix.
+   * @throws NullPointerException
+   *   If src is not a DoubleMatrix and the region holds null.
+   */
+  public void copyRegion(Matrix<? extends Double> src, int srcRow, int srcCol, int dstRow,
+      int dstCol, int height1, int width1) {
+    if (!(src instanceof DoubleMatrix)) {
+      Matrix.super.copyRegion(src, srcRow, srcCol, dstRow, dstCol, height1, width1);
+      return;
+    } // if
+    BulkCopies.Region region = new BulkCopies.Region(srcRow, srcCol, dstRow, dstCol,
+        height1, width1);
+    BulkCopies.checkRegions(src, this, region);
+    DoubleMatrix other = (DoubleMatrix) src;
+    BulkCopies.copyRows(other.backing, other.width, this.backing, this.width, region);
+  } // copyRegion(Matrix<? extends Double>, int, int, int, int, int, int)
+
+  /**
+   * Replace every value with the result of applying a function to it,
+   * in parallel when the matrix is large.
+   *
+   * @param fn
+   *   The function, which must not return null.
+   *
+   * @throws NullPointerException
+   *   If the function returns null.
+   */
+  public void replaceAll(UnaryOperator<Double> fn) {
+    this.replaceAllDoubles((val) -> fn.apply(val));
+  } // replaceAll(UnaryOperator<Double>)
+
+  /**
+   * Make a new matrix by applying a function to every value, working
+   * directly on the backing array and in parallel when it is large.
+   *
+   * @param <R>
+   *   The type of the new values.
+   * @param fn
+   *   The function.
+   *
+   * @return the results, with null as the default value.
+   */
+  public <R> Matrix<R> map(Function<? super Double, ? extends R> fn) {
+    MatrixV0<R> result = new MatrixV0<R>(this.width, this.height);
+    double[] values = this.backing;
+    BulkOperations.setAll(result.backing, (i) -> fn.apply(values[i]));
+    return result;
+  } // map(Function<? super Double, ? extends R>)
+
+  /**
+   * Combine all the values with an associative operation, splitting the
+   * backing array in parallel when it is large.
+   *
+   * @param identity
+   *   The identity of the operation.
+   * @param op
+   *   The operation.
+   *
+   * @return the combined value.
+   */
+  public Double reduce(Double identity, BinaryOperator<Double> op) {
+    return this.bulkValues().boxed().reduce(identity, op);
+  } // reduce(Double, BinaryOperator<Double>)
+
+  /**
+   * Count the values that satisfy a predicate, splitting the backing
+   * array in parallel when it is large.
+   *
+   * @param pred
+   *   The predicate.
+   *
+   * @return the number of values for which it holds.
+   */
+  public long count(Predicate<? super Double> pred) {
+    return this.bulkValues().filter((val) -> pred.test(val)).count();
+  } // count(Predicate<? super Double>)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public Double get(int row, int col) {
+    return this.getDouble(row, col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws NullPointerException
+   *   If the value is null.
+   */
+  public void set(int row, int col, Double val) {
+    this.setDouble(row, col, val);
+  } // set(int, int, Double)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    double[] vals = new double[this.width];
+    Arrays.fill(vals, this.defaultValue);
+    this.insertRowUnchecked(row, vals);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   * @throws NullPointerException
+   *   If any of the values is null.
+   */
+  public void insertRow(int row, Double[] vals) throws ArraySizeException {
+    if (vals.length != this.width) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + vals.length
+                      + " not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+    this.insertRowUnchecked(row, unbox(vals));
+  } // insertRow(int, Double[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    double[] vals = new double[this.height];
+    Arrays.fill(vals, this.defaultValue);
+    this.insertColUnchecked(col, vals);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   * @throws NullPointerException
+   *   If any of the values is null.
+   */
+  public void insertCol(int col, Double[] vals) throws ArraySizeException {
+    if (vals.length != this.height) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + vals.length
+                      + " is not appropriate for Matrix of height "
+                      + this.height
+      );
+    } // if
+    this.insertColUnchecked(col, unbox(vals));
+  } // insertCol(int, Double[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.height) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " is not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+    double[] newBacking = new double[this.backing.length - this.width];
+    System.arraycopy(this.backing, 0, newBacking, 0, row * this.width);
+    System.arraycopy(this.backing, (row + 1) * this.width, newBacking, row * this.width,
+        newBacking.length - row * this.width);
+    this.backing = newBacking;
+    this.height--;
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+    int newWidth = this.width - 1;
+    double[] newBacking = new double[this.backing.length - this.height];
+    for (int row = 0; row < this.height; row++) {
+      System.arraycopy(this.backing, row * this.width, newBacking, row * newWidth, col);
+      System.arraycopy(this.backing, row * this.width + col + 1, newBacking,
+          row * newWidth + col, newWidth - col);
+    } // for
+    this.backing = newBacking;
+    this.width = newWidth;
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      Double val) {
+    if (startRow >= this.height || startRow < 0) {
+      throw new IndexOutOfBoundsException(
+              "Start row index "
+              + startRow
+              + " is not appropriate for matrix of height "
+              + this.height
+      );
+    } // if
+    if (startCol >= this.width || startCol < 0) {
+      throw new IndexOutOfBoundsException(
+              "Start column index "
+              + startCol
+              + " is not appropriate for matrix of width "
+              + this.width
+      );
+    } // if
+    if (endRow > this.height || endRow < 0) {
+      throw new IndexOutOfBoundsException(
+              "End row index "
+              + endRow
+              + " is not appropriate for matrix of height "
+              + this.height
+      );
+    } // if
+    if (endCol > this.width || endCol < 0) {
+      throw new IndexOutOfBoundsException(
+              "End column index "
+              + endCol
+              + " is not appropriate for matrix of width "
+              + this.width
+      );
+    } // if
+    double unboxed = val;
+    for (int row = startRow; row < endRow; row++) {
+      Arrays.fill(this.backing, row * this.width + startCol, row * this.width + endCol,
+          unboxed);
+    } // for
+  } // fillRegion(int, int, int, int, Double)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, Double val) {
+    if (endRow > this.height || endRow < -1) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + endRow
+                      + " is not appropriate for matrix of height "
+                      + this.height
+      );
+    } // if
+    if (endCol > this.width || endCol < -1) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + endCol
+                      + " is not appropriate for matrix of width "
+                      + this.width
+      );
+    } // if
+    if (deltaCol * (endCol - startCol) < 0) {
+      throw new IndexOutOfBoundsException(
+              "End column "
+              + endCol
+              + " is before start column "
+              + startCol
+      );
+    } // if
+    if (deltaRow * (endRow - startRow) < 0) {
+      throw new IndexOutOfBoundsException(
+              "End row "
+              + endRow
+              + " is before start row "
+              + startRow
+      );
+    } // if
+    double unboxed = val;
+    for (int i = startRow, j = startCol;
+         VersionedMatrix.isWithin(startRow, endRow, i)
+            && VersionedMatrix.isWithin(startCol, endCol, j);
+         i += deltaRow, j += deltaCol) {
+      this.setDouble(i, j, unboxed);
+    } // for
+  } // fillLine(int, int, int, int, int, int, Double)
+
+  /**
+   * Make a copy of the matrix.
+   *
+   * @return a copy of the matrix.
+   */
+  public DoubleMatrix clone() {
+    DoubleMatrix result = new DoubleMatrix(0, 0, this.defaultValue);
+    result.backing = this.backing.clone();
+    result.width = this.width;
+    result.height = this.height;
+    return result;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (other instanceof DoubleMatrix) {
+      DoubleMatrix that = (DoubleMatrix) other;
+      // Arrays.equals compares doubles the same way Double.equals does.
+      return this.width == that.width && this.height == that.height
+          && Arrays.equals(this.backing, that.backing);
+    } // if
+    return other instanceof Matrix && Matrix.sameContents(this, (Matrix<?>) other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    int code = this.width + 7 * this.height;
+    for (double val : this.backing) {
+      code = code * 7 + Double.hashCode(val);
+    } // for
+    return code;
+  } // hashCode()
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains: eight per cell.
+   *
+   * @return the estimate.
+   */
+  public long estimatedBytes() {
+    return MemoryBudget.OBJECT + MemoryBudget.arrayBytes(this.backing.length, Double.BYTES);
+  } // estimatedBytes()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Computes row panels of a product in parallel.
+   */
+  static class MultiplyTask extends RecursiveAction {
+    /**
+     * The version of the serialized form, which tasks never use.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The kernel for the inner loop.
+     */
+    final DoubleKernel kernel;
+
+    /**
+     * The left-hand matrix.
+     */
+    final DoubleMatrix left;
+
+    /**
+     * The right-hand matrix.
+     */
+    final DoubleMatrix right;
+
+    /**
+     * The product.
+     */
+    final DoubleMatrix result;
+
+    /**
+     * The first row to compute (inclusive).
+     */
+    final int startRow;
+
+    /**
+     * The last row to compute (exclusive).
+     */
+    final int endRow;
+
+    /**
+     * Create a task.
+     *
+     * @param kernel1
+     *   The kernel for the inner loop.
+     * @param left1
+     *   The left-hand matrix.
+     * @param right1
+     *   The right-hand matrix.
+     * @param result1
+     *   The product.
+     * @param startRow1
+     *   The first row to compute (inclusive).
+     * @param endRow1
+     *   The last row to compute (exclusive).
+     */
+    MultiplyTask(DoubleKernel kernel1, DoubleMatrix left1, DoubleMatrix right1,
+        DoubleMatrix result1, int startRow1, int endRow1) {
+      this.kernel = kernel1;
+      this.left = left1;
+      this.right = right1;
+      this.result = result1;
+      this.startRow = startRow1;
+      this.endRow = endRow1;
+    } // MultiplyTask(DoubleKernel, DoubleMatrix, DoubleMatrix, DoubleMatrix, int, int)
+
+    /**
+     * Compute the rows, splitting them if there are too many.
+     */
+    protected void compute() {
+      if (this.endRow - this.startRow <= PANEL_ROWS) {
+        multiplyPanel(this.kernel, this.left, this.right, this.result, this.startRow, this.endRow);
+        return;
+      } // if
+      int middle = (this.startRow + this.endRow) >>> 1;
+      invokeAll(
+          new MultiplyTask(this.kernel, this.left, this.right, this.result,
+              this.startRow, middle),
+          new MultiplyTask(this.kernel, this.left, this.right, this.result,
+              middle, this.endRow));
+    } // compute()
+  } // class MultiplyTask
+
+  /**
+   * Compute some rows of a product. Walks the right-hand matrix in
+   * blocks of BLOCK_K rows by BLOCK_J columns, so that each block is
+   * reused by every row of the panel while it is still in cache.
+   *
+   * @param kernel
+   *   The kernel for the inner loop.
+   * @param left
+   *   The left-hand matrix.
+   * @param right
+   *   The right-hand matrix.
+   * @param result
+   *   The product, whose rows must start out as zero.
+   * @param startRow
+   *   The first row to compute (inclusive).
+   * @param endRow
+   *   The last row to compute (exclusive).
+   */
+  static void multiplyPanel(DoubleKernel kernel, DoubleMatrix left, DoubleMatrix right,
+      DoubleMatrix result, int startRow, int endRow) {
+    int inner = left.width;
+    int width = right.width;
+    double[] a = left.backing;
+    double[] b = right.backing;
+    double[] c = result.backing;
+    for (int kk = 0; kk < inner; kk += BLOCK_K) {
+      int kEnd = Math.min(kk + BLOCK_K, inner);
+      for (int jj = 0; jj < width; jj += BLOCK_J) {
+        int len = Math.min(jj + BLOCK_J, width) - jj;
+        for (int i = startRow; i < endRow; i++) {
+          int aRow = i * inner;
+          int cOff = i * width + jj;
+          for (int k = kk; k < kEnd; k++) {
+            kernel.axpy(a[aRow + k], b, k * width + jj, c, cOff, len);
+          } // for k
+        } // for i
+      } // for jj
+    } // for kk
+  } // multiplyPanel(DoubleKernel, DoubleMatrix, DoubleMatrix, DoubleMatrix, int, int)
+
+  /**
+   * Get a stream of the values in the matrix, parallel if the matrix is
+   * large.
+   *
+   * @return the stream.
+   */
+  DoubleStream bulkValues() {
+    DoubleStream cells = Arrays.stream(this.backing, 0, this.width * this.height);
+    return BulkOperations.parallel(this.width * this.height) ? cells.parallel() : cells;
+  } // bulkValues()
+
+  /**
+   * Check that a cell is within the matrix.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the cell is outside the matrix.
+   */
+  void checkCell(int row, int col) {
+    if (row >= this.height || row < 0) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+    if (col >= this.width || col < 0) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not valid for Matrix of width "
+                      + this.width
+      );
+    } // if
+  } // checkCell(int, int)
+
+  /**
+   * Unbox an array of values.
+   *
+   * @param vals
+   *   The values.
+   *
+   * @return the unboxed values.
+   *
+   * @throws NullPointerException
+   *   If any of the values is null.
+   */
+  static double[] unbox(Double[] vals) {
+    double[] result = new double[vals.length];
+    for (int i = 0; i < vals.length; i++) {
+      result[i] = vals[i];
+    } // for
+    return result;
+  } // unbox(Double[])
+
+  /**
+   * Insert a row of values.
+   *
+   * @param row
+   *   The position of the new row.
+   * @param vals
+   *   The values, one per column.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  void insertRowUnchecked(int row, double[] vals) {
+    if (row < 0 || row > this.height) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+    MemoryBudget.checkCells(this.width, this.height + 1L, Double.BYTES);
+    double[] newBacking = new double[this.backing.length + this.width];
+    System.arraycopy(this.backing, 0, newBacking, 0, row * this.width);
+    System.arraycopy(vals, 0, newBacking, row * this.width, this.width);
+    System.arraycopy(this.backing, row * this.width, newBacking, (row + 1) * this.width,
+        this.backing.length - row * this.width);
+    this.backing = newBacking;
+    this.height++;
+  } // insertRowUnchecked(int, double[])
+
+  /**
+   * Insert a column of values.
+   *
+   * @param col
+   *   The position of the new column.
+   * @param vals
+   *   The values, one per row.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  void insertColUnchecked(int col, double[] vals) {
+    if (col < 0 || col > this.width) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " is not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+    MemoryBudget.checkCells(this.width + 1L, this.height, Double.BYTES);
+    int newWidth = this.width + 1;
+    double[] newBacking = new double[this.backing.length + this.height];
+    for (int row = 0; row < this.height; row++) {
+      System.arraycopy(this.backing, row * this.width, newBacking, row * newWidth, col);
+      newBacking[row * newWidth + col] = vals[row];
+      System.arraycopy(this.backing, row * this.width + col, newBacking,
+          row * newWidth + col + 1, this.width - col);
+    } // for
+    this.backing = newBacking;
+    this.width = newWidth;
+  } // insertColUnchecked(int, double[])
+} // class DoubleMatrix
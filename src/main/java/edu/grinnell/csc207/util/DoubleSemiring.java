@@ -0,0 +1,270 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * The common semirings over unboxed doubles. Each one has its own
+ * accumulate loop, so multiplying DoubleMatrix values never boxes and
+ * the JIT sees a single, simple operation in the inner loop.
+ *
+ * @author David William Stroud
+ */
+public enum DoubleSemiring {
+  /**
+   * Ordinary arithmetic.
+   */
+  PLUS_TIMES(0, 1) {
+    /**
+     * Add two values.
+     *
+     * @param left
+     *   The first value.
+     * @param right
+     *   The second value.
+     *
+     * @return their sum.
+     */
+    public double plus(double left, double right) {
+      return left + right;
+    } // plus(double, double)
+
+    /**
+     * Multiply two values.
+     *
+     * @param left
+     *   The first value.
+     * @param right
+     *   The second value.
+     *
+     * @return their product.
+     */
+    public double times(double left, double right) {
+      return left * right;
+    } // times(double, double)
+
+    void accumulate(double a, double[] x, int xOff, double[] y, int yOff, int len) {
+      DoubleKernel.KERNEL.axpy(a, x, xOff, y, yOff, len);
+    } // accumulate(double, double[], int, double[], int, int)
+  },
+
+  /**
+   * Shortest paths: plus is min and times is +.
+   */
+  MIN_PLUS(Double.POSITIVE_INFINITY, 0) {
+    /**
+     * Take the shorter of two paths.
+     *
+     * @param left
+     *   The length of one path.
+     * @param right
+     *   The length of the other path.
+     *
+     * @return the smaller length.
+     */
+    public double plus(double left, double right) {
+      return Math.min(left, right);
+    } // plus(double, double)
+
+    /**
+     * Join two paths end to end.
+     *
+     * @param left
+     *   The length of the first path.
+     * @param right
+     *   The length of the second path.
+     *
+     * @return the total length.
+     */
+    public double times(double left, double right) {
+      return left + right;
+    } // times(double, double)
+
+    void accumulate(double a, double[] x, int xOff, double[] y, int yOff, int len) {
+      for (int i = 0; i < len; i++) {
+        y[yOff + i] = Math.min(y[yOff + i], a + x[xOff + i]);
+      } // for
+    } // accumulate(double, double[], int, double[], int, int)
+  },
+
+  /**
+   * Longest paths: plus is max and times is +.
+   */
+  MAX_PLUS(Double.NEGATIVE_INFINITY, 0) {
+    /**
+     * Take the longer of two paths.
+     *
+     * @param left
+     *   The length of one path.
+     * @param right
+     *   The length of the other path.
+     *
+     * @return the larger length.
+     */
+    public double plus(double left, double right) {
+      return Math.max(left, right);
+    } // plus(double, double)
+
+    /**
+     * Join two paths end to end.
+     *
+     * @param left
+     *   The length of the first path.
+     * @param right
+     *   The length of the second path.
+     *
+     * @return the total length.
+     */
+    public double times(double left, double right) {
+      return left + right;
+    } // times(double, double)
+
+    void accumulate(double a, double[] x, int xOff, double[] y, int yOff, int len) {
+      for (int i = 0; i < len; i++) {
+        y[yOff + i] = Math.max(y[yOff + i], a + x[xOff + i]);
+      } // for
+    } // accumulate(double, double[], int, double[], int, int)
+  },
+
+  /**
+   * Most reliable paths over non-negative values: plus is max and
+   * times is *.
+   */
+  MAX_TIMES(0, 1) {
+    /**
+     * Take the more reliable of two paths.
+     *
+     * @param left
+     *   The reliability of one path.
+     * @param right
+     *   The reliability of the other path.
+     *
+     * @return the larger reliability.
+     */
+    public double plus(double left, double right) {
+      return Math.max(left, right);
+    } // plus(double, double)
+
+    /**
+     * Join two paths end to end.
+     *
+     * @param left
+     *   The reliability of the first path.
+     * @param right
+     *   The reliability of the second path.
+     *
+     * @return the reliability of both.
+     */
+    public double times(double left, double right) {
+      return left * right;
+    } // times(double, double)
+
+    void accumulate(double a, double[] x, int xOff, double[] y, int yOff, int len) {
+      for (int i = 0; i < len; i++) {
+        y[yOff + i] = Math.max(y[yOff + i], a * x[xOff + i]);
+      } // for
+    } // accumulate(double, double[], int, double[], int, int)
+  };
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The identity for plus.
+   */
+  final double zero;
+
+  /**
+   * The identity for times.
+   */
+  final double one;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a semiring.
+   *
+   * @param zero1
+   *   The identity for plus.
+   * @param one1
+   *   The identity for times.
+   */
+  DoubleSemiring(double zero1, double one1) {
+    this.zero = zero1;
+    this.one = one1;
+  } // DoubleSemiring(double, double)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get the identity for plus.
+   *
+   * @return the zero.
+   */
+  public double zero() {
+    return this.zero;
+  } // zero()
+
+  /**
+   * Get the identity for times.
+   *
+   * @return the one.
+   */
+  public double one() {
+    return this.one;
+  } // one()
+
+  /**
+   * Combine two alternatives.
+   *
+   * @param left
+   *   The first alternative.
+   * @param right
+   *   The second alternative.
+   *
+   * @return their sum.
+   */
+  public abstract double plus(double left, double right);
+
+  /**
+   * Combine two steps in sequence.
+   *
+   * @param left
+   *   The first step.
+   * @param right
+   *   The second step.
+   *
+   * @return their product.
+   */
+  public abstract double times(double left, double right);
+
+  /**
+   * Add a multiple of one run of values to another, in this semiring:
+   * y = plus(y, times(a, x)).
+   *
+   * @param a
+   *   The multiplier.
+   * @param x
+   *   The array that holds the values to add.
+   * @param xOff
+   *   The index of the first value to add.
+   * @param y
+   *   The array that holds the values to add to.
+   * @param yOff
+   *   The index of the first value to add to.
+   * @param len
+   *   The number of values.
+   */
+  abstract void accumulate(double a, double[] x, int xOff, double[] y, int yOff, int len);
+
+  /**
+   * Get this semiring over boxed values.
+   *
+   * @return the boxed semiring.
+   */
+  public Semiring<Double> boxed() {
+    return Semiring.of(this.zero, this.one, this::plus, this::times);
+  } // boxed()
+} // enum DoubleSemiring
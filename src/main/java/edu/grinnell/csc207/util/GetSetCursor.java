@@ -0,0 +1,267 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * A cursor for any matrix, which reads and writes cells with get and
+ * set. Implementations that can index their storage directly should
+ * provide their own cursor instead.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+class GetSetCursor<T> implements MatrixCursor<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * What get and set report when the cursor is before the first cell
+   * or past the last.
+   */
+  static final String NOT_ON_CELL = "The cursor is not on a cell; call next or moveTo first";
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix.
+   */
+  final Matrix<T> matrix;
+
+  /**
+   * The first row of the region (inclusive).
+   */
+  final int startRow;
+
+  /**
+   * The first column of the region (inclusive).
+   */
+  final int startCol;
+
+  /**
+   * The last row of the region (exclusive).
+   */
+  final int endRow;
+
+  /**
+   * The last column of the region (exclusive).
+   */
+  final int endCol;
+
+  /**
+   * The current row.
+   */
+  int row;
+
+  /**
+   * The current column.
+   */
+  int col;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a cursor just before the first cell of a region, which must
+   * already have been checked.
+   *
+   * @param matrix1
+   *   The matrix.
+   * @param startRow1
+   *   The first row of the region (inclusive).
+   * @param startCol1
+   *   The first column of the region (inclusive).
+   * @param endRow1
+   *   The last row of the region (exclusive).
+   * @param endCol1
+   *   The last column of the region (exclusive).
+   */
+  GetSetCursor(Matrix<T> matrix1, int startRow1, int startCol1, int endRow1,
+      int endCol1) {
+    this.matrix = matrix1;
+    this.startRow = startRow1;
+    this.startCol = startCol1;
+    this.endRow = endRow1;
+    this.endCol = endCol1;
+    this.row = startRow1;
+    this.col = startCol1 - 1;
+    if (startCol1 == endCol1) {
+      this.row = endRow1;
+    } // if
+  } // GetSetCursor(Matrix<T>, int, int, int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Move to the next cell of the region.
+   *
+   * @return true if there is such a cell; false otherwise.
+   */
+  public boolean next() {
+    if (++this.col < this.endCol) {
+      return this.row < this.endRow;
+    } // if
+    this.col = this.startCol;
+    return ++this.row < this.endRow;
+  } // next()
+
+  /**
+   * Move to a particular cell of the region.
+   *
+   * @param row1
+   *   The row of the cell.
+   * @param col1
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the cell is not in the region.
+   */
+  public void moveTo(int row1, int col1) {
+    checkInRegion(row1, col1, this.startRow, this.startCol, this.endRow, this.endCol);
+    this.row = row1;
+    this.col = col1;
+  } // moveTo(int, int)
+
+  /**
+   * Get the row of the current cell.
+   *
+   * @return the row.
+   */
+  public int row() {
+    return this.row;
+  } // row()
+
+  /**
+   * Get the column of the current cell.
+   *
+   * @return the column.
+   */
+  public int col() {
+    return this.col;
+  } // col()
+
+  /**
+   * Get the value in the current cell.
+   *
+   * @return the value.
+   *
+   * @throws IllegalStateException
+   *   If the cursor is not on a cell of its region.
+   */
+  public T get() {
+    this.checkOnCell();
+    return this.matrix.get(this.row, this.col);
+  } // get()
+
+  /**
+   * Set the value in the current cell.
+   *
+   * @param val
+   *   The value to store.
+   *
+   * @throws IllegalStateException
+   *   If the cursor is not on a cell of its region.
+   */
+  public void set(T val) {
+    this.checkOnCell();
+    this.matrix.set(this.row, this.col, val);
+  } // set(T)
+
+  /**
+   * Check that the cursor is on a cell of its region: that next has
+   * returned true or moveTo has been called, and that the cursor has
+   * not passed the end.
+   *
+   * @throws IllegalStateException
+   *   If it is not.
+   */
+  void checkOnCell() {
+    if (this.row >= this.endRow || this.col < this.startCol) {
+      throw new IllegalStateException(NOT_ON_CELL);
+    } // if
+  } // checkOnCell()
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Check that a region lies within a matrix.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param startRow
+   *   The first row of the region (inclusive).
+   * @param startCol
+   *   The first column of the region (inclusive).
+   * @param endRow
+   *   The last row of the region (exclusive).
+   * @param endCol
+   *   The last column of the region (exclusive).
+   *
+   * @throws IndexOutOfBoundsException
+   *   If it does not.
+   */
+  static void checkRegion(int width, int height, int startRow, int startCol, int endRow,
+      int endCol) {
+    if (startRow < 0 || startRow > endRow || endRow > height) {
+      throw new IndexOutOfBoundsException(
+              "Rows "
+              + startRow
+              + " to "
+              + endRow
+              + " are not appropriate for matrix of height "
+              + height
+      );
+    } // if
+    if (startCol < 0 || startCol > endCol || endCol > width) {
+      throw new IndexOutOfBoundsException(
+              "Columns "
+              + startCol
+              + " to "
+              + endCol
+              + " are not appropriate for matrix of width "
+              + width
+      );
+    } // if
+  } // checkRegion(int, int, int, int, int, int)
+
+  /**
+   * Check that a cell lies within a region.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   * @param startRow
+   *   The first row of the region (inclusive).
+   * @param startCol
+   *   The first column of the region (inclusive).
+   * @param endRow
+   *   The last row of the region (exclusive).
+   * @param endCol
+   *   The last column of the region (exclusive).
+   *
+   * @throws IndexOutOfBoundsException
+   *   If it does not.
+   */
+  static void checkInRegion(int row, int col, int startRow, int startCol, int endRow,
+      int endCol) {
+    if (row < startRow || row >= endRow || col < startCol || col >= endCol) {
+      throw new IndexOutOfBoundsException(
+              "Cell ("
+              + row
+              + ", "
+              + col
+              + ") is outside the cursor's region"
+      );
+    } // if
+  } // checkInRegion(int, int, int, int, int, int)
+} // class GetSetCursor
@@ -0,0 +1,73 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * The text formats that GridReader and GridWriter understand.
+ *
+ * @author David William Stroud
+ */
+public enum GridFormat {
+  /**
+   * Comma-separated values. Fields that hold the delimiter, a quote or
+   * a line break are quoted, with quotes doubled inside. An empty
+   * unquoted field is null; a quoted one ("") is the empty string.
+   */
+  CSV(','),
+
+  /**
+   * Tab-separated values, quoted the same way as CSV.
+   */
+  TSV('\t'),
+
+  /**
+   * The boxes drawn by Matrix.print, with or without labels. Values are
+   * trimmed, and a cell holding just "/" is null.
+   */
+  BOX('|');
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The character between cells.
+   */
+  final char delimiter;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a format.
+   *
+   * @param delimiter1
+   *   The character between cells.
+   */
+  GridFormat(char delimiter1) {
+    this.delimiter = delimiter1;
+  } // GridFormat(char)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Guess the format of a file from its name: .csv, .tsv, or anything
+   * else for BOX.
+   *
+   * @param fileName
+   *   The name of the file.
+   *
+   * @return the format.
+   */
+  public static GridFormat forFileName(String fileName) {
+    String lower = fileName.toLowerCase();
+    if (lower.endsWith(".csv")) {
+      return CSV;
+    } else if (lower.endsWith(".tsv") || lower.endsWith(".tab")) {
+      return TSV;
+    } else {
+      return BOX;
+    } // if/else
+  } // forFileName(String)
+} // enum GridFormat
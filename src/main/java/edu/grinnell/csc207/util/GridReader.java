@@ -0,0 +1,552 @@
+package edu.grinnell.csc207.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+/**
+ * Reads a grid of values from text, one row at a time, in any
+ * GridFormat.
+ *
+ * The reader does its own buffering and copies the text of each row
+ * into a single line buffer that is reused for every row; cells are
+ * recorded as ranges of that buffer and handed to a CellParser, so no
+ * String is made for a cell unless the parser needs one. A whole file
+ * is read in a single pass, whether into an existing matrix (readInto)
+ * or into one sized to fit (read).
+ *
+ * @author David William Stroud
+ */
+public class GridReader implements Closeable {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of characters read from the underlying reader at once.
+   */
+  static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Marks that no character has been pushed back.
+   */
+  static final int NONE = -2;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Where the text comes from.
+   */
+  final Reader in;
+
+  /**
+   * The format of the text.
+   */
+  final GridFormat format;
+
+  /**
+   * Characters read from in but not yet consumed.
+   */
+  final char[] buffer = new char[BUFFER_SIZE];
+
+  /**
+   * The index of the next character in buffer.
+   */
+  int pos;
+
+  /**
+   * The number of valid characters in buffer.
+   */
+  int limit;
+
+  /**
+   * A character that was read one too far, or NONE.
+   */
+  int pushback = NONE;
+
+  /**
+   * The text of the cells in the current row.
+   */
+  char[] line = new char[256];
+
+  /**
+   * A view of line for the parsers.
+   */
+  CharBuffer lineView = CharBuffer.wrap(this.line);
+
+  /**
+   * The number of characters used in line.
+   */
+  int length;
+
+  /**
+   * Where each cell of the current row starts in line.
+   */
+  int[] starts = new int[16];
+
+  /**
+   * Where each cell of the current row ends in line, or -1 for null.
+   */
+  int[] ends = new int[16];
+
+  /**
+   * The number of cells in the current row.
+   */
+  int cells;
+
+  /**
+   * The number of rows read so far.
+   */
+  int rows;
+
+  /**
+   * The number of cells expected in each row, or -1 until it is known.
+   */
+  int expected = -1;
+
+  /**
+   * The number of blank lines still to be returned as rows of one null
+   * cell.
+   */
+  int blanks;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a reader.
+   *
+   * @param in1
+   *   Where to read the text from. Need not be buffered.
+   * @param format1
+   *   The format of the text.
+   */
+  public GridReader(Reader in1, GridFormat format1) {
+    this.in = in1;
+    this.format = format1;
+  } // GridReader(Reader, GridFormat)
+
+  // +-------------+-------------------------------------------------
+  // | Row methods |
+  // +-------------+
+
+  /**
+   * Read the next row. In CSV and TSV, once the rows are known to have
+   * one cell (from readInto, or from the first row read), a blank line
+   * is a row with one null cell, which is how GridWriter writes such a
+   * row of a one-column matrix; otherwise blank lines are skipped. Blank
+   * lines at the end of the text are always skipped, so the null rows at
+   * the end of a one-column matrix, and those at its start when read
+   * with read, do not come back. In BOX, blank lines and the lines of the boxes
+   * themselves are skipped.
+   *
+   * @return true if there was a row; false at the end of the text.
+   *
+   * @throws IOException
+   *   If the text cannot be read or is malformed.
+   */
+  public boolean nextRow() throws IOException {
+    boolean found = this.format == GridFormat.BOX
+        ? this.nextBoxRow()
+        : this.nextDelimitedRow();
+    if (found) {
+      this.rows++;
+      if (this.expected < 0) {
+        this.expected = this.cells;
+      } // if
+    } // if
+    return found;
+  } // nextRow()
+
+  /**
+   * Determine the number of cells in the current row.
+   *
+   * @return the number of cells.
+   */
+  public int cellCount() {
+    return this.cells;
+  } // cellCount()
+
+  /**
+   * Determine the number of the current row, counting from 0.
+   *
+   * @return the row number.
+   */
+  public int rowNumber() {
+    return this.rows - 1;
+  } // rowNumber()
+
+  /**
+   * Determine whether a cell of the current row is null.
+   *
+   * @param col
+   *   The number of the cell.
+   *
+   * @return true if the cell is null; false otherwise.
+   */
+  public boolean isNull(int col) {
+    return this.ends[col] < 0;
+  } // isNull(int)
+
+  /**
+   * Parse a cell of the current row.
+   *
+   * @param <T>
+   *   The type of the value.
+   * @param col
+   *   The number of the cell.
+   * @param parser
+   *   How to parse it.
+   *
+   * @return the value, or null if the cell is null.
+   *
+   * @throws IOException
+   *   If the parser rejects the text.
+   */
+  public <T> T cell(int col, CellParser<T> parser) throws IOException {
+    if (this.ends[col] < 0) {
+      return null;
+    } // if
+    try {
+      return parser.parse(this.lineView, this.starts[col], this.ends[col]);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Cannot parse cell (" + this.rowNumber() + ", " + col + "): "
+          + e.getMessage(), e);
+    } // try/catch
+  } // cell(int, CellParser<T>)
+
+  // +----------------+----------------------------------------------
+  // | Matrix methods |
+  // +----------------+
+
+  /**
+   * Read every remaining row into an existing matrix, which must have
+   * exactly as many rows and columns as the text. Each row goes in with
+   * one call to setRow.
+   *
+   * @param <T>
+   *   The type of the values.
+   * @param target
+   *   The matrix to fill.
+   * @param parser
+   *   How to parse each cell.
+   *
+   * @throws IOException
+   *   If the text cannot be read, is malformed, or has a different
+   *   shape from the matrix.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public <T> void readInto(Matrix<T> target, CellParser<T> parser) throws IOException {
+    T[] row = (T[]) new Object[target.width()];
+    int count = 0;
+    this.expected = target.width();
+    while (this.nextRow()) {
+      if (count >= target.height()) {
+        throw new IOException("More than " + target.height() + " rows");
+      } // if
+      this.checkWidth(target.width());
+      for (int col = 0; col < row.length; col++) {
+        row[col] = this.cell(col, parser);
+      } // for
+      try {
+        target.setRow(count++, row);
+      } catch (ArraySizeException e) {
+        throw new IOException(e.getMessage(), e);
+      } // try/catch
+    } // while
+    if (count != target.height()) {
+      throw new IOException("Expected " + target.height() + " rows but found " + count);
+    } // if
+  } // readInto(Matrix<T>, CellParser<T>)
+
+  /**
+   * Read every remaining row into a new matrix of the right size. The
+   * values are gathered in one growing array, then copied into the
+   * matrix in a single copyRegion.
+   *
+   * @param <T>
+   *   The type of the values.
+   * @param factory
+   *   Makes a matrix, given its width and height.
+   * @param parser
+   *   How to parse each cell.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the text cannot be read or is malformed.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public <T> Matrix<T> read(BiFunction<Integer, Integer, Matrix<T>> factory,
+      CellParser<T> parser) throws IOException {
+    Object[] values = new Object[1024];
+    int count = 0;
+    int width = -1;
+    while (this.nextRow()) {
+      if (width < 0) {
+        width = this.cells;
+      } // if
+      this.checkWidth(width);
+      if (count + width > values.length) {
+        values = Arrays.copyOf(values, Math.max(values.length * 2, count + width));
+      } // if
+      for (int col = 0; col < width; col++) {
+        values[count++] = this.cell(col, parser);
+      } // for
+    } // while
+    width = Math.max(width, 0);
+    int height = width == 0 ? 0 : count / width;
+    MatrixV0<T> gathered = new MatrixV0<T>(0, 0);
+    gathered.backing = (T[]) Arrays.copyOf(values, count);
+    gathered.width = width;
+    gathered.height = height;
+    Matrix<T> result = factory.apply(width, height);
+    result.copyRegion(gathered, 0, 0, 0, 0, height, width);
+    return result;
+  } // read(BiFunction<Integer, Integer, Matrix<T>>, CellParser<T>)
+
+  /**
+   * Close the underlying reader.
+   *
+   * @throws IOException
+   *   If it cannot be closed.
+   */
+  public void close() throws IOException {
+    this.in.close();
+  } // close()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Read the next row of CSV or TSV.
+   *
+   * @return true if there was a row; false at the end of the text.
+   *
+   * @throws IOException
+   *   If the text cannot be read or is malformed.
+   */
+  boolean nextDelimitedRow() throws IOException {
+    char delimiter = this.format.delimiter;
+    this.length = 0;
+    this.cells = 0;
+    if (this.blanks > 0) {
+      this.blanks--;
+      this.endCell(0, true);
+      return true;
+    } // if
+    int c = this.readChar();
+    int skipped = 0;
+    while (c == '\n' || c == '\r') {
+      int next = this.readChar();
+      c = c == '\r' && next == '\n' ? this.readChar() : next;
+      skipped++;
+    } // while
+    if (c < 0) {
+      return false;
+    } // if
+    if (skipped > 0 && this.expected == 1) {
+      this.pushback = c;
+      this.blanks = skipped - 1;
+      this.endCell(0, true);
+      return true;
+    } // if
+    while (true) {
+      int start = this.length;
+      boolean quoted = c == '"';
+      if (quoted) {
+        c = this.readQuoted();
+      } else {
+        while (c != delimiter && c != '\n' && c != '\r' && c >= 0) {
+          this.append((char) c);
+          c = this.readChar();
+        } // while
+      } // if/else
+      this.endCell(start, !quoted && this.length == start);
+      if (c == delimiter) {
+        c = this.readChar();
+      } else if (c == '\n' || c == '\r' || c < 0) {
+        if (c == '\r') {
+          int next = this.readChar();
+          if (next != '\n') {
+            this.pushback = next;
+          } // if
+        } // if
+        return true;
+      } else {
+        throw new IOException("Unexpected '" + (char) c + "' after a quoted cell in row "
+            + this.rows);
+      } // if/else
+    } // while
+  } // nextDelimitedRow()
+
+  /**
+   * Read the rest of a quoted cell, after its opening quote.
+   *
+   * @return the character after the closing quote.
+   *
+   * @throws IOException
+   *   If the text cannot be read or ends inside the quotes.
+   */
+  int readQuoted() throws IOException {
+    while (true) {
+      int c = this.readChar();
+      if (c < 0) {
+        throw new IOException("Unterminated quote in row " + this.rows);
+      } else if (c == '"') {
+        c = this.readChar();
+        if (c != '"') {
+          return c;
+        } // if
+      } // if/else
+      this.append((char) c);
+    } // while
+  } // readQuoted()
+
+  /**
+   * Read the next row of boxes, skipping the lines that draw them and
+   * the line of column labels.
+   *
+   * @return true if there was a row; false at the end of the text.
+   *
+   * @throws IOException
+   *   If the text cannot be read.
+   */
+  boolean nextBoxRow() throws IOException {
+    while (true) {
+      this.length = 0;
+      this.cells = 0;
+      int c = this.readChar();
+      if (c < 0) {
+        return false;
+      } // if
+      while (c != '\n' && c != '\r' && c >= 0) {
+        this.append((char) c);
+        c = this.readChar();
+      } // while
+      int bar = 0;
+      while (bar < this.length && this.line[bar] != '|') {
+        bar++;
+      } // while
+      if (bar == this.length) {
+        continue;
+      } // if
+      for (int next = bar + 1; next < this.length; next++) {
+        if (this.line[next] == '|') {
+          this.addTrimmedCell(bar + 1, next);
+          bar = next;
+        } // if
+      } // for
+      return true;
+    } // while
+  } // nextBoxRow()
+
+  /**
+   * Record a cell of a box row, without the spaces that center it.
+   *
+   * @param start
+   *   Where the box starts in line (inclusive).
+   * @param end
+   *   Where the box ends in line (exclusive).
+   */
+  void addTrimmedCell(int start, int end) {
+    while (start < end && this.line[start] == ' ') {
+      start++;
+    } // while
+    while (end > start && this.line[end - 1] == ' ') {
+      end--;
+    } // while
+    boolean isNull = end - start == 1 && this.line[start] == '/';
+    this.growCells();
+    this.starts[this.cells] = start;
+    this.ends[this.cells] = isNull ? -1 : end;
+    this.cells++;
+  } // addTrimmedCell(int, int)
+
+  /**
+   * Record the end of a cell of a delimited row.
+   *
+   * @param start
+   *   Where the cell starts in line.
+   * @param isNull
+   *   Whether the cell is null.
+   */
+  void endCell(int start, boolean isNull) {
+    this.growCells();
+    this.starts[this.cells] = start;
+    this.ends[this.cells] = isNull ? -1 : this.length;
+    this.cells++;
+  } // endCell(int, boolean)
+
+  /**
+   * Make room for one more cell.
+   */
+  void growCells() {
+    if (this.cells == this.starts.length) {
+      this.starts = Arrays.copyOf(this.starts, this.cells * 2);
+      this.ends = Arrays.copyOf(this.ends, this.cells * 2);
+    } // if
+  } // growCells()
+
+  /**
+   * Add a character to line.
+   *
+   * @param c
+   *   The character.
+   */
+  void append(char c) {
+    if (this.length == this.line.length) {
+      this.line = Arrays.copyOf(this.line, this.length * 2);
+      this.lineView = CharBuffer.wrap(this.line);
+    } // if
+    this.line[this.length++] = c;
+  } // append(char)
+
+  /**
+   * Check that the current row has the expected number of cells.
+   *
+   * @param width
+   *   The expected number.
+   *
+   * @throws IOException
+   *   If it does not.
+   */
+  void checkWidth(int width) throws IOException {
+    if (this.cells != width) {
+      throw new IOException("Row " + this.rowNumber() + " has " + this.cells
+          + " cells, but expected " + width);
+    } // if
+  } // checkWidth(int)
+
+  /**
+   * Read the next character.
+   *
+   * @return the character, or -1 at the end of the text.
+   *
+   * @throws IOException
+   *   If the text cannot be read.
+   */
+  int readChar() throws IOException {
+    if (this.pushback != NONE) {
+      int c = this.pushback;
+      this.pushback = NONE;
+      return c;
+    } // if
+    if (this.pos == this.limit) {
+      this.limit = this.in.read(this.buffer, 0, this.buffer.length);
+      this.pos = 0;
+      if (this.limit <= 0) {
+        this.limit = 0;
+        return -1;
+      } // if
+    } // if
+    return this.buffer[this.pos++];
+  } // readChar()
+} // class GridReader
@@ -0,0 +1,191 @@
+package edu.grinnell.csc207.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.function.Function;
+
+/**
+ * Writes a grid of values as text in any GridFormat, in a form that
+ * GridReader reads back.
+ *
+ * CSV and TSV are written a row at a time, straight to the underlying
+ * writer, quoting only the cells that need it. BOX needs the widest
+ * cell before it can draw anything, so it is written a whole matrix at
+ * a time with Matrix.print.
+ *
+ * @author David William Stroud
+ */
+public class GridWriter implements Closeable, Flushable {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Where the text goes.
+   */
+  final Writer out;
+
+  /**
+   * The format of the text.
+   */
+  final GridFormat format;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a writer.
+   *
+   * @param out1
+   *   Where to write the text. Buffered here if it is not already.
+   * @param format1
+   *   The format of the text.
+   */
+  public GridWriter(Writer out1, GridFormat format1) {
+    this.out = out1 instanceof BufferedWriter || out1 instanceof PrintWriter
+        ? out1
+        : new BufferedWriter(out1);
+    this.format = format1;
+  } // GridWriter(Writer, GridFormat)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Write a matrix, turning each value into text with toString.
+   *
+   * @param <T>
+   *   The type of the values.
+   * @param matrix
+   *   The matrix.
+   *
+   * @throws IOException
+   *   If the text cannot be written.
+   */
+  public <T> void write(Matrix<T> matrix) throws IOException {
+    this.write(matrix, Object::toString);
+  } // write(Matrix<T>)
+
+  /**
+   * Write a matrix.
+   *
+   * @param <T>
+   *   The type of the values.
+   * @param matrix
+   *   The matrix.
+   * @param formatter
+   *   Turns each non-null value into text.
+   *
+   * @throws IOException
+   *   If the text cannot be written.
+   */
+  public <T> void write(Matrix<T> matrix, Function<? super T, String> formatter)
+      throws IOException {
+    if (this.format == GridFormat.BOX) {
+      PrintWriter pen = new PrintWriter(this.out);
+      Matrix.print(pen, matrix.map((val) -> val == null ? null : formatter.apply(val)));
+      pen.flush();
+      return;
+    } // if
+    MatrixCursor<T> cursor = matrix.cursor();
+    while (cursor.next()) {
+      if (cursor.col() > 0) {
+        this.out.write(this.format.delimiter);
+      } // if
+      T val = cursor.get();
+      if (val != null) {
+        this.writeCell(formatter.apply(val));
+      } // if
+      if (cursor.col() == matrix.width() - 1) {
+        this.out.write('\n');
+      } // if
+    } // while
+  } // write(Matrix<T>, Function<? super T, String>)
+
+  /**
+   * Write one row of CSV or TSV.
+   *
+   * @param cells
+   *   The text of the cells; null cells are left empty.
+   *
+   * @throws IOException
+   *   If the text cannot be written.
+   * @throws UnsupportedOperationException
+   *   If the format is BOX.
+   */
+  public void writeRow(CharSequence... cells) throws IOException {
+    if (this.format == GridFormat.BOX) {
+      throw new UnsupportedOperationException("BOX grids are written a matrix at a time");
+    } // if
+    for (int col = 0; col < cells.length; col++) {
+      if (col > 0) {
+        this.out.write(this.format.delimiter);
+      } // if
+      if (cells[col] != null) {
+        this.writeCell(cells[col]);
+      } // if
+    } // for
+    this.out.write('\n');
+  } // writeRow(CharSequence...)
+
+  /**
+   * Flush the underlying writer.
+   *
+   * @throws IOException
+   *   If it cannot be flushed.
+   */
+  public void flush() throws IOException {
+    this.out.flush();
+  } // flush()
+
+  /**
+   * Flush and close the underlying writer.
+   *
+   * @throws IOException
+   *   If it cannot be closed.
+   */
+  public void close() throws IOException {
+    this.out.close();
+  } // close()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Write the text of a non-null cell, quoting it if it is empty or
+   * holds the delimiter, a quote or a line break.
+   *
+   * @param text
+   *   The text.
+   *
+   * @throws IOException
+   *   If the text cannot be written.
+   */
+  void writeCell(CharSequence text) throws IOException {
+    boolean quote = text.length() == 0;
+    for (int i = 0; i < text.length() && !quote; i++) {
+      char c = text.charAt(i);
+      quote = c == this.format.delimiter || c == '"' || c == '\n' || c == '\r';
+    } // for
+    if (!quote) {
+      this.out.append(text);
+      return;
+    } // if
+    this.out.write('"');
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '"') {
+        this.out.write('"');
+      } // if
+      this.out.write(c);
+    } // for
+    this.out.write('"');
+  } // writeCell(CharSequence)
+} // class GridWriter
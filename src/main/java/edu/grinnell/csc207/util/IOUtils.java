@@ -1,6 +1,8 @@
 package edu.grinnell.csc207.util;
 
 import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.LineNumberReader;
 import java.io.PrintWriter;
 
 /**
@@ -9,6 +11,15 @@ import java.io.PrintWriter;
  * @author Samuel A. Rebelsky
  */
 public class IOUtils {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The longest line that readCommands can put back to report later.
+   */
+  static final int MAX_LINE = 1 << 16;
+
   // +---------------+-----------------------------------------------
   // | Local helpers |
   // +---------------+
@@ -51,13 +62,81 @@ public class IOUtils {
    * @param commands
    *   The valid commands.
    *
-   * @return the command entered.
+   * @return the command entered, or null if the input ends first.
    *
    * @throws IOException
    *   If an I/O exception occurs.
    */
   public static String readCommand(PrintWriter pen, BufferedReader eyes,
-      String prompt, String[] commands) {
-    return "";  // STUB
+      String prompt, String[] commands) throws IOException {
+    while (true) {
+      pen.print(prompt);
+      pen.flush();
+      String line = eyes.readLine();
+      if (line == null) {
+        return null;
+      } // if
+      String command = line.trim();
+      if (arrayContains(commands, command)) {
+        return command;
+      } // if
+      pen.println("Please enter one of " + String.join(", ", commands) + ".");
+    } // while
   } // readCommand(PrintWrtier, BufferedReader, String, String[])
+
+  /**
+   * Read a batch of commands without prompting, such as from a file of
+   * recorded moves. Blank lines and lines that start with # are
+   * skipped. A command may be followed by arguments, as in "RR 3"; only
+   * the first word is checked against the valid commands.
+   *
+   * The batch stops short of a line that is not a valid command, so the
+   * caller can use the commands before it; the next call reports that
+   * line. A line longer than MAX_LINE cannot be put back, and is
+   * reported straight away.
+   *
+   * @param eyes
+   *   How to read input, counting lines.
+   * @param commands
+   *   The valid commands.
+   * @param batch
+   *   Where to put the lines read, trimmed.
+   *
+   * @return the number of lines read, which is 0 only at the end of the
+   *   input.
+   *
+   * @throws IOException
+   *   If an I/O exception occurs or the next line does not start with a
+   *   valid command. The message gives the number of the line.
+   */
+  public static int readCommands(LineNumberReader eyes, String[] commands, String[] batch)
+      throws IOException {
+    int count = 0;
+    while (count < batch.length) {
+      eyes.mark(MAX_LINE);
+      String line = eyes.readLine();
+      if (line == null) {
+        break;
+      } // if
+      line = line.trim();
+      if (line.isEmpty() || line.charAt(0) == '#') {
+        continue;
+      } // if
+      int space = line.indexOf(' ');
+      if (!arrayContains(commands, space < 0 ? line : line.substring(0, space))) {
+        if (count > 0) {
+          try {
+            eyes.reset();
+            break;
+          } catch (IOException e) {
+            // Too long to put back, so report it now.
+          } // try/catch
+        } // if
+        throw new IOException("Line " + eyes.getLineNumber() + ": invalid command: '"
+            + line + "'");
+      } // if
+      batch[count++] = line;
+    } // while
+    return count;
+  } // readCommands(LineNumberReader, String[], String[])
 } // class IOUtils
@@ -0,0 +1,762 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * A matrix that keeps the connected components of its contents up to
+ * date as it is edited. All edits should go through this object; they
+ * are applied to the underlying matrix and then only the components
+ * around the edited cells are relabelled.
+ *
+ * Unlike ComponentLabels, labels are not compact: they are stable
+ * across edits that do not affect a component, and labels of components
+ * that disappear are reused. Use toLabels() for a compact labelling.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class IncrementalComponents<T> implements Matrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix whose components we track.
+   */
+  final Matrix<T> base;
+  /**
+   * Determines whether two neighboring values are connected.
+   */
+  final BiPredicate<? super T, ? super T> same;
+  /**
+   * Determines whether a cell belongs to any component at all.
+   */
+  final Predicate<? super T> include;
+  /**
+   * Which neighbors count as adjacent.
+   */
+  final Components.Connectivity connectivity;
+  /**
+   * The label of each cell, in row-major order; 0 for excluded cells.
+   */
+  int[] labels;
+  /**
+   * The size of each component, indexed by label. Unused labels have
+   * size 0.
+   */
+  int[] sizes;
+  /**
+   * The labels that are available for reuse.
+   */
+  int[] freeLabels;
+  /**
+   * The number of labels in freeLabels.
+   */
+  int freeCount;
+  /**
+   * The smallest label that has never been used.
+   */
+  int nextLabel;
+  /**
+   * The number of components.
+   */
+  int count;
+  /**
+   * The generation in which each cell was last visited by a relabelling.
+   */
+  int[] visited;
+  /**
+   * The generation in which each label was last given to a component.
+   */
+  int[] claimed;
+  /**
+   * The current relabelling generation.
+   */
+  int generation;
+  /**
+   * The work queue for flood fills. Large enough for every cell.
+   */
+  int[] queue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Track the components of a matrix. The matrix should not be edited
+   * except through the new object.
+   *
+   * @param base1
+   *   The matrix whose components we track.
+   * @param same1
+   *   Determines whether two neighboring values are connected.
+   * @param include1
+   *   Determines whether a cell belongs to any component at all.
+   * @param connectivity1
+   *   Which neighbors count as adjacent.
+   */
+  public IncrementalComponents(Matrix<T> base1, BiPredicate<? super T, ? super T> same1,
+      Predicate<? super T> include1, Components.Connectivity connectivity1) {
+    this.base = base1;
+    this.same = same1;
+    this.include = include1;
+    this.connectivity = connectivity1;
+    this.freeLabels = new int[16];
+    this.recompute();
+  } // IncrementalComponents(Matrix<T>, BiPredicate, Predicate, Connectivity)
+
+  /**
+   * Copy another tracker onto a new underlying matrix with the same
+   * contents.
+   *
+   * @param other
+   *   The tracker to copy.
+   * @param base1
+   *   The copy of the other tracker's matrix.
+   */
+  IncrementalComponents(IncrementalComponents<T> other, Matrix<T> base1) {
+    this.base = base1;
+    this.same = other.same;
+    this.include = other.include;
+    this.connectivity = other.connectivity;
+    this.labels = other.labels.clone();
+    this.sizes = other.sizes.clone();
+    this.claimed = new int[this.sizes.length];
+    this.freeLabels = other.freeLabels.clone();
+    this.freeCount = other.freeCount;
+    this.nextLabel = other.nextLabel;
+    this.count = other.count;
+    this.resizeCells();
+  } // IncrementalComponents(IncrementalComponents<T>, Matrix<T>)
+
+  // +-------------------+-------------------------------------------
+  // | Component methods |
+  // +-------------------+
+
+  /**
+   * Determine the number of components.
+   *
+   * @return the number of components.
+   */
+  public int count() {
+    return this.count;
+  } // count()
+
+  /**
+   * Get the label of a cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the label of the cell, or 0 if it is in no component.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  public int label(int row, int col) {
+    this.checkCell(row, col);
+    return this.labels[row * this.width() + col];
+  } // label(int, int)
+
+  /**
+   * Get the number of cells in a component.
+   *
+   * @param label
+   *   The label of the component.
+   *
+   * @return the number of cells in that component, or 0 if no component
+   *   currently has that label.
+   */
+  public int size(int label) {
+    if (label <= 0 || label >= this.nextLabel) {
+      return 0;
+    } // if
+    return this.sizes[label];
+  } // size(int)
+
+  /**
+   * Get the size of the component containing a cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the size of the component, or 0 if the cell is in none.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  public int sizeAt(int row, int col) {
+    return this.size(this.label(row, col));
+  } // sizeAt(int, int)
+
+  /**
+   * Recompute all of the components from scratch. Needed if the
+   * underlying matrix was edited directly, e.g. to reuse it for new
+   * contents.
+   */
+  public void recompute() {
+    ComponentLabels initial = Components.label(this.base, this.same, this.include,
+        this.connectivity);
+    this.labels = initial.labels;
+    this.count = initial.count();
+    this.nextLabel = this.count + 1;
+    this.sizes = Arrays.copyOf(initial.sizes, Math.max(16, this.nextLabel));
+    this.claimed = new int[this.sizes.length];
+    this.freeCount = 0;
+    this.resizeCells();
+  } // recompute()
+
+  /**
+   * Build a compact labelling of the current components, numbered in
+   * the same order that Components.label would use.
+   *
+   * @return the labelling.
+   */
+  public ComponentLabels toLabels() {
+    int[] renumber = new int[this.nextLabel];
+    int[] compact = new int[this.labels.length];
+    int used = 0;
+    for (int i = 0; i < compact.length; i++) {
+      int label = this.labels[i];
+      if (label != 0) {
+        if (renumber[label] == 0) {
+          renumber[label] = ++used;
+        } // if
+        compact[i] = renumber[label];
+      } // if
+    } // for
+    return new ComponentLabels(compact, this.width(), this.height(), used);
+  } // toLabels()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    return this.base.get(row, col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    this.base.set(row, col, val);
+    this.relabelRegion(row, col, row + 1, col + 1);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.base.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.base.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    this.base.insertRow(row);
+    this.afterInsertRow(row);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    this.base.insertRow(row, vals);
+    this.afterInsertRow(row);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    this.base.insertCol(col);
+    this.afterInsertCol(col);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    this.base.insertCol(col, vals);
+    this.afterInsertCol(col);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    int width = this.width();
+    this.base.deleteRow(row);
+    for (int i = row * width; i < (row + 1) * width; i++) {
+      this.removeFromComponent(this.labels[i]);
+    } // for
+    int[] newLabels = new int[this.labels.length - width];
+    System.arraycopy(this.labels, 0, newLabels, 0, row * width);
+    System.arraycopy(this.labels, (row + 1) * width, newLabels, row * width,
+        newLabels.length - row * width);
+    this.labels = newLabels;
+    this.resizeCells();
+    // The rows on either side of the deleted row are now neighbors.
+    this.relabelRegion(row, 0, row, width);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    int width = this.width();
+    int height = this.height();
+    this.base.deleteCol(col);
+    int[] newLabels = new int[this.labels.length - height];
+    for (int row = 0; row < height; row++) {
+      this.removeFromComponent(this.labels[row * width + col]);
+      System.arraycopy(this.labels, row * width, newLabels, row * (width - 1), col);
+      System.arraycopy(this.labels, row * width + col + 1, newLabels,
+          row * (width - 1) + col, width - col - 1);
+    } // for
+    this.labels = newLabels;
+    this.resizeCells();
+    this.relabelRegion(0, col, height, col);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    this.base.fillRegion(startRow, startCol, endRow, endCol, val);
+    this.relabelRegion(startRow, startCol, endRow, endCol);
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    this.base.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+    this.generation++;
+    int seeds = 0;
+    for (int i = startRow, j = startCol;
+         VersionedMatrix.isWithin(startRow, endRow, i)
+            && VersionedMatrix.isWithin(startCol, endCol, j);
+         i += deltaRow, j += deltaCol) {
+      seeds = this.addNeighborhood(seeds, i - 1, j - 1, i + 2, j + 2);
+    } // for
+    this.relabel(seeds);
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix, along with its components.
+   *
+   * @return a copy of the matrix.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public Matrix<T> clone() {
+    return new IncrementalComponents<T>(this, (Matrix<T>) this.base.clone());
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return other instanceof Matrix && Matrix.sameContents(this, (Matrix<?>) other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return Matrix.hashCodeOf(this);
+  } // hashCode()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Update the labels after inserting a row.
+   *
+   * @param row
+   *   The index of the new row.
+   */
+  void afterInsertRow(int row) {
+    int width = this.width();
+    int[] newLabels = new int[this.labels.length + width];
+    System.arraycopy(this.labels, 0, newLabels, 0, row * width);
+    System.arraycopy(this.labels, row * width, newLabels, (row + 1) * width,
+        this.labels.length - row * width);
+    this.labels = newLabels;
+    this.resizeCells();
+    // The new row separates the rows on either side of it.
+    this.relabelRegion(row, 0, row + 1, width);
+  } // afterInsertRow(int)
+
+  /**
+   * Update the labels after inserting a column.
+   *
+   * @param col
+   *   The index of the new column.
+   */
+  void afterInsertCol(int col) {
+    int width = this.width();
+    int height = this.height();
+    int[] newLabels = new int[this.labels.length + height];
+    for (int row = 0; row < height; row++) {
+      System.arraycopy(this.labels, row * (width - 1), newLabels, row * width, col);
+      System.arraycopy(this.labels, row * (width - 1) + col, newLabels,
+          row * width + col + 1, width - 1 - col);
+    } // for
+    this.labels = newLabels;
+    this.resizeCells();
+    this.relabelRegion(0, col, height, col + 1);
+  } // afterInsertCol(int)
+
+  /**
+   * Relabel the components touching a rectangle of changed cells and
+   * the cells around it. Parts of the rectangle outside the matrix are
+   * ignored.
+   *
+   * @param startRow
+   *   The top row of the changed cells (inclusive).
+   * @param startCol
+   *   The left column of the changed cells (inclusive).
+   * @param endRow
+   *   The bottom row of the changed cells (exclusive).
+   * @param endCol
+   *   The right column of the changed cells (exclusive).
+   */
+  void relabelRegion(int startRow, int startCol, int endRow, int endCol) {
+    this.generation++;
+    int seeds = this.addNeighborhood(0, startRow - 1, startCol - 1, endRow + 1, endCol + 1);
+    this.relabel(seeds);
+  } // relabelRegion(int, int, int, int)
+
+  /**
+   * Add the cells of a rectangle to the start of the queue as seeds,
+   * skipping cells outside the matrix and cells already added in this
+   * generation.
+   *
+   * @param seeds
+   *   The number of seeds already in the queue.
+   * @param startRow
+   *   The top row (inclusive).
+   * @param startCol
+   *   The left column (inclusive).
+   * @param endRow
+   *   The bottom row (exclusive).
+   * @param endCol
+   *   The right column (exclusive).
+   *
+   * @return the new number of seeds.
+   */
+  int addNeighborhood(int seeds, int startRow, int startCol, int endRow, int endCol) {
+    int width = this.width();
+    int top = Math.max(0, startRow);
+    int bottom = Math.min(this.height(), endRow);
+    int left = Math.max(0, startCol);
+    int right = Math.min(width, endCol);
+    for (int row = top; row < bottom; row++) {
+      for (int col = left; col < right; col++) {
+        int index = row * width + col;
+        if (this.visited[index] != this.generation) {
+          this.visited[index] = this.generation;
+          this.queue[seeds++] = index;
+        } // if
+      } // for col
+    } // for row
+    return seeds;
+  } // addNeighborhood(int, int, int, int, int)
+
+  /**
+   * Recompute the components containing the seeds at the start of the
+   * queue. Every component that the edit could have split or joined must
+   * contain at least one seed.
+   *
+   * @param seeds
+   *   The number of seeds in the queue.
+   */
+  void relabel(int seeds) {
+    // Seeds were marked as visited when they were queued; move them out
+    // of the way so the flood fills can use the queue.
+    int[] seedCells = Arrays.copyOf(this.queue, seeds);
+    this.generation++;
+    int width = this.width();
+    for (int s = 0; s < seeds; s++) {
+      int seed = seedCells[s];
+      if (this.visited[seed] == this.generation) {
+        continue;
+      } // if
+      T val = this.base.get(seed / width, seed % width);
+      if (!this.include.test(val)) {
+        this.removeFromComponent(this.labels[seed]);
+        this.labels[seed] = 0;
+        this.visited[seed] = this.generation;
+        continue;
+      } // if
+      this.flood(seed, this.chooseLabel(this.labels[seed]));
+    } // for
+  } // relabel(int)
+
+  /**
+   * Pick the label for a component found during relabelling, reusing the
+   * old label of its first cell if no other component has taken it.
+   *
+   * @param old
+   *   The old label of the first cell.
+   *
+   * @return the label to use.
+   */
+  int chooseLabel(int old) {
+    int label;
+    if (old != 0 && this.claimed[old] != this.generation) {
+      label = old;
+    } else if (this.freeCount > 0) {
+      label = this.freeLabels[--this.freeCount];
+      this.count++;
+    } else {
+      label = this.nextLabel++;
+      if (label >= this.sizes.length) {
+        this.sizes = Arrays.copyOf(this.sizes, this.sizes.length * 2);
+        this.claimed = Arrays.copyOf(this.claimed, this.sizes.length);
+      } // if
+      this.count++;
+    } // if/else
+    this.claimed[label] = this.generation;
+    return label;
+  } // chooseLabel(int)
+
+  /**
+   * Flood the component containing a cell with a new label.
+   *
+   * @param start
+   *   The index of the first cell.
+   * @param label
+   *   The label to give the component.
+   */
+  void flood(int start, int label) {
+    int width = this.width();
+    int height = this.height();
+    boolean diagonal = this.connectivity == Components.Connectivity.EIGHT;
+    int head = 0;
+    int tail = 0;
+    this.queue[tail++] = start;
+    this.visited[start] = this.generation;
+    while (head < tail) {
+      int cell = this.queue[head++];
+      int row = cell / width;
+      int col = cell % width;
+      int old = this.labels[cell];
+      if (old != label) {
+        this.labels[cell] = label;
+        this.sizes[label]++;
+        this.removeFromComponent(old);
+      } // if
+      T val = this.base.get(row, col);
+      for (int dr = -1; dr <= 1; dr++) {
+        for (int dc = -1; dc <= 1; dc++) {
+          if ((dr == 0 && dc == 0) || (!diagonal && dr != 0 && dc != 0)) {
+            continue;
+          } // if
+          int r = row + dr;
+          int c = col + dc;
+          if (r < 0 || r >= height || c < 0 || c >= width) {
+            continue;
+          } // if
+          int neighbor = r * width + c;
+          if (this.visited[neighbor] != this.generation) {
+            T other = this.base.get(r, c);
+            if (this.include.test(other) && this.same.test(val, other)) {
+              this.visited[neighbor] = this.generation;
+              this.queue[tail++] = neighbor;
+            } // if
+          } // if
+        } // for dc
+      } // for dr
+    } // while
+  } // flood(int, int)
+
+  /**
+   * Remove one cell from a component, releasing the label if the
+   * component becomes empty.
+   *
+   * @param label
+   *   The label of the component, or 0 for no component.
+   */
+  void removeFromComponent(int label) {
+    if (label != 0 && --this.sizes[label] == 0) {
+      if (this.freeCount == this.freeLabels.length) {
+        this.freeLabels = Arrays.copyOf(this.freeLabels, this.freeCount * 2);
+      } // if
+      this.freeLabels[this.freeCount++] = label;
+      this.count--;
+    } // if
+  } // removeFromComponent(int)
+
+  /**
+   * Resize the per-cell scratch arrays to match the labels.
+   */
+  void resizeCells() {
+    this.visited = new int[this.labels.length];
+    this.queue = new int[this.labels.length];
+    this.generation = 0;
+    Arrays.fill(this.claimed, 0);
+  } // resizeCells()
+
+  /**
+   * Check that a cell is within the matrix.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column are invalid.
+   */
+  void checkCell(int row, int col) {
+    if (row >= this.height() || row < 0) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height()
+      );
+    } // if
+    if (col >= this.width() || col < 0) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not valid for Matrix of width "
+                      + this.width()
+      );
+    } // if
+  } // checkCell(int, int)
+} // class IncrementalComponents
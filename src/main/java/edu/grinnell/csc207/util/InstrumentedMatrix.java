@@ -0,0 +1,386 @@
+package edu.grinnell.csc207.util;
+
+import edu.grinnell.csc207.util.MatrixMetrics.Operation;
+
+/**
+ * A matrix that records every operation on another matrix in a
+ * MatrixMetrics: how often it is called, how long it takes, and, for
+ * structural edits, how many bytes it allocates. Calls that throw are
+ * not recorded.
+ *
+ * When the metrics are disabled, each call costs one volatile read on
+ * top of the underlying matrix, so the wrapper can stay in place on hot
+ * paths and be switched on through JMX when needed.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class InstrumentedMatrix<T> implements Matrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix whose operations we record.
+   */
+  final Matrix<T> base;
+
+  /**
+   * Where we record them.
+   */
+  final MatrixMetrics metrics;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Record the operations on a matrix. The matrix should not be edited
+   * except through the new object.
+   *
+   * @param base1
+   *   The matrix whose operations we record.
+   * @param metrics1
+   *   Where we record them. May be shared by many matrices.
+   */
+  public InstrumentedMatrix(Matrix<T> base1, MatrixMetrics metrics1) {
+    this.base = base1;
+    this.metrics = metrics1;
+  } // InstrumentedMatrix(Matrix<T>, MatrixMetrics)
+
+  // +---------+-----------------------------------------------------
+  // | Metrics |
+  // +---------+
+
+  /**
+   * Get the metrics in which operations are recorded.
+   *
+   * @return the metrics.
+   */
+  public MatrixMetrics metrics() {
+    return this.metrics;
+  } // metrics()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    if (!this.metrics.enabled) {
+      return this.base.get(row, col);
+    } // if
+    long start = System.nanoTime();
+    T result = this.base.get(row, col);
+    this.metrics.record(Operation.GET, start);
+    return result;
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    if (!this.metrics.enabled) {
+      this.base.set(row, col, val);
+      return;
+    } // if
+    long start = System.nanoTime();
+    this.base.set(row, col, val);
+    this.metrics.record(Operation.SET, start);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.base.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.base.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    if (!this.metrics.enabled) {
+      this.base.insertRow(row);
+      return;
+    } // if
+    long allocated = MatrixMetrics.allocatedBytes();
+    long start = System.nanoTime();
+    this.base.insertRow(row);
+    this.metrics.record(Operation.INSERT_ROW, start, allocated);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (!this.metrics.enabled) {
+      this.base.insertRow(row, vals);
+      return;
+    } // if
+    long allocated = MatrixMetrics.allocatedBytes();
+    long start = System.nanoTime();
+    this.base.insertRow(row, vals);
+    this.metrics.record(Operation.INSERT_ROW, start, allocated);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    if (!this.metrics.enabled) {
+      this.base.insertCol(col);
+      return;
+    } // if
+    long allocated = MatrixMetrics.allocatedBytes();
+    long start = System.nanoTime();
+    this.base.insertCol(col);
+    this.metrics.record(Operation.INSERT_COL, start, allocated);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (!this.metrics.enabled) {
+      this.base.insertCol(col, vals);
+      return;
+    } // if
+    long allocated = MatrixMetrics.allocatedBytes();
+    long start = System.nanoTime();
+    this.base.insertCol(col, vals);
+    this.metrics.record(Operation.INSERT_COL, start, allocated);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    if (!this.metrics.enabled) {
+      this.base.deleteRow(row);
+      return;
+    } // if
+    long allocated = MatrixMetrics.allocatedBytes();
+    long start = System.nanoTime();
+    this.base.deleteRow(row);
+    this.metrics.record(Operation.DELETE_ROW, start, allocated);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    if (!this.metrics.enabled) {
+      this.base.deleteCol(col);
+      return;
+    } // if
+    long allocated = MatrixMetrics.allocatedBytes();
+    long start = System.nanoTime();
+    this.base.deleteCol(col);
+    this.metrics.record(Operation.DELETE_COL, start, allocated);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (!this.metrics.enabled) {
+      this.base.fillRegion(startRow, startCol, endRow, endCol, val);
+      return;
+    } // if
+    long start = System.nanoTime();
+    this.base.fillRegion(startRow, startCol, endRow, endCol, val);
+    this.metrics.record(Operation.FILL_REGION, start);
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    if (!this.metrics.enabled) {
+      this.base.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+      return;
+    } // if
+    long start = System.nanoTime();
+    this.base.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+    this.metrics.record(Operation.FILL_LINE, start);
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix. The copy records into the same metrics.
+   *
+   * @return a copy of the matrix.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public Matrix<T> clone() {
+    if (!this.metrics.enabled) {
+      return new InstrumentedMatrix<T>((Matrix<T>) this.base.clone(), this.metrics);
+    } // if
+    long allocated = MatrixMetrics.allocatedBytes();
+    long start = System.nanoTime();
+    Matrix<T> copy = (Matrix<T>) this.base.clone();
+    this.metrics.record(Operation.CLONE, start, allocated);
+    return new InstrumentedMatrix<T>(copy, this.metrics);
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (!this.metrics.enabled) {
+      return this.base.equals(other);
+    } // if
+    long start = System.nanoTime();
+    boolean result = this.base.equals(other);
+    this.metrics.record(Operation.EQUALS, start);
+    return result;
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    if (!this.metrics.enabled) {
+      return this.base.hashCode();
+    } // if
+    long start = System.nanoTime();
+    int result = this.base.hashCode();
+    this.metrics.record(Operation.HASH_CODE, start);
+    return result;
+  } // hashCode()
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains, which are mostly those of
+   * the underlying matrix.
+   *
+   * @return the estimate.
+   */
+  public long estimatedBytes() {
+    return MemoryBudget.OBJECT + this.base.estimatedBytes();
+  } // estimatedBytes()
+} // class InstrumentedMatrix
@@ -0,0 +1,723 @@
+package edu.grinnell.csc207.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A matrix that keeps a journal of every change in a directory, so that
+ * it can be restored after a crash.
+ *
+ * The journal is a series of segments, each a trace in the format of
+ * MatrixTrace: the header is a snapshot of the whole matrix, and the
+ * calls that follow are the changes made since. Only changes are
+ * recorded; reads go straight to the underlying matrix. Every so many
+ * changes a new segment is started and the old one deleted, so
+ * restoring reads one snapshot and replays a short tail, and the latest
+ * segment on its own is a compact archive of the session.
+ *
+ * Changes are buffered in memory and committed in groups: after every
+ * syncEvery changes, and on flush() and close(), the buffer is written
+ * to the segment and the segment is forced to disk. A crash loses at
+ * most the changes since the last commit. With the default of one,
+ * every change is durable before the call that made it returns; larger
+ * groups trade that for fewer disk syncs.
+ *
+ * A segment that was being written when the program stopped is read up
+ * to its last complete change. A segment whose snapshot is incomplete
+ * is ignored in favour of the one before it, which is only deleted once
+ * its successor's snapshot has been forced to disk.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class JournaledMatrix<T> implements Matrix<T>, Closeable {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The ending of the name of each segment.
+   */
+  static final String SUFFIX = ".journal";
+
+  // +-----------+---------------------------------------------------
+  // | Factories |
+  // +-----------+
+
+  /**
+   * A way of making the empty matrix that a journal is restored into.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  public interface Factory<T> {
+    /**
+     * Make a matrix.
+     *
+     * @param width
+     *   The width of the matrix.
+     * @param height
+     *   The height of the matrix.
+     * @param def
+     *   The default value of the matrix.
+     *
+     * @return the new matrix.
+     */
+    Matrix<T> create(int width, int height, T def);
+  } // interface Factory<T>
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix whose changes we record.
+   */
+  final Matrix<T> base;
+
+  /**
+   * The default value of the matrix.
+   */
+  final T defaultValue;
+
+  /**
+   * How we write values.
+   */
+  final ValueCodec<T> codec;
+
+  /**
+   * The directory that holds the segments.
+   */
+  final Path dir;
+
+  /**
+   * How many changes to record before starting a new segment.
+   */
+  final int snapshotEvery;
+
+  /**
+   * How many changes to buffer before forcing them to disk.
+   */
+  final int syncEvery;
+
+  /**
+   * The segment we are writing.
+   */
+  TracingMatrix<T> segment;
+
+  /**
+   * The file of the segment we are writing, which we force to disk.
+   */
+  FileChannel channel;
+
+  /**
+   * The number of the segment we are writing.
+   */
+  long number;
+
+  /**
+   * The number of changes recorded in the current segment.
+   */
+  int changes;
+
+  /**
+   * The number of changes recorded but not yet forced to disk.
+   */
+  int unsynced;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Keep a journal of a matrix, forcing every change to disk. The
+   * matrix should not be edited except through the new object. A
+   * snapshot of its current contents starts the journal, and replaces
+   * any journal already in the directory.
+   *
+   * @param base1
+   *   The matrix whose changes we record.
+   * @param def
+   *   The default value of the matrix, which insertRow(int) and
+   *   insertCol(int) use.
+   * @param codec1
+   *   How to write values.
+   * @param dir1
+   *   The directory that holds the journal. Created if need be.
+   * @param snapshotEvery1
+   *   How many changes to record before taking a new snapshot.
+   *
+   * @throws IOException
+   *   If the snapshot cannot be written.
+   * @throws IllegalArgumentException
+   *   If snapshotEvery1 is not positive.
+   */
+  public JournaledMatrix(Matrix<T> base1, T def, ValueCodec<T> codec1, Path dir1,
+      int snapshotEvery1) throws IOException {
+    this(base1, def, codec1, dir1, snapshotEvery1, 1);
+  } // JournaledMatrix(Matrix<T>, T, ValueCodec<T>, Path, int)
+
+  /**
+   * Keep a journal of a matrix, forcing changes to disk in groups. The
+   * matrix should not be edited except through the new object. A
+   * snapshot of its current contents starts the journal, and replaces
+   * any journal already in the directory.
+   *
+   * @param base1
+   *   The matrix whose changes we record.
+   * @param def
+   *   The default value of the matrix, which insertRow(int) and
+   *   insertCol(int) use.
+   * @param codec1
+   *   How to write values.
+   * @param dir1
+   *   The directory that holds the journal. Created if need be.
+   * @param snapshotEvery1
+   *   How many changes to record before taking a new snapshot.
+   * @param syncEvery1
+   *   How many changes to buffer before forcing them to disk.
+   *
+   * @throws IOException
+   *   If the snapshot cannot be written.
+   * @throws IllegalArgumentException
+   *   If snapshotEvery1 or syncEvery1 is not positive.
+   */
+  public JournaledMatrix(Matrix<T> base1, T def, ValueCodec<T> codec1, Path dir1,
+      int snapshotEvery1, int syncEvery1) throws IOException {
+    if (snapshotEvery1 <= 0) {
+      throw new IllegalArgumentException("Snapshots must be at least one change apart");
+    } // if
+    if (syncEvery1 <= 0) {
+      throw new IllegalArgumentException("Syncs must be at least one change apart");
+    } // if
+    this.base = base1;
+    this.defaultValue = def;
+    this.codec = codec1;
+    this.dir = dir1;
+    this.snapshotEvery = snapshotEvery1;
+    this.syncEvery = syncEvery1;
+    Files.createDirectories(dir1);
+    List<Long> existing = segments(dir1);
+    this.number = existing.isEmpty() ? 0 : existing.get(0);
+    this.snapshot();
+  } // JournaledMatrix(Matrix<T>, T, ValueCodec<T>, Path, int, int)
+
+  // +---------+-----------------------------------------------------
+  // | Journal |
+  // +---------+
+
+  /**
+   * Restore a matrix from its journal and keep journaling it, forcing
+   * every change to disk. The restored matrix is written as a fresh
+   * snapshot straight away.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param dir
+   *   The directory that holds the journal.
+   * @param codec
+   *   How to read and write values.
+   * @param factory
+   *   Makes the empty matrix that the journal is replayed into.
+   * @param snapshotEvery
+   *   How many changes to record before taking a new snapshot.
+   *
+   * @return the restored matrix.
+   *
+   * @throws IOException
+   *   If there is no complete snapshot in the directory, it was written
+   *   with another codec, or it cannot be read.
+   */
+  public static <T> JournaledMatrix<T> restore(Path dir, ValueCodec<T> codec,
+      Factory<T> factory, int snapshotEvery) throws IOException {
+    return restore(dir, codec, factory, snapshotEvery, 1);
+  } // restore(Path, ValueCodec<T>, Factory<T>, int)
+
+  /**
+   * Restore a matrix from its journal and keep journaling it, forcing
+   * changes to disk in groups. The restored matrix is written as a fresh
+   * snapshot straight away.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param dir
+   *   The directory that holds the journal.
+   * @param codec
+   *   How to read and write values.
+   * @param factory
+   *   Makes the empty matrix that the journal is replayed into.
+   * @param snapshotEvery
+   *   How many changes to record before taking a new snapshot.
+   * @param syncEvery
+   *   How many changes to buffer before forcing them to disk.
+   *
+   * @return the restored matrix.
+   *
+   * @throws IOException
+   *   If there is no complete snapshot in the directory, it was written
+   *   with another codec, or it cannot be read.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public static <T> JournaledMatrix<T> restore(Path dir, ValueCodec<T> codec,
+      Factory<T> factory, int snapshotEvery, int syncEvery) throws IOException {
+    for (long number : segments(dir)) {
+      MatrixTrace trace;
+      try (InputStream in = Files.newInputStream(segmentPath(dir, number))) {
+        trace = new MatrixTrace(in, true);
+      } catch (EOFException e) {
+        continue;
+      } // try/catch
+      if (!trace.codecName().equals(codec.name())) {
+        throw new IOException("Journal holds " + trace.codecName() + " values, not "
+            + codec.name());
+      } // if
+      T def = (T) trace.defaultValue();
+      Matrix<T> matrix = factory.create(trace.width(), trace.height(), def);
+      trace.replay(matrix);
+      return new JournaledMatrix<T>(matrix, def, codec, dir, snapshotEvery, syncEvery);
+    } // for
+    throw new IOException("No complete snapshot in " + dir);
+  } // restore(Path, ValueCodec<T>, Factory<T>, int, int)
+
+  /**
+   * Start a new segment with a snapshot of the whole matrix, force it to
+   * disk, and only then delete the segments before it.
+   *
+   * @throws IOException
+   *   If the snapshot cannot be written. The journal continues in the
+   *   current segment.
+   * @throws IllegalStateException
+   *   If the journal has been closed.
+   */
+  public void snapshot() throws IOException {
+    if (this.segment != null) {
+      this.checkOpen();
+    } // if
+    long next = this.number + 1;
+    FileChannel file = FileChannel.open(segmentPath(this.dir, next),
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE);
+    TracingMatrix<T> fresh;
+    try {
+      fresh = new TracingMatrix<T>(this.base, this.defaultValue, this.codec,
+          Channels.newOutputStream(file));
+      fresh.flush();
+      file.force(false);
+    } catch (IOException | UncheckedIOException e) {
+      file.close();
+      throw e;
+    } // try/catch
+    if (this.segment != null) {
+      this.segment.close();
+    } // if
+    this.segment = fresh;
+    this.channel = file;
+    this.number = next;
+    this.changes = 0;
+    this.unsynced = 0;
+    for (long old : segments(this.dir)) {
+      if (old < next) {
+        Files.deleteIfExists(segmentPath(this.dir, old));
+      } // if
+    } // for
+  } // snapshot()
+
+  /**
+   * Commit the changes recorded so far: write them to the journal file
+   * and force it to disk.
+   *
+   * @throws UncheckedIOException
+   *   If the journal cannot be written.
+   */
+  public void flush() {
+    if (this.segment.closed) {
+      return;
+    } // if
+    this.segment.flush();
+    try {
+      this.channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } // try/catch
+    this.unsynced = 0;
+  } // flush()
+
+  /**
+   * Commit the changes recorded so far and finish the journal. The
+   * matrix may still be read, but it may no longer be changed, since
+   * the changes could not be recorded.
+   *
+   * @throws IOException
+   *   If the journal cannot be written.
+   */
+  public void close() throws IOException {
+    try {
+      this.flush();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } // try/catch
+    this.segment.close();
+  } // close()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    return this.base.get(row, col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws IllegalStateException
+   *   If the journal has been closed.
+   */
+  public void set(int row, int col, T val) {
+    this.checkOpen();
+    this.segment.set(row, col, val);
+    this.changed();
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.base.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.base.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws IllegalStateException
+   *   If the journal has been closed.
+   */
+  public void insertRow(int row) {
+    this.checkOpen();
+    this.segment.insertRow(row);
+    this.changed();
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   * @throws IllegalStateException
+   *   If the journal has been closed.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    this.checkOpen();
+    this.segment.insertRow(row, vals);
+    this.changed();
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws IllegalStateException
+   *   If the journal has been closed.
+   */
+  public void insertCol(int col) {
+    this.checkOpen();
+    this.segment.insertCol(col);
+    this.changed();
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   * @throws IllegalStateException
+   *   If the journal has been closed.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    this.checkOpen();
+    this.segment.insertCol(col, vals);
+    this.changed();
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   * @throws IllegalStateException
+   *   If the journal has been closed.
+   */
+  public void deleteRow(int row) {
+    this.checkOpen();
+    this.segment.deleteRow(row);
+    this.changed();
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   * @throws IllegalStateException
+   *   If the journal has been closed.
+   */
+  public void deleteCol(int col) {
+    this.checkOpen();
+    this.segment.deleteCol(col);
+    this.changed();
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   * @throws IllegalStateException
+   *   If the journal has been closed.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    this.checkOpen();
+    this.segment.fillRegion(startRow, startCol, endRow, endCol, val);
+    this.changed();
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   * @throws IllegalStateException
+   *   If the journal has been closed.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    this.checkOpen();
+    this.segment.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+    this.changed();
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix. The copy has no journal.
+   *
+   * @return a copy of the underlying matrix.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public Matrix<T> clone() {
+    return this.base.clone();
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return this.base.equals(other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return this.base.hashCode();
+  } // hashCode()
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains, which are those of the
+   * segment being written and the matrix it wraps.
+   *
+   * @return the estimate.
+   */
+  public long estimatedBytes() {
+    return MemoryBudget.OBJECT + this.segment.estimatedBytes();
+  } // estimatedBytes()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Count a change, and take a snapshot or commit the changes if enough
+   * have been made.
+   *
+   * @throws UncheckedIOException
+   *   If the snapshot or the changes cannot be written.
+   */
+  void changed() {
+    if (++this.changes >= this.snapshotEvery) {
+      try {
+        this.snapshot();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } // try/catch
+    } else if (++this.unsynced >= this.syncEvery) {
+      this.flush();
+    } // if/else
+  } // changed()
+
+  /**
+   * Check that changes can still be recorded.
+   *
+   * @throws IllegalStateException
+   *   If the journal has been closed.
+   */
+  void checkOpen() {
+    if (this.segment.closed) {
+      throw new IllegalStateException("Cannot change a matrix whose journal is closed");
+    } // if
+  } // checkOpen()
+
+  /**
+   * Find the path of a segment.
+   *
+   * @param dir
+   *   The directory that holds the journal.
+   * @param number
+   *   The number of the segment.
+   *
+   * @return the path.
+   */
+  static Path segmentPath(Path dir, long number) {
+    return dir.resolve(String.format("%019d", number) + SUFFIX);
+  } // segmentPath(Path, long)
+
+  /**
+   * List the numbers of the segments in a directory, newest first.
+   *
+   * @param dir
+   *   The directory that holds the journal.
+   *
+   * @return the numbers.
+   *
+   * @throws IOException
+   *   If the directory cannot be read.
+   */
+  static List<Long> segments(Path dir) throws IOException {
+    List<Long> numbers = new ArrayList<Long>();
+    try (DirectoryStream<Path> paths = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+      for (Path path : paths) {
+        String name = path.getFileName().toString();
+        try {
+          numbers.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+        } catch (NumberFormatException e) {
+          // Not one of ours; leave it alone.
+        } // try/catch
+      } // for
+    } // try
+    numbers.sort(Collections.reverseOrder());
+    return numbers;
+  } // segments(Path)
+} // class JournaledMatrix
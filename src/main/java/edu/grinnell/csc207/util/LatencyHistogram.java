@@ -0,0 +1,188 @@
+package edu.grinnell.csc207.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in nanoseconds that many threads can record
+ * into without locking.
+ *
+ * Buckets are log-linear, in the style of HdrHistogram: values below
+ * SUB_BUCKETS get a bucket each, and every power-of-two range above that
+ * is split into SUB_BUCKETS / 2 equal buckets. Any recorded value is
+ * therefore reported within 1/16 (about 6%) of its true value, and the
+ * whole range of a long fits in under a thousand buckets.
+ *
+ * @author David William Stroud
+ */
+public class LatencyHistogram {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of bits used for the position within a power of two.
+   */
+  static final int SUB_BITS = 5;
+
+  /**
+   * The number of values below which every value has its own bucket.
+   */
+  static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+  /**
+   * The number of buckets in each power-of-two range above SUB_BUCKETS.
+   */
+  static final int HALF = SUB_BUCKETS / 2;
+
+  /**
+   * The total number of buckets.
+   */
+  static final int BUCKETS = bucket(Long.MAX_VALUE) + 1;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The number of values in each bucket.
+   */
+  final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  /**
+   * The number of values recorded.
+   */
+  final LongAdder total = new LongAdder();
+
+  /**
+   * The sum of the values recorded.
+   */
+  final LongAdder sum = new LongAdder();
+
+  /**
+   * The largest value recorded.
+   */
+  final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Record a value.
+   *
+   * @param nanos
+   *   The value. Negative values are recorded as 0.
+   */
+  public void record(long nanos) {
+    long val = Math.max(nanos, 0);
+    this.counts.incrementAndGet(bucket(val));
+    this.total.increment();
+    this.sum.add(val);
+    this.max.accumulate(val);
+  } // record(long)
+
+  /**
+   * Determine the number of values recorded.
+   *
+   * @return the number of values.
+   */
+  public long count() {
+    return this.total.sum();
+  } // count()
+
+  /**
+   * Determine the mean of the values recorded.
+   *
+   * @return the mean, or 0 if nothing has been recorded.
+   */
+  public double mean() {
+    long count = this.total.sum();
+    return count == 0 ? 0 : (double) this.sum.sum() / count;
+  } // mean()
+
+  /**
+   * Determine the largest value recorded.
+   *
+   * @return the largest value, or 0 if nothing has been recorded.
+   */
+  public long max() {
+    return this.max.get();
+  } // max()
+
+  /**
+   * Determine the value below which a fraction of the recorded values
+   * fall.
+   *
+   * @param fraction
+   *   The fraction, between 0 and 1.
+   *
+   * @return the highest value in the bucket that holds that fraction of
+   *   the values, capped at the largest value recorded; 0 if nothing has
+   *   been recorded.
+   */
+  public long percentile(double fraction) {
+    long needed = Math.max(1, (long) Math.ceil(fraction * this.total.sum()));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += this.counts.get(i);
+      if (seen >= needed) {
+        return Math.min(highest(i), this.max());
+      } // if
+    } // for
+    return this.max();
+  } // percentile(double)
+
+  /**
+   * Forget every recorded value. Values recorded concurrently with a
+   * reset may be partly forgotten.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.counts.set(i, 0);
+    } // for
+    this.total.reset();
+    this.sum.reset();
+    this.max.reset();
+  } // reset()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Find the bucket that holds a value.
+   *
+   * @param val
+   *   The value, which must not be negative.
+   *
+   * @return the index of the bucket.
+   */
+  static int bucket(long val) {
+    if (val < SUB_BUCKETS) {
+      return (int) val;
+    } // if
+    int shift = 63 - Long.numberOfLeadingZeros(val) - (SUB_BITS - 1);
+    return (shift + 1) * HALF + (int) (val >>> shift) - HALF;
+  } // bucket(long)
+
+  /**
+   * Find the highest value that falls in a bucket.
+   *
+   * @param bucket
+   *   The index of the bucket.
+   *
+   * @return the highest value.
+   */
+  static long highest(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    } // if
+    int shift = bucket / HALF - 1;
+    long sub = bucket % HALF + HALF;
+    long high = ((sub + 1) << shift) - 1;
+    // The top bucket ends at 2^63 - 1, which overflows the shift.
+    return high < 0 ? Long.MAX_VALUE : high;
+  } // highest(int)
+} // class LatencyHistogram
@@ -1,6 +1,18 @@
 package edu.grinnell.csc207.util;
 
 import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Two-dimensional matrices.
@@ -144,6 +156,58 @@ public interface Matrix<T> extends Cloneable {
     printRowSeparator(pen, cellWidth, width);
   } // print(PrintWriter, Matrix)
 
+  /**
+   * Compute the hash code of a matrix in the same way as MatrixV0, so
+   * that equal matrices of different implementations hash identically.
+   *
+   * @param matrix
+   *   The matrix to hash.
+   *
+   * @return the hash code.
+   */
+  static int hashCodeOf(Matrix<?> matrix) {
+    int multiplier = 7;
+    int width = matrix.width();
+    int height = matrix.height();
+    int code = width + multiplier * height;
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        Object val = matrix.get(row, col);
+        if (val != null) {
+          code = code * multiplier + val.hashCode();
+        } // if
+      } // for col
+    } // for row
+    return code;
+  } // hashCodeOf(Matrix<?>)
+
+  /**
+   * Determine if two matrices have the same width, height, and equal
+   * elements.
+   *
+   * @param left
+   *   One of the matrices to compare.
+   * @param right
+   *   The other matrix to compare.
+   *
+   * @return true if the matrices have equal contents; false otherwise.
+   */
+  static boolean sameContents(Matrix<?> left, Matrix<?> right) {
+    if (left.width() != right.width() || left.height() != right.height()) {
+      return false;
+    } // if
+    for (int row = 0; row < left.height(); row++) {
+      for (int col = 0; col < left.width(); col++) {
+        Object leftVal = left.get(row, col);
+        Object rightVal = right.get(row, col);
+        if (leftVal == null ? rightVal != null : !leftVal.equals(rightVal)) {
+          return false;
+        } // if
+      } // for col
+    } // for row
+    return true;
+  } // sameContents(Matrix<?>, Matrix<?>)
+
   // +--------------+------------------------------------------------
   // | Core methods |
   // +--------------+
@@ -319,6 +383,32 @@ public interface Matrix<T> extends Cloneable {
    */
   public Matrix clone();
 
+  /**
+   * Make a transposed copy of the matrix, in which the value at (row,
+   * col) is the value at (col, row) of this matrix. The default copies
+   * square tiles through get and set, which keeps both the reads and the
+   * writes close together; implementations with direct access to their
+   * storage should do better.
+   *
+   * @return the transposed copy.
+   */
+  public default Matrix<T> transpose() {
+    int tile = 32;
+    int width = this.width();
+    int height = this.height();
+    MatrixV0<T> result = new MatrixV0<T>(height, width);
+    for (int rr = 0; rr < height; rr += tile) {
+      for (int cc = 0; cc < width; cc += tile) {
+        for (int row = rr; row < Math.min(rr + tile, height); row++) {
+          for (int col = cc; col < Math.min(cc + tile, width); col++) {
+            result.set(col, row, this.get(row, col));
+          } // for col
+        } // for row
+      } // for cc
+    } // for rr
+    return result;
+  } // transpose()
+
   /**
    * Determine if this object is equal to another object.
    *
@@ -329,4 +419,377 @@ public interface Matrix<T> extends Cloneable {
    * height, and equal elements; false otherwise.
    */
   public boolean equals(Object other);
+
+  // +-------------+-------------------------------------------------
+  // | Bulk copies |
+  // +-------------+
+
+  /**
+   * Copy a row of the matrix into an array.
+   *
+   * @param row
+   *   The number of the row.
+   * @param dst
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @return dst.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If dst is the wrong length.
+   */
+  public default T[] getRow(int row, T[] dst) throws ArraySizeException {
+    BulkCopies.checkLength(dst.length, this.width(), "width");
+    GetSetCursor.checkRegion(this.width(), this.height(), row, 0, row + 1, this.width());
+    for (int col = 0; col < dst.length; col++) {
+      dst[col] = this.get(row, col);
+    } // for
+    return dst;
+  } // getRow(int, T[])
+
+  /**
+   * Copy an array into a row of the matrix.
+   *
+   * @param row
+   *   The number of the row.
+   * @param src
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If src is the wrong length.
+   */
+  public default void setRow(int row, T[] src) throws ArraySizeException {
+    BulkCopies.checkLength(src.length, this.width(), "width");
+    GetSetCursor.checkRegion(this.width(), this.height(), row, 0, row + 1, this.width());
+    for (int col = 0; col < src.length; col++) {
+      this.set(row, col, src[col]);
+    } // for
+  } // setRow(int, T[])
+
+  /**
+   * Copy a column of the matrix into an array.
+   *
+   * @param col
+   *   The number of the column.
+   * @param dst
+   *   The array, whose length must be the height of the matrix.
+   *
+   * @return dst.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is not in the matrix.
+   * @throws ArraySizeException
+   *   If dst is the wrong length.
+   */
+  public default T[] getCol(int col, T[] dst) throws ArraySizeException {
+    BulkCopies.checkLength(dst.length, this.height(), "height");
+    GetSetCursor.checkRegion(this.width(), this.height(), 0, col, this.height(), col + 1);
+    for (int row = 0; row < dst.length; row++) {
+      dst[row] = this.get(row, col);
+    } // for
+    return dst;
+  } // getCol(int, T[])
+
+  /**
+   * Copy an array into a column of the matrix.
+   *
+   * @param col
+   *   The number of the column.
+   * @param src
+   *   The array, whose length must be the height of the matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is not in the matrix.
+   * @throws ArraySizeException
+   *   If src is the wrong length.
+   */
+  public default void setCol(int col, T[] src) throws ArraySizeException {
+    BulkCopies.checkLength(src.length, this.height(), "height");
+    GetSetCursor.checkRegion(this.width(), this.height(), 0, col, this.height(), col + 1);
+    for (int row = 0; row < src.length; row++) {
+      this.set(row, col, src[row]);
+    } // for
+  } // setCol(int, T[])
+
+  /**
+   * Copy a rectangular region of another matrix (or of this one) into
+   * this matrix. Overlapping regions of the same matrix are copied as
+   * if through a temporary buffer.
+   *
+   * @param src
+   *   The matrix to copy from.
+   * @param srcRow
+   *   The top row of the region in src.
+   * @param srcCol
+   *   The left column of the region in src.
+   * @param dstRow
+   *   The top row of the region in this matrix.
+   * @param dstCol
+   *   The left column of the region in this matrix.
+   * @param height
+   *   The number of rows to copy.
+   * @param width
+   *   The number of columns to copy.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either region does not lie within its matrix.
+   */
+  public default void copyRegion(Matrix<? extends T> src, int srcRow, int srcCol,
+      int dstRow, int dstCol, int height, int width) {
+    BulkCopies.checkRegions(src, this,
+        new BulkCopies.Region(srcRow, srcCol, dstRow, dstCol, height, width));
+    // Walk backwards along any axis where the destination is ahead of
+    // the source, so that overlapping cells are read before they are
+    // overwritten.
+    boolean up = src == this && dstRow > srcRow;
+    boolean left = src == this && dstCol > srcCol;
+    for (int i = 0; i < height; i++) {
+      int row = up ? height - 1 - i : i;
+      for (int j = 0; j < width; j++) {
+        int col = left ? width - 1 - j : j;
+        this.set(dstRow + row, dstCol + col, src.get(srcRow + row, srcCol + col));
+      } // for j
+    } // for i
+  } // copyRegion(Matrix<? extends T>, int, int, int, int, int, int)
+
+  // +-----------+---------------------------------------------------
+  // | Iteration |
+  // +-----------+
+
+  /**
+   * Get a spliterator over the values in the matrix, in row-major order.
+   * It splits by ranges of rows, so parallel streams spread whole rows
+   * across threads. The matrix must not change shape while the
+   * spliterator is in use.
+   *
+   * @return the spliterator.
+   */
+  public default Spliterator<T> spliterator() {
+    return new MatrixSpliterator<T, T>(this, (row, col, val) -> val, 0);
+  } // spliterator()
+
+  /**
+   * Get a stream of the values in the matrix, in row-major order.
+   *
+   * @return the stream.
+   */
+  public default Stream<T> stream() {
+    return StreamSupport.stream(this.spliterator(), false);
+  } // stream()
+
+  /**
+   * Get a parallel stream of the values in the matrix.
+   *
+   * @return the stream.
+   */
+  public default Stream<T> parallelStream() {
+    return StreamSupport.stream(this.spliterator(), true);
+  } // parallelStream()
+
+  /**
+   * Get a stream of the cells in the matrix, with their positions, in
+   * row-major order. Call parallel() on it to scan with every core.
+   *
+   * @return the stream.
+   */
+  public default Stream<MatrixCell<T>> cells() {
+    return StreamSupport.stream(new MatrixSpliterator<T, MatrixCell<T>>(this,
+        MatrixCell::new, Spliterator.NONNULL), false);
+  } // cells()
+
+  /**
+   * Get a stream of the rows in the matrix, from top to bottom. Each row
+   * is an unmodifiable copy.
+   *
+   * @return the stream.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public default Stream<List<T>> rows() {
+    int width = this.width();
+    return IntStream.range(0, this.height()).mapToObj((row) -> {
+      Object[] vals = new Object[width];
+      for (int col = 0; col < width; col++) {
+        vals[col] = this.get(row, col);
+      } // for
+      return Collections.unmodifiableList(Arrays.asList((T[]) vals));
+    });
+  } // rows()
+
+  /**
+   * Get a cursor over every cell of the matrix.
+   *
+   * @return the cursor, positioned just before the first cell.
+   */
+  public default MatrixCursor<T> cursor() {
+    return this.cursor(0, 0, this.height(), this.width());
+  } // cursor()
+
+  /**
+   * Get a cursor over a rectangular region of the matrix. The region is
+   * checked here, once, rather than on every access.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   *
+   * @return the cursor, positioned just before the first cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the region does not lie within the matrix.
+   */
+  public default MatrixCursor<T> cursor(int startRow, int startCol, int endRow,
+      int endCol) {
+    GetSetCursor.checkRegion(this.width(), this.height(), startRow, startCol, endRow,
+        endCol);
+    return new GetSetCursor<T>(this, startRow, startCol, endRow, endCol);
+  } // cursor(int, int, int, int)
+
+  // +-----------------+---------------------------------------------
+  // | Bulk operations |
+  // +-----------------+
+
+  /**
+   * Make a new matrix by applying a function to every value. The
+   * default works sequentially through get, since get need not be safe
+   * to call from several threads; implementations that own their
+   * storage do this in parallel, so the function should not depend on
+   * the order of the calls.
+   *
+   * @param <R>
+   *   The type of the new values.
+   * @param fn
+   *   The function.
+   *
+   * @return a MatrixV0 of the results, with null as its default value.
+   */
+  public default <R> Matrix<R> map(Function<? super T, ? extends R> fn) {
+    int width = this.width();
+    MatrixV0<R> result = new MatrixV0<R>(width, this.height());
+    for (int row = 0; row < this.height(); row++) {
+      for (int col = 0; col < width; col++) {
+        result.backing[row * width + col] = fn.apply(this.get(row, col));
+      } // for col
+    } // for row
+    return result;
+  } // map(Function<? super T, ? extends R>)
+
+  /**
+   * Replace every value with the result of applying a function to it.
+   * The default works sequentially through get and set, since set need
+   * not be safe to call from several threads; implementations that own
+   * their storage do this in parallel.
+   *
+   * @param fn
+   *   The function.
+   */
+  public default void replaceAll(UnaryOperator<T> fn) {
+    for (int row = 0; row < this.height(); row++) {
+      for (int col = 0; col < this.width(); col++) {
+        this.set(row, col, fn.apply(this.get(row, col)));
+      } // for col
+    } // for row
+  } // replaceAll(UnaryOperator<T>)
+
+  /**
+   * Make a new matrix by combining the values in corresponding cells of
+   * this matrix and another. The default works sequentially through
+   * get; implementations that own their storage do this in parallel
+   * when the other matrix is of the same kind.
+   *
+   * @param <U>
+   *   The type of the values in the other matrix.
+   * @param <R>
+   *   The type of the new values.
+   * @param other
+   *   The other matrix, which must have the same width and height.
+   * @param fn
+   *   How to combine a value of this matrix with a value of the other.
+   *
+   * @return a MatrixV0 of the results, with null as its default value.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public default <U, R> Matrix<R> zipWith(Matrix<U> other,
+      BiFunction<? super T, ? super U, ? extends R> fn) throws ArraySizeException {
+    BulkOperations.checkSameShape(this, other);
+    int width = this.width();
+    MatrixV0<R> result = new MatrixV0<R>(width, this.height());
+    for (int row = 0; row < this.height(); row++) {
+      for (int col = 0; col < width; col++) {
+        result.backing[row * width + col] = fn.apply(this.get(row, col),
+            other.get(row, col));
+      } // for col
+    } // for row
+    return result;
+  } // zipWith(Matrix<U>, BiFunction<? super T, ? super U, ? extends R>)
+
+  /**
+   * Combine all the values, in row-major order, with an associative
+   * operation. The default works sequentially through get;
+   * implementations that own their storage do this in parallel.
+   *
+   * @param identity
+   *   The identity of the operation, which is the result for an empty
+   *   matrix.
+   * @param op
+   *   The operation.
+   *
+   * @return the combined value.
+   */
+  public default T reduce(T identity, BinaryOperator<T> op) {
+    T result = identity;
+    for (int row = 0; row < this.height(); row++) {
+      for (int col = 0; col < this.width(); col++) {
+        result = op.apply(result, this.get(row, col));
+      } // for col
+    } // for row
+    return result;
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the values that satisfy a predicate. The default works
+   * sequentially through get; implementations that own their storage
+   * do this in parallel.
+   *
+   * @param pred
+   *   The predicate.
+   *
+   * @return the number of values for which it holds.
+   */
+  public default long count(Predicate<? super T> pred) {
+    long count = 0;
+    for (int row = 0; row < this.height(); row++) {
+      for (int col = 0; col < this.width(); col++) {
+        if (pred.test(this.get(row, col))) {
+          count++;
+        } // if
+      } // for col
+    } // for row
+    return count;
+  } // count(Predicate<? super T>)
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains: its backing arrays, spare
+   * capacity, indexes, and caches, but not the values it stores. The
+   * default assumes one reference per cell.
+   *
+   * @return the estimate.
+   */
+  public default long estimatedBytes() {
+    return MemoryBudget.OBJECT
+        + MemoryBudget.arrayBytes((long) this.width() * this.height(), MemoryBudget.REFERENCE);
+  } // estimatedBytes()
 } // interface Matrix<T>
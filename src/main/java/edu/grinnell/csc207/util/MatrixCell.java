@@ -0,0 +1,120 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Objects;
+
+/**
+ * One cell of a matrix: its position and the value it held when it was
+ * visited.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of the value.
+ */
+public final class MatrixCell<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The row of the cell.
+   */
+  private final int row;
+
+  /**
+   * The column of the cell.
+   */
+  private final int col;
+
+  /**
+   * The value in the cell.
+   */
+  private final T value;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a cell.
+   *
+   * @param row1
+   *   The row of the cell.
+   * @param col1
+   *   The column of the cell.
+   * @param value1
+   *   The value in the cell.
+   */
+  public MatrixCell(int row1, int col1, T value1) {
+    this.row = row1;
+    this.col = col1;
+    this.value = value1;
+  } // MatrixCell(int, int, T)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get the row of the cell.
+   *
+   * @return the row.
+   */
+  public int row() {
+    return this.row;
+  } // row()
+
+  /**
+   * Get the column of the cell.
+   *
+   * @return the column.
+   */
+  public int col() {
+    return this.col;
+  } // col()
+
+  /**
+   * Get the value in the cell.
+   *
+   * @return the value.
+   */
+  public T value() {
+    return this.value;
+  } // value()
+
+  /**
+   * Determine if this cell is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a cell with the same position
+   *   and an equal value; false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (!(other instanceof MatrixCell)) {
+      return false;
+    } // if
+    MatrixCell<?> that = (MatrixCell<?>) other;
+    return this.row == that.row && this.col == that.col
+        && Objects.equals(this.value, that.value);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this cell.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return Objects.hash(this.row, this.col, this.value);
+  } // hashCode()
+
+  /**
+   * Describe this cell.
+   *
+   * @return a string of the form (row, col)=value.
+   */
+  public String toString() {
+    return "(" + this.row + ", " + this.col + ")=" + Matrix.toString(this.value);
+  } // toString()
+} // class MatrixCell
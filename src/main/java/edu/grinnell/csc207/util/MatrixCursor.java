@@ -0,0 +1,82 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * A position within a rectangular region of a matrix, for loops that
+ * visit many cells. The region is checked once, when the cursor is
+ * made; after that, implementations may read and write the cells
+ * without checking them again. A typical loop is
+ *
+ * <pre>
+ *   MatrixCursor&lt;T&gt; cursor = matrix.cursor();
+ *   while (cursor.next()) {
+ *     cursor.set(f(cursor.get()));
+ *   } // while
+ * </pre>
+ *
+ * get and set throw IllegalStateException until next has returned true
+ * or moveTo has been called, and again once next has returned false. A
+ * cursor must not be used after the matrix changes shape.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public interface MatrixCursor<T> {
+  /**
+   * Move to the next cell of the region, in row-major order.
+   *
+   * @return true if there is such a cell; false if the cursor has
+   *   passed the end of the region.
+   */
+  public boolean next();
+
+  /**
+   * Move to a particular cell of the region. A later call to next moves
+   * on from there.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the cell is not in the region.
+   */
+  public void moveTo(int row, int col);
+
+  /**
+   * Get the row of the current cell.
+   *
+   * @return the row.
+   */
+  public int row();
+
+  /**
+   * Get the column of the current cell.
+   *
+   * @return the column.
+   */
+  public int col();
+
+  /**
+   * Get the value in the current cell.
+   *
+   * @return the value.
+   *
+   * @throws IllegalStateException
+   *   If the cursor is not on a cell of its region.
+   */
+  public T get();
+
+  /**
+   * Set the value in the current cell.
+   *
+   * @param val
+   *   The value to store.
+   *
+   * @throws IllegalStateException
+   *   If the cursor is not on a cell of its region.
+   */
+  public void set(T val);
+} // interface MatrixCursor<T>
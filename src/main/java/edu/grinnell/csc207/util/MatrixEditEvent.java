@@ -0,0 +1,104 @@
+package edu.grinnell.csc207.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for an expensive structural edit of a
+ * MatrixV0: inserting or deleting a row or column, cloning, or filling a
+ * large region. Only edits that take longer than the threshold (1 ms by
+ * default; see the "threshold" setting of the event) are recorded, with
+ * a stack trace, so recordings can tie GC pressure and latency spikes to
+ * the code that made the edit.
+ *
+ * When Flight Recorder is not running, creating, beginning and finishing
+ * an event does no work beyond a check of whether it is enabled.
+ *
+ * @author David William Stroud
+ */
+@Name("edu.grinnell.csc207.MatrixEdit")
+@Label("Matrix Edit")
+@Category({"CSC-207", "Matrices"})
+@Description("A structural edit of a MatrixV0 that took longer than the threshold")
+@Threshold("1 ms")
+@StackTrace(true)
+public class MatrixEditEvent extends Event {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The name of the edit (e.g., "insertRow").
+   */
+  @Label("Operation")
+  String operation;
+
+  /**
+   * The row or column edited, or -1 if the edit has no single index.
+   */
+  @Label("Index")
+  int index;
+
+  /**
+   * The width of the matrix before the edit.
+   */
+  @Label("Width")
+  int width;
+
+  /**
+   * The height of the matrix before the edit.
+   */
+  @Label("Height")
+  int height;
+
+  /**
+   * The number of cells copied or written.
+   */
+  @Label("Cells")
+  long cells;
+
+  /**
+   * An estimate of the number of bytes copied or written.
+   */
+  @Label("Bytes Copied")
+  @DataAmount
+  long bytesCopied;
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * End the edit and record it if it is enabled and took longer than
+   * the threshold.
+   *
+   * @param operation1
+   *   The name of the edit.
+   * @param index1
+   *   The row or column edited, or -1.
+   * @param width1
+   *   The width of the matrix before the edit.
+   * @param height1
+   *   The height of the matrix before the edit.
+   * @param cells1
+   *   The number of cells copied or written.
+   */
+  void finish(String operation1, int index1, int width1, int height1, long cells1) {
+    this.end();
+    if (this.shouldCommit()) {
+      this.operation = operation1;
+      this.index = index1;
+      this.width = width1;
+      this.height = height1;
+      this.cells = cells1;
+      this.bytesCopied = cells1 * MemoryBudget.REFERENCE;
+      this.commit();
+    } // if
+  } // finish(String, int, int, int, long)
+} // class MatrixEditEvent
@@ -0,0 +1,365 @@
+package edu.grinnell.csc207.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts, latency histograms and allocation totals for the operations of
+ * one or more InstrumentedMatrix objects. Recording is lock-free, and a
+ * disabled instance costs each operation a single volatile read.
+ *
+ * @author David William Stroud
+ */
+public class MatrixMetrics implements MatrixMetricsMXBean {
+  // +------------+--------------------------------------------------
+  // | Operations |
+  // +------------+
+
+  /**
+   * The operations we record.
+   */
+  public enum Operation {
+    /**
+     * Get a cell.
+     */
+    GET,
+    /**
+     * Set a cell.
+     */
+    SET,
+    /**
+     * Insert a row.
+     */
+    INSERT_ROW,
+    /**
+     * Insert a column.
+     */
+    INSERT_COL,
+    /**
+     * Delete a row.
+     */
+    DELETE_ROW,
+    /**
+     * Delete a column.
+     */
+    DELETE_COL,
+    /**
+     * Fill a region.
+     */
+    FILL_REGION,
+    /**
+     * Fill a line.
+     */
+    FILL_LINE,
+    /**
+     * Copy the matrix.
+     */
+    CLONE,
+    /**
+     * Compare with another object.
+     */
+    EQUALS,
+    /**
+     * Compute the hash code.
+     */
+    HASH_CODE
+  } // enum Operation
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The JVM's thread bean, if it can measure allocation; otherwise null.
+   */
+  static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * Whether operations are being recorded.
+   */
+  volatile boolean enabled;
+
+  /**
+   * The latencies of each operation, indexed by ordinal.
+   */
+  final LatencyHistogram[] latencies;
+
+  /**
+   * The number of bytes allocated by structural edits.
+   */
+  final LongAdder bytes = new LongAdder();
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new set of metrics.
+   *
+   * @param enabled1
+   *   Whether to start recording right away.
+   */
+  public MatrixMetrics(boolean enabled1) {
+    this.enabled = enabled1;
+    this.latencies = new LatencyHistogram[Operation.values().length];
+    for (int i = 0; i < this.latencies.length; i++) {
+      this.latencies[i] = new LatencyHistogram();
+    } // for
+  } // MatrixMetrics(boolean)
+
+  /**
+   * Create a new set of metrics that records right away.
+   */
+  public MatrixMetrics() {
+    this(true);
+  } // MatrixMetrics()
+
+  // +-----------+---------------------------------------------------
+  // | Recording |
+  // +-----------+
+
+  /**
+   * Record a call that started at a given time.
+   *
+   * @param op
+   *   The operation.
+   * @param start
+   *   The value of System.nanoTime() when the call started.
+   */
+  void record(Operation op, long start) {
+    this.latencies[op.ordinal()].record(System.nanoTime() - start);
+  } // record(Operation, long)
+
+  /**
+   * Record a structural edit that started at a given time.
+   *
+   * @param op
+   *   The operation.
+   * @param start
+   *   The value of System.nanoTime() when the call started.
+   * @param allocated
+   *   The value of allocatedBytes() when the call started.
+   */
+  void record(Operation op, long start, long allocated) {
+    this.record(op, start);
+    if (allocated >= 0) {
+      this.bytes.add(allocatedBytes() - allocated);
+    } // if
+  } // record(Operation, long, long)
+
+  /**
+   * Determine how many bytes the current thread has allocated.
+   *
+   * @return the number of bytes, or -1 if the JVM cannot tell.
+   */
+  static long allocatedBytes() {
+    return ALLOCATION == null ? -1 : ALLOCATION.getCurrentThreadAllocatedBytes();
+  } // allocatedBytes()
+
+  /**
+   * Get the latencies of an operation.
+   *
+   * @param op
+   *   The operation.
+   *
+   * @return the histogram.
+   */
+  public LatencyHistogram latencies(Operation op) {
+    return this.latencies[op.ordinal()];
+  } // latencies(Operation)
+
+  // +------------+--------------------------------------------------
+  // | Management |
+  // +------------+
+
+  /**
+   * Publish these metrics on the platform MBean server.
+   *
+   * @param name
+   *   A name that distinguishes these metrics from others.
+   *
+   * @return the name under which the metrics were registered.
+   *
+   * @throws IllegalStateException
+   *   If the metrics cannot be registered, e.g., because the name is
+   *   already taken.
+   */
+  public ObjectName register(String name) {
+    try {
+      ObjectName objectName = new ObjectName("edu.grinnell.csc207:type=MatrixMetrics,name="
+          + ObjectName.quote(name));
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+      return objectName;
+    } catch (JMException e) {
+      throw new IllegalStateException("Cannot register matrix metrics " + name, e);
+    } // try/catch
+  } // register(String)
+
+  /**
+   * Remove metrics from the platform MBean server.
+   *
+   * @param objectName
+   *   The name returned by register.
+   *
+   * @throws IllegalStateException
+   *   If nothing is registered under that name.
+   */
+  public static void unregister(ObjectName objectName) {
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (JMException e) {
+      throw new IllegalStateException("Cannot unregister " + objectName, e);
+    } // try/catch
+  } // unregister(ObjectName)
+
+  /**
+   * Determine whether operations are being recorded.
+   *
+   * @return true if operations are being recorded.
+   */
+  public boolean isEnabled() {
+    return this.enabled;
+  } // isEnabled()
+
+  /**
+   * Start or stop recording operations.
+   *
+   * @param enabled1
+   *   Whether to record operations.
+   */
+  public void setEnabled(boolean enabled1) {
+    this.enabled = enabled1;
+  } // setEnabled(boolean)
+
+  /**
+   * Get the number of calls of each operation.
+   *
+   * @return the counts.
+   */
+  public Map<String, Long> getOperationCounts() {
+    return this.summarize(LatencyHistogram::count);
+  } // getOperationCounts()
+
+  /**
+   * Get the mean latency of each operation.
+   *
+   * @return the mean latencies.
+   */
+  public Map<String, Double> getMeanNanos() {
+    return this.summarize(LatencyHistogram::mean);
+  } // getMeanNanos()
+
+  /**
+   * Get the median latency of each operation.
+   *
+   * @return the median latencies.
+   */
+  public Map<String, Long> getMedianNanos() {
+    return this.summarize((histogram) -> histogram.percentile(0.5));
+  } // getMedianNanos()
+
+  /**
+   * Get the 99th percentile latency of each operation.
+   *
+   * @return the 99th percentile latencies.
+   */
+  public Map<String, Long> getP99Nanos() {
+    return this.summarize((histogram) -> histogram.percentile(0.99));
+  } // getP99Nanos()
+
+  /**
+   * Get the largest latency of each operation.
+   *
+   * @return the largest latencies.
+   */
+  public Map<String, Long> getMaxNanos() {
+    return this.summarize(LatencyHistogram::max);
+  } // getMaxNanos()
+
+  /**
+   * Get the number of bytes allocated by structural edits.
+   *
+   * @return the number of bytes, or 0 if the JVM cannot measure it.
+   */
+  public long getBytesAllocated() {
+    return this.bytes.sum();
+  } // getBytesAllocated()
+
+  /**
+   * Get an arbitrary percentile of the latency of an operation.
+   *
+   * @param operation
+   *   The name of the operation.
+   * @param fraction
+   *   The percentile, as a fraction between 0 and 1.
+   *
+   * @return the latency.
+   *
+   * @throws IllegalArgumentException
+   *   If there is no such operation.
+   */
+  public long percentileNanos(String operation, double fraction) {
+    return this.latencies(Operation.valueOf(operation)).percentile(fraction);
+  } // percentileNanos(String, double)
+
+  /**
+   * Forget everything recorded so far.
+   */
+  public void reset() {
+    for (LatencyHistogram histogram : this.latencies) {
+      histogram.reset();
+    } // for
+    this.bytes.reset();
+  } // reset()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Summarize the latencies of every operation that has been called.
+   *
+   * @param <V>
+   *   The type of the summary.
+   * @param summary
+   *   How to summarize one histogram.
+   *
+   * @return the summaries, by operation name.
+   */
+  final <V> Map<String, V> summarize(Function<LatencyHistogram, V> summary) {
+    Map<String, V> result = new LinkedHashMap<String, V>();
+    for (Operation op : Operation.values()) {
+      LatencyHistogram histogram = this.latencies[op.ordinal()];
+      if (histogram.count() > 0) {
+        result.put(op.name(), summary.apply(histogram));
+      } // if
+    } // for
+    return result;
+  } // summarize(Function<LatencyHistogram, V>)
+
+  /**
+   * Find the JVM's thread bean if it can measure allocation.
+   *
+   * @return the bean, or null.
+   */
+  static com.sun.management.ThreadMXBean allocationBean() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+      if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+        return sun;
+      } // if
+    } // if
+    return null;
+  } // allocationBean()
+} // class MatrixMetrics
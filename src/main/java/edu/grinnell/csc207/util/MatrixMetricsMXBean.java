@@ -0,0 +1,86 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Map;
+
+/**
+ * The management interface for MatrixMetrics. Maps are keyed by the
+ * name of the operation (e.g., "INSERT_ROW"); times are in nanoseconds.
+ *
+ * @author David William Stroud
+ */
+public interface MatrixMetricsMXBean {
+  /**
+   * Determine whether operations are being recorded.
+   *
+   * @return true if operations are being recorded.
+   */
+  boolean isEnabled();
+
+  /**
+   * Start or stop recording operations.
+   *
+   * @param enabled
+   *   Whether to record operations.
+   */
+  void setEnabled(boolean enabled);
+
+  /**
+   * Get the number of calls of each operation.
+   *
+   * @return the counts.
+   */
+  Map<String, Long> getOperationCounts();
+
+  /**
+   * Get the mean latency of each operation.
+   *
+   * @return the mean latencies.
+   */
+  Map<String, Double> getMeanNanos();
+
+  /**
+   * Get the median latency of each operation.
+   *
+   * @return the median latencies.
+   */
+  Map<String, Long> getMedianNanos();
+
+  /**
+   * Get the 99th percentile latency of each operation.
+   *
+   * @return the 99th percentile latencies.
+   */
+  Map<String, Long> getP99Nanos();
+
+  /**
+   * Get the largest latency of each operation.
+   *
+   * @return the largest latencies.
+   */
+  Map<String, Long> getMaxNanos();
+
+  /**
+   * Get the number of bytes allocated by structural edits (inserting,
+   * deleting and cloning).
+   *
+   * @return the number of bytes, or 0 if the JVM cannot measure it.
+   */
+  long getBytesAllocated();
+
+  /**
+   * Get an arbitrary percentile of the latency of an operation.
+   *
+   * @param operation
+   *   The name of the operation.
+   * @param fraction
+   *   The percentile, as a fraction between 0 and 1.
+   *
+   * @return the latency.
+   */
+  long percentileNanos(String operation, double fraction);
+
+  /**
+   * Forget everything recorded so far.
+   */
+  void reset();
+} // interface MatrixMetricsMXBean
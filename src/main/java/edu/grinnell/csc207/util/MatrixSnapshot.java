@@ -0,0 +1,332 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * An immutable, point-in-time view of a VersionedMatrix. Snapshots may be
+ * read from any thread while the original matrix continues to change.
+ * All mutators throw UnsupportedOperationException.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public final class MatrixSnapshot<T> implements Matrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The rows of the snapshot. Never modified once the snapshot exists.
+   */
+  private final Object[][] rows;
+  /**
+   * This is the width of the matrix.
+   */
+  private final int width;
+  /**
+   * This is the height of the matrix.
+   */
+  private final int height;
+  /**
+   * The default value of the matrix that was snapshotted.
+   */
+  private final T defaultValue;
+  /**
+   * The epoch at which the snapshot was taken.
+   */
+  private final long version;
+  /**
+   * The cached hash code, or 0 if it has not been computed yet.
+   */
+  private int hash;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new snapshot from a set of rows that will never change.
+   *
+   * @param rows1
+   *   The rows of the matrix.
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   * @param def
+   *   The default value of the original matrix.
+   * @param version1
+   *   The epoch at which the snapshot was taken.
+   */
+  MatrixSnapshot(Object[][] rows1, int width1, int height1, T def, long version1) {
+    this.rows = rows1;
+    this.width = width1;
+    this.height = height1;
+    this.defaultValue = def;
+    this.version = version1;
+  } // MatrixSnapshot(Object[][], int, int, T, long)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Determine the epoch at which this snapshot was taken. Later
+   * snapshots of the same matrix have larger versions.
+   *
+   * @return the version.
+   */
+  public long version() {
+    return this.version;
+  } // version()
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public T get(int row, int col) {
+    if (row >= this.height || row < 0) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+    if (col >= this.width || col < 0) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not valid for Matrix of width "
+                      + this.width
+      );
+    } // if
+    return (T) this.rows[row][col];
+  } // get(int, int)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Snapshots are read-only.
+   *
+   * @param row
+   *   Ignored.
+   * @param col
+   *   Ignored.
+   * @param val
+   *   Ignored.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void set(int row, int col, T val) {
+    throw readOnly();
+  } // set(int, int, T)
+
+  /**
+   * Snapshots are read-only.
+   *
+   * @param row
+   *   Ignored.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void insertRow(int row) {
+    throw readOnly();
+  } // insertRow(int)
+
+  /**
+   * Snapshots are read-only.
+   *
+   * @param row
+   *   Ignored.
+   * @param vals
+   *   Ignored.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void insertRow(int row, T[] vals) {
+    throw readOnly();
+  } // insertRow(int, T[])
+
+  /**
+   * Snapshots are read-only.
+   *
+   * @param col
+   *   Ignored.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void insertCol(int col) {
+    throw readOnly();
+  } // insertCol(int)
+
+  /**
+   * Snapshots are read-only.
+   *
+   * @param col
+   *   Ignored.
+   * @param vals
+   *   Ignored.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void insertCol(int col, T[] vals) {
+    throw readOnly();
+  } // insertCol(int, T[])
+
+  /**
+   * Snapshots are read-only.
+   *
+   * @param row
+   *   Ignored.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void deleteRow(int row) {
+    throw readOnly();
+  } // deleteRow(int)
+
+  /**
+   * Snapshots are read-only.
+   *
+   * @param col
+   *   Ignored.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void deleteCol(int col) {
+    throw readOnly();
+  } // deleteCol(int)
+
+  /**
+   * Snapshots are read-only.
+   *
+   * @param startRow
+   *   Ignored.
+   * @param startCol
+   *   Ignored.
+   * @param endRow
+   *   Ignored.
+   * @param endCol
+   *   Ignored.
+   * @param val
+   *   Ignored.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    throw readOnly();
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Snapshots are read-only.
+   *
+   * @param startRow
+   *   Ignored.
+   * @param startCol
+   *   Ignored.
+   * @param deltaRow
+   *   Ignored.
+   * @param deltaCol
+   *   Ignored.
+   * @param endRow
+   *   Ignored.
+   * @param endCol
+   *   Ignored.
+   * @param val
+   *   Ignored.
+   *
+   * @throws UnsupportedOperationException
+   *   Always.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    throw readOnly();
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a mutable copy of the snapshot. The copy shares rows with the
+   * snapshot until it modifies them.
+   *
+   * @return a mutable copy of the snapshot.
+   */
+  public Matrix<T> clone() {
+    return new VersionedMatrix<T>(this.rows, this.width, this.height,
+        this.defaultValue);
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (other == this) {
+      return true;
+    } // if
+    return other instanceof Matrix && Matrix.sameContents(this, (Matrix<?>) other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0. Since
+   * snapshots never change, the hash code is only computed once.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    int code = this.hash;
+    if (code == 0) {
+      code = Matrix.hashCodeOf(this);
+      this.hash = code;
+    } // if
+    return code;
+  } // hashCode()
+
+  /**
+   * Build the exception thrown by all mutators.
+   *
+   * @return the exception.
+   */
+  private static UnsupportedOperationException readOnly() {
+    return new UnsupportedOperationException("Matrix snapshots are read-only");
+  } // readOnly()
+} // class MatrixSnapshot
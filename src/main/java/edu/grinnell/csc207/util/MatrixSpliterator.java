@@ -0,0 +1,222 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over a range of cells of a matrix, in row-major order,
+ * that reads each cell with get. Splitting halves the range at a row
+ * boundary, so each half covers whole rows where possible; a range
+ * within a single row splits between columns.
+ *
+ * The matrix must not change shape while the spliterator is in use.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ * @param <R>
+ *   The type of the elements produced.
+ */
+class MatrixSpliterator<T, R> implements Spliterator<R> {
+  // +-------+-------------------------------------------------------
+  // | Types |
+  // +-------+
+
+  /**
+   * Turns a cell into an element.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param <R>
+   *   The type of the elements produced.
+   */
+  interface Mapper<T, R> {
+    /**
+     * Turn a cell into an element.
+     *
+     * @param row
+     *   The row of the cell.
+     * @param col
+     *   The column of the cell.
+     * @param value
+     *   The value in the cell.
+     *
+     * @return the element.
+     */
+    R apply(int row, int col, T value);
+  } // interface Mapper<T, R>
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of cells below which we do not split.
+   */
+  static final int MIN_SPLIT = 1 << 10;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix.
+   */
+  final Matrix<T> matrix;
+
+  /**
+   * The width of the matrix when the spliterator was created.
+   */
+  final int width;
+
+  /**
+   * How to turn cells into elements.
+   */
+  final Mapper<T, R> mapper;
+
+  /**
+   * Extra characteristics of the elements, such as NONNULL.
+   */
+  final int extra;
+
+  /**
+   * The row-major index of the next cell.
+   */
+  long index;
+
+  /**
+   * The row-major index just past the last cell.
+   */
+  final long end;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a spliterator over every cell of a matrix.
+   *
+   * @param matrix1
+   *   The matrix.
+   * @param mapper1
+   *   How to turn cells into elements.
+   * @param extra1
+   *   Extra characteristics of the elements, such as NONNULL.
+   */
+  MatrixSpliterator(Matrix<T> matrix1, Mapper<T, R> mapper1, int extra1) {
+    this(matrix1, matrix1.width(), mapper1, extra1, 0,
+        (long) matrix1.width() * matrix1.height());
+  } // MatrixSpliterator(Matrix<T>, Mapper<T, R>, int)
+
+  /**
+   * Create a spliterator over a range of cells.
+   *
+   * @param matrix1
+   *   The matrix.
+   * @param width1
+   *   The width of the matrix.
+   * @param mapper1
+   *   How to turn cells into elements.
+   * @param extra1
+   *   Extra characteristics of the elements.
+   * @param index1
+   *   The row-major index of the first cell (inclusive).
+   * @param end1
+   *   The row-major index of the last cell (exclusive).
+   */
+  MatrixSpliterator(Matrix<T> matrix1, int width1, Mapper<T, R> mapper1, int extra1,
+      long index1, long end1) {
+    this.matrix = matrix1;
+    this.width = width1;
+    this.mapper = mapper1;
+    this.extra = extra1;
+    this.index = index1;
+    this.end = end1;
+  } // MatrixSpliterator(Matrix<T>, int, Mapper<T, R>, int, long, long)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Visit the next cell, if there is one.
+   *
+   * @param action
+   *   What to do with its element.
+   *
+   * @return true if there was a cell; false otherwise.
+   */
+  public boolean tryAdvance(Consumer<? super R> action) {
+    if (this.index >= this.end) {
+      return false;
+    } // if
+    int row = (int) (this.index / this.width);
+    int col = (int) (this.index % this.width);
+    this.index++;
+    action.accept(this.mapper.apply(row, col, this.matrix.get(row, col)));
+    return true;
+  } // tryAdvance(Consumer<? super R>)
+
+  /**
+   * Visit every remaining cell, a row at a time.
+   *
+   * @param action
+   *   What to do with each element.
+   */
+  public void forEachRemaining(Consumer<? super R> action) {
+    if (this.index >= this.end) {
+      return;
+    } // if
+    long stop = this.end;
+    int row = (int) (this.index / this.width);
+    int col = (int) (this.index % this.width);
+    this.index = stop;
+    for (long i = (long) row * this.width + col; i < stop; row++, col = 0) {
+      int colEnd = (int) Math.min(this.width, stop - (long) row * this.width);
+      for (; col < colEnd; col++, i++) {
+        action.accept(this.mapper.apply(row, col, this.matrix.get(row, col)));
+      } // for col
+    } // for row
+  } // forEachRemaining(Consumer<? super R>)
+
+  /**
+   * Split off the first half of the remaining cells.
+   *
+   * @return a spliterator over the first half, or null if there are too
+   *   few cells to be worth splitting.
+   */
+  public Spliterator<R> trySplit() {
+    long remaining = this.end - this.index;
+    if (remaining < MIN_SPLIT) {
+      return null;
+    } // if
+    long middle = this.index + remaining / 2;
+    long rowStart = middle - middle % this.width;
+    if (rowStart > this.index) {
+      middle = rowStart;
+    } // if
+    MatrixSpliterator<T, R> prefix = new MatrixSpliterator<T, R>(this.matrix, this.width,
+        this.mapper, this.extra, this.index, middle);
+    this.index = middle;
+    return prefix;
+  } // trySplit()
+
+  /**
+   * Determine how many cells remain.
+   *
+   * @return the number of cells.
+   */
+  public long estimateSize() {
+    return this.end - this.index;
+  } // estimateSize()
+
+  /**
+   * Describe the elements.
+   *
+   * @return ORDERED, SIZED and SUBSIZED, plus the extra characteristics.
+   */
+  public int characteristics() {
+    return ORDERED | SIZED | SUBSIZED | this.extra;
+  } // characteristics()
+} // class MatrixSpliterator
@@ -0,0 +1,646 @@
+package edu.grinnell.csc207.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A trace of the calls on a matrix, as written by TracingMatrix, read
+ * into memory so that it can be replayed against any implementation.
+ *
+ * The format is a header followed by one record per call:
+ *
+ * * header: the magic number "MTRC", a version byte, the name of the
+ *   value codec, the width, the height, the default value, and the
+ *   value of every cell in row-major order.
+ * * call: an operation byte followed by its integer arguments, in the
+ *   order of the Matrix method's parameters, then any values. An array
+ *   of values is preceded by its length.
+ * * end: a zero byte.
+ *
+ * Integers are zig-zag varints. A value is written as its number (0 for
+ * null); the first time a number appears, the codec's encoding of the
+ * value follows it.
+ *
+ * @author David William Stroud
+ */
+public class MatrixTrace {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The first four bytes of every trace.
+   */
+  static final int MAGIC = 0x4D545243;
+
+  /**
+   * The version of the format.
+   */
+  static final byte VERSION = 1;
+
+  /**
+   * The end of the trace.
+   */
+  static final byte END = 0;
+
+  /**
+   * get(row, col).
+   */
+  static final byte GET = 1;
+
+  /**
+   * set(row, col, val).
+   */
+  static final byte SET = 2;
+
+  /**
+   * insertRow(row).
+   */
+  static final byte INSERT_ROW = 3;
+
+  /**
+   * insertRow(row, vals).
+   */
+  static final byte INSERT_ROW_VALUES = 4;
+
+  /**
+   * insertCol(col).
+   */
+  static final byte INSERT_COL = 5;
+
+  /**
+   * insertCol(col, vals).
+   */
+  static final byte INSERT_COL_VALUES = 6;
+
+  /**
+   * deleteRow(row).
+   */
+  static final byte DELETE_ROW = 7;
+
+  /**
+   * deleteCol(col).
+   */
+  static final byte DELETE_COL = 8;
+
+  /**
+   * fillRegion(startRow, startCol, endRow, endCol, val).
+   */
+  static final byte FILL_REGION = 9;
+
+  /**
+   * fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val).
+   */
+  static final byte FILL_LINE = 10;
+
+  /**
+   * clone().
+   */
+  static final byte CLONE = 11;
+
+  /**
+   * equals(other). The other matrix is not recorded; replays compare
+   * with the most recent clone, or with the matrix itself.
+   */
+  static final byte EQUALS = 12;
+
+  /**
+   * hashCode().
+   */
+  static final byte HASH_CODE = 13;
+
+  /**
+   * The names of the operations, indexed by operation byte.
+   */
+  static final String[] NAMES = {
+    "end", "get", "set", "insertRow", "insertRow(vals)", "insertCol", "insertCol(vals)",
+    "deleteRow", "deleteCol", "fillRegion", "fillLine", "clone", "equals", "hashCode"
+  };
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The name of the codec used for the values.
+   */
+  final String codecName;
+
+  /**
+   * The initial width of the matrix.
+   */
+  final int width;
+
+  /**
+   * The initial height of the matrix.
+   */
+  final int height;
+
+  /**
+   * The distinct values in the trace; value number n is at index n - 1.
+   */
+  final List<Object> values;
+
+  /**
+   * The number of the default value.
+   */
+  final int defaultId;
+
+  /**
+   * The number of the initial value of each cell, in row-major order.
+   */
+  final int[] cells;
+
+  /**
+   * The calls: each operation followed by its integer arguments and its
+   * value numbers. Arrays of values are stored in arrays, and the call
+   * holds the index of its array.
+   */
+  final int[] calls;
+
+  /**
+   * The number of ints used in calls.
+   */
+  final int length;
+
+  /**
+   * The arrays of values passed to insertRow and insertCol.
+   */
+  final List<Object[]> arrays;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Read a trace.
+   *
+   * @param stream
+   *   Where to read the trace from.
+   *
+   * @throws IOException
+   *   If the trace cannot be read or is malformed.
+   */
+  public MatrixTrace(InputStream stream) throws IOException {
+    this(stream, false);
+  } // MatrixTrace(InputStream)
+
+  /**
+   * Read a trace that may have been cut short, such as the journal of a
+   * session that crashed.
+   *
+   * @param stream
+   *   Where to read the trace from.
+   * @param partial
+   *   If true, a trace that ends without an end marker, even part way
+   *   through a call, holds the calls that were written in full.
+   *
+   * @throws IOException
+   *   If the trace cannot be read or is malformed. A header that is cut
+   *   short always gives an EOFException.
+   */
+  MatrixTrace(InputStream stream, boolean partial) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a matrix trace");
+    } // if
+    byte version = in.readByte();
+    if (version != VERSION) {
+      throw new IOException("Unsupported matrix trace version " + version);
+    } // if
+    this.codecName = in.readUTF();
+    ValueCodec<?> codec = ValueCodec.forName(this.codecName);
+    this.values = new ArrayList<Object>();
+    this.arrays = new ArrayList<Object[]>();
+    this.width = readInt(in);
+    this.height = readInt(in);
+    this.defaultId = this.readValue(in, codec);
+    this.cells = new int[this.width * this.height];
+    for (int i = 0; i < this.cells.length; i++) {
+      this.cells[i] = this.readValue(in, codec);
+    } // for
+
+    int[] calls1 = new int[64];
+    int length1 = 0;
+    int complete = 0;
+    byte op;
+    try {
+      while ((op = in.readByte()) != END) {
+        if (op < 0 || op >= NAMES.length) {
+          throw new IOException("Unknown operation " + op + " in matrix trace");
+        } // if
+        if (length1 + 8 > calls1.length) {
+          calls1 = Arrays.copyOf(calls1, calls1.length * 2);
+        } // if
+        calls1[length1++] = op;
+        switch (op) {
+          case GET:
+            calls1[length1++] = readInt(in);
+            calls1[length1++] = readInt(in);
+            break;
+          case SET:
+            calls1[length1++] = readInt(in);
+            calls1[length1++] = readInt(in);
+            calls1[length1++] = this.readValue(in, codec);
+            break;
+          case INSERT_ROW:
+          case INSERT_COL:
+          case DELETE_ROW:
+          case DELETE_COL:
+            calls1[length1++] = readInt(in);
+            break;
+          case INSERT_ROW_VALUES:
+          case INSERT_COL_VALUES:
+            calls1[length1++] = readInt(in);
+            calls1[length1++] = this.arrays.size();
+            this.arrays.add(this.readArray(in, codec));
+            break;
+          case FILL_REGION:
+            for (int i = 0; i < 4; i++) {
+              calls1[length1++] = readInt(in);
+            } // for
+            calls1[length1++] = this.readValue(in, codec);
+            break;
+          case FILL_LINE:
+            for (int i = 0; i < 6; i++) {
+              calls1[length1++] = readInt(in);
+            } // for
+            calls1[length1++] = this.readValue(in, codec);
+            break;
+          default:
+            break;
+        } // switch
+        complete = length1;
+      } // while
+    } catch (EOFException e) {
+      if (!partial) {
+        throw e;
+      } // if
+    } // try/catch
+    this.calls = calls1;
+    this.length = complete;
+  } // MatrixTrace(InputStream, boolean)
+
+  // +-----------+---------------------------------------------------
+  // | Accessors |
+  // +-----------+
+
+  /**
+   * Get the initial width of the matrix.
+   *
+   * @return the width.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Get the initial height of the matrix.
+   *
+   * @return the height.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Get the default value of the matrix.
+   *
+   * @return the default value.
+   */
+  public Object defaultValue() {
+    return this.value(this.defaultId);
+  } // defaultValue()
+
+  /**
+   * Get the name of the codec used for the values.
+   *
+   * @return the name.
+   */
+  public String codecName() {
+    return this.codecName;
+  } // codecName()
+
+  // +--------+------------------------------------------------------
+  // | Replay |
+  // +--------+
+
+  /**
+   * The timing of a replay.
+   */
+  public static class Report {
+    /**
+     * The number of calls of each operation.
+     */
+    final long[] counts = new long[NAMES.length];
+
+    /**
+     * The total time spent in each operation, in nanoseconds.
+     */
+    final long[] nanos = new long[NAMES.length];
+
+    /**
+     * The number of bytes allocated during the replay, or -1 if the JVM
+     * cannot tell.
+     */
+    long allocated;
+
+    /**
+     * Determine the number of calls of an operation.
+     *
+     * @param operation
+     *   The name of the operation, as in NAMES.
+     *
+     * @return the number of calls.
+     */
+    public long count(String operation) {
+      int op = Arrays.asList(NAMES).indexOf(operation);
+      return op < 0 ? 0 : this.counts[op];
+    } // count(String)
+
+    /**
+     * Determine the total time spent replaying.
+     *
+     * @return the time, in nanoseconds.
+     */
+    public long totalNanos() {
+      long total = 0;
+      for (long time : this.nanos) {
+        total += time;
+      } // for
+      return total;
+    } // totalNanos()
+
+    /**
+     * Determine the number of bytes allocated during the replay.
+     *
+     * @return the number of bytes, or -1 if the JVM cannot tell.
+     */
+    public long allocated() {
+      return this.allocated;
+    } // allocated()
+
+    /**
+     * Print the report.
+     *
+     * @param pen
+     *   What we use for printing.
+     */
+    public void print(PrintWriter pen) {
+      pen.printf("  %-16s %10s %14s %12s%n", "operation", "calls", "total ns", "mean ns");
+      for (int op = 1; op < NAMES.length; op++) {
+        if (this.counts[op] > 0) {
+          pen.printf("  %-16s %10d %14d %12.1f%n", NAMES[op], this.counts[op], this.nanos[op],
+              (double) this.nanos[op] / this.counts[op]);
+        } // if
+      } // for
+      pen.printf("  %-16s %10s %14d%n", "total", "", this.totalNanos());
+      pen.printf("  allocated: %s%n",
+          this.allocated < 0 ? "unknown" : this.allocated + " bytes");
+    } // print(PrintWriter)
+  } // class Report
+
+  /**
+   * Replay the trace against a matrix. The matrix is filled with the
+   * initial contents of the trace (untimed), then every call is made
+   * and timed.
+   *
+   * @param <T>
+   *   The type of the values; must match the codec of the trace.
+   * @param matrix
+   *   An empty matrix with the initial width and height of the trace
+   *   and its default value.
+   *
+   * @return the timing of the replay.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrix has the wrong dimensions.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public <T> Report replay(Matrix<T> matrix) {
+    if (matrix.width() != this.width || matrix.height() != this.height) {
+      throw new IllegalArgumentException("Trace starts with a " + this.width + "x"
+          + this.height + " matrix, not " + matrix.width() + "x" + matrix.height());
+    } // if
+    for (int i = 0; i < this.cells.length; i++) {
+      matrix.set(i / this.width, i % this.width, (T) this.value(this.cells[i]));
+    } // for
+
+    Report report = new Report();
+    Matrix<T> lastClone = matrix;
+    long allocated = MatrixMetrics.allocatedBytes();
+    int[] c = this.calls;
+    int pos = 0;
+    while (pos < this.length) {
+      int op = c[pos];
+      long start = System.nanoTime();
+      try {
+        switch (op) {
+          case GET:
+            matrix.get(c[pos + 1], c[pos + 2]);
+            pos += 3;
+            break;
+          case SET:
+            matrix.set(c[pos + 1], c[pos + 2], (T) this.value(c[pos + 3]));
+            pos += 4;
+            break;
+          case INSERT_ROW:
+            matrix.insertRow(c[pos + 1]);
+            pos += 2;
+            break;
+          case INSERT_ROW_VALUES:
+            matrix.insertRow(c[pos + 1], (T[]) this.arrays.get(c[pos + 2]));
+            pos += 3;
+            break;
+          case INSERT_COL:
+            matrix.insertCol(c[pos + 1]);
+            pos += 2;
+            break;
+          case INSERT_COL_VALUES:
+            matrix.insertCol(c[pos + 1], (T[]) this.arrays.get(c[pos + 2]));
+            pos += 3;
+            break;
+          case DELETE_ROW:
+            matrix.deleteRow(c[pos + 1]);
+            pos += 2;
+            break;
+          case DELETE_COL:
+            matrix.deleteCol(c[pos + 1]);
+            pos += 2;
+            break;
+          case FILL_REGION:
+            matrix.fillRegion(c[pos + 1], c[pos + 2], c[pos + 3], c[pos + 4],
+                (T) this.value(c[pos + 5]));
+            pos += 6;
+            break;
+          case FILL_LINE:
+            matrix.fillLine(c[pos + 1], c[pos + 2], c[pos + 3], c[pos + 4], c[pos + 5],
+                c[pos + 6], (T) this.value(c[pos + 7]));
+            pos += 8;
+            break;
+          case CLONE:
+            lastClone = matrix.clone();
+            pos += 1;
+            break;
+          case EQUALS:
+            matrix.equals(lastClone);
+            pos += 1;
+            break;
+          default:
+            matrix.hashCode();
+            pos += 1;
+            break;
+        } // switch
+      } catch (ArraySizeException e) {
+        throw new IllegalStateException("Trace does not fit the matrix", e);
+      } // try/catch
+      report.nanos[op] += System.nanoTime() - start;
+      report.counts[op]++;
+    } // while
+    report.allocated = allocated < 0 ? -1 : MatrixMetrics.allocatedBytes() - allocated;
+    return report;
+  } // replay(Matrix<T>)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Find a value by number.
+   *
+   * @param id
+   *   The number of the value.
+   *
+   * @return the value.
+   */
+  Object value(int id) {
+    return id == 0 ? null : this.values.get(id - 1);
+  } // value(int)
+
+  /**
+   * Read a value number, and the value itself if it is new.
+   *
+   * @param in
+   *   Where to read from.
+   * @param codec
+   *   How to read values.
+   *
+   * @return the number of the value.
+   *
+   * @throws IOException
+   *   If the value cannot be read or is numbered out of order.
+   */
+  int readValue(DataInput in, ValueCodec<?> codec) throws IOException {
+    int id = readVarint(in);
+    if (id == this.values.size() + 1) {
+      this.values.add(codec.read(in));
+    } else if (id > this.values.size()) {
+      throw new IOException("Value " + id + " used before it was defined");
+    } // if/else
+    return id;
+  } // readValue(DataInput, ValueCodec<?>)
+
+  /**
+   * Read the array of values of an insertRow or insertCol call.
+   *
+   * @param in
+   *   Where to read from.
+   * @param codec
+   *   How to read values.
+   *
+   * @return the values.
+   *
+   * @throws IOException
+   *   If the values cannot be read.
+   */
+  Object[] readArray(DataInput in, ValueCodec<?> codec) throws IOException {
+    Object[] result = new Object[readVarint(in)];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = this.value(this.readValue(in, codec));
+    } // for
+    return result;
+  } // readArray(DataInput, ValueCodec<?>)
+
+  /**
+   * Write a signed integer as a zig-zag varint.
+   *
+   * @param out
+   *   Where to write it.
+   * @param val
+   *   The integer.
+   *
+   * @throws IOException
+   *   If it cannot be written.
+   */
+  static void writeInt(DataOutput out, int val) throws IOException {
+    writeVarint(out, (val << 1) ^ (val >> 31));
+  } // writeInt(DataOutput, int)
+
+  /**
+   * Read a signed integer written by writeInt.
+   *
+   * @param in
+   *   Where to read it from.
+   *
+   * @return the integer.
+   *
+   * @throws IOException
+   *   If it cannot be read.
+   */
+  static int readInt(DataInput in) throws IOException {
+    int zigzag = readVarint(in);
+    return (zigzag >>> 1) ^ -(zigzag & 1);
+  } // readInt(DataInput)
+
+  /**
+   * Write an unsigned integer as a varint: seven bits per byte, low bits
+   * first, with the high bit set on every byte but the last.
+   *
+   * @param out
+   *   Where to write it.
+   * @param val
+   *   The integer, treated as unsigned.
+   *
+   * @throws IOException
+   *   If it cannot be written.
+   */
+  static void writeVarint(DataOutput out, int val) throws IOException {
+    while ((val & ~0x7F) != 0) {
+      out.writeByte((val & 0x7F) | 0x80);
+      val >>>= 7;
+    } // while
+    out.writeByte(val);
+  } // writeVarint(DataOutput, int)
+
+  /**
+   * Read a varint.
+   *
+   * @param in
+   *   Where to read it from.
+   *
+   * @return the integer.
+   *
+   * @throws IOException
+   *   If it cannot be read or is too long.
+   */
+  static int readVarint(DataInput in) throws IOException {
+    int result = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = in.readByte();
+      result |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return result;
+      } // if
+    } // for
+    throw new IOException("Malformed varint in matrix trace");
+  } // readVarint(DataInput)
+} // class MatrixTrace
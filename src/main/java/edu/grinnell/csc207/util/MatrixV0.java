@@ -1,5 +1,15 @@
 package edu.grinnell.csc207.util;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.StreamSupport;
+
 /**
  * An implementation of two-dimensional matrices.
  *
@@ -10,6 +20,20 @@ package edu.grinnell.csc207.util;
  *   The type of values stored in the matrix.
  */
 public class MatrixV0<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of cells above which fillRegion reports a MatrixEditEvent.
+   */
+  static final int LARGE_REGION = 1 << 12;
+
+  /**
+   * The side of the blocks at which transposing stops subdividing.
+   */
+  static final int TRANSPOSE_LEAF = 16;
+
   // +--------+------------------------------------------------------
   // | Fields |
   // +--------+
@@ -30,6 +54,11 @@ public class MatrixV0<T> implements Matrix<T> {
    * This is the default value passed to the constructor.
    */
   T defaultValue;
+  /**
+   * Whether this matrix holds the transpose of a ColumnMajorMatrix, so
+   * that its edits are reported with rows and columns swapped back.
+   */
+  boolean columnMajor;
 
   // +--------------+------------------------------------------------
   // | Constructors |
@@ -48,6 +77,9 @@ public class MatrixV0<T> implements Matrix<T> {
    *
    * @throws NegativeArraySizeException
    *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the matrix would be too large for an array or for the global
+   *   MemoryBudget.
    */
   public MatrixV0(int width1, int height1, T def) {
     this(width1, height1);
@@ -70,6 +102,9 @@ public class MatrixV0<T> implements Matrix<T> {
    *
    * @throws NegativeArraySizeException
    *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the matrix would be too large for an array or for the global
+   *   MemoryBudget.
    */
   @SuppressWarnings({ "unchecked" })
   public MatrixV0(int width1, int height1) {
@@ -79,6 +114,7 @@ public class MatrixV0<T> implements Matrix<T> {
     if (height1 < 0) {
       throw new NegativeArraySizeException("Negative height given to MatrixV0 constructor");
     } // if
+    MemoryBudget.checkCells(width1, height1, MemoryBudget.REFERENCE);
 
     this.width = width1;
     this.height = height1;
@@ -239,6 +275,8 @@ public class MatrixV0<T> implements Matrix<T> {
       );
     } // if
 
+    MatrixEditEvent event = new MatrixEditEvent();
+    event.begin();
     T[] newBacking = (T[]) new Object[this.backing.length - this.width()];
 
     int numBefore = row * this.width();
@@ -259,6 +297,7 @@ public class MatrixV0<T> implements Matrix<T> {
 
     this.backing = newBacking;
     this.height--;
+    this.finishEdit(event, "deleteRow", row, this.width, this.height + 1, newBacking.length);
   } // deleteRow(int)
 
   /**
@@ -281,6 +320,8 @@ public class MatrixV0<T> implements Matrix<T> {
       );
     } // if
 
+    MatrixEditEvent event = new MatrixEditEvent();
+    event.begin();
     T[] newBacking = (T[]) new Object[this.backing.length - this.height()];
 
     for (int i = 0; i < this.height(); i++) {
@@ -302,6 +343,7 @@ public class MatrixV0<T> implements Matrix<T> {
 
     this.backing = newBacking;
     this.width--;
+    this.finishEdit(event, "deleteCol", col, this.width + 1, this.height, newBacking.length);
   } // deleteCol(int)
 
   /**
@@ -356,11 +398,19 @@ public class MatrixV0<T> implements Matrix<T> {
       );
     } // if
 
+    long cells = (long) (endRow - startRow) * (endCol - startCol);
+    MatrixEditEvent event = cells >= LARGE_REGION ? new MatrixEditEvent() : null;
+    if (event != null) {
+      event.begin();
+    } // if
     for (int i = startRow; i < endRow; i++) {
       for (int j = startCol; j < endCol; j++) {
         this.set(i, j, val);
       } // for
     } // for
+    if (event != null) {
+      this.finishEdit(event, "fillRegion", -1, this.width, this.height, cells);
+    } // if
   } // fillRegion(int, int, int, int, T)
 
   /**
@@ -435,12 +485,15 @@ public class MatrixV0<T> implements Matrix<T> {
    * @return a copy of the matrix.
    */
   public Matrix<T> clone() {
+    MatrixEditEvent event = new MatrixEditEvent();
+    event.begin();
     MatrixV0<T> cloned = new MatrixV0<>(this.width(), this.height(), this.defaultValue);
     for (int i = 0; i < this.height(); i++) {
       for (int j = 0; j < this.width(); j++) {
         cloned.set(i, j, this.get(i, j));
       } // for
     } // for
+    this.finishEdit(event, "clone", -1, this.width, this.height, this.backing.length);
     return cloned;
   } // clone()
 
@@ -507,6 +560,299 @@ public class MatrixV0<T> implements Matrix<T> {
     return code;
   } // hashCode()
 
+  /**
+   * Get a spliterator over the values in the matrix, in row-major order.
+   * Since the backing array is already in that order, this is just the
+   * array's own spliterator.
+   *
+   * @return the spliterator.
+   */
+  public Spliterator<T> spliterator() {
+    return Arrays.spliterator(this.backing, 0, this.width * this.height);
+  } // spliterator()
+
+  /**
+   * Copy a row of the matrix into an array with one arraycopy.
+   *
+   * @param row
+   *   The number of the row.
+   * @param dst
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @return dst.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If dst is the wrong length.
+   */
+  public T[] getRow(int row, T[] dst) throws ArraySizeException {
+    BulkCopies.checkLength(dst.length, this.width, "width");
+    GetSetCursor.checkRegion(this.width, this.height, row, 0, row + 1, this.width);
+    System.arraycopy(this.backing, row * this.width, dst, 0, this.width);
+    return dst;
+  } // getRow(int, T[])
+
+  /**
+   * Copy an array into a row of the matrix with one arraycopy.
+   *
+   * @param row
+   *   The number of the row.
+   * @param src
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If src is the wrong length.
+   */
+  public void setRow(int row, T[] src) throws ArraySizeException {
+    BulkCopies.checkLength(src.length, this.width, "width");
+    GetSetCursor.checkRegion(this.width, this.height, row, 0, row + 1, this.width);
+    System.arraycopy(src, 0, this.backing, row * this.width, this.width);
+  } // setRow(int, T[])
+
+  /**
+   * Copy a column of the matrix into an array, striding through the
+   * backing array.
+   *
+   * @param col
+   *   The number of the column.
+   * @param dst
+   *   The array, whose length must be the height of the matrix.
+   *
+   * @return dst.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is not in the matrix.
+   * @throws ArraySizeException
+   *   If dst is the wrong length.
+   */
+  public T[] getCol(int col, T[] dst) throws ArraySizeException {
+    BulkCopies.checkLength(dst.length, this.height, "height");
+    GetSetCursor.checkRegion(this.width, this.height, 0, col, this.height, col + 1);
+    for (int row = 0, i = col; row < dst.length; row++, i += this.width) {
+      dst[row] = this.backing[i];
+    } // for
+    return dst;
+  } // getCol(int, T[])
+
+  /**
+   * Copy an array into a column of the matrix, striding through the
+   * backing array.
+   *
+   * @param col
+   *   The number of the column.
+   * @param src
+   *   The array, whose length must be the height of the matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is not in the matrix.
+   * @throws ArraySizeException
+   *   If src is the wrong length.
+   */
+  public void setCol(int col, T[] src) throws ArraySizeException {
+    BulkCopies.checkLength(src.length, this.height, "height");
+    GetSetCursor.checkRegion(this.width, this.height, 0, col, this.height, col + 1);
+    for (int row = 0, i = col; row < src.length; row++, i += this.width) {
+      this.backing[i] = src[row];
+    } // for
+  } // setCol(int, T[])
+
+  /**
+   * Copy a rectangular region of another matrix into this one. When the
+   * other matrix is also a MatrixV0, each row is a single arraycopy.
+   *
+   * @param src
+   *   The matrix to copy from.
+   * @param srcRow
+   *   The top row of the region in src.
+   * @param srcCol
+   *   The left column of the region in src.
+   * @param dstRow
+   *   The top row of the region in this matrix.
+   * @param dstCol
+   *   The left column of the region in this matrix.
+   * @param height1
+   *   The number of rows to copy.
+   * @param width1
+   *   The number of columns to copy.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either region does not lie within its matrix.
+   */
+  public void copyRegion(Matrix<? extends T> src, int srcRow, int srcCol, int dstRow,
+      int dstCol, int height1, int width1) {
+    if (!(src instanceof MatrixV0)) {
+      Matrix.super.copyRegion(src, srcRow, srcCol, dstRow, dstCol, height1, width1);
+      return;
+    } // if
+    BulkCopies.Region region = new BulkCopies.Region(srcRow, srcCol, dstRow, dstCol,
+        height1, width1);
+    BulkCopies.checkRegions(src, this, region);
+    MatrixV0<?> other = (MatrixV0<?>) src;
+    BulkCopies.copyRows(other.backing, other.width, this.backing, this.width, region);
+  } // copyRegion(Matrix<? extends T>, int, int, int, int, int, int)
+
+  /**
+   * Get a cursor over a rectangular region of the matrix that indexes
+   * the backing array directly. The cursor holds on to the current
+   * backing array, so it must not be used after a row or column is
+   * inserted or deleted.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   *
+   * @return the cursor, positioned just before the first cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the region does not lie within the matrix.
+   */
+  public MatrixCursor<T> cursor(int startRow, int startCol, int endRow, int endCol) {
+    GetSetCursor.checkRegion(this.width, this.height, startRow, startCol, endRow, endCol);
+    return new BackingCursor<T>(this.backing, this.width, startRow, startCol, endRow,
+        endCol);
+  } // cursor(int, int, int, int)
+
+  /**
+   * Make a new matrix by applying a function to every value, working
+   * directly on the backing array and in parallel when it is large.
+   *
+   * @param <R>
+   *   The type of the new values.
+   * @param fn
+   *   The function.
+   *
+   * @return the results, with null as the default value.
+   */
+  public <R> MatrixV0<R> map(Function<? super T, ? extends R> fn) {
+    MatrixV0<R> result = new MatrixV0<R>(this.width, this.height);
+    T[] values = this.backing;
+    BulkOperations.setAll(result.backing, (i) -> fn.apply(values[i]));
+    return result;
+  } // map(Function<? super T, ? extends R>)
+
+  /**
+   * Replace every value with the result of applying a function to it,
+   * in parallel when the matrix is large.
+   *
+   * @param fn
+   *   The function.
+   */
+  public void replaceAll(UnaryOperator<T> fn) {
+    T[] values = this.backing;
+    BulkOperations.setAll(values, (i) -> fn.apply(values[i]));
+  } // replaceAll(UnaryOperator<T>)
+
+  /**
+   * Make a new matrix by combining corresponding values of this matrix
+   * and another. When the other is also a MatrixV0, both backing arrays
+   * are read directly.
+   *
+   * @param <U>
+   *   The type of the values in the other matrix.
+   * @param <R>
+   *   The type of the new values.
+   * @param other
+   *   The other matrix, which must have the same width and height.
+   * @param fn
+   *   How to combine a value of this matrix with a value of the other.
+   *
+   * @return the results, with null as the default value.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public <U, R> Matrix<R> zipWith(Matrix<U> other,
+      BiFunction<? super T, ? super U, ? extends R> fn) throws ArraySizeException {
+    if (!(other instanceof MatrixV0)) {
+      return Matrix.super.zipWith(other, fn);
+    } // if
+    BulkOperations.checkSameShape(this, other);
+    MatrixV0<R> result = new MatrixV0<R>(this.width, this.height);
+    T[] values = this.backing;
+    U[] others = ((MatrixV0<U>) other).backing;
+    BulkOperations.setAll(result.backing, (i) -> fn.apply(values[i], others[i]));
+    return result;
+  } // zipWith(Matrix<U>, BiFunction<? super T, ? super U, ? extends R>)
+
+  /**
+   * Combine all the values with an associative operation, splitting the
+   * backing array in parallel when it is large.
+   *
+   * @param identity
+   *   The identity of the operation.
+   * @param op
+   *   The operation.
+   *
+   * @return the combined value.
+   */
+  public T reduce(T identity, BinaryOperator<T> op) {
+    return StreamSupport.stream(this.spliterator(),
+        BulkOperations.parallel(this.width * this.height)).reduce(identity, op);
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the values that satisfy a predicate, splitting the backing
+   * array in parallel when it is large.
+   *
+   * @param pred
+   *   The predicate.
+   *
+   * @return the number of values for which it holds.
+   */
+  public long count(Predicate<? super T> pred) {
+    return StreamSupport.stream(this.spliterator(),
+        BulkOperations.parallel(this.width * this.height)).filter(pred).count();
+  } // count(Predicate<? super T>)
+
+  /**
+   * Make a transposed copy of the matrix. The copy is made by recursively
+   * halving the longer side of the matrix until the pieces are small,
+   * so that at some level the pieces fit in each cache, whatever its
+   * size.
+   *
+   * @return the transposed copy, with the same default value.
+   */
+  public MatrixV0<T> transpose() {
+    MatrixEditEvent event = new MatrixEditEvent();
+    event.begin();
+    MatrixV0<T> result = new MatrixV0<T>(this.height, this.width);
+    result.defaultValue = this.defaultValue;
+    transposeInto(this, result, 0, this.height, 0, this.width);
+    this.finishEdit(event, "transpose", -1, this.width, this.height, this.backing.length);
+    return result;
+  } // transpose()
+
+  /**
+   * Transpose this matrix without allocating another backing array.
+   * Square matrices swap pairs of recursively halved blocks across the
+   * diagonal. Other matrices move each cell around its cycle of the
+   * transposing permutation, using one bit per cell to remember which
+   * cycles are done.
+   */
+  public void transposeInPlace() {
+    MatrixEditEvent event = new MatrixEditEvent();
+    event.begin();
+    int oldWidth = this.width;
+    int oldHeight = this.height;
+    if (this.width == this.height) {
+      transposeDiagonal(this.backing, this.width, 0, this.width);
+    } else {
+      transposeCycles(this.backing, this.width, this.height);
+      this.width = oldHeight;
+      this.height = oldWidth;
+    } // if/else
+    this.finishEdit(event, "transposeInPlace", -1, oldWidth, oldHeight, this.backing.length);
+  } // transposeInPlace()
+
   /**
    * This method calculates the index into the backing array
    * required to access the index (row, col).
@@ -577,6 +923,9 @@ public class MatrixV0<T> implements Matrix<T> {
       );
     } // if
 
+    MemoryBudget.checkCells(this.width, this.height + 1L, MemoryBudget.REFERENCE);
+    MatrixEditEvent event = new MatrixEditEvent();
+    event.begin();
     T[] newBacking = (T[]) new Object[this.backing.length + this.width()];
 
     int numBefore = row == this.height() ? this.backing.length : this.getIndex(row, 0);
@@ -602,6 +951,7 @@ public class MatrixV0<T> implements Matrix<T> {
     for (int i = 0; i < this.width(); i++) {
       this.set(row, i, vals[i]);
     } // for
+    this.finishEdit(event, "insertRow", row, this.width, this.height - 1, newBacking.length);
   } // insertRowUnchecked(int, T[])
 
   /**
@@ -627,6 +977,9 @@ public class MatrixV0<T> implements Matrix<T> {
       );
     } // if
 
+    MemoryBudget.checkCells(this.width + 1L, this.height, MemoryBudget.REFERENCE);
+    MatrixEditEvent event = new MatrixEditEvent();
+    event.begin();
     T[] newBacking = (T[]) new Object[this.backing.length + this.height()];
 
     for (int i = 0; i < this.height(); i++) {
@@ -652,8 +1005,38 @@ public class MatrixV0<T> implements Matrix<T> {
     for (int i = 0; i < this.height(); i++) {
       this.set(i, col, vals[i]);
     } // for
+    this.finishEdit(event, "insertCol", col, this.width - 1, this.height, newBacking.length);
   } // insertColUnchecked(int, T[])
 
+  /**
+   * End an edit and report it, in terms of the ColumnMajorMatrix whose
+   * cells this matrix holds, if there is one.
+   *
+   * @param event
+   *   The event for the edit.
+   * @param operation
+   *   The name of the edit.
+   * @param index
+   *   The row or column edited, or -1.
+   * @param width1
+   *   The width of this matrix before the edit.
+   * @param height1
+   *   The height of this matrix before the edit.
+   * @param cells
+   *   The number of cells copied or written.
+   */
+  void finishEdit(MatrixEditEvent event, String operation, int index, int width1,
+      int height1, long cells) {
+    if (this.columnMajor) {
+      String swapped = operation.endsWith("Row")
+          ? operation.replace("Row", "Col")
+          : operation.replace("Col", "Row");
+      event.finish(swapped, index, height1, width1, cells);
+    } else {
+      event.finish(operation, index, width1, height1, cells);
+    } // if/else
+  } // finishEdit(MatrixEditEvent, String, int, int, int, long)
+
   /**
    * This method calculates whether an index is inside a [start, end) range.
    * @param start The beginning of the range.
@@ -668,4 +1051,377 @@ public class MatrixV0<T> implements Matrix<T> {
       return end < index && index <= start;
     } // if-else
   } // isWithin(int, int, int)
+
+  /**
+   * Copy a block of one matrix into the transposed position of another,
+   * halving the longer side until the block is small.
+   *
+   * @param src
+   *   The matrix to copy from.
+   * @param dst
+   *   The matrix to copy to, whose width is the height of src.
+   * @param rowStart
+   *   The first row of the block in src (inclusive).
+   * @param rowEnd
+   *   The last row of the block in src (exclusive).
+   * @param colStart
+   *   The first column of the block in src (inclusive).
+   * @param colEnd
+   *   The last column of the block in src (exclusive).
+   */
+  static void transposeInto(MatrixV0<?> src, MatrixV0<?> dst, int rowStart, int rowEnd,
+      int colStart, int colEnd) {
+    int rows = rowEnd - rowStart;
+    int cols = colEnd - colStart;
+    if (rows <= TRANSPOSE_LEAF && cols <= TRANSPOSE_LEAF) {
+      Object[] from = src.backing;
+      Object[] to = dst.backing;
+      int srcWidth = src.width;
+      int dstWidth = dst.width;
+      for (int row = rowStart; row < rowEnd; row++) {
+        for (int col = colStart; col < colEnd; col++) {
+          to[col * dstWidth + row] = from[row * srcWidth + col];
+        } // for col
+      } // for row
+    } else if (rows >= cols) {
+      int middle = rowStart + rows / 2;
+      transposeInto(src, dst, rowStart, middle, colStart, colEnd);
+      transposeInto(src, dst, middle, rowEnd, colStart, colEnd);
+    } else {
+      int middle = colStart + cols / 2;
+      transposeInto(src, dst, rowStart, rowEnd, colStart, middle);
+      transposeInto(src, dst, rowStart, rowEnd, middle, colEnd);
+    } // if/else
+  } // transposeInto(MatrixV0<?>, MatrixV0<?>, int, int, int, int)
+
+  /**
+   * Transpose a square block on the diagonal of a square matrix in
+   * place.
+   *
+   * @param values
+   *   The row-major values.
+   * @param size
+   *   The width and height of the matrix.
+   * @param start
+   *   The first row and column of the block (inclusive).
+   * @param end
+   *   The last row and column of the block (exclusive).
+   */
+  static void transposeDiagonal(Object[] values, int size, int start, int end) {
+    if (end - start <= TRANSPOSE_LEAF) {
+      for (int row = start; row < end; row++) {
+        for (int col = row + 1; col < end; col++) {
+          swap(values, row * size + col, col * size + row);
+        } // for col
+      } // for row
+      return;
+    } // if
+    int middle = start + (end - start) / 2;
+    transposeDiagonal(values, size, start, middle);
+    transposeDiagonal(values, size, middle, end);
+    swapAcross(values, size, start, middle, middle, end);
+  } // transposeDiagonal(Object[], int, int, int)
+
+  /**
+   * Swap a block above the diagonal of a square matrix with its mirror
+   * image below the diagonal, halving the longer side until the block
+   * is small.
+   *
+   * @param values
+   *   The row-major values.
+   * @param size
+   *   The width and height of the matrix.
+   * @param rowStart
+   *   The first row of the block (inclusive).
+   * @param rowEnd
+   *   The last row of the block (exclusive).
+   * @param colStart
+   *   The first column of the block (inclusive).
+   * @param colEnd
+   *   The last column of the block (exclusive).
+   */
+  static void swapAcross(Object[] values, int size, int rowStart, int rowEnd,
+      int colStart, int colEnd) {
+    int rows = rowEnd - rowStart;
+    int cols = colEnd - colStart;
+    if (rows <= TRANSPOSE_LEAF && cols <= TRANSPOSE_LEAF) {
+      for (int row = rowStart; row < rowEnd; row++) {
+        for (int col = colStart; col < colEnd; col++) {
+          swap(values, row * size + col, col * size + row);
+        } // for col
+      } // for row
+    } else if (rows >= cols) {
+      int middle = rowStart + rows / 2;
+      swapAcross(values, size, rowStart, middle, colStart, colEnd);
+      swapAcross(values, size, middle, rowEnd, colStart, colEnd);
+    } else {
+      int middle = colStart + cols / 2;
+      swapAcross(values, size, rowStart, rowEnd, colStart, middle);
+      swapAcross(values, size, rowStart, rowEnd, middle, colEnd);
+    } // if/else
+  } // swapAcross(Object[], int, int, int, int, int)
+
+  /**
+   * Transpose a rectangular row-major array in place by following the
+   * cycles of the permutation. The cell at index i (other than the
+   * last) moves to index i * height mod (cells - 1).
+   *
+   * @param values
+   *   The row-major values.
+   * @param width
+   *   The width of the matrix before transposing.
+   * @param height
+   *   The height of the matrix before transposing.
+   */
+  static void transposeCycles(Object[] values, int width, int height) {
+    int last = width * height - 1;
+    BitSet done = new BitSet(Math.max(last, 0));
+    for (int start = 1; start < last; start++) {
+      if (done.get(start)) {
+        continue;
+      } // if
+      Object moving = values[start];
+      int index = start;
+      do {
+        index = (int) ((long) index * height % last);
+        Object displaced = values[index];
+        values[index] = moving;
+        moving = displaced;
+        done.set(index);
+      } while (index != start);
+    } // for
+  } // transposeCycles(Object[], int, int)
+
+  /**
+   * Swap two cells of an array.
+   *
+   * @param values
+   *   The array.
+   * @param i
+   *   The index of one cell.
+   * @param j
+   *   The index of the other.
+   */
+  static void swap(Object[] values, int i, int j) {
+    Object temp = values[i];
+    values[i] = values[j];
+    values[j] = temp;
+  } // swap(Object[], int, int)
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains: the backing array, which
+   * never has spare capacity.
+   *
+   * @return the estimate.
+   */
+  public long estimatedBytes() {
+    return MemoryBudget.OBJECT
+        + MemoryBudget.arrayBytes(this.backing.length, MemoryBudget.REFERENCE);
+  } // estimatedBytes()
+
+  // +---------+-----------------------------------------------------
+  // | Cursors |
+  // +---------+
+
+  /**
+   * A cursor that walks the backing array with a single index. Moving
+   * along a row is one increment and one comparison; the array access
+   * itself is the only other check.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  static class BackingCursor<T> implements MatrixCursor<T> {
+    /**
+     * The backing array of the matrix.
+     */
+    final T[] values;
+
+    /**
+     * The width of the matrix.
+     */
+    final int width;
+
+    /**
+     * The first row of the region (inclusive).
+     */
+    final int startRow;
+
+    /**
+     * The first column of the region (inclusive).
+     */
+    final int startCol;
+
+    /**
+     * The last row of the region (exclusive).
+     */
+    final int endRow;
+
+    /**
+     * The last column of the region (exclusive).
+     */
+    final int endCol;
+
+    /**
+     * The current row.
+     */
+    int row;
+
+    /**
+     * The index of the current cell in values, or -1 once the cursor
+     * has passed the end of the region.
+     */
+    int index;
+
+    /**
+     * The index just past the region in the current row.
+     */
+    int rowLimit;
+
+    /**
+     * Create a cursor just before the first cell of a region, which
+     * must already have been checked.
+     *
+     * @param values1
+     *   The backing array of the matrix.
+     * @param width1
+     *   The width of the matrix.
+     * @param startRow1
+     *   The first row of the region (inclusive).
+     * @param startCol1
+     *   The first column of the region (inclusive).
+     * @param endRow1
+     *   The last row of the region (exclusive).
+     * @param endCol1
+     *   The last column of the region (exclusive).
+     */
+    BackingCursor(T[] values1, int width1, int startRow1, int startCol1, int endRow1,
+        int endCol1) {
+      this.values = values1;
+      this.width = width1;
+      this.startRow = startRow1;
+      this.startCol = startCol1;
+      this.endRow = endRow1;
+      this.endCol = endCol1;
+      if (startRow1 == endRow1 || startCol1 == endCol1) {
+        this.finish();
+      } else {
+        this.row = startRow1;
+        this.index = startRow1 * width1 + startCol1 - 1;
+        this.rowLimit = startRow1 * width1 + endCol1;
+      } // if/else
+    } // BackingCursor(T[], int, int, int, int, int)
+
+    /**
+     * Move to the next cell of the region.
+     *
+     * @return true if there is such a cell; false otherwise.
+     */
+    public boolean next() {
+      if (++this.index < this.rowLimit) {
+        return true;
+      } // if
+      if (++this.row >= this.endRow) {
+        this.finish();
+        return false;
+      } // if
+      this.index += this.width - (this.endCol - this.startCol);
+      this.rowLimit += this.width;
+      return true;
+    } // next()
+
+    /**
+     * Move to a particular cell of the region.
+     *
+     * @param row1
+     *   The row of the cell.
+     * @param col1
+     *   The column of the cell.
+     *
+     * @throws IndexOutOfBoundsException
+     *   If the cell is not in the region.
+     */
+    public void moveTo(int row1, int col1) {
+      GetSetCursor.checkInRegion(row1, col1, this.startRow, this.startCol, this.endRow,
+          this.endCol);
+      this.row = row1;
+      this.index = row1 * this.width + col1;
+      this.rowLimit = row1 * this.width + this.endCol;
+    } // moveTo(int, int)
+
+    /**
+     * Get the row of the current cell.
+     *
+     * @return the row.
+     */
+    public int row() {
+      return this.row;
+    } // row()
+
+    /**
+     * Get the column of the current cell.
+     *
+     * @return the column.
+     */
+    public int col() {
+      return this.index - this.row * this.width;
+    } // col()
+
+    /**
+     * Get the value in the current cell.
+     *
+     * @return the value.
+     *
+     * @throws IllegalStateException
+     *   If the cursor is not on a cell of its region.
+     */
+    public T get() {
+      this.checkOnCell();
+      return this.values[this.index];
+    } // get()
+
+    /**
+     * Set the value in the current cell.
+     *
+     * @param val
+     *   The value to store.
+     *
+     * @throws IllegalStateException
+     *   If the cursor is not on a cell of its region.
+     */
+    public void set(T val) {
+      this.checkOnCell();
+      this.values[this.index] = val;
+    } // set(T)
+
+    /**
+     * Check that the cursor is on a cell of its region. Before the first
+     * call to next, the index is just before the current row's part of
+     * the region; once the cursor is finished, both it and the limit
+     * are -1.
+     *
+     * @throws IllegalStateException
+     *   If it is not.
+     */
+    void checkOnCell() {
+      if (this.index >= this.rowLimit
+          || this.index < this.rowLimit - (this.endCol - this.startCol)) {
+        throw new IllegalStateException(GetSetCursor.NOT_ON_CELL);
+      } // if
+    } // checkOnCell()
+
+    /**
+     * Move past the end of the region, so that next keeps returning
+     * false and get and set fail.
+     */
+    void finish() {
+      this.row = this.endRow;
+      this.index = -1;
+      this.rowLimit = -1;
+    } // finish()
+  } // class BackingCursor<T>
 } // class MatrixV0
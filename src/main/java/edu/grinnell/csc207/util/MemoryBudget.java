@@ -0,0 +1,412 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A limit on the memory that a group of matrices may use, with ways of
+ * getting some back.
+ *
+ * Budgets are opt-in. A matrix counts against a budget only once it is
+ * tracked, and an allocation is held back only if the code making it
+ * calls reserve first; no matrix tracks itself or reserves on its own.
+ * The usual pattern is to reserve the bytes, make and track the matrix,
+ * and then release the reservation, since the tracked matrix now counts
+ * for itself.
+ *
+ * Matrices are tracked weakly, so tracking one does not keep it alive.
+ * reserve checks the estimated bytes of the tracked matrices, plus the
+ * bytes already reserved, against the limit. If the new bytes would not
+ * fit, it asks the tracked matrices' reclaimers, oldest first, to free
+ * memory: an UndoableMatrix can forget its history, and a
+ * SpillableMatrix can move its cells to disk. If that is still not
+ * enough, the reservation is rejected. Reclaimers run without the lock
+ * on the budget, so a slow spill does not hold up other callers.
+ *
+ * Separately, the constructors of MatrixV0, VersionedMatrix and
+ * DoubleMatrix check that a single matrix of their size could fit in
+ * the limit of the global budget, so that an impossible matrix is
+ * rejected with an exception rather than an OutOfMemoryError. This
+ * check does not count other matrices or reserve anything.
+ *
+ * The sizes are estimates for a 64-bit JVM: 16-byte object and array
+ * headers, and 4-byte references when the heap is small enough for
+ * the JVM to compress them. The values stored in a matrix are not
+ * counted, since they are often shared.
+ *
+ * @author David William Stroud
+ */
+public class MemoryBudget {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The longest array most JVMs will allocate.
+   */
+  static final long MAX_ARRAY = Integer.MAX_VALUE - 8;
+
+  /**
+   * The bytes in the header of an array, including its length.
+   */
+  static final int ARRAY_HEADER = 16;
+
+  /**
+   * The bytes in a small object with a handful of fields.
+   */
+  static final int OBJECT = 32;
+
+  /**
+   * The bytes in a reference. JVMs compress references in heaps of
+   * less than 32 GB.
+   */
+  static final int REFERENCE = Runtime.getRuntime().maxMemory() < (32L << 30) ? 4 : 8;
+
+  /**
+   * The budget whose limit matrix constructors check against. Its limit is
+   * the system property matrices.budget, in bytes, or the maximum heap.
+   */
+  static final MemoryBudget GLOBAL = new MemoryBudget(
+      Long.getLong("matrices.budget", Runtime.getRuntime().maxMemory()));
+
+  // +------------+--------------------------------------------------
+  // | Reclaimers |
+  // +------------+
+
+  /**
+   * A way of freeing some of the memory used by a matrix.
+   *
+   * @param <M>
+   *   The type of the matrix.
+   */
+  public interface Reclaimer<M> {
+    /**
+     * Free some of the memory used by a matrix.
+     *
+     * @param matrix
+     *   The matrix.
+     * @param needed
+     *   How many bytes are still needed.
+     *
+     * @return roughly how many bytes were freed.
+     *
+     * @throws IOException
+     *   If the memory was to be freed by writing to disk, and that failed.
+     */
+    long reclaim(M matrix, long needed) throws IOException;
+  } // interface Reclaimer<M>
+
+  /**
+   * A tracked matrix.
+   *
+   * @param <M>
+   *   The type of the matrix.
+   */
+  static class Entry<M extends Matrix<?>> {
+    /**
+     * The matrix, while it is alive.
+     */
+    final WeakReference<M> matrix;
+
+    /**
+     * How to free some of its memory, or null if we cannot.
+     */
+    final Reclaimer<? super M> reclaimer;
+
+    /**
+     * Track a matrix.
+     *
+     * @param matrix1
+     *   The matrix.
+     * @param reclaimer1
+     *   How to free some of its memory, or null if we cannot.
+     */
+    Entry(M matrix1, Reclaimer<? super M> reclaimer1) {
+      this.matrix = new WeakReference<M>(matrix1);
+      this.reclaimer = reclaimer1;
+    } // Entry(M, Reclaimer<? super M>)
+
+    /**
+     * Ask the matrix to free some memory.
+     *
+     * @param needed
+     *   How many bytes are still needed.
+     *
+     * @return roughly how many bytes were freed.
+     *
+     * @throws IOException
+     *   If the reclaimer could not write to disk.
+     */
+    long reclaim(long needed) throws IOException {
+      M live = this.matrix.get();
+      return live == null || this.reclaimer == null ? 0 : this.reclaimer.reclaim(live, needed);
+    } // reclaim(long)
+  } // class Entry<M>
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The most bytes the tracked matrices may use.
+   */
+  volatile long limit;
+
+  /**
+   * The tracked matrices, oldest first.
+   */
+  final List<Entry<?>> entries = new ArrayList<Entry<?>>();
+
+  /**
+   * The bytes reserved and not yet released.
+   */
+  long reserved;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a budget.
+   *
+   * @param limit1
+   *   The most bytes the tracked matrices may use.
+   */
+  public MemoryBudget(long limit1) {
+    this.limit = limit1;
+  } // MemoryBudget(long)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Get the budget whose limit matrix constructors check against.
+   *
+   * @return the global budget.
+   */
+  public static MemoryBudget global() {
+    return GLOBAL;
+  } // global()
+
+  /**
+   * Estimate the bytes in an array.
+   *
+   * @param length
+   *   The length of the array.
+   * @param elementBytes
+   *   The bytes in each element.
+   *
+   * @return the estimate, rounded up to a multiple of eight.
+   */
+  public static long arrayBytes(long length, int elementBytes) {
+    return (ARRAY_HEADER + length * elementBytes + 7) & ~7L;
+  } // arrayBytes(long, int)
+
+  /**
+   * Check that a matrix of the given size can be stored in one array
+   * and, on its own, fits in the limit of the global budget, before
+   * allocating it. Nothing is reserved.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param elementBytes
+   *   The bytes in each cell.
+   *
+   * @throws IllegalArgumentException
+   *   If the matrix has too many cells for one array or would use more
+   *   than the limit of the global budget.
+   */
+  static void checkCells(long width, long height, int elementBytes) {
+    long cells = width * height;
+    if (cells > MAX_ARRAY) {
+      throw new IllegalArgumentException("A " + width + "x" + height + " matrix has " + cells
+          + " cells, more than fit in an array");
+    } // if
+    long bytes = arrayBytes(cells, elementBytes);
+    if (bytes > GLOBAL.limit()) {
+      throw new IllegalArgumentException("A " + width + "x" + height + " matrix needs about "
+          + bytes + " bytes, more than the budget of " + GLOBAL.limit());
+    } // if
+  } // checkCells(long, long, int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get the most bytes the tracked matrices may use.
+   *
+   * @return the limit.
+   */
+  public long limit() {
+    return this.limit;
+  } // limit()
+
+  /**
+   * Change the most bytes the tracked matrices may use. Matrices that
+   * are already over the new limit are left alone until the next
+   * reservation.
+   *
+   * @param limit1
+   *   The new limit.
+   */
+  public void setLimit(long limit1) {
+    this.limit = limit1;
+  } // setLimit(long)
+
+  /**
+   * Count a matrix against the budget. Its memory cannot be reclaimed.
+   *
+   * @param matrix
+   *   The matrix.
+   */
+  public void track(Matrix<?> matrix) {
+    this.track(matrix, null);
+  } // track(Matrix<?>)
+
+  /**
+   * Count a matrix against the budget, with a way of freeing some of
+   * its memory.
+   *
+   * @param <M>
+   *   The type of the matrix.
+   * @param matrix
+   *   The matrix.
+   * @param reclaimer
+   *   How to free some of its memory, or null if we cannot.
+   */
+  public synchronized <M extends Matrix<?>> void track(M matrix,
+      Reclaimer<? super M> reclaimer) {
+    this.entries.add(new Entry<M>(matrix, reclaimer));
+  } // track(M, Reclaimer<? super M>)
+
+  /**
+   * Stop counting a matrix against the budget.
+   *
+   * @param matrix
+   *   The matrix.
+   */
+  public synchronized void untrack(Matrix<?> matrix) {
+    this.entries.removeIf((entry) -> entry.matrix.get() == matrix);
+  } // untrack(Matrix<?>)
+
+  /**
+   * Estimate the bytes used by the tracked matrices, and forget any
+   * that are no longer alive. Reserved bytes are not included.
+   *
+   * @return the estimate.
+   */
+  public long used() {
+    long total = 0;
+    for (Entry<?> entry : this.live()) {
+      Matrix<?> matrix = entry.matrix.get();
+      if (matrix != null) {
+        total += matrix.estimatedBytes();
+      } // if
+    } // for
+    return total;
+  } // used()
+
+  /**
+   * Get the bytes reserved and not yet released.
+   *
+   * @return the reserved bytes.
+   */
+  public synchronized long reserved() {
+    return this.reserved;
+  } // reserved()
+
+  /**
+   * Reserve room for a new allocation, reclaiming memory from the
+   * tracked matrices, oldest first, if need be. The bytes count against
+   * the budget until they are released.
+   *
+   * @param bytes
+   *   The size of the allocation.
+   *
+   * @throws IllegalStateException
+   *   If enough memory cannot be reclaimed.
+   * @throws UncheckedIOException
+   *   If a reclaimer could not write to disk.
+   */
+  public void reserve(long bytes) {
+    long needed = this.tryReserve(this.used(), bytes);
+    for (Entry<?> entry : this.live()) {
+      if (needed <= 0) {
+        return;
+      } // if
+      try {
+        entry.reclaim(needed);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } // try/catch
+      needed = this.tryReserve(this.used(), bytes);
+    } // for
+    if (needed > 0) {
+      throw new IllegalStateException("Cannot fit " + bytes + " more bytes in a budget of "
+          + this.limit + " bytes, with " + this.used() + " in use and " + this.reserved()
+          + " reserved");
+    } // if
+  } // reserve(long)
+
+  /**
+   * Give back bytes reserved earlier, for example once the matrix they
+   * were reserved for is tracked.
+   *
+   * @param bytes
+   *   The bytes to give back.
+   *
+   * @throws IllegalArgumentException
+   *   If more bytes are released than are reserved.
+   */
+  public synchronized void release(long bytes) {
+    if (bytes < 0 || bytes > this.reserved) {
+      throw new IllegalArgumentException("Cannot release " + bytes + " bytes with only "
+          + this.reserved + " reserved");
+    } // if
+    this.reserved -= bytes;
+  } // release(long)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Forget the matrices that are no longer alive, and list the rest.
+   * The list is a copy, so that callers can ask the matrices for their
+   * sizes or reclaim memory without holding the lock on the budget.
+   *
+   * @return the tracked matrices, oldest first.
+   */
+  synchronized List<Entry<?>> live() {
+    this.entries.removeIf((entry) -> entry.matrix.get() == null);
+    return new ArrayList<Entry<?>>(this.entries);
+  } // live()
+
+  /**
+   * Record a reservation if it fits alongside the bytes in use and the
+   * bytes already reserved.
+   *
+   * @param used
+   *   The bytes used by the tracked matrices.
+   * @param bytes
+   *   The size of the reservation.
+   *
+   * @return 0 if the reservation was recorded, or how many more bytes
+   *   would be needed.
+   */
+  synchronized long tryReserve(long used, long bytes) {
+    long needed = used + this.reserved + bytes - this.limit;
+    if (needed <= 0) {
+      this.reserved += bytes;
+      return 0;
+    } // if
+    return needed;
+  } // tryReserve(long, long)
+} // class MemoryBudget
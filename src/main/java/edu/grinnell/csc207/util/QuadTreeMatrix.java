@@ -0,0 +1,1081 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Objects;
+
+/**
+ * A two-dimensional matrix for grids made of large uniform rectangles,
+ * stored as a region quadtree.
+ *
+ * The tree covers a square whose side is the smallest power of two
+ * that holds the matrix. A square whose cells all hold the same value is
+ * a single leaf; any other square is split into four quadrants. Memory
+ * therefore grows with the boundaries between regions rather than with
+ * the number of cells, and fillRegion replaces whole squares, costing
+ * about O(perimeter * log size) rather than O(area). Cells of the
+ * square outside the matrix are ignored and may hold anything.
+ *
+ * Nodes are never changed once built: an edit copies the path to the
+ * cells it changes. Clones therefore share the whole tree, and equals
+ * skips any subtree that two quadtrees share. hashCode, which must
+ * agree with MatrixV0, adds up each run of equal cells along a row in
+ * one step, and is cached until the matrix changes.
+ *
+ * Inserting or deleting a row or column rebuilds the tree, reusing the
+ * uniform squares that survive the shift.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class QuadTreeMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The largest width or height, so that the side of the square fits
+   * in an int.
+   */
+  static final int MAX_SIDE = 1 << 30;
+
+  /**
+   * The result of a query over cells that hold different values.
+   */
+  static final Object MIXED = new Object();
+
+  /**
+   * The result of a query over no cells.
+   */
+  static final Object NONE = new Object();
+
+  // +-------+-------------------------------------------------------
+  // | Nodes |
+  // +-------+
+
+  /**
+   * A square of the tree: either a leaf, all of whose cells hold one
+   * value, or four quadrants in the order top left, top right, bottom
+   * left, bottom right.
+   */
+  static final class Node {
+    /**
+     * The value of every cell, if this is a leaf.
+     */
+    final Object value;
+
+    /**
+     * The quadrants, or null if this is a leaf.
+     */
+    final Node[] kids;
+
+    /**
+     * Create a leaf.
+     *
+     * @param value1
+     *   The value of every cell.
+     */
+    Node(Object value1) {
+      this.value = value1;
+      this.kids = null;
+    } // Node(Object)
+
+    /**
+     * Create a square split into quadrants.
+     *
+     * @param kids1
+     *   The quadrants.
+     */
+    Node(Node[] kids1) {
+      this.value = null;
+      this.kids = kids1;
+    } // Node(Node[])
+
+    /**
+     * Determine whether every cell of this square holds one value.
+     *
+     * @return true if this is a leaf; false otherwise.
+     */
+    boolean isLeaf() {
+      return this.kids == null;
+    } // isLeaf()
+
+    /**
+     * Get a quadrant of this square. A leaf is its own quadrants.
+     *
+     * @param q
+     *   The number of the quadrant.
+     *
+     * @return the quadrant.
+     */
+    Node kid(int q) {
+      return this.kids == null ? this : this.kids[q];
+    } // kid(int)
+  } // class Node
+
+  /**
+   * A row or column being inserted or deleted, which maps the cells of
+   * the new matrix back to the old tree.
+   */
+  static final class Shift {
+    /**
+     * The root of the old tree.
+     */
+    final Node root;
+
+    /**
+     * The side of the old tree.
+     */
+    final int side;
+
+    /**
+     * True if a row is shifting; false if a column is.
+     */
+    final boolean isRow;
+
+    /**
+     * The position of the row or column.
+     */
+    final int pos;
+
+    /**
+     * True if the row or column is inserted; false if it is deleted.
+     */
+    final boolean insert;
+
+    /**
+     * The value of the inserted cells.
+     */
+    final Object fill;
+
+    /**
+     * Describe a shift.
+     *
+     * @param root1
+     *   The root of the old tree.
+     * @param side1
+     *   The side of the old tree.
+     * @param isRow1
+     *   True if a row is shifting; false if a column is.
+     * @param pos1
+     *   The position of the row or column.
+     * @param insert1
+     *   True if the row or column is inserted; false if it is deleted.
+     * @param fill1
+     *   The value of the inserted cells.
+     */
+    Shift(Node root1, int side1, boolean isRow1, int pos1, boolean insert1, Object fill1) {
+      this.root = root1;
+      this.side = side1;
+      this.isRow = isRow1;
+      this.pos = pos1;
+      this.insert = insert1;
+      this.fill = fill1;
+    } // Shift(Node, int, boolean, int, boolean, Object)
+
+    /**
+     * Find the value shared by a rectangle of the new matrix.
+     *
+     * @param rect
+     *   The top row, left column, bottom row, and right column of the
+     *   rectangle, which lies within the new matrix.
+     *
+     * @return the value, or MIXED if the cells differ.
+     */
+    Object query(int[] rect) {
+      int start = this.isRow ? rect[0] : rect[1];
+      int end = this.isRow ? rect[2] : rect[3];
+      // Before the shift, cells are where they were.
+      Object result = this.old(rect, start, Math.min(end, this.pos), 0);
+      if (this.insert) {
+        if (start <= this.pos && this.pos < end) {
+          result = combine(result, this.fill);
+        } // if
+        result = combine(result, this.old(rect, Math.max(start, this.pos + 1), end, -1));
+      } else {
+        result = combine(result, this.old(rect, Math.max(start, this.pos), end, 1));
+      } // if/else
+      return result;
+    } // query(int[])
+
+    /**
+     * Find the value shared by part of a rectangle of the new matrix,
+     * looking in the old tree.
+     *
+     * @param rect
+     *   The rectangle in the new matrix.
+     * @param start
+     *   The first row or column of the part.
+     * @param end
+     *   The row or column after the part.
+     * @param offset
+     *   How far the part has moved from the old matrix.
+     *
+     * @return the value, MIXED if the cells differ, or NONE if the part
+     * is empty.
+     */
+    Object old(int[] rect, int start, int end, int offset) {
+      if (start >= end) {
+        return NONE;
+      } // if
+      int[] part = rect.clone();
+      int axis = this.isRow ? 0 : 1;
+      part[axis] = start + offset;
+      part[axis + 2] = end + offset;
+      return uniform(this.root, 0, 0, this.side, part);
+    } // old(int[], int, int, int)
+  } // class Shift
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The root of the tree.
+   */
+  Node root;
+
+  /**
+   * The side of the square the tree covers.
+   */
+  int side;
+
+  /**
+   * This is the width of the matrix.
+   */
+  int width;
+
+  /**
+   * This is the height of the matrix.
+   */
+  int height;
+
+  /**
+   * This is the default value passed to the constructor.
+   */
+  T defaultValue;
+
+  /**
+   * The root whose hash code is cached, or null if none is.
+   */
+  Node hashedRoot;
+
+  /**
+   * The cached hash code.
+   */
+  int hash;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If either the width or height is more than 2^30.
+   */
+  public QuadTreeMatrix(int width1, int height1, T def) {
+    if (width1 < 0) {
+      throw new NegativeArraySizeException(
+              "Negative width given to QuadTreeMatrix constructor");
+    } // if
+    if (height1 < 0) {
+      throw new NegativeArraySizeException(
+              "Negative height given to QuadTreeMatrix constructor");
+    } // if
+
+    this.width = width1;
+    this.height = height1;
+    this.defaultValue = def;
+    this.side = sideFor(width1, height1);
+    this.root = new Node(def);
+  } // QuadTreeMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If either the width or height is more than 2^30.
+   */
+  public QuadTreeMatrix(int width1, int height1) {
+    this(width1, height1, null);
+  } // QuadTreeMatrix(int, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public T get(int row, int col) {
+    this.checkCell(row, col);
+    Node node = this.root;
+    int half = this.side / 2;
+    while (!node.isLeaf()) {
+      node = node.kids[((row & half) != 0 ? 2 : 0) + ((col & half) != 0 ? 1 : 0)];
+      half /= 2;
+    } // while
+    return (T) node.value;
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    this.checkCell(row, col);
+    this.root = this.fill(this.root, 0, 0, this.side, new int[] {row, col, row + 1, col + 1},
+        val);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    if (row < 0 || row > this.height) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+
+    this.reshape(true, row, true);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values. Each run of equal
+   * values is written as one region.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (vals.length != this.width) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + vals.length
+                      + " not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+
+    this.insertRow(row);
+    this.setRuns(vals, true, row);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    if (col < 0 || col > this.width) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " is not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+
+    this.reshape(false, col, true);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values. Each run of
+   * equal values is written as one region.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (vals.length != this.height) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + vals.length
+                      + " is not appropriate for Matrix of height "
+                      + this.height
+      );
+    } // if
+
+    this.insertCol(col);
+    this.setRuns(vals, false, col);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.height) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " is not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+
+    this.reshape(true, row, false);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+
+    this.reshape(false, col, false);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix, replacing every square of
+   * the tree that lies inside it with a single leaf.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow >= this.height || startRow < 0) {
+      throw new IndexOutOfBoundsException(
+              "Start row index "
+              + startRow
+              + " is not appropriate for matrix of height "
+              + this.height
+      );
+    } // if
+    if (startCol >= this.width || startCol < 0) {
+      throw new IndexOutOfBoundsException(
+              "Start column index "
+              + startCol
+              + " is not appropriate for matrix of width "
+              + this.width
+      );
+    } // if
+    if (endRow > this.height || endRow < 0) {
+      throw new IndexOutOfBoundsException(
+              "End row index "
+              + endRow
+              + " is not appropriate for matrix of height "
+              + this.height
+      );
+    } // if
+    if (endCol > this.width || endCol < 0) {
+      throw new IndexOutOfBoundsException(
+              "End column index "
+              + endCol
+              + " is not appropriate for matrix of width "
+              + this.width
+      );
+    } // if
+
+    if (startRow >= endRow || startCol >= endCol) {
+      return;
+    } // if
+    this.root = this.fill(this.root, 0, 0, this.side,
+        new int[] {startRow, startCol, endRow, endCol}, val);
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    if (endRow > this.height || endRow < -1) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + endRow
+                      + " is not appropriate for matrix of height "
+                      + this.height
+      );
+    } // if
+    if (endCol > this.width || endCol < -1) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + endCol
+                      + " is not appropriate for matrix of width "
+                      + this.width
+      );
+    } // if
+    if (deltaCol * (endCol - startCol) < 0) {
+      throw new IndexOutOfBoundsException(
+              "End column "
+              + endCol
+              + " is before start column "
+              + startCol
+      );
+    } // if
+    if (deltaRow * (endRow - startRow) < 0) {
+      throw new IndexOutOfBoundsException(
+              "End row "
+              + endRow
+              + " is before start row "
+              + startRow
+      );
+    } // if
+
+    for (int i = startRow, j = startCol;
+         VersionedMatrix.isWithin(startRow, endRow, i)
+             && VersionedMatrix.isWithin(startCol, endCol, j);
+         i += deltaRow, j += deltaCol) {
+      this.set(i, j, val);
+    } // for
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix, which shares the whole tree with this
+   * one until either of them changes.
+   *
+   * @return a copy of the matrix.
+   */
+  public Matrix<T> clone() {
+    QuadTreeMatrix<T> copy = new QuadTreeMatrix<T>(0, 0, this.defaultValue);
+    copy.root = this.root;
+    copy.side = this.side;
+    copy.width = this.width;
+    copy.height = this.height;
+    return copy;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object. Two quadtrees
+   * are compared square by square, skipping the squares they share.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (other instanceof QuadTreeMatrix) {
+      QuadTreeMatrix<?> tree = (QuadTreeMatrix<?>) other;
+      return this.width == tree.width && this.height == tree.height
+          && this.sameNodes(this.root, tree.root, 0, 0, this.side);
+    } // if
+    return other instanceof Matrix && Matrix.sameContents(this, (Matrix<?>) other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0. Each
+   * row is hashed a run of equal cells at a time.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    if (this.hashedRoot == this.root) {
+      return this.hash;
+    } // if
+    int multiplier = 7;
+    int code = this.width + multiplier * this.height;
+    for (int row = 0; row < this.height; row++) {
+      int col = 0;
+      while (col < this.width) {
+        // Find the leaf that holds the cell; the run lasts to its edge.
+        Node node = this.root;
+        int left = 0;
+        int half = this.side / 2;
+        int size = this.side;
+        while (!node.isLeaf()) {
+          int q = ((row & half) != 0 ? 2 : 0) + ((col & half) != 0 ? 1 : 0);
+          left += (q & 1) * half;
+          node = node.kids[q];
+          size = half;
+          half /= 2;
+        } // while
+        int end = Math.min(left + size, this.width);
+        if (node.value != null) {
+          int[] repeat = repeat(multiplier, end - col);
+          code = code * repeat[0] + node.value.hashCode() * repeat[1];
+        } // if
+        col = end;
+      } // while
+    } // for
+    this.hash = code;
+    this.hashedRoot = this.root;
+    return code;
+  } // hashCode()
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains, which are those of the
+   * nodes of the tree. Nodes shared with clones are counted in full.
+   *
+   * @return the estimate.
+   */
+  public long estimatedBytes() {
+    return MemoryBudget.OBJECT + bytes(this.root);
+  } // estimatedBytes()
+
+  // +----------------+----------------------------------------------
+  // | Static helpers |
+  // +----------------+
+
+  /**
+   * Find the side of the square that holds a matrix.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the smallest power of two that is at least the width and
+   * the height.
+   *
+   * @throws IllegalArgumentException
+   *   If either the width or height is more than 2^30.
+   */
+  static int sideFor(int width, int height) {
+    int longest = Math.max(1, Math.max(width, height));
+    if (longest > MAX_SIDE) {
+      throw new IllegalArgumentException("A " + width + "x" + height
+          + " matrix is too large for a quadtree");
+    } // if
+    return longest == 1 ? 1 : Integer.highestOneBit(longest - 1) << 1;
+  } // sideFor(int, int)
+
+  /**
+   * Join four quadrants, collapsing them into one leaf if they are all
+   * leaves with the same value.
+   *
+   * @param kids
+   *   The quadrants.
+   *
+   * @return the square.
+   */
+  static Node join(Node[] kids) {
+    for (Node kid : kids) {
+      if (!kid.isLeaf() || !Objects.equals(kid.value, kids[0].value)) {
+        return new Node(kids);
+      } // if
+    } // for
+    return kids[0];
+  } // join(Node[])
+
+  /**
+   * Merge the value of one part of a region into the value of the rest.
+   *
+   * @param sofar
+   *   The value of the rest, MIXED, or NONE if it is empty.
+   * @param part
+   *   The value of the part, MIXED, or NONE if it is empty.
+   *
+   * @return the value of the whole region, MIXED, or NONE.
+   */
+  static Object combine(Object sofar, Object part) {
+    if (sofar == NONE) {
+      return part;
+    } else if (part == NONE) {
+      return sofar;
+    } else if (sofar == MIXED || part == MIXED || !Objects.equals(sofar, part)) {
+      return MIXED;
+    } else {
+      return sofar;
+    } // if/else
+  } // combine(Object, Object)
+
+  /**
+   * Find the value shared by the cells of a square that lie in a
+   * rectangle, stopping as soon as two differ.
+   *
+   * @param node
+   *   The square.
+   * @param top
+   *   The top row of the square.
+   * @param left
+   *   The left column of the square.
+   * @param size
+   *   The side of the square.
+   * @param rect
+   *   The top row, left column, bottom row, and right column of the
+   *   rectangle.
+   *
+   * @return the value, MIXED if the cells differ, or NONE if the square
+   * and rectangle do not meet.
+   */
+  static Object uniform(Node node, int top, int left, int size, int[] rect) {
+    if (rect[2] <= top || top + size <= rect[0] || rect[3] <= left || left + size <= rect[1]) {
+      return NONE;
+    } // if
+    if (node.isLeaf()) {
+      return node.value;
+    } // if
+    int half = size / 2;
+    Object result = NONE;
+    for (int q = 0; q < 4 && result != MIXED; q++) {
+      result = combine(result,
+          uniform(node.kids[q], top + (q >> 1) * half, left + (q & 1) * half, half, rect));
+    } // for
+    return result;
+  } // uniform(Node, int, int, int, int[])
+
+  /**
+   * Compute the effect on a polynomial hash of adding the same term
+   * several times.
+   *
+   * @param multiplier
+   *   The multiplier of the hash.
+   * @param length
+   *   The number of times the term is added.
+   *
+   * @return the multiplier to the power length, and the sum of the
+   * powers of the multiplier below length.
+   */
+  static int[] repeat(int multiplier, int length) {
+    int power = 1;
+    int sum = 0;
+    int stepPower = multiplier;
+    int stepSum = 1;
+    for (int bits = length; bits != 0; bits >>>= 1) {
+      if ((bits & 1) != 0) {
+        sum = sum * stepPower + stepSum;
+        power *= stepPower;
+      } // if
+      stepSum = stepSum * stepPower + stepSum;
+      stepPower *= stepPower;
+    } // for
+    return new int[] {power, sum};
+  } // repeat(int, int)
+
+  /**
+   * Estimate the bytes in a subtree.
+   *
+   * @param node
+   *   The root of the subtree.
+   *
+   * @return the estimate.
+   */
+  static long bytes(Node node) {
+    if (node.isLeaf()) {
+      return MemoryBudget.OBJECT;
+    } // if
+    long total = MemoryBudget.OBJECT + MemoryBudget.arrayBytes(4, MemoryBudget.REFERENCE);
+    for (Node kid : node.kids) {
+      total += bytes(kid);
+    } // for
+    return total;
+  } // bytes(Node)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Check that a cell is within the matrix.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column are invalid.
+   */
+  void checkCell(int row, int col) {
+    if (row >= this.height || row < 0) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+    if (col >= this.width || col < 0) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not valid for Matrix of width "
+                      + this.width
+      );
+    } // if
+  } // checkCell(int, int)
+
+  /**
+   * Fill the cells of a square that lie in a rectangle, replacing each
+   * quadrant that lies inside the rectangle with a leaf.
+   *
+   * @param node
+   *   The square.
+   * @param top
+   *   The top row of the square.
+   * @param left
+   *   The left column of the square.
+   * @param size
+   *   The side of the square.
+   * @param rect
+   *   The top row, left column, bottom row, and right column of the
+   *   rectangle, which lies within the matrix.
+   * @param val
+   *   The value to store.
+   *
+   * @return the new square.
+   */
+  Node fill(Node node, int top, int left, int size, int[] rect, Object val) {
+    if (rect[2] <= top || top + size <= rect[0] || rect[3] <= left || left + size <= rect[1]) {
+      return node;
+    } // if
+    if (node.isLeaf() && Objects.equals(node.value, val)) {
+      return node;
+    } // if
+    // The cells outside the matrix do not matter, so the square is
+    // covered if the part of it inside the matrix is.
+    if (rect[0] <= top && rect[1] <= left && Math.min(top + size, this.height) <= rect[2]
+        && Math.min(left + size, this.width) <= rect[3]) {
+      return new Node(val);
+    } // if
+    int half = size / 2;
+    Node[] kids = new Node[4];
+    for (int q = 0; q < 4; q++) {
+      kids[q] = this.fill(node.kid(q), top + (q >> 1) * half, left + (q & 1) * half, half,
+          rect, val);
+    } // for
+    return join(kids);
+  } // fill(Node, int, int, int, int[], Object)
+
+  /**
+   * Insert or delete a row or column by building a new tree, reusing
+   * the value of every square whose cells were uniform before the shift.
+   *
+   * @param isRow
+   *   True to shift a row; false to shift a column.
+   * @param pos
+   *   The position of the row or column.
+   * @param insert
+   *   True to insert a row or column of the default value; false to
+   *   delete one.
+   */
+  void reshape(boolean isRow, int pos, boolean insert) {
+    int delta = insert ? 1 : -1;
+    int newWidth = this.width + (isRow ? 0 : delta);
+    int newHeight = this.height + (isRow ? delta : 0);
+    int newSide = sideFor(newWidth, newHeight);
+    Shift shift = new Shift(this.root, this.side, isRow, pos, insert, this.defaultValue);
+    this.width = newWidth;
+    this.height = newHeight;
+    this.side = newSide;
+    this.root = this.build(shift, 0, 0, newSide);
+  } // reshape(boolean, int, boolean)
+
+  /**
+   * Build a square of the tree after a shift.
+   *
+   * @param shift
+   *   The shift.
+   * @param top
+   *   The top row of the square.
+   * @param left
+   *   The left column of the square.
+   * @param size
+   *   The side of the square.
+   *
+   * @return the square.
+   */
+  Node build(Shift shift, int top, int left, int size) {
+    int[] rect = {top, left, Math.min(top + size, this.height),
+        Math.min(left + size, this.width)};
+    Object value = rect[0] < rect[2] && rect[1] < rect[3] ? shift.query(rect) : this.defaultValue;
+    if (value != MIXED) {
+      return new Node(value);
+    } // if
+    int half = size / 2;
+    Node[] kids = new Node[4];
+    for (int q = 0; q < 4; q++) {
+      kids[q] = this.build(shift, top + (q >> 1) * half, left + (q & 1) * half, half);
+    } // for
+    return join(kids);
+  } // build(Shift, int, int, int)
+
+  /**
+   * Write the values of a new row or column, one run of equal values at
+   * a time.
+   *
+   * @param vals
+   *   The values.
+   * @param isRow
+   *   True if the values are a row; false if they are a column.
+   * @param pos
+   *   The number of the row or column.
+   */
+  void setRuns(Object[] vals, boolean isRow, int pos) {
+    int start = 0;
+    for (int i = 1; i <= vals.length; i++) {
+      if (i == vals.length || !Objects.equals(vals[i], vals[start])) {
+        int[] rect = {pos, start, pos + 1, i};
+        if (!isRow) {
+          rect = new int[] {start, pos, i, pos + 1};
+        } // if
+        this.root = this.fill(this.root, 0, 0, this.side, rect, vals[start]);
+        start = i;
+      } // if
+    } // for
+  } // setRuns(Object[], boolean, int)
+
+  /**
+   * Determine whether two squares hold the same values in the cells
+   * that lie in the matrix, skipping squares they share.
+   *
+   * @param a
+   *   One square.
+   * @param b
+   *   The other square, from a tree of the same size.
+   * @param top
+   *   The top row of the squares.
+   * @param left
+   *   The left column of the squares.
+   * @param size
+   *   The side of the squares.
+   *
+   * @return true if the cells are equal; false otherwise.
+   */
+  boolean sameNodes(Node a, Node b, int top, int left, int size) {
+    if (a == b || top >= this.height || left >= this.width) {
+      return true;
+    } // if
+    if (a.isLeaf() && b.isLeaf()) {
+      return Objects.equals(a.value, b.value);
+    } // if
+    int half = size / 2;
+    for (int q = 0; q < 4; q++) {
+      if (!this.sameNodes(a.kid(q), b.kid(q), top + (q >> 1) * half, left + (q & 1) * half,
+          half)) {
+        return false;
+      } // if
+    } // for
+    return true;
+  } // sameNodes(Node, Node, int, int, int)
+} // class QuadTreeMatrix
@@ -0,0 +1,900 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A two-dimensional matrix for sliding windows, where rows are appended
+ * at the bottom and removed from the top.
+ *
+ * Rows are stored as separate arrays in a circular buffer, so adding a
+ * row at either end or removing one from either end costs O(width)
+ * rather than a copy of the whole matrix. A row inserted or deleted
+ * elsewhere moves the references of the rows on its shorter side.
+ *
+ * A matrix may be given a maximum height. Inserting a row into a full
+ * matrix first evicts the top row, whose array is reused for the new
+ * one, so a window that slides forever allocates nothing.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class RingBufferMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The fewest rows the buffer holds.
+   */
+  static final int MIN_CAPACITY = 4;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The circular buffer of rows. Row i of the matrix is in slot
+   * (first + i) % rows.length; the unused slots are null.
+   */
+  Object[][] rows;
+
+  /**
+   * The slot of the top row.
+   */
+  int first;
+
+  /**
+   * This is the width of the matrix.
+   */
+  int width;
+
+  /**
+   * This is the height of the matrix.
+   */
+  int height;
+
+  /**
+   * This is the default value passed to the constructor.
+   */
+  T defaultValue;
+
+  /**
+   * The most rows the matrix may hold before it evicts the top row.
+   */
+  final int maxHeight;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default, which may grow without limit.
+   *
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the matrix would be too large for the global MemoryBudget.
+   */
+  public RingBufferMatrix(int width1, int height1, T def) {
+    this(width1, height1, def, Integer.MAX_VALUE);
+  } // RingBufferMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value, which may grow without limit.
+   *
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the matrix would be too large for the global MemoryBudget.
+   */
+  public RingBufferMatrix(int width1, int height1) {
+    this(width1, height1, null);
+  } // RingBufferMatrix(int, int)
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default, which holds at most maxHeight1 rows.
+   *
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   * @param maxHeight1
+   *   The most rows the matrix may hold before it evicts the top row.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If maxHeight1 is not positive or is less than the height, or if
+   *   the matrix would be too large for the global MemoryBudget.
+   */
+  public RingBufferMatrix(int width1, int height1, T def, int maxHeight1) {
+    if (width1 < 0) {
+      throw new NegativeArraySizeException(
+              "Negative width given to RingBufferMatrix constructor");
+    } // if
+    if (height1 < 0) {
+      throw new NegativeArraySizeException(
+              "Negative height given to RingBufferMatrix constructor");
+    } // if
+    if (maxHeight1 <= 0 || maxHeight1 < height1) {
+      throw new IllegalArgumentException("Maximum height " + maxHeight1
+          + " cannot hold " + height1 + " rows");
+    } // if
+
+    MemoryBudget.checkCells(width1, height1, MemoryBudget.REFERENCE);
+    this.width = width1;
+    this.height = height1;
+    this.defaultValue = def;
+    this.maxHeight = maxHeight1;
+    this.rows = new Object[Math.min(maxHeight1, Math.max(MIN_CAPACITY, height1))][];
+    for (int i = 0; i < height1; i++) {
+      this.rows[i] = this.defaultRun(width1);
+    } // for
+  } // RingBufferMatrix(int, int, T, int)
+
+  /**
+   * Create a new matrix that owns the given rows.
+   *
+   * @param rows1
+   *   The buffer of rows, with the top row in slot 0.
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   * @param def
+   *   The default value.
+   * @param maxHeight1
+   *   The most rows the matrix may hold before it evicts the top row.
+   */
+  RingBufferMatrix(Object[][] rows1, int width1, int height1, T def, int maxHeight1) {
+    this.rows = rows1;
+    this.width = width1;
+    this.height = height1;
+    this.defaultValue = def;
+    this.maxHeight = maxHeight1;
+  } // RingBufferMatrix(Object[][], int, int, T, int)
+
+  // +--------+------------------------------------------------------
+  // | Window |
+  // +--------+
+
+  /**
+   * Get the most rows the matrix may hold before it evicts the top row.
+   *
+   * @return the maximum height, which is Integer.MAX_VALUE if the
+   * matrix may grow without limit.
+   */
+  public int maxHeight() {
+    return this.maxHeight;
+  } // maxHeight()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public T get(int row, int col) {
+    this.checkCell(row, col);
+    return (T) this.rows[this.slot(row)][col];
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    this.checkCell(row, col);
+    this.rows[this.slot(row)][col] = val;
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value. If the matrix is full,
+   * the top row is evicted first and the new row goes where it would
+   * have gone among the rows that remain.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    this.insertRowUnchecked(row, null);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values. If the matrix is
+   * full, the top row is evicted first and the new row goes where it
+   * would have gone among the rows that remain.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (vals.length != this.width) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + vals.length
+                      + " not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+
+    this.insertRowUnchecked(row, vals);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    this.insertColUnchecked(col, null);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (vals.length != this.height) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + vals.length
+                      + " is not appropriate for Matrix of height "
+                      + this.height
+      );
+    } // if
+
+    this.insertColUnchecked(col, vals);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row, moving the rows on whichever side of it is shorter.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.height) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " is not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+
+    if (row < this.height - 1 - row) {
+      for (int i = row; i > 0; i--) {
+        this.rows[this.slot(i)] = this.rows[this.slot(i - 1)];
+      } // for
+      this.rows[this.first] = null;
+      this.first = this.slot(1);
+    } else {
+      for (int i = row; i < this.height - 1; i++) {
+        this.rows[this.slot(i)] = this.rows[this.slot(i + 1)];
+      } // for
+      this.rows[this.slot(this.height - 1)] = null;
+    } // if/else
+    this.height--;
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+
+    for (int i = 0; i < this.height; i++) {
+      int slot = this.slot(i);
+      Object[] oldRow = this.rows[slot];
+      Object[] newRow = new Object[this.width - 1];
+      System.arraycopy(oldRow, 0, newRow, 0, col);
+      System.arraycopy(oldRow, col + 1, newRow, col, this.width - col - 1);
+      this.rows[slot] = newRow;
+    } // for
+    this.width--;
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow >= this.height || startRow < 0) {
+      throw new IndexOutOfBoundsException(
+              "Start row index "
+              + startRow
+              + " is not appropriate for matrix of height "
+              + this.height
+      );
+    } // if
+    if (startCol >= this.width || startCol < 0) {
+      throw new IndexOutOfBoundsException(
+              "Start column index "
+              + startCol
+              + " is not appropriate for matrix of width "
+              + this.width
+      );
+    } // if
+    if (endRow > this.height || endRow < 0) {
+      throw new IndexOutOfBoundsException(
+              "End row index "
+              + endRow
+              + " is not appropriate for matrix of height "
+              + this.height
+      );
+    } // if
+    if (endCol > this.width || endCol < 0) {
+      throw new IndexOutOfBoundsException(
+              "End column index "
+              + endCol
+              + " is not appropriate for matrix of width "
+              + this.width
+      );
+    } // if
+
+    if (startCol >= endCol) {
+      return;
+    } // if
+    for (int i = startRow; i < endRow; i++) {
+      Arrays.fill(this.rows[this.slot(i)], startCol, endCol, val);
+    } // for
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    if (endRow > this.height || endRow < -1) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + endRow
+                      + " is not appropriate for matrix of height "
+                      + this.height
+      );
+    } // if
+    if (endCol > this.width || endCol < -1) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + endCol
+                      + " is not appropriate for matrix of width "
+                      + this.width
+      );
+    } // if
+    if (deltaCol * (endCol - startCol) < 0) {
+      throw new IndexOutOfBoundsException(
+              "End column "
+              + endCol
+              + " is before start column "
+              + startCol
+      );
+    } // if
+    if (deltaRow * (endRow - startRow) < 0) {
+      throw new IndexOutOfBoundsException(
+              "End row "
+              + endRow
+              + " is before start row "
+              + startRow
+      );
+    } // if
+
+    for (int i = startRow, j = startCol;
+         VersionedMatrix.isWithin(startRow, endRow, i)
+             && VersionedMatrix.isWithin(startCol, endCol, j);
+         i += deltaRow, j += deltaCol) {
+      this.checkCell(i, j);
+      this.rows[this.slot(i)][j] = val;
+    } // for
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix, with the same maximum height.
+   *
+   * @return a copy of the matrix.
+   */
+  public Matrix<T> clone() {
+    Object[][] copy = new Object[this.rows.length][];
+    for (int i = 0; i < this.height; i++) {
+      copy[i] = this.rows[this.slot(i)].clone();
+    } // for
+    return new RingBufferMatrix<T>(copy, this.width, this.height, this.defaultValue,
+        this.maxHeight);
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return other instanceof Matrix && Matrix.sameContents(this, (Matrix<?>) other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return Matrix.hashCodeOf(this);
+  } // hashCode()
+
+  // +-------------+-------------------------------------------------
+  // | Bulk copies |
+  // +-------------+
+
+  /**
+   * Copy a row of the matrix into an array with one arraycopy.
+   *
+   * @param row
+   *   The number of the row.
+   * @param dst
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @return dst.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If dst is the wrong length.
+   */
+  public T[] getRow(int row, T[] dst) throws ArraySizeException {
+    BulkCopies.checkLength(dst.length, this.width, "width");
+    GetSetCursor.checkRegion(this.width, this.height, row, 0, row + 1, this.width);
+    System.arraycopy(this.rows[this.slot(row)], 0, dst, 0, this.width);
+    return dst;
+  } // getRow(int, T[])
+
+  /**
+   * Copy an array into a row of the matrix with one arraycopy.
+   *
+   * @param row
+   *   The number of the row.
+   * @param src
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If src is the wrong length.
+   */
+  public void setRow(int row, T[] src) throws ArraySizeException {
+    BulkCopies.checkLength(src.length, this.width, "width");
+    GetSetCursor.checkRegion(this.width, this.height, row, 0, row + 1, this.width);
+    System.arraycopy(src, 0, this.rows[this.slot(row)], 0, this.width);
+  } // setRow(int, T[])
+
+  // +-----------------+---------------------------------------------
+  // | Bulk operations |
+  // +-----------------+
+
+  /**
+   * Make a new matrix by applying a function to every value, a row
+   * array at a time and in parallel when the matrix is large. The new
+   * matrix has the same maximum height.
+   *
+   * @param <R>
+   *   The type of the new values.
+   * @param fn
+   *   The function.
+   *
+   * @return the results, with null as the default value.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public <R> Matrix<R> map(Function<? super T, ? extends R> fn) {
+    Object[][] mapped = new Object[this.rows.length][];
+    BulkOperations.rows(this.width, this.height).forEach((row) -> {
+      Object[] src = this.rows[this.slot(row)];
+      Object[] dst = new Object[this.width];
+      for (int col = 0; col < dst.length; col++) {
+        dst[col] = fn.apply((T) src[col]);
+      } // for
+      mapped[row] = dst;
+    });
+    return new RingBufferMatrix<R>(mapped, this.width, this.height, null, this.maxHeight);
+  } // map(Function<? super T, ? extends R>)
+
+  /**
+   * Make a new matrix by combining corresponding values of this matrix
+   * and another. When the other is also a RingBufferMatrix, both sets
+   * of row arrays are read directly, in parallel when they are large.
+   *
+   * @param <U>
+   *   The type of the values in the other matrix.
+   * @param <R>
+   *   The type of the new values.
+   * @param other
+   *   The other matrix, which must have the same width and height.
+   * @param fn
+   *   How to combine a value of this matrix with a value of the other.
+   *
+   * @return the results, with null as the default value.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public <U, R> Matrix<R> zipWith(Matrix<U> other,
+      BiFunction<? super T, ? super U, ? extends R> fn) throws ArraySizeException {
+    if (!(other instanceof RingBufferMatrix)) {
+      return Matrix.super.zipWith(other, fn);
+    } // if
+    BulkOperations.checkSameShape(this, other);
+    RingBufferMatrix<U> that = (RingBufferMatrix<U>) other;
+    MatrixV0<R> result = new MatrixV0<R>(this.width, this.height);
+    BulkOperations.rows(this.width, this.height).forEach((row) -> {
+      Object[] left = this.rows[this.slot(row)];
+      Object[] right = that.rows[that.slot(row)];
+      for (int col = 0; col < this.width; col++) {
+        result.backing[row * this.width + col] = fn.apply((T) left[col], (U) right[col]);
+      } // for
+    });
+    return result;
+  } // zipWith(Matrix<U>, BiFunction<? super T, ? super U, ? extends R>)
+
+  /**
+   * Combine all the values with an associative operation, reducing each
+   * row array and then combining the rows.
+   *
+   * @param identity
+   *   The identity of the operation.
+   * @param op
+   *   The operation.
+   *
+   * @return the combined value.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public T reduce(T identity, BinaryOperator<T> op) {
+    return BulkOperations.rows(this.width, this.height).mapToObj((row) -> {
+      T result = identity;
+      for (Object val : this.rows[this.slot(row)]) {
+        result = op.apply(result, (T) val);
+      } // for
+      return result;
+    }).reduce(identity, op);
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the values that satisfy a predicate, a row array at a time.
+   *
+   * @param pred
+   *   The predicate.
+   *
+   * @return the number of values for which it holds.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public long count(Predicate<? super T> pred) {
+    return BulkOperations.rows(this.width, this.height).mapToLong((row) -> {
+      long count = 0;
+      for (Object val : this.rows[this.slot(row)]) {
+        if (pred.test((T) val)) {
+          count++;
+        } // if
+      } // for
+      return count;
+    }).sum();
+  } // count(Predicate<? super T>)
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains: the buffer of rows, with
+   * its empty slots, and each row.
+   *
+   * @return the estimate.
+   */
+  public long estimatedBytes() {
+    return MemoryBudget.OBJECT
+        + MemoryBudget.arrayBytes(this.rows.length, MemoryBudget.REFERENCE)
+        + this.height * MemoryBudget.arrayBytes(this.width, MemoryBudget.REFERENCE);
+  } // estimatedBytes()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Find the slot that holds a row.
+   *
+   * @param row
+   *   The number of the row, which may be one past the bottom row.
+   *
+   * @return the slot.
+   */
+  int slot(int row) {
+    int slot = this.first + row;
+    return slot >= this.rows.length ? slot - this.rows.length : slot;
+  } // slot(int)
+
+  /**
+   * Check that a cell is within the matrix.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column are invalid.
+   */
+  void checkCell(int row, int col) {
+    if (row >= this.height || row < 0) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+    if (col >= this.width || col < 0) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not valid for Matrix of width "
+                      + this.width
+      );
+    } // if
+  } // checkCell(int, int)
+
+  /**
+   * Create an array of length len filled with the default value.
+   *
+   * @param len
+   *   The length of the array to create.
+   *
+   * @return the new array.
+   */
+  Object[] defaultRun(int len) {
+    Object[] arr = new Object[len];
+    Arrays.fill(arr, this.defaultValue);
+    return arr;
+  } // defaultRun(int)
+
+  /**
+   * Insert a row without checking the length of its values, evicting
+   * the top row if the matrix is full and growing the buffer if it has
+   * no free slot.
+   *
+   * @param row
+   *   The position at which to insert the row.
+   * @param vals
+   *   The values of the new row, which are copied, or null for the
+   *   default value.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row index is not valid for this matrix.
+   */
+  void insertRowUnchecked(int row, Object[] vals) {
+    if (row < 0 || row > this.height) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+
+    Object[] fresh = null;
+    int pos = row;
+    if (this.height == this.maxHeight) {
+      fresh = this.rows[this.first];
+      this.rows[this.first] = null;
+      this.first = this.slot(1);
+      this.height--;
+      pos = Math.max(0, pos - 1);
+    } else if (this.height == this.rows.length) {
+      this.resize((int) Math.min(this.maxHeight, 2L * this.rows.length));
+    } // if/else
+    if (fresh == null || fresh.length != this.width) {
+      fresh = new Object[this.width];
+    } // if
+    if (vals == null) {
+      Arrays.fill(fresh, this.defaultValue);
+    } else {
+      System.arraycopy(vals, 0, fresh, 0, this.width);
+    } // if/else
+
+    if (pos < this.height - pos) {
+      this.first = this.first == 0 ? this.rows.length - 1 : this.first - 1;
+      for (int i = 0; i < pos; i++) {
+        this.rows[this.slot(i)] = this.rows[this.slot(i + 1)];
+      } // for
+    } else {
+      for (int i = this.height; i > pos; i--) {
+        this.rows[this.slot(i)] = this.rows[this.slot(i - 1)];
+      } // for
+    } // if/else
+    this.rows[this.slot(pos)] = fresh;
+    this.height++;
+  } // insertRowUnchecked(int, Object[])
+
+  /**
+   * Insert a column without checking the length of its values.
+   *
+   * @param col
+   *   The position at which to insert the column.
+   * @param vals
+   *   The values with which to fill the column, or null for the default
+   *   value.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column index is not valid for this matrix.
+   */
+  void insertColUnchecked(int col, Object[] vals) {
+    if (col < 0 || col > this.width) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " is not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+
+    for (int i = 0; i < this.height; i++) {
+      int slot = this.slot(i);
+      Object[] oldRow = this.rows[slot];
+      Object[] newRow = new Object[this.width + 1];
+      System.arraycopy(oldRow, 0, newRow, 0, col);
+      newRow[col] = vals == null ? this.defaultValue : vals[i];
+      System.arraycopy(oldRow, col, newRow, col + 1, this.width - col);
+      this.rows[slot] = newRow;
+    } // for
+    this.width++;
+  } // insertColUnchecked(int, Object[])
+
+  /**
+   * Move the rows to a buffer of a new capacity, with the top row in
+   * slot 0.
+   *
+   * @param capacity
+   *   The new capacity, at least the height.
+   */
+  void resize(int capacity) {
+    Object[][] newRows = new Object[capacity][];
+    for (int i = 0; i < this.height; i++) {
+      newRows[i] = this.rows[this.slot(i)];
+    } // for
+    this.rows = newRows;
+    this.first = 0;
+  } // resize(int)
+} // class RingBufferMatrix
@@ -0,0 +1,1288 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A two-dimensional matrix for tall tables that are edited in the
+ * middle, stored as a balanced tree of blocks of rows.
+ *
+ * Each leaf holds up to BLOCK rows, each a separate array, and each
+ * branch up to FANOUT children along with the number of rows below it.
+ * Finding a row walks down the tree, so get, set, insertRow, and
+ * deleteRow all cost O(log height), plus O(width) to make a new row.
+ * A leaf or branch that grows too large is split in two; one that
+ * shrinks below half full is merged with its neighbour, and split
+ * again if the result is too large.
+ *
+ * The constructors and copyOf build the tree bottom-up from full
+ * blocks, so loading n rows costs O(n) rather than n inserts.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class RopeMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The most rows in a leaf.
+   */
+  static final int BLOCK = 64;
+
+  /**
+   * The most children of a branch.
+   */
+  static final int FANOUT = 16;
+
+  // +-------+-------------------------------------------------------
+  // | Nodes |
+  // +-------+
+
+  /**
+   * A node of the tree. Each node's array has room for two full nodes,
+   * so that merging two neighbours never overflows before the result
+   * is split again.
+   */
+  abstract static class Node {
+    /**
+     * The number of rows in this subtree.
+     */
+    int count;
+
+    /**
+     * Find a row.
+     *
+     * @param row
+     *   The number of the row within this subtree.
+     *
+     * @return the array that holds the row.
+     */
+    abstract Object[] row(int row);
+
+    /**
+     * Insert a row, splitting this node if it becomes too large.
+     *
+     * @param row
+     *   The number of the new row within this subtree.
+     * @param vals
+     *   The new row. Becomes owned by the tree.
+     *
+     * @return the new right half of this node, or null if it was not
+     * split.
+     */
+    abstract Node insert(int row, Object[] vals);
+
+    /**
+     * Delete a row, merging any child that becomes too small.
+     *
+     * @param row
+     *   The number of the row within this subtree.
+     */
+    abstract void delete(int row);
+
+    /**
+     * Determine the number of entries, rows or children, in this node.
+     *
+     * @return the number of entries.
+     */
+    abstract int size();
+
+    /**
+     * Determine the most entries this node should hold.
+     *
+     * @return the most entries.
+     */
+    abstract int max();
+
+    /**
+     * Move the upper half of the entries to a new node.
+     *
+     * @return the new node.
+     */
+    abstract Node split();
+
+    /**
+     * Move all of the entries of the next node to the end of this one.
+     *
+     * @param next
+     *   The node after this one, of the same kind.
+     */
+    abstract void absorb(Node next);
+
+    /**
+     * Add the leaves of this subtree to a list, in order.
+     *
+     * @param leaves
+     *   The list.
+     */
+    abstract void leaves(List<Leaf> leaves);
+
+    /**
+     * Estimate the bytes this subtree retains.
+     *
+     * @param width
+     *   The width of each row.
+     *
+     * @return the estimate.
+     */
+    abstract long bytes(int width);
+  } // class Node
+
+  /**
+   * A block of rows.
+   */
+  static class Leaf extends Node {
+    /**
+     * The rows. Only the first count entries are used.
+     */
+    Object[][] rows = new Object[2 * BLOCK][];
+
+    /**
+     * Find a row.
+     *
+     * @param row
+     *   The number of the row within this leaf.
+     *
+     * @return the array that holds the row.
+     */
+    Object[] row(int row) {
+      return this.rows[row];
+    } // row(int)
+
+    /**
+     * Insert a row, splitting this leaf if it becomes too large.
+     *
+     * @param row
+     *   The number of the new row within this leaf.
+     * @param vals
+     *   The new row.
+     *
+     * @return the new right half of this leaf, or null if it was not
+     * split.
+     */
+    Node insert(int row, Object[] vals) {
+      System.arraycopy(this.rows, row, this.rows, row + 1, this.count - row);
+      this.rows[row] = vals;
+      this.count++;
+      return this.count > BLOCK ? this.split() : null;
+    } // insert(int, Object[])
+
+    /**
+     * Delete a row.
+     *
+     * @param row
+     *   The number of the row within this leaf.
+     */
+    void delete(int row) {
+      System.arraycopy(this.rows, row + 1, this.rows, row, this.count - row - 1);
+      this.rows[--this.count] = null;
+    } // delete(int)
+
+    /**
+     * Determine the number of rows in this leaf.
+     *
+     * @return the number of rows.
+     */
+    int size() {
+      return this.count;
+    } // size()
+
+    /**
+     * Determine the most rows this leaf should hold.
+     *
+     * @return BLOCK.
+     */
+    int max() {
+      return BLOCK;
+    } // max()
+
+    /**
+     * Move the upper half of the rows to a new leaf.
+     *
+     * @return the new leaf.
+     */
+    Node split() {
+      Leaf next = new Leaf();
+      int half = this.count / 2;
+      next.count = this.count - half;
+      System.arraycopy(this.rows, half, next.rows, 0, next.count);
+      Arrays.fill(this.rows, half, this.count, null);
+      this.count = half;
+      return next;
+    } // split()
+
+    /**
+     * Move all of the rows of the next leaf to the end of this one.
+     *
+     * @param next
+     *   The leaf after this one.
+     */
+    void absorb(Node next) {
+      Leaf leaf = (Leaf) next;
+      System.arraycopy(leaf.rows, 0, this.rows, this.count, leaf.count);
+      this.count += leaf.count;
+    } // absorb(Node)
+
+    /**
+     * Add this leaf to a list.
+     *
+     * @param leaves
+     *   The list.
+     */
+    void leaves(List<Leaf> leaves) {
+      leaves.add(this);
+    } // leaves(List<Leaf>)
+
+    /**
+     * Estimate the bytes this leaf and its rows retain.
+     *
+     * @param width
+     *   The width of each row.
+     *
+     * @return the estimate.
+     */
+    long bytes(int width) {
+      return MemoryBudget.OBJECT
+          + MemoryBudget.arrayBytes(this.rows.length, MemoryBudget.REFERENCE)
+          + this.count * MemoryBudget.arrayBytes(width, MemoryBudget.REFERENCE);
+    } // bytes(int)
+  } // class Leaf
+
+  /**
+   * A node that holds other nodes.
+   */
+  static class Branch extends Node {
+    /**
+     * The children. Only the first size entries are used.
+     */
+    Node[] children = new Node[2 * FANOUT];
+
+    /**
+     * The number of children.
+     */
+    int size;
+
+    /**
+     * Find a row.
+     *
+     * @param row
+     *   The number of the row within this subtree.
+     *
+     * @return the array that holds the row.
+     */
+    Object[] row(int row) {
+      int k = 0;
+      int offset = row;
+      while (offset >= this.children[k].count) {
+        offset -= this.children[k].count;
+        k++;
+      } // while
+      return this.children[k].row(offset);
+    } // row(int)
+
+    /**
+     * Insert a row, splitting this branch if it gets too many children.
+     *
+     * @param row
+     *   The number of the new row within this subtree.
+     * @param vals
+     *   The new row.
+     *
+     * @return the new right half of this branch, or null if it was not
+     * split.
+     */
+    Node insert(int row, Object[] vals) {
+      int k = 0;
+      int offset = row;
+      while (k < this.size - 1 && offset > this.children[k].count) {
+        offset -= this.children[k].count;
+        k++;
+      } // while
+      Node next = this.children[k].insert(offset, vals);
+      if (next != null) {
+        this.add(k + 1, next);
+      } // if
+      this.count++;
+      return this.size > FANOUT ? this.split() : null;
+    } // insert(int, Object[])
+
+    /**
+     * Delete a row, merging the child it was in with a neighbour if the
+     * child becomes less than half full.
+     *
+     * @param row
+     *   The number of the row within this subtree.
+     */
+    void delete(int row) {
+      int k = 0;
+      int offset = row;
+      while (offset >= this.children[k].count) {
+        offset -= this.children[k].count;
+        k++;
+      } // while
+      Node child = this.children[k];
+      child.delete(offset);
+      this.count--;
+      if (this.size > 1 && child.size() < child.max() / 2) {
+        int left = k > 0 ? k - 1 : k;
+        Node merged = this.children[left];
+        merged.absorb(this.children[left + 1]);
+        this.remove(left + 1);
+        if (merged.size() > merged.max()) {
+          this.add(left + 1, merged.split());
+        } // if
+      } // if
+    } // delete(int)
+
+    /**
+     * Determine the number of children.
+     *
+     * @return the number of children.
+     */
+    int size() {
+      return this.size;
+    } // size()
+
+    /**
+     * Determine the most children this branch should have.
+     *
+     * @return FANOUT.
+     */
+    int max() {
+      return FANOUT;
+    } // max()
+
+    /**
+     * Move the upper half of the children to a new branch.
+     *
+     * @return the new branch.
+     */
+    Node split() {
+      Branch next = new Branch();
+      int half = this.size / 2;
+      next.size = this.size - half;
+      System.arraycopy(this.children, half, next.children, 0, next.size);
+      Arrays.fill(this.children, half, this.size, null);
+      this.size = half;
+      this.recount();
+      next.recount();
+      return next;
+    } // split()
+
+    /**
+     * Move all of the children of the next branch to the end of this
+     * one.
+     *
+     * @param next
+     *   The branch after this one.
+     */
+    void absorb(Node next) {
+      Branch branch = (Branch) next;
+      System.arraycopy(branch.children, 0, this.children, this.size, branch.size);
+      this.size += branch.size;
+      this.count += branch.count;
+    } // absorb(Node)
+
+    /**
+     * Add the leaves of this subtree to a list, in order.
+     *
+     * @param leaves
+     *   The list.
+     */
+    void leaves(List<Leaf> leaves) {
+      for (int k = 0; k < this.size; k++) {
+        this.children[k].leaves(leaves);
+      } // for
+    } // leaves(List<Leaf>)
+
+    /**
+     * Estimate the bytes this subtree retains.
+     *
+     * @param width
+     *   The width of each row.
+     *
+     * @return the estimate.
+     */
+    long bytes(int width) {
+      long total = MemoryBudget.OBJECT
+          + MemoryBudget.arrayBytes(this.children.length, MemoryBudget.REFERENCE);
+      for (int k = 0; k < this.size; k++) {
+        total += this.children[k].bytes(width);
+      } // for
+      return total;
+    } // bytes(int)
+
+    /**
+     * Add a child, without changing the count.
+     *
+     * @param k
+     *   The position of the new child.
+     * @param child
+     *   The new child.
+     */
+    void add(int k, Node child) {
+      System.arraycopy(this.children, k, this.children, k + 1, this.size - k);
+      this.children[k] = child;
+      this.size++;
+    } // add(int, Node)
+
+    /**
+     * Remove a child, without changing the count.
+     *
+     * @param k
+     *   The position of the child.
+     */
+    void remove(int k) {
+      System.arraycopy(this.children, k + 1, this.children, k, this.size - k - 1);
+      this.children[--this.size] = null;
+    } // remove(int)
+
+    /**
+     * Recompute the count from the children.
+     */
+    void recount() {
+      this.count = 0;
+      for (int k = 0; k < this.size; k++) {
+        this.count += this.children[k].count;
+      } // for
+    } // recount()
+  } // class Branch
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The root of the tree.
+   */
+  Node root;
+
+  /**
+   * This is the width of the matrix.
+   */
+  int width;
+
+  /**
+   * This is the default value passed to the constructor.
+   */
+  T defaultValue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the matrix would be too large for the global MemoryBudget.
+   */
+  public RopeMatrix(int width1, int height1, T def) {
+    if (width1 < 0) {
+      throw new NegativeArraySizeException(
+              "Negative width given to RopeMatrix constructor");
+    } // if
+    if (height1 < 0) {
+      throw new NegativeArraySizeException(
+              "Negative height given to RopeMatrix constructor");
+    } // if
+
+    MemoryBudget.checkCells(width1, height1, MemoryBudget.REFERENCE);
+    this.width = width1;
+    this.defaultValue = def;
+    Object[][] rows = new Object[height1][];
+    for (int i = 0; i < height1; i++) {
+      rows[i] = this.defaultRun(width1);
+    } // for
+    this.root = build(rows);
+  } // RopeMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the matrix would be too large for the global MemoryBudget.
+   */
+  public RopeMatrix(int width1, int height1) {
+    this(width1, height1, null);
+  } // RopeMatrix(int, int)
+
+  /**
+   * Create a new matrix that owns the given rows.
+   *
+   * @param rows
+   *   The rows of the matrix.
+   * @param width1
+   *   The width of the matrix.
+   * @param def
+   *   The default value.
+   */
+  RopeMatrix(Object[][] rows, int width1, T def) {
+    this.width = width1;
+    this.defaultValue = def;
+    this.root = build(rows);
+  } // RopeMatrix(Object[][], int, T)
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Load a copy of another matrix in one pass.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param src
+   *   The matrix to copy.
+   * @param def
+   *   The default value of the new matrix.
+   *
+   * @return the copy.
+   */
+  public static <T> RopeMatrix<T> copyOf(Matrix<? extends T> src, T def) {
+    Object[][] rows = new Object[src.height()][];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = new Object[src.width()];
+      for (int j = 0; j < src.width(); j++) {
+        rows[i][j] = src.get(i, j);
+      } // for j
+    } // for i
+    return new RopeMatrix<T>(rows, src.width(), def);
+  } // copyOf(Matrix<? extends T>, T)
+
+  /**
+   * Build a tree from the bottom up, spreading the rows and then the
+   * nodes evenly so that every node is at least half full.
+   *
+   * @param rows
+   *   The rows, which become owned by the tree.
+   *
+   * @return the root of the tree.
+   */
+  static Node build(Object[][] rows) {
+    int leafCount = Math.max(1, (rows.length + BLOCK - 1) / BLOCK);
+    Node[] level = new Node[leafCount];
+    for (int j = 0; j < leafCount; j++) {
+      int start = (int) ((long) rows.length * j / leafCount);
+      int end = (int) ((long) rows.length * (j + 1) / leafCount);
+      Leaf leaf = new Leaf();
+      System.arraycopy(rows, start, leaf.rows, 0, end - start);
+      leaf.count = end - start;
+      level[j] = leaf;
+    } // for
+    while (level.length > 1) {
+      int branchCount = (level.length + FANOUT - 1) / FANOUT;
+      Node[] above = new Node[branchCount];
+      for (int j = 0; j < branchCount; j++) {
+        int start = level.length * j / branchCount;
+        int end = level.length * (j + 1) / branchCount;
+        Branch branch = new Branch();
+        System.arraycopy(level, start, branch.children, 0, end - start);
+        branch.size = end - start;
+        branch.recount();
+        above[j] = branch;
+      } // for
+      level = above;
+    } // while
+    return level[0];
+  } // build(Object[][])
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public T get(int row, int col) {
+    this.checkCell(row, col);
+    return (T) this.root.row(row)[col];
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    this.checkCell(row, col);
+    this.root.row(row)[col] = val;
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.root.count;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    this.insertRowUnchecked(row, this.defaultRun(this.width));
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (vals.length != this.width) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + vals.length
+                      + " not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+
+    this.insertRowUnchecked(row, Arrays.copyOf(vals, vals.length, Object[].class));
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    this.insertColUnchecked(col, null);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (vals.length != this.height()) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + vals.length
+                      + " is not appropriate for Matrix of height "
+                      + this.height()
+      );
+    } // if
+
+    this.insertColUnchecked(col, vals);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.height()) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " is not valid for Matrix of height "
+                      + this.height()
+      );
+    } // if
+
+    this.root.delete(row);
+    while (this.root instanceof Branch && ((Branch) this.root).size == 1) {
+      this.root = ((Branch) this.root).children[0];
+    } // while
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+
+    for (Leaf leaf : this.leaves()) {
+      for (int i = 0; i < leaf.count; i++) {
+        Object[] oldRow = leaf.rows[i];
+        Object[] newRow = new Object[this.width - 1];
+        System.arraycopy(oldRow, 0, newRow, 0, col);
+        System.arraycopy(oldRow, col + 1, newRow, col, this.width - col - 1);
+        leaf.rows[i] = newRow;
+      } // for
+    } // for
+    this.width--;
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    int height = this.height();
+    if (startRow >= height || startRow < 0) {
+      throw new IndexOutOfBoundsException(
+              "Start row index "
+              + startRow
+              + " is not appropriate for matrix of height "
+              + height
+      );
+    } // if
+    if (startCol >= this.width || startCol < 0) {
+      throw new IndexOutOfBoundsException(
+              "Start column index "
+              + startCol
+              + " is not appropriate for matrix of width "
+              + this.width
+      );
+    } // if
+    if (endRow > height || endRow < 0) {
+      throw new IndexOutOfBoundsException(
+              "End row index "
+              + endRow
+              + " is not appropriate for matrix of height "
+              + height
+      );
+    } // if
+    if (endCol > this.width || endCol < 0) {
+      throw new IndexOutOfBoundsException(
+              "End column index "
+              + endCol
+              + " is not appropriate for matrix of width "
+              + this.width
+      );
+    } // if
+
+    if (startCol >= endCol) {
+      return;
+    } // if
+    for (int i = startRow; i < endRow; i++) {
+      Arrays.fill(this.root.row(i), startCol, endCol, val);
+    } // for
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    if (endRow > this.height() || endRow < -1) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + endRow
+                      + " is not appropriate for matrix of height "
+                      + this.height()
+      );
+    } // if
+    if (endCol > this.width || endCol < -1) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + endCol
+                      + " is not appropriate for matrix of width "
+                      + this.width
+      );
+    } // if
+    if (deltaCol * (endCol - startCol) < 0) {
+      throw new IndexOutOfBoundsException(
+              "End column "
+              + endCol
+              + " is before start column "
+              + startCol
+      );
+    } // if
+    if (deltaRow * (endRow - startRow) < 0) {
+      throw new IndexOutOfBoundsException(
+              "End row "
+              + endRow
+              + " is before start row "
+              + startRow
+      );
+    } // if
+
+    for (int i = startRow, j = startCol;
+         VersionedMatrix.isWithin(startRow, endRow, i)
+             && VersionedMatrix.isWithin(startCol, endCol, j);
+         i += deltaRow, j += deltaCol) {
+      this.checkCell(i, j);
+      this.root.row(i)[j] = val;
+    } // for
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix, built bottom-up from full blocks.
+   *
+   * @return a copy of the matrix.
+   */
+  public Matrix<T> clone() {
+    Object[][] rows = new Object[this.height()][];
+    int i = 0;
+    for (Leaf leaf : this.leaves()) {
+      for (int j = 0; j < leaf.count; j++) {
+        rows[i++] = leaf.rows[j].clone();
+      } // for
+    } // for
+    return new RopeMatrix<T>(rows, this.width, this.defaultValue);
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return other instanceof Matrix && Matrix.sameContents(this, (Matrix<?>) other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return Matrix.hashCodeOf(this);
+  } // hashCode()
+
+  // +-------------+-------------------------------------------------
+  // | Bulk copies |
+  // +-------------+
+
+  /**
+   * Copy a row of the matrix into an array with one arraycopy.
+   *
+   * @param row
+   *   The number of the row.
+   * @param dst
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @return dst.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If dst is the wrong length.
+   */
+  public T[] getRow(int row, T[] dst) throws ArraySizeException {
+    BulkCopies.checkLength(dst.length, this.width, "width");
+    GetSetCursor.checkRegion(this.width, this.height(), row, 0, row + 1, this.width);
+    System.arraycopy(this.root.row(row), 0, dst, 0, this.width);
+    return dst;
+  } // getRow(int, T[])
+
+  /**
+   * Copy an array into a row of the matrix with one arraycopy.
+   *
+   * @param row
+   *   The number of the row.
+   * @param src
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If src is the wrong length.
+   */
+  public void setRow(int row, T[] src) throws ArraySizeException {
+    BulkCopies.checkLength(src.length, this.width, "width");
+    GetSetCursor.checkRegion(this.width, this.height(), row, 0, row + 1, this.width);
+    System.arraycopy(src, 0, this.root.row(row), 0, this.width);
+  } // setRow(int, T[])
+
+  // +-----------------+---------------------------------------------
+  // | Bulk operations |
+  // +-----------------+
+
+  /**
+   * Make a new matrix by applying a function to every value, a row
+   * array at a time and in parallel when the matrix is large.
+   *
+   * @param <R>
+   *   The type of the new values.
+   * @param fn
+   *   The function.
+   *
+   * @return the results, with null as the default value.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public <R> Matrix<R> map(Function<? super T, ? extends R> fn) {
+    Object[][] src = this.rowArrays();
+    Object[][] mapped = new Object[src.length][];
+    BulkOperations.rows(this.width, src.length).forEach((row) -> {
+      Object[] dst = new Object[this.width];
+      for (int col = 0; col < dst.length; col++) {
+        dst[col] = fn.apply((T) src[row][col]);
+      } // for
+      mapped[row] = dst;
+    });
+    return new RopeMatrix<R>(mapped, this.width, null);
+  } // map(Function<? super T, ? extends R>)
+
+  /**
+   * Make a new matrix by combining corresponding values of this matrix
+   * and another. When the other is also a RopeMatrix, both sets of row
+   * arrays are read directly, in parallel when they are large.
+   *
+   * @param <U>
+   *   The type of the values in the other matrix.
+   * @param <R>
+   *   The type of the new values.
+   * @param other
+   *   The other matrix, which must have the same width and height.
+   * @param fn
+   *   How to combine a value of this matrix with a value of the other.
+   *
+   * @return the results, with null as the default value.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public <U, R> Matrix<R> zipWith(Matrix<U> other,
+      BiFunction<? super T, ? super U, ? extends R> fn) throws ArraySizeException {
+    if (!(other instanceof RopeMatrix)) {
+      return Matrix.super.zipWith(other, fn);
+    } // if
+    BulkOperations.checkSameShape(this, other);
+    Object[][] left = this.rowArrays();
+    Object[][] right = ((RopeMatrix<U>) other).rowArrays();
+    MatrixV0<R> result = new MatrixV0<R>(this.width, left.length);
+    BulkOperations.rows(this.width, left.length).forEach((row) -> {
+      for (int col = 0; col < this.width; col++) {
+        result.backing[row * this.width + col] = fn.apply((T) left[row][col],
+            (U) right[row][col]);
+      } // for
+    });
+    return result;
+  } // zipWith(Matrix<U>, BiFunction<? super T, ? super U, ? extends R>)
+
+  /**
+   * Combine all the values with an associative operation, reducing each
+   * row array and then combining the rows.
+   *
+   * @param identity
+   *   The identity of the operation.
+   * @param op
+   *   The operation.
+   *
+   * @return the combined value.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public T reduce(T identity, BinaryOperator<T> op) {
+    Object[][] rows = this.rowArrays();
+    return BulkOperations.rows(this.width, rows.length).mapToObj((row) -> {
+      T result = identity;
+      for (Object val : rows[row]) {
+        result = op.apply(result, (T) val);
+      } // for
+      return result;
+    }).reduce(identity, op);
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the values that satisfy a predicate, a row array at a time.
+   *
+   * @param pred
+   *   The predicate.
+   *
+   * @return the number of values for which it holds.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public long count(Predicate<? super T> pred) {
+    Object[][] rows = this.rowArrays();
+    return BulkOperations.rows(this.width, rows.length).mapToLong((row) -> {
+      long count = 0;
+      for (Object val : rows[row]) {
+        if (pred.test((T) val)) {
+          count++;
+        } // if
+      } // for
+      return count;
+    }).sum();
+  } // count(Predicate<? super T>)
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains: the nodes of the tree and
+   * the rows in its leaves.
+   *
+   * @return the estimate.
+   */
+  public long estimatedBytes() {
+    return MemoryBudget.OBJECT + this.root.bytes(this.width);
+  } // estimatedBytes()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * List the leaves of the tree, in order.
+   *
+   * @return the leaves.
+   */
+  List<Leaf> leaves() {
+    List<Leaf> leaves = new ArrayList<Leaf>();
+    this.root.leaves(leaves);
+    return leaves;
+  } // leaves()
+
+  /**
+   * Collect the row arrays from the leaves, in order, so that they can
+   * be worked on in parallel. The arrays are shared, not copied.
+   *
+   * @return the rows.
+   */
+  Object[][] rowArrays() {
+    Object[][] rows = new Object[this.height()][];
+    int i = 0;
+    for (Leaf leaf : this.leaves()) {
+      System.arraycopy(leaf.rows, 0, rows, i, leaf.count);
+      i += leaf.count;
+    } // for
+    return rows;
+  } // rowArrays()
+
+  /**
+   * Check that a cell is within the matrix.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column are invalid.
+   */
+  void checkCell(int row, int col) {
+    if (row >= this.height() || row < 0) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height()
+      );
+    } // if
+    if (col >= this.width || col < 0) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not valid for Matrix of width "
+                      + this.width
+      );
+    } // if
+  } // checkCell(int, int)
+
+  /**
+   * Create an array of length len filled with the default value.
+   *
+   * @param len
+   *   The length of the array to create.
+   *
+   * @return the new array.
+   */
+  Object[] defaultRun(int len) {
+    Object[] arr = new Object[len];
+    Arrays.fill(arr, this.defaultValue);
+    return arr;
+  } // defaultRun(int)
+
+  /**
+   * Insert a row without checking the length of its values, adding a
+   * level to the tree if the root splits.
+   *
+   * @param row
+   *   The position at which to insert the row.
+   * @param vals
+   *   The new row. Becomes owned by this matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row index is not valid for this matrix.
+   */
+  void insertRowUnchecked(int row, Object[] vals) {
+    if (row < 0 || row > this.height()) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height()
+      );
+    } // if
+
+    Node next = this.root.insert(row, vals);
+    if (next != null) {
+      Branch branch = new Branch();
+      branch.add(0, this.root);
+      branch.add(1, next);
+      branch.recount();
+      this.root = branch;
+    } // if
+  } // insertRowUnchecked(int, Object[])
+
+  /**
+   * Insert a column without checking the length of its values.
+   *
+   * @param col
+   *   The position at which to insert the column.
+   * @param vals
+   *   The values with which to fill the column, or null for the default
+   *   value.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column index is not valid for this matrix.
+   */
+  void insertColUnchecked(int col, Object[] vals) {
+    if (col < 0 || col > this.width) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " is not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+
+    int row = 0;
+    for (Leaf leaf : this.leaves()) {
+      for (int i = 0; i < leaf.count; i++) {
+        Object[] oldRow = leaf.rows[i];
+        Object[] newRow = new Object[this.width + 1];
+        System.arraycopy(oldRow, 0, newRow, 0, col);
+        newRow[col] = vals == null ? this.defaultValue : vals[row];
+        System.arraycopy(oldRow, col, newRow, col + 1, this.width - col);
+        leaf.rows[i] = newRow;
+        row++;
+      } // for
+    } // for
+    this.width++;
+  } // insertColUnchecked(int, Object[])
+} // class RopeMatrix
@@ -0,0 +1,133 @@
+package edu.grinnell.csc207.util;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * A semiring: a way of adding and multiplying values so that matrix
+ * multiplication makes sense. Using a matrix as an adjacency structure,
+ * the product over min-plus gives shortest two-step paths, the product
+ * over or-and gives two-step reachability, and so on.
+ *
+ * Implementations should make plus associative and commutative with
+ * zero as its identity, times associative with one as its identity,
+ * times distribute over plus, and zero annihilate under times. The
+ * multiplication routines in SemiringMatrices rely on the last rule to
+ * skip zeros.
+ *
+ * @param <T>
+ *   The type of the values.
+ *
+ * @author David William Stroud
+ */
+public interface Semiring<T> {
+  /**
+   * Get the identity for plus, which means "no path".
+   *
+   * @return the zero.
+   */
+  T zero();
+
+  /**
+   * Get the identity for times, which means "the empty path".
+   *
+   * @return the one.
+   */
+  T one();
+
+  /**
+   * Combine two alternatives.
+   *
+   * @param left
+   *   The first alternative.
+   * @param right
+   *   The second alternative.
+   *
+   * @return their sum.
+   */
+  T plus(T left, T right);
+
+  /**
+   * Combine two steps in sequence.
+   *
+   * @param left
+   *   The first step.
+   * @param right
+   *   The second step.
+   *
+   * @return their product.
+   */
+  T times(T left, T right);
+
+  /**
+   * Build a semiring from its parts.
+   *
+   * @param <T>
+   *   The type of the values.
+   * @param zero
+   *   The identity for plus.
+   * @param one
+   *   The identity for times.
+   * @param plus
+   *   How to combine alternatives.
+   * @param times
+   *   How to combine steps in sequence.
+   *
+   * @return the semiring.
+   */
+  static <T> Semiring<T> of(T zero, T one, BinaryOperator<T> plus, BinaryOperator<T> times) {
+    return new Semiring<T>() {
+      public T zero() {
+        return zero;
+      } // zero()
+
+      public T one() {
+        return one;
+      } // one()
+
+      public T plus(T left, T right) {
+        return plus.apply(left, right);
+      } // plus(T, T)
+
+      public T times(T left, T right) {
+        return times.apply(left, right);
+      } // times(T, T)
+    };
+  } // of(T, T, BinaryOperator<T>, BinaryOperator<T>)
+
+  /**
+   * Get the boolean semiring, for reachability.
+   *
+   * @return or-and over booleans.
+   */
+  static Semiring<Boolean> orAnd() {
+    return Semiring.of(false, true, (a, b) -> a || b, (a, b) -> a && b);
+  } // orAnd()
+
+  /**
+   * Get the tropical semiring, for shortest paths. Zero is positive
+   * infinity.
+   *
+   * @return min-plus over doubles.
+   */
+  static Semiring<Double> minPlus() {
+    return DoubleSemiring.MIN_PLUS.boxed();
+  } // minPlus()
+
+  /**
+   * Get the semiring for most reliable paths, given probabilities.
+   *
+   * @return max-times over non-negative doubles.
+   */
+  static Semiring<Double> maxTimes() {
+    return DoubleSemiring.MAX_TIMES.boxed();
+  } // maxTimes()
+
+  /**
+   * Get ordinary arithmetic, for counting weighted paths.
+   *
+   * @return plus-times over doubles.
+   */
+  static Semiring<Double> plusTimes() {
+    return DoubleSemiring.PLUS_TIMES.boxed();
+  } // plusTimes()
+} // interface Semiring<T>
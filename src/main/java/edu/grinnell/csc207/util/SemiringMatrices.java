@@ -0,0 +1,538 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Matrix multiplication and closure over semirings, for using matrices
+ * as adjacency structures.
+ *
+ * Every product is computed a row panel at a time, walking the
+ * right-hand matrix in cache-sized blocks, and the panels are computed
+ * in parallel once the product is large enough. There are three
+ * versions: a generic one for any Semiring, one for DoubleMatrix and
+ * the DoubleSemiring constants that never boxes, and one for or-and
+ * that packs each row into a bitset so that a whole row is combined
+ * 64 cells at a time.
+ *
+ * The closures find paths of any length by repeatedly squaring
+ * (I + A), which takes about log2(n) products. That is the usual
+ * closure (all-pairs shortest paths, reachability) when plus is
+ * idempotent, as it is in every semiring here but PLUS_TIMES.
+ *
+ * @author David William Stroud
+ */
+public class SemiringMatrices {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of rows of the result in each panel.
+   */
+  static final int PANEL_ROWS = 32;
+
+  /**
+   * The number of rows of the right-hand matrix in a cache block.
+   */
+  static final int BLOCK_K = 128;
+
+  /**
+   * The number of columns of the right-hand matrix in a cache block.
+   */
+  static final int BLOCK_J = 256;
+
+  /**
+   * The number of multiply-adds below which products are not
+   * parallelized.
+   */
+  static final long PARALLEL_WORK = 1 << 16;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prevent instantiation; all the methods are static.
+   */
+  private SemiringMatrices() {
+  } // SemiringMatrices()
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Multiply two matrices over a semiring.
+   *
+   * @param <T>
+   *   The type of the values.
+   * @param left
+   *   The left-hand matrix.
+   * @param right
+   *   The right-hand matrix; its height must equal the left width.
+   * @param semiring
+   *   How to add and multiply values.
+   *
+   * @return the product, as a MatrixV0 whose default is the zero.
+   *
+   * @throws ArraySizeException
+   *   If the matrices cannot be multiplied.
+   */
+  public static <T> Matrix<T> multiply(Matrix<T> left, Matrix<T> right,
+      Semiring<T> semiring) throws ArraySizeException {
+    checkShapes(left.width(), right.height());
+    Object[] product = multiply(toArray(left), toArray(right), left.height(), left.width(),
+        right.width(), semiring);
+    return toMatrix(product, right.width(), left.height(), semiring.zero());
+  } // multiply(Matrix<T>, Matrix<T>, Semiring<T>)
+
+  /**
+   * Multiply two matrices of doubles over a semiring.
+   *
+   * @param left
+   *   The left-hand matrix.
+   * @param right
+   *   The right-hand matrix; its height must equal the left width.
+   * @param semiring
+   *   How to add and multiply values.
+   *
+   * @return the product, whose default is the zero.
+   *
+   * @throws ArraySizeException
+   *   If the matrices cannot be multiplied.
+   */
+  public static DoubleMatrix multiply(DoubleMatrix left, DoubleMatrix right,
+      DoubleSemiring semiring) throws ArraySizeException {
+    checkShapes(left.width, right.height);
+    DoubleMatrix result = new DoubleMatrix(right.width, left.height, semiring.zero());
+    multiply(left.backing, right.backing, result.backing, left.height, left.width,
+        right.width, semiring);
+    return result;
+  } // multiply(DoubleMatrix, DoubleMatrix, DoubleSemiring)
+
+  /**
+   * Multiply two boolean matrices over or-and. Null counts as false.
+   *
+   * @param left
+   *   The left-hand matrix.
+   * @param right
+   *   The right-hand matrix; its height must equal the left width.
+   *
+   * @return the product, whose default is false.
+   *
+   * @throws ArraySizeException
+   *   If the matrices cannot be multiplied.
+   */
+  public static Matrix<Boolean> multiply(Matrix<Boolean> left, Matrix<Boolean> right)
+      throws ArraySizeException {
+    checkShapes(left.width(), right.height());
+    long[][] product = multiply(toBits(left), toBits(right), right.width());
+    return fromBits(product, right.width());
+  } // multiply(Matrix<Boolean>, Matrix<Boolean>)
+
+  /**
+   * Find the closure of a square matrix over a semiring: the best
+   * combination of paths of every length, including the empty path.
+   *
+   * @param <T>
+   *   The type of the values.
+   * @param matrix
+   *   The matrix.
+   * @param semiring
+   *   How to add and multiply values.
+   *
+   * @return the closure, as a MatrixV0 whose default is the zero.
+   *
+   * @throws ArraySizeException
+   *   If the matrix is not square.
+   */
+  public static <T> Matrix<T> closure(Matrix<T> matrix, Semiring<T> semiring)
+      throws ArraySizeException {
+    int n = checkSquare(matrix.width(), matrix.height());
+    Object[] current = toArray(matrix);
+    for (int i = 0; i < n; i++) {
+      current[i * n + i] = semiring.plus(semiring.one(), toValue(current[i * n + i]));
+    } // for
+    for (long length = 1; length < n - 1; length *= 2) {
+      Object[] next = multiply(current, current, n, n, n, semiring);
+      if (Arrays.equals(current, next)) {
+        break;
+      } // if
+      current = next;
+    } // for
+    return toMatrix(current, n, n, semiring.zero());
+  } // closure(Matrix<T>, Semiring<T>)
+
+  /**
+   * Find the closure of a square matrix of doubles over a semiring.
+   * Over MIN_PLUS, with edge weights in the cells and POSITIVE_INFINITY
+   * for missing edges, this is all-pairs shortest paths.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param semiring
+   *   How to add and multiply values.
+   *
+   * @return the closure.
+   *
+   * @throws ArraySizeException
+   *   If the matrix is not square.
+   */
+  public static DoubleMatrix closure(DoubleMatrix matrix, DoubleSemiring semiring)
+      throws ArraySizeException {
+    int n = checkSquare(matrix.width, matrix.height);
+    double[] current = matrix.backing.clone();
+    for (int i = 0; i < n; i++) {
+      current[i * n + i] = semiring.plus(semiring.one(), current[i * n + i]);
+    } // for
+    for (long length = 1; length < n - 1; length *= 2) {
+      double[] next = new double[n * n];
+      Arrays.fill(next, semiring.zero());
+      multiply(current, current, next, n, n, n, semiring);
+      if (Arrays.equals(current, next)) {
+        break;
+      } // if
+      current = next;
+    } // for
+    DoubleMatrix result = new DoubleMatrix(0, 0, semiring.zero());
+    result.backing = current;
+    result.width = n;
+    result.height = n;
+    return result;
+  } // closure(DoubleMatrix, DoubleSemiring)
+
+  /**
+   * Find which cells can reach which others, treating a square boolean
+   * matrix as the edges of a graph. Null counts as false. Every cell
+   * reaches itself.
+   *
+   * @param matrix
+   *   The edges.
+   *
+   * @return the reachability matrix, whose default is false.
+   *
+   * @throws ArraySizeException
+   *   If the matrix is not square.
+   */
+  public static Matrix<Boolean> reachability(Matrix<Boolean> matrix)
+      throws ArraySizeException {
+    int n = checkSquare(matrix.width(), matrix.height());
+    long[][] current = toBits(matrix);
+    for (int i = 0; i < n; i++) {
+      current[i][i >>> 6] |= 1L << i;
+    } // for
+    for (long length = 1; length < n - 1; length *= 2) {
+      long[][] next = multiply(current, current, n);
+      if (Arrays.deepEquals(current, next)) {
+        break;
+      } // if
+      current = next;
+    } // for
+    return fromBits(current, n);
+  } // reachability(Matrix<Boolean>)
+
+  // +---------+-----------------------------------------------------
+  // | Kernels |
+  // +---------+
+
+  /**
+   * Multiply two row-major arrays over a semiring.
+   *
+   * @param <T>
+   *   The type of the values.
+   * @param a
+   *   The left-hand values.
+   * @param b
+   *   The right-hand values.
+   * @param height
+   *   The height of the left-hand matrix.
+   * @param inner
+   *   The width of the left-hand matrix.
+   * @param width
+   *   The width of the right-hand matrix.
+   * @param semiring
+   *   How to add and multiply values.
+   *
+   * @return the product.
+   */
+  @SuppressWarnings({ "unchecked" })
+  static <T> Object[] multiply(Object[] a, Object[] b, int height, int inner, int width,
+      Semiring<T> semiring) {
+    T zero = semiring.zero();
+    Object[] c = new Object[height * width];
+    Arrays.fill(c, zero);
+    forEachPanel(height, (long) height * inner * width, (panel) -> {
+      int startRow = panel * PANEL_ROWS;
+      int endRow = Math.min(startRow + PANEL_ROWS, height);
+      for (int kk = 0; kk < inner; kk += BLOCK_K) {
+        int kEnd = Math.min(kk + BLOCK_K, inner);
+        for (int jj = 0; jj < width; jj += BLOCK_J) {
+          int jEnd = Math.min(jj + BLOCK_J, width);
+          for (int i = startRow; i < endRow; i++) {
+            for (int k = kk; k < kEnd; k++) {
+              T aik = (T) a[i * inner + k];
+              if (Objects.equals(aik, zero)) {
+                continue;
+              } // if
+              for (int j = jj; j < jEnd; j++) {
+                c[i * width + j] = semiring.plus((T) c[i * width + j],
+                    semiring.times(aik, (T) b[k * width + j]));
+              } // for j
+            } // for k
+          } // for i
+        } // for jj
+      } // for kk
+    });
+    return c;
+  } // multiply(Object[], Object[], int, int, int, Semiring<T>)
+
+  /**
+   * Multiply two row-major arrays of doubles over a semiring.
+   *
+   * @param a
+   *   The left-hand values.
+   * @param b
+   *   The right-hand values.
+   * @param c
+   *   Where to put the product, which must start out as the zero.
+   * @param height
+   *   The height of the left-hand matrix.
+   * @param inner
+   *   The width of the left-hand matrix.
+   * @param width
+   *   The width of the right-hand matrix.
+   * @param semiring
+   *   How to add and multiply values.
+   */
+  static void multiply(double[] a, double[] b, double[] c, int height, int inner,
+      int width, DoubleSemiring semiring) {
+    double zero = semiring.zero();
+    forEachPanel(height, (long) height * inner * width, (panel) -> {
+      int startRow = panel * PANEL_ROWS;
+      int endRow = Math.min(startRow + PANEL_ROWS, height);
+      for (int kk = 0; kk < inner; kk += BLOCK_K) {
+        int kEnd = Math.min(kk + BLOCK_K, inner);
+        for (int jj = 0; jj < width; jj += BLOCK_J) {
+          int len = Math.min(jj + BLOCK_J, width) - jj;
+          for (int i = startRow; i < endRow; i++) {
+            for (int k = kk; k < kEnd; k++) {
+              double aik = a[i * inner + k];
+              if (aik != zero) {
+                semiring.accumulate(aik, b, k * width + jj, c, i * width + jj, len);
+              } // if
+            } // for k
+          } // for i
+        } // for jj
+      } // for kk
+    });
+  } // multiply(double[], double[], double[], int, int, int, DoubleSemiring)
+
+  /**
+   * Multiply two bitset matrices over or-and. Each row of the product
+   * is the union of the right-hand rows selected by the left-hand row.
+   *
+   * @param a
+   *   The left-hand rows.
+   * @param b
+   *   The right-hand rows.
+   * @param width
+   *   The width of the right-hand matrix.
+   *
+   * @return the product.
+   */
+  static long[][] multiply(long[][] a, long[][] b, int width) {
+    int words = wordsFor(width);
+    long[][] c = new long[a.length][words];
+    forEachPanel(a.length, (long) a.length * b.length * words, (panel) -> {
+      int endRow = Math.min((panel + 1) * PANEL_ROWS, a.length);
+      for (int i = panel * PANEL_ROWS; i < endRow; i++) {
+        long[] row = c[i];
+        for (int w = 0; w < a[i].length; w++) {
+          for (long bits = a[i][w]; bits != 0; bits &= bits - 1) {
+            long[] other = b[(w << 6) + Long.numberOfTrailingZeros(bits)];
+            for (int j = 0; j < words; j++) {
+              row[j] |= other[j];
+            } // for j
+          } // for bits
+        } // for w
+      } // for i
+    });
+    return c;
+  } // multiply(long[][], long[][], int)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Run an action on every panel of rows, in parallel when there is
+   * enough work.
+   *
+   * @param rows
+   *   The number of rows.
+   * @param work
+   *   An estimate of the number of operations.
+   * @param action
+   *   What to do with each panel, given its number.
+   */
+  static void forEachPanel(int rows, long work, IntConsumer action) {
+    int panels = (rows + PANEL_ROWS - 1) / PANEL_ROWS;
+    IntStream stream = IntStream.range(0, panels);
+    if (work >= PARALLEL_WORK) {
+      stream = stream.parallel();
+    } // if
+    stream.forEach(action);
+  } // forEachPanel(int, long, IntConsumer)
+
+  /**
+   * Check that two matrices can be multiplied.
+   *
+   * @param leftWidth
+   *   The width of the left-hand matrix.
+   * @param rightHeight
+   *   The height of the right-hand matrix.
+   *
+   * @throws ArraySizeException
+   *   If they differ.
+   */
+  static void checkShapes(int leftWidth, int rightHeight) throws ArraySizeException {
+    if (leftWidth != rightHeight) {
+      throw new ArraySizeException("Cannot multiply a matrix of width " + leftWidth
+          + " by a matrix of height " + rightHeight);
+    } // if
+  } // checkShapes(int, int)
+
+  /**
+   * Check that a matrix is square.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the width.
+   *
+   * @throws ArraySizeException
+   *   If the matrix is not square.
+   */
+  static int checkSquare(int width, int height) throws ArraySizeException {
+    if (width != height) {
+      throw new ArraySizeException("Cannot find the closure of a " + width + "x" + height
+          + " matrix");
+    } // if
+    return width;
+  } // checkSquare(int, int)
+
+  /**
+   * Copy a matrix into a row-major array.
+   *
+   * @param matrix
+   *   The matrix.
+   *
+   * @return the values.
+   */
+  static Object[] toArray(Matrix<?> matrix) {
+    int width = matrix.width();
+    Object[] result = new Object[width * matrix.height()];
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < width; col++) {
+        result[row * width + col] = matrix.get(row, col);
+      } // for
+    } // for
+    return result;
+  } // toArray(Matrix<?>)
+
+  /**
+   * Cast a value from a row-major array.
+   *
+   * @param <T>
+   *   The type of the value.
+   * @param value
+   *   The value.
+   *
+   * @return the value.
+   */
+  @SuppressWarnings({ "unchecked" })
+  static <T> T toValue(Object value) {
+    return (T) value;
+  } // toValue(Object)
+
+  /**
+   * Wrap a row-major array in a matrix.
+   *
+   * @param <T>
+   *   The type of the values.
+   * @param values
+   *   The values.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value.
+   *
+   * @return the matrix.
+   */
+  @SuppressWarnings({ "unchecked" })
+  static <T> Matrix<T> toMatrix(Object[] values, int width, int height, T def) {
+    MatrixV0<T> result = new MatrixV0<T>(width, height);
+    result.defaultValue = def;
+    result.backing = (T[]) values;
+    return result;
+  } // toMatrix(Object[], int, int, T)
+
+  /**
+   * Determine how many longs hold a row of bits.
+   *
+   * @param width
+   *   The number of bits.
+   *
+   * @return the number of longs.
+   */
+  static int wordsFor(int width) {
+    return (width + 63) >>> 6;
+  } // wordsFor(int)
+
+  /**
+   * Pack the rows of a boolean matrix into bitsets.
+   *
+   * @param matrix
+   *   The matrix.
+   *
+   * @return one bitset per row.
+   */
+  static long[][] toBits(Matrix<Boolean> matrix) {
+    long[][] result = new long[matrix.height()][wordsFor(matrix.width())];
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        if (Boolean.TRUE.equals(matrix.get(row, col))) {
+          result[row][col >>> 6] |= 1L << col;
+        } // if
+      } // for
+    } // for
+    return result;
+  } // toBits(Matrix<Boolean>)
+
+  /**
+   * Unpack bitsets into a boolean matrix.
+   *
+   * @param bits
+   *   One bitset per row.
+   * @param width
+   *   The width of the matrix.
+   *
+   * @return the matrix.
+   */
+  static Matrix<Boolean> fromBits(long[][] bits, int width) {
+    Object[] values = new Object[bits.length * width];
+    for (int row = 0; row < bits.length; row++) {
+      for (int col = 0; col < width; col++) {
+        values[row * width + col] = (bits[row][col >>> 6] & (1L << col)) != 0;
+      } // for
+    } // for
+    return toMatrix(values, width, bits.length, false);
+  } // fromBits(long[][], int)
+} // class SemiringMatrices
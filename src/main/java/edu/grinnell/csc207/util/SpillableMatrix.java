@@ -0,0 +1,432 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A matrix whose cells can be moved to disk to free memory, and which
+ * reads them back the next time it is used.
+ *
+ * The cells are written as a trace with no calls, in the format of
+ * MatrixTrace, and read back into a fresh matrix from the factory. A
+ * MemoryBudget can spill such matrices when it runs short, for example
+ * with track(matrix, (m, needed) -> m.spill()). Every method holds the
+ * lock on the matrix, so a spill waits for calls that are using the
+ * cells.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class SpillableMatrix<T> implements Matrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix that holds the cells, or null while they are on disk.
+   */
+  Matrix<T> base;
+
+  /**
+   * The default value of the matrix.
+   */
+  final T defaultValue;
+
+  /**
+   * How we write values.
+   */
+  final ValueCodec<T> codec;
+
+  /**
+   * Makes the matrix that the cells are read back into.
+   */
+  final JournaledMatrix.Factory<T> factory;
+
+  /**
+   * Where the cells go while they are on disk.
+   */
+  final Path file;
+
+  /**
+   * The width of the matrix while its cells are on disk.
+   */
+  int spilledWidth;
+
+  /**
+   * The height of the matrix while its cells are on disk.
+   */
+  int spilledHeight;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Allow the cells of a matrix to be moved to disk. The matrix should
+   * not be used except through the new object.
+   *
+   * @param base1
+   *   The matrix that holds the cells.
+   * @param def
+   *   The default value of the matrix.
+   * @param codec1
+   *   How to write values.
+   * @param factory1
+   *   Makes the empty matrix that the cells are read back into.
+   * @param file1
+   *   Where the cells go while they are on disk.
+   */
+  public SpillableMatrix(Matrix<T> base1, T def, ValueCodec<T> codec1,
+      JournaledMatrix.Factory<T> factory1, Path file1) {
+    this.base = base1;
+    this.defaultValue = def;
+    this.codec = codec1;
+    this.factory = factory1;
+    this.file = file1;
+  } // SpillableMatrix(Matrix<T>, T, ValueCodec<T>, JournaledMatrix.Factory<T>, Path)
+
+  // +----------+----------------------------------------------------
+  // | Spilling |
+  // +----------+
+
+  /**
+   * Move the cells to disk, unless they are there already.
+   *
+   * @return roughly how many bytes were freed.
+   *
+   * @throws IOException
+   *   If the cells cannot be written. They stay in memory, and the
+   *   partly written file is deleted.
+   */
+  public synchronized long spill() throws IOException {
+    if (this.base == null) {
+      return 0;
+    } // if
+    long freed = this.base.estimatedBytes();
+    try (OutputStream out = Files.newOutputStream(this.file)) {
+      new TracingMatrix<T>(this.base, this.defaultValue, this.codec, out).close();
+    } catch (IOException | UncheckedIOException e) {
+      try {
+        Files.deleteIfExists(this.file);
+      } catch (IOException e2) {
+        e.addSuppressed(e2);
+      } // try/catch
+      throw e;
+    } // try/catch
+    this.spilledWidth = this.base.width();
+    this.spilledHeight = this.base.height();
+    this.base = null;
+    return freed;
+  } // spill()
+
+  /**
+   * Determine whether the cells are on disk.
+   *
+   * @return true if the cells are on disk; false otherwise.
+   */
+  public synchronized boolean isSpilled() {
+    return this.base == null;
+  } // isSpilled()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws UncheckedIOException
+   *   If the cells are on disk and cannot be read back.
+   */
+  public synchronized T get(int row, int col) {
+    return this.live().get(row, col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws UncheckedIOException
+   *   If the cells are on disk and cannot be read back.
+   */
+  public synchronized void set(int row, int col, T val) {
+    this.live().set(row, col, val);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix, without reading the
+   * cells back.
+   *
+   * @return the number of rows.
+   */
+  public synchronized int height() {
+    return this.base == null ? this.spilledHeight : this.base.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix, without reading the
+   * cells back.
+   *
+   * @return the number of columns.
+   */
+  public synchronized int width() {
+    return this.base == null ? this.spilledWidth : this.base.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws UncheckedIOException
+   *   If the cells are on disk and cannot be read back.
+   */
+  public synchronized void insertRow(int row) {
+    this.live().insertRow(row);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   * @throws UncheckedIOException
+   *   If the cells are on disk and cannot be read back.
+   */
+  public synchronized void insertRow(int row, T[] vals) throws ArraySizeException {
+    this.live().insertRow(row, vals);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws UncheckedIOException
+   *   If the cells are on disk and cannot be read back.
+   */
+  public synchronized void insertCol(int col) {
+    this.live().insertCol(col);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   * @throws UncheckedIOException
+   *   If the cells are on disk and cannot be read back.
+   */
+  public synchronized void insertCol(int col, T[] vals) throws ArraySizeException {
+    this.live().insertCol(col, vals);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   * @throws UncheckedIOException
+   *   If the cells are on disk and cannot be read back.
+   */
+  public synchronized void deleteRow(int row) {
+    this.live().deleteRow(row);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   * @throws UncheckedIOException
+   *   If the cells are on disk and cannot be read back.
+   */
+  public synchronized void deleteCol(int col) {
+    this.live().deleteCol(col);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   * @throws UncheckedIOException
+   *   If the cells are on disk and cannot be read back.
+   */
+  public synchronized void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    this.live().fillRegion(startRow, startCol, endRow, endCol, val);
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   * @throws UncheckedIOException
+   *   If the cells are on disk and cannot be read back.
+   */
+  public synchronized void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    this.live().fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the cells, which is kept in memory.
+   *
+   * @return a copy of the matrix.
+   *
+   * @throws UncheckedIOException
+   *   If the cells are on disk and cannot be read back.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public synchronized Matrix<T> clone() {
+    return this.live().clone();
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return other instanceof Matrix && Matrix.sameContents(this, (Matrix<?>) other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0.
+   *
+   * @return the hash code.
+   */
+  public synchronized int hashCode() {
+    return Matrix.hashCodeOf(this);
+  } // hashCode()
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains, which are only those of
+   * this object while the cells are on disk.
+   *
+   * @return the estimate.
+   */
+  public synchronized long estimatedBytes() {
+    return MemoryBudget.OBJECT + (this.base == null ? 0 : this.base.estimatedBytes());
+  } // estimatedBytes()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Get the matrix that holds the cells, reading them back from disk if
+   * need be. Callers hold the lock on this object until they are done
+   * with the result, so that spill() cannot move the cells out from
+   * under them.
+   *
+   * @return the matrix.
+   *
+   * @throws UncheckedIOException
+   *   If the cells cannot be read back.
+   */
+  Matrix<T> live() {
+    if (this.base == null) {
+      try (InputStream in = Files.newInputStream(this.file)) {
+        MatrixTrace trace = new MatrixTrace(in);
+        Matrix<T> fresh = this.factory.create(trace.width(), trace.height(),
+            this.defaultValue);
+        trace.replay(fresh);
+        this.base = fresh;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } // try/catch
+      try {
+        Files.deleteIfExists(this.file);
+      } catch (IOException e) {
+        // The cells are back in memory; a stale file does no harm.
+      } // try/catch
+    } // if
+    return this.base;
+  } // live()
+} // class SpillableMatrix
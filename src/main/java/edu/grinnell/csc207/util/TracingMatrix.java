@@ -0,0 +1,512 @@
+package edu.grinnell.csc207.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A matrix that writes every call on another matrix to a compact binary
+ * trace, which MatrixTrace can read back and replay against other
+ * implementations. See MatrixTrace for the format.
+ *
+ * Calls are recorded after they succeed, so calls that throw are not in
+ * the trace. Calls to clone are recorded, but the copies they return are
+ * not traced. Calls from several threads are
+ * recorded in the order in which they complete.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class TracingMatrix<T> implements Matrix<T>, Closeable {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The most values we remember the numbers of. Once there are this many,
+   * we forget them all, and values seen again are written out again
+   * under new numbers.
+   */
+  static final int MAX_IDS = 1 << 16;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix whose calls we record.
+   */
+  final Matrix<T> base;
+
+  /**
+   * How we write values.
+   */
+  final ValueCodec<T> codec;
+
+  /**
+   * Where we write the trace.
+   */
+  final DataOutputStream out;
+
+  /**
+   * The number of each value we have written recently. Null is always 0.
+   */
+  final Map<T, Integer> ids = new HashMap<T, Integer>();
+
+  /**
+   * The number of values written out so far, which is the last number
+   * handed out.
+   */
+  int lastId;
+
+  /**
+   * Whether the trace has been finished, after which calls are no
+   * longer recorded.
+   */
+  boolean closed;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Record the calls on a matrix. The matrix should not be edited except
+   * through the new object. Its current contents are written at the
+   * start of the trace.
+   *
+   * @param base1
+   *   The matrix whose calls we record.
+   * @param def
+   *   The default value of the matrix, which insertRow(int) and
+   *   insertCol(int) use.
+   * @param codec1
+   *   How to write values.
+   * @param out1
+   *   Where to write the trace. Closed when this matrix is closed.
+   *
+   * @throws IOException
+   *   If the start of the trace cannot be written.
+   */
+  public TracingMatrix(Matrix<T> base1, T def, ValueCodec<T> codec1, OutputStream out1)
+      throws IOException {
+    this.base = base1;
+    this.codec = codec1;
+    this.out = new DataOutputStream(new BufferedOutputStream(out1));
+    this.out.writeInt(MatrixTrace.MAGIC);
+    this.out.writeByte(MatrixTrace.VERSION);
+    this.out.writeUTF(codec1.name());
+    MatrixTrace.writeInt(this.out, base1.width());
+    MatrixTrace.writeInt(this.out, base1.height());
+    this.writeValue(def);
+    for (int row = 0; row < base1.height(); row++) {
+      for (int col = 0; col < base1.width(); col++) {
+        this.writeValue(base1.get(row, col));
+      } // for col
+    } // for row
+  } // TracingMatrix(Matrix<T>, T, ValueCodec<T>, OutputStream)
+
+  // +-------+-------------------------------------------------------
+  // | Trace |
+  // +-------+
+
+  /**
+   * Flush the trace, unless it has been closed.
+   *
+   * @throws UncheckedIOException
+   *   If the trace cannot be written.
+   */
+  public synchronized void flush() {
+    if (this.closed) {
+      return;
+    } // if
+    try {
+      this.out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } // try/catch
+  } // flush()
+
+  /**
+   * Finish the trace and close the stream. The matrix may still be used,
+   * but further calls are not recorded. Closing it again does nothing.
+   *
+   * @throws IOException
+   *   If the trace cannot be written.
+   */
+  public synchronized void close() throws IOException {
+    if (this.closed) {
+      return;
+    } // if
+    this.closed = true;
+    this.out.writeByte(MatrixTrace.END);
+    this.out.close();
+  } // close()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    T result = this.base.get(row, col);
+    this.record(MatrixTrace.GET, row, col);
+    return result;
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    this.base.set(row, col, val);
+    this.recordValue(MatrixTrace.SET, val, row, col);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.base.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.base.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    this.base.insertRow(row);
+    this.record(MatrixTrace.INSERT_ROW, row);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    this.base.insertRow(row, vals);
+    this.recordValues(MatrixTrace.INSERT_ROW_VALUES, row, vals);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    this.base.insertCol(col);
+    this.record(MatrixTrace.INSERT_COL, col);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    this.base.insertCol(col, vals);
+    this.recordValues(MatrixTrace.INSERT_COL_VALUES, col, vals);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    this.base.deleteRow(row);
+    this.record(MatrixTrace.DELETE_ROW, row);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    this.base.deleteCol(col);
+    this.record(MatrixTrace.DELETE_COL, col);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    this.base.fillRegion(startRow, startCol, endRow, endCol, val);
+    this.recordValue(MatrixTrace.FILL_REGION, val, startRow, startCol, endRow, endCol);
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    this.base.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+    this.recordValue(MatrixTrace.FILL_LINE, val, startRow, startCol, deltaRow, deltaCol,
+        endRow, endCol);
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix. The copy is not traced.
+   *
+   * @return a copy of the underlying matrix.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public Matrix<T> clone() {
+    Matrix<T> result = this.base.clone();
+    this.record(MatrixTrace.CLONE);
+    return result;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    boolean result = this.base.equals(other);
+    this.record(MatrixTrace.EQUALS);
+    return result;
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    int result = this.base.hashCode();
+    this.record(MatrixTrace.HASH_CODE);
+    return result;
+  } // hashCode()
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains: the underlying matrix, the
+   * output buffer, and an entry and a box for each value given an id.
+   *
+   * @return the estimate.
+   */
+  public long estimatedBytes() {
+    return MemoryBudget.OBJECT + this.base.estimatedBytes() + MemoryBudget.arrayBytes(8192, 1)
+        + 2L * MemoryBudget.OBJECT * this.ids.size();
+  } // estimatedBytes()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Record a call with integer arguments, unless the trace is closed.
+   *
+   * @param op
+   *   The operation.
+   * @param args
+   *   The arguments.
+   */
+  synchronized void record(byte op, int... args) {
+    if (this.closed) {
+      return;
+    } // if
+    try {
+      this.out.writeByte(op);
+      for (int arg : args) {
+        MatrixTrace.writeInt(this.out, arg);
+      } // for
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } // try/catch
+  } // record(byte, int...)
+
+  /**
+   * Record a call with a value and integer arguments, unless the trace
+   * is closed.
+   *
+   * @param op
+   *   The operation.
+   * @param val
+   *   The value, which comes after the integer arguments.
+   * @param args
+   *   The integer arguments.
+   */
+  synchronized void recordValue(byte op, T val, int... args) {
+    if (this.closed) {
+      return;
+    } // if
+    this.record(op, args);
+    try {
+      this.writeValue(val);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } // try/catch
+  } // recordValue(byte, T, int...)
+
+  /**
+   * Record a call that inserts an array of values, unless the trace is
+   * closed.
+   *
+   * @param op
+   *   The operation.
+   * @param index
+   *   The row or column.
+   * @param vals
+   *   The values.
+   */
+  synchronized void recordValues(byte op, int index, T[] vals) {
+    if (this.closed) {
+      return;
+    } // if
+    this.record(op, index);
+    try {
+      MatrixTrace.writeVarint(this.out, vals.length);
+      for (T val : vals) {
+        this.writeValue(val);
+      } // for
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } // try/catch
+  } // recordValues(byte, int, T[])
+
+  /**
+   * Write a value: its number, followed by its encoding if this is the
+   * first time it appears since we last forgot the numbers. A value
+   * written out again gets the next number, as any new value does, so
+   * readers need not know that we forgot.
+   *
+   * @param val
+   *   The value.
+   *
+   * @throws IOException
+   *   If the value cannot be written.
+   */
+  void writeValue(T val) throws IOException {
+    if (val == null) {
+      MatrixTrace.writeVarint(this.out, 0);
+      return;
+    } // if
+    Integer id = this.ids.get(val);
+    if (id != null) {
+      MatrixTrace.writeVarint(this.out, id);
+      return;
+    } // if
+    if (this.ids.size() >= MAX_IDS) {
+      this.ids.clear();
+    } // if
+    int newId = ++this.lastId;
+    this.ids.put(val, newId);
+    MatrixTrace.writeVarint(this.out, newId);
+    this.codec.write(this.out, val);
+  } // writeValue(T)
+} // class TracingMatrix
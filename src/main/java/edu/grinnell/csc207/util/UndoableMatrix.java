@@ -0,0 +1,619 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * A matrix that can undo and redo the changes made to it.
+ *
+ * Rather than cloning the matrix before each change, it records what
+ * the change overwrote: the old value of a cell, the old values of a
+ * filled region or line, or the contents of a deleted row or column.
+ * Each change takes a fixed number of slots in a ring buffer, plus any
+ * saved values, so a long history costs little more than the cells it
+ * actually touched. Once the history is full, the oldest changes are
+ * forgotten.
+ *
+ * Each call is one step of the history. Default methods of Matrix that
+ * work through set, such as setRow, record one step per cell.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class UndoableMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /**
+   * The number of ints recorded for each change: the operation and up
+   * to six arguments, as in MatrixTrace.
+   */
+  static final int INTS = 7;
+
+  /**
+   * The number of values recorded for each change.
+   */
+  static final int VALUES = 2;
+
+  /**
+   * The number of changes the history starts with room for.
+   */
+  static final int INITIAL_CAPACITY = 16;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The matrix whose changes we record.
+   */
+  final Matrix<T> base;
+
+  /**
+   * The most changes the history keeps.
+   */
+  final int limit;
+
+  /**
+   * The operation and integer arguments of each change.
+   */
+  int[] ints;
+
+  /**
+   * The values each change overwrote and wrote.
+   */
+  Object[] values;
+
+  /**
+   * The number of changes there is room for.
+   */
+  int capacity;
+
+  /**
+   * The slot of the oldest change we remember.
+   */
+  int oldest;
+
+  /**
+   * The number of changes we remember, including those that have been
+   * undone and may be redone.
+   */
+  int size;
+
+  /**
+   * The number of changes that have not been undone.
+   */
+  int done;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Record the changes to a matrix. The matrix should not be edited
+   * except through the new object.
+   *
+   * @param base1
+   *   The matrix whose changes we record.
+   * @param limit1
+   *   The most changes to remember.
+   *
+   * @throws IllegalArgumentException
+   *   If the limit is not positive.
+   */
+  public UndoableMatrix(Matrix<T> base1, int limit1) {
+    if (limit1 <= 0) {
+      throw new IllegalArgumentException("History must hold at least one change");
+    } // if
+    this.base = base1;
+    this.limit = limit1;
+    this.capacity = Math.min(limit1, INITIAL_CAPACITY);
+    this.ints = new int[this.capacity * INTS];
+    this.values = new Object[this.capacity * VALUES];
+  } // UndoableMatrix(Matrix<T>, int)
+
+  // +---------+-----------------------------------------------------
+  // | History |
+  // +---------+
+
+  /**
+   * Determine whether there is a change to undo.
+   *
+   * @return true if undo may be called; false otherwise.
+   */
+  public boolean canUndo() {
+    return this.done > 0;
+  } // canUndo()
+
+  /**
+   * Determine whether there is an undone change to redo.
+   *
+   * @return true if redo may be called; false otherwise.
+   */
+  public boolean canRedo() {
+    return this.done < this.size;
+  } // canRedo()
+
+  /**
+   * Undo the most recent change that has not been undone.
+   *
+   * @throws IllegalStateException
+   *   If there is no change to undo.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public void undo() {
+    if (this.done == 0) {
+      throw new IllegalStateException("No changes to undo");
+    } // if
+    int slot = this.slot(this.done - 1);
+    int[] c = this.ints;
+    int i = slot * INTS;
+    Object old = this.values[slot * VALUES];
+    try {
+      switch (c[i]) {
+        case MatrixTrace.SET:
+          this.base.set(c[i + 1], c[i + 2], (T) old);
+          break;
+        case MatrixTrace.FILL_REGION:
+          Object[] region = (Object[]) old;
+          if (region.length == 0) {
+            break;
+          } // if
+          MatrixCursor<T> cursor = this.base.cursor(c[i + 1], c[i + 2], c[i + 3], c[i + 4]);
+          for (int k = 0; cursor.next(); k++) {
+            cursor.set((T) region[k]);
+          } // for
+          break;
+        case MatrixTrace.FILL_LINE:
+          Object[] line = (Object[]) old;
+          for (int k = 0; k < line.length; k++) {
+            this.base.set(c[i + 1] + k * c[i + 3], c[i + 2] + k * c[i + 4], (T) line[k]);
+          } // for
+          break;
+        case MatrixTrace.INSERT_ROW:
+        case MatrixTrace.INSERT_ROW_VALUES:
+          this.base.deleteRow(c[i + 1]);
+          break;
+        case MatrixTrace.INSERT_COL:
+        case MatrixTrace.INSERT_COL_VALUES:
+          this.base.deleteCol(c[i + 1]);
+          break;
+        case MatrixTrace.DELETE_ROW:
+          this.base.insertRow(c[i + 1], (T[]) old);
+          break;
+        default:
+          this.base.insertCol(c[i + 1], (T[]) old);
+          break;
+      } // switch
+    } catch (ArraySizeException e) {
+      throw new IllegalStateException("Saved line does not fit the matrix", e);
+    } // try/catch
+    this.done--;
+  } // undo()
+
+  /**
+   * Redo the most recently undone change.
+   *
+   * @throws IllegalStateException
+   *   If there is no change to redo.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public void redo() {
+    if (this.done == this.size) {
+      throw new IllegalStateException("No changes to redo");
+    } // if
+    int slot = this.slot(this.done);
+    int[] c = this.ints;
+    int i = slot * INTS;
+    T val = (T) this.values[slot * VALUES + 1];
+    try {
+      switch (c[i]) {
+        case MatrixTrace.SET:
+          this.base.set(c[i + 1], c[i + 2], val);
+          break;
+        case MatrixTrace.FILL_REGION:
+          this.base.fillRegion(c[i + 1], c[i + 2], c[i + 3], c[i + 4], val);
+          break;
+        case MatrixTrace.FILL_LINE:
+          this.base.fillLine(c[i + 1], c[i + 2], c[i + 3], c[i + 4], c[i + 5], c[i + 6],
+              val);
+          break;
+        case MatrixTrace.INSERT_ROW:
+          this.base.insertRow(c[i + 1]);
+          break;
+        case MatrixTrace.INSERT_ROW_VALUES:
+          this.base.insertRow(c[i + 1], (T[]) this.values[slot * VALUES + 1]);
+          break;
+        case MatrixTrace.INSERT_COL:
+          this.base.insertCol(c[i + 1]);
+          break;
+        case MatrixTrace.INSERT_COL_VALUES:
+          this.base.insertCol(c[i + 1], (T[]) this.values[slot * VALUES + 1]);
+          break;
+        case MatrixTrace.DELETE_ROW:
+          this.base.deleteRow(c[i + 1]);
+          break;
+        default:
+          this.base.deleteCol(c[i + 1]);
+          break;
+      } // switch
+    } catch (ArraySizeException e) {
+      throw new IllegalStateException("Saved line does not fit the matrix", e);
+    } // try/catch
+    this.done++;
+  } // redo()
+
+  /**
+   * Forget every change, so that none can be undone or redone, and
+   * shrink the history back to its initial capacity.
+   */
+  public void clearHistory() {
+    this.capacity = Math.min(this.limit, INITIAL_CAPACITY);
+    this.ints = new int[this.capacity * INTS];
+    this.values = new Object[this.capacity * VALUES];
+    this.size = 0;
+    this.oldest = 0;
+    this.done = 0;
+  } // clearHistory()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    return this.base.get(row, col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    T old = this.base.get(row, col);
+    this.base.set(row, col, val);
+    this.record(MatrixTrace.SET, old, val, row, col);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.base.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.base.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    this.base.insertRow(row);
+    this.record(MatrixTrace.INSERT_ROW, null, null, row);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    this.base.insertRow(row, vals);
+    this.record(MatrixTrace.INSERT_ROW_VALUES, null, vals.clone(), row);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    this.base.insertCol(col);
+    this.record(MatrixTrace.INSERT_COL, null, null, col);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    this.base.insertCol(col, vals);
+    this.record(MatrixTrace.INSERT_COL_VALUES, null, vals.clone(), col);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row. Its contents are saved so that undo can put it back
+   * with a single insertRow.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public void deleteRow(int row) {
+    T[] saved;
+    try {
+      saved = this.base.getRow(row, (T[]) new Object[this.base.width()]);
+    } catch (ArraySizeException e) {
+      throw new IllegalStateException("Row does not fit its own matrix", e);
+    } // try/catch
+    this.base.deleteRow(row);
+    this.record(MatrixTrace.DELETE_ROW, saved, null, row);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column. Its contents are saved so that undo can splice it
+   * back with a single insertCol.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public void deleteCol(int col) {
+    T[] saved;
+    try {
+      saved = this.base.getCol(col, (T[]) new Object[this.base.height()]);
+    } catch (ArraySizeException e) {
+      throw new IllegalStateException("Column does not fit its own matrix", e);
+    } // try/catch
+    this.base.deleteCol(col);
+    this.record(MatrixTrace.DELETE_COL, saved, null, col);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (endRow <= startRow || endCol <= startCol) {
+      // Nothing changes, but the base matrix still checks the bounds,
+      // and the call is still one step of the history.
+      this.base.fillRegion(startRow, startCol, endRow, endCol, val);
+      this.record(MatrixTrace.FILL_REGION, new Object[0], val, startRow, startCol, endRow,
+          endCol);
+      return;
+    } // if
+    MatrixCursor<T> cursor = this.base.cursor(startRow, startCol, endRow, endCol);
+    Object[] saved = new Object[(endRow - startRow) * (endCol - startCol)];
+    for (int k = 0; cursor.next(); k++) {
+      saved[k] = cursor.get();
+    } // for
+    this.base.fillRegion(startRow, startCol, endRow, endCol, val);
+    this.record(MatrixTrace.FILL_REGION, saved, val, startRow, startCol, endRow, endCol);
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    int length = 0;
+    while (VersionedMatrix.isWithin(startRow, endRow, startRow + length * deltaRow)
+        && VersionedMatrix.isWithin(startCol, endCol, startCol + length * deltaCol)) {
+      length++;
+    } // while
+    Object[] saved = new Object[length];
+    for (int k = 0; k < length; k++) {
+      saved[k] = this.base.get(startRow + k * deltaRow, startCol + k * deltaCol);
+    } // for
+    this.base.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+    this.record(MatrixTrace.FILL_LINE, saved, val, startRow, startCol, deltaRow, deltaCol,
+        endRow, endCol);
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix. The copy has no history.
+   *
+   * @return a copy of the underlying matrix.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public Matrix<T> clone() {
+    return this.base.clone();
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return this.base.equals(other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return this.base.hashCode();
+  } // hashCode()
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains: the underlying matrix, the
+   * history, and the rows and columns saved in it.
+   *
+   * @return the estimate.
+   */
+  public long estimatedBytes() {
+    long total = MemoryBudget.OBJECT + this.base.estimatedBytes()
+        + MemoryBudget.arrayBytes(this.ints.length, Integer.BYTES)
+        + MemoryBudget.arrayBytes(this.values.length, MemoryBudget.REFERENCE);
+    for (Object saved : this.values) {
+      if (saved instanceof Object[]) {
+        total += MemoryBudget.arrayBytes(((Object[]) saved).length, MemoryBudget.REFERENCE);
+      } // if
+    } // for
+    return total;
+  } // estimatedBytes()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Find the slot of a change.
+   *
+   * @param change
+   *   The number of the change, counting from the oldest we remember.
+   *
+   * @return the slot.
+   */
+  int slot(int change) {
+    return (this.oldest + change) % this.capacity;
+  } // slot(int)
+
+  /**
+   * Let go of the values saved for a change.
+   *
+   * @param change
+   *   The number of the change, counting from the oldest we remember.
+   */
+  void forget(int change) {
+    int slot = this.slot(change);
+    this.values[slot * VALUES] = null;
+    this.values[slot * VALUES + 1] = null;
+  } // forget(int)
+
+  /**
+   * Record a change that has just been made, forgetting any undone
+   * changes and, if the history is full, the oldest change.
+   *
+   * @param op
+   *   The operation, as in MatrixTrace.
+   * @param old
+   *   What undo needs: the value or values overwritten.
+   * @param val
+   *   What redo needs: the value or values written.
+   * @param args
+   *   The integer arguments of the call, at most six.
+   */
+  void record(byte op, Object old, Object val, int... args) {
+    while (this.size > this.done) {
+      this.forget(--this.size);
+    } // while
+    if (this.size == this.capacity) {
+      if (this.capacity < this.limit) {
+        // Nothing has been forgotten yet, so the oldest change is in slot 0.
+        this.capacity = (int) Math.min(this.limit, 2L * this.capacity);
+        this.ints = Arrays.copyOf(this.ints, this.capacity * INTS);
+        this.values = Arrays.copyOf(this.values, this.capacity * VALUES);
+      } else {
+        this.forget(0);
+        this.oldest = this.slot(1);
+        this.size--;
+      } // if/else
+    } // if
+    int slot = this.slot(this.size);
+    int i = slot * INTS;
+    this.ints[i] = op;
+    System.arraycopy(args, 0, this.ints, i + 1, args.length);
+    this.values[slot * VALUES] = old;
+    this.values[slot * VALUES + 1] = val;
+    this.done = ++this.size;
+  } // record(byte, Object, Object, int...)
+} // class UndoableMatrix
@@ -0,0 +1,115 @@
+package edu.grinnell.csc207.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A way of writing the values of a matrix to a trace and reading them
+ * back. Each distinct value is written once; after that, the trace
+ * refers to it by number.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of the values.
+ */
+public interface ValueCodec<T> {
+  /**
+   * Get the name of this codec, which is stored in the trace so that
+   * the trace can be read without knowing its type in advance.
+   *
+   * @return the name.
+   */
+  String name();
+
+  /**
+   * Write a value.
+   *
+   * @param out
+   *   Where to write it.
+   * @param val
+   *   The value, which is never null.
+   *
+   * @throws IOException
+   *   If the value cannot be written.
+   */
+  void write(DataOutput out, T val) throws IOException;
+
+  /**
+   * Read a value.
+   *
+   * @param in
+   *   Where to read it from.
+   *
+   * @return the value.
+   *
+   * @throws IOException
+   *   If the value cannot be read.
+   */
+  T read(DataInput in) throws IOException;
+
+  /**
+   * Get a codec for strings.
+   *
+   * @return the codec.
+   */
+  static ValueCodec<String> strings() {
+    return new ValueCodec<String>() {
+      public String name() {
+        return "string";
+      } // name()
+
+      public void write(DataOutput out, String val) throws IOException {
+        out.writeUTF(val);
+      } // write(DataOutput, String)
+
+      public String read(DataInput in) throws IOException {
+        return in.readUTF();
+      } // read(DataInput)
+    };
+  } // strings()
+
+  /**
+   * Get a codec for integers.
+   *
+   * @return the codec.
+   */
+  static ValueCodec<Integer> integers() {
+    return new ValueCodec<Integer>() {
+      public String name() {
+        return "integer";
+      } // name()
+
+      public void write(DataOutput out, Integer val) throws IOException {
+        out.writeInt(val);
+      } // write(DataOutput, Integer)
+
+      public Integer read(DataInput in) throws IOException {
+        return in.readInt();
+      } // read(DataInput)
+    };
+  } // integers()
+
+  /**
+   * Find one of the built-in codecs by name.
+   *
+   * @param name
+   *   The name of the codec.
+   *
+   * @return the codec.
+   *
+   * @throws IllegalArgumentException
+   *   If there is no built-in codec with that name.
+   */
+  static ValueCodec<?> forName(String name) {
+    switch (name) {
+      case "string":
+        return strings();
+      case "integer":
+        return integers();
+      default:
+        throw new IllegalArgumentException("Unknown value codec: " + name);
+    } // switch
+  } // forName(String)
+} // interface ValueCodec
@@ -0,0 +1,900 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A two-dimensional matrix that supports cheap, consistent snapshots
+ * while a single writer keeps editing it.
+ *
+ * Rows are stored as separate arrays. Every call to snapshot() starts a
+ * new epoch and shares the current row arrays with the snapshot; the
+ * writer copies a row the first time it modifies it in a new epoch, so a
+ * snapshot never observes later edits. Taking a snapshot costs a copy of
+ * the row references, not of the elements.
+ *
+ * The live matrix should only be read and written by the writer thread.
+ * Other threads should call snapshot() and work with the result.
+ *
+ * @author David William Stroud
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class VersionedMatrix<T> implements Matrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /**
+   * The rows of the matrix. Only the first height entries are used.
+   */
+  Object[][] rows;
+  /**
+   * The epoch in which each row was last copied. A row whose epoch is
+   * older than the current epoch may be shared with a snapshot.
+   */
+  long[] rowEpochs;
+  /**
+   * This is the width of the matrix.
+   */
+  int width;
+  /**
+   * This is the height of the matrix.
+   */
+  int height;
+  /**
+   * This is the default value passed to the constructor.
+   */
+  T defaultValue;
+  /**
+   * The current epoch. Incremented whenever rows become shared.
+   */
+  long epoch;
+  /**
+   * Guards the epoch and the row structure against concurrent snapshots.
+   */
+  final Object lock = new Object();
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the matrix would be too large for an array or for the global
+   *   MemoryBudget.
+   */
+  public VersionedMatrix(int width1, int height1, T def) {
+    if (width1 < 0) {
+      throw new NegativeArraySizeException(
+              "Negative width given to VersionedMatrix constructor");
+    } // if
+    if (height1 < 0) {
+      throw new NegativeArraySizeException(
+              "Negative height given to VersionedMatrix constructor");
+    } // if
+
+    MemoryBudget.checkCells(width1, height1, MemoryBudget.REFERENCE);
+    this.width = width1;
+    this.height = height1;
+    this.defaultValue = def;
+    this.rows = new Object[height1][];
+    this.rowEpochs = new long[height1];
+    for (int i = 0; i < height1; i++) {
+      this.rows[i] = this.defaultRun(width1);
+    } // for
+  } // VersionedMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with
+   * null as the default value.
+   *
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If the matrix would be too large for an array or for the global
+   *   MemoryBudget.
+   */
+  public VersionedMatrix(int width1, int height1) {
+    this(width1, height1, null);
+  } // VersionedMatrix(int, int)
+
+  /**
+   * Create a new matrix that shares the given rows until they are
+   * modified.
+   *
+   * @param rows1
+   *   The rows to share. Only the first height1 entries are used.
+   * @param width1
+   *   The width of the matrix.
+   * @param height1
+   *   The height of the matrix.
+   * @param def
+   *   The default value.
+   */
+  VersionedMatrix(Object[][] rows1, int width1, int height1, T def) {
+    this.rows = Arrays.copyOf(rows1, height1);
+    this.rowEpochs = new long[height1];
+    this.width = width1;
+    this.height = height1;
+    this.defaultValue = def;
+    // All of the shared rows are from epoch 0, so they get copied on write.
+    this.epoch = 1;
+  } // VersionedMatrix(Object[][], int, int, T)
+
+  // +------------------+--------------------------------------------
+  // | Snapshot methods |
+  // +------------------+
+
+  /**
+   * Take a consistent, read-only snapshot of the matrix. The snapshot
+   * does not change when this matrix is later modified.
+   *
+   * @return the snapshot.
+   */
+  public MatrixSnapshot<T> snapshot() {
+    synchronized (this.lock) {
+      this.epoch++;
+      return new MatrixSnapshot<T>(Arrays.copyOf(this.rows, this.height),
+          this.width, this.height, this.defaultValue, this.epoch);
+    } // synchronized
+  } // snapshot()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public T get(int row, int col) {
+    this.checkCell(row, col);
+    return (T) this.rows[row][col];
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    this.checkCell(row, col);
+    synchronized (this.lock) {
+      this.writableRow(row)[col] = val;
+    } // synchronized
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.height;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.width;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    this.insertRowUnchecked(row, this.defaultRun(this.width));
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (vals.length != this.width) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + vals.length
+                      + " not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+
+    this.insertRowUnchecked(row, Arrays.copyOf(vals, vals.length, Object[].class));
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    this.insertColUnchecked(col, this.defaultRun(this.height));
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (vals.length != this.height) {
+      throw new ArraySizeException(
+              "Array of length "
+                      + vals.length
+                      + " is not appropriate for Matrix of height "
+                      + this.height
+      );
+    } // if
+
+    this.insertColUnchecked(col, vals);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.height) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " is not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+
+    synchronized (this.lock) {
+      int after = this.height - row - 1;
+      System.arraycopy(this.rows, row + 1, this.rows, row, after);
+      System.arraycopy(this.rowEpochs, row + 1, this.rowEpochs, row, after);
+      this.rows[this.height - 1] = null;
+      this.height--;
+    } // synchronized
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+
+    synchronized (this.lock) {
+      for (int i = 0; i < this.height; i++) {
+        Object[] oldRow = this.rows[i];
+        Object[] newRow = new Object[this.width - 1];
+        System.arraycopy(oldRow, 0, newRow, 0, col);
+        System.arraycopy(oldRow, col + 1, newRow, col, this.width - col - 1);
+        this.rows[i] = newRow;
+        this.rowEpochs[i] = this.epoch;
+      } // for
+      this.width--;
+    } // synchronized
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow >= this.height || startRow < 0) {
+      throw new IndexOutOfBoundsException(
+              "Start row index "
+              + startRow
+              + " is not appropriate for matrix of height "
+              + this.height
+      );
+    } // if
+    if (startCol >= this.width || startCol < 0) {
+      throw new IndexOutOfBoundsException(
+              "Start column index "
+              + startCol
+              + " is not appropriate for matrix of width "
+              + this.width
+      );
+    } // if
+    if (endRow > this.height || endRow < 0) {
+      throw new IndexOutOfBoundsException(
+              "End row index "
+              + endRow
+              + " is not appropriate for matrix of height "
+              + this.height
+      );
+    } // if
+    if (endCol > this.width || endCol < 0) {
+      throw new IndexOutOfBoundsException(
+              "End column index "
+              + endCol
+              + " is not appropriate for matrix of width "
+              + this.width
+      );
+    } // if
+
+    if (startCol >= endCol) {
+      return;
+    } // if
+    synchronized (this.lock) {
+      for (int i = startRow; i < endRow; i++) {
+        Arrays.fill(this.writableRow(i), startCol, endCol, val);
+      } // for
+    } // synchronized
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    if (endRow > this.height || endRow < -1) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + endRow
+                      + " is not appropriate for matrix of height "
+                      + this.height
+      );
+    } // if
+    if (endCol > this.width || endCol < -1) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + endCol
+                      + " is not appropriate for matrix of width "
+                      + this.width
+      );
+    } // if
+    if (deltaCol * (endCol - startCol) < 0) {
+      throw new IndexOutOfBoundsException(
+              "End column "
+              + endCol
+              + " is before start column "
+              + startCol
+      );
+    } // if
+    if (deltaRow * (endRow - startRow) < 0) {
+      throw new IndexOutOfBoundsException(
+              "End row "
+              + endRow
+              + " is before start row "
+              + startRow
+      );
+    } // if
+
+    synchronized (this.lock) {
+      for (int i = startRow, j = startCol;
+           isWithin(startRow, endRow, i) && isWithin(startCol, endCol, j);
+           i += deltaRow, j += deltaCol) {
+        this.checkCell(i, j);
+        this.writableRow(i)[j] = val;
+      } // for
+    } // synchronized
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a copy of the matrix. The copy shares rows with this matrix
+   * until either of them modifies a row, so cloning only costs a copy of
+   * the row references.
+   *
+   * @return a copy of the matrix.
+   */
+  public Matrix<T> clone() {
+    synchronized (this.lock) {
+      // Our rows are now shared, so we must copy them before writing.
+      this.epoch++;
+      return new VersionedMatrix<T>(this.rows, this.width, this.height,
+          this.defaultValue);
+    } // synchronized
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return other instanceof Matrix && Matrix.sameContents(this, (Matrix<?>) other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, consistent with MatrixV0.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return Matrix.hashCodeOf(this);
+  } // hashCode()
+
+  // +-------------+-------------------------------------------------
+  // | Bulk copies |
+  // +-------------+
+
+  /**
+   * Copy a row of the matrix into an array with one arraycopy.
+   *
+   * @param row
+   *   The number of the row.
+   * @param dst
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @return dst.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If dst is the wrong length.
+   */
+  public T[] getRow(int row, T[] dst) throws ArraySizeException {
+    BulkCopies.checkLength(dst.length, this.width, "width");
+    GetSetCursor.checkRegion(this.width, this.height, row, 0, row + 1, this.width);
+    System.arraycopy(this.rows[row], 0, dst, 0, this.width);
+    return dst;
+  } // getRow(int, T[])
+
+  /**
+   * Copy an array into a row of the matrix. The row is replaced by a
+   * fresh array, so snapshots that share the old one are unaffected.
+   *
+   * @param row
+   *   The number of the row.
+   * @param src
+   *   The array, whose length must be the width of the matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is not in the matrix.
+   * @throws ArraySizeException
+   *   If src is the wrong length.
+   */
+  public void setRow(int row, T[] src) throws ArraySizeException {
+    BulkCopies.checkLength(src.length, this.width, "width");
+    GetSetCursor.checkRegion(this.width, this.height, row, 0, row + 1, this.width);
+    Object[] copy = Arrays.copyOf(src, this.width, Object[].class);
+    synchronized (this.lock) {
+      this.rows[row] = copy;
+      this.rowEpochs[row] = this.epoch;
+    } // synchronized
+  } // setRow(int, T[])
+
+  /**
+   * Copy a rectangular region of another matrix into this one. When the
+   * other matrix is a VersionedMatrix or a MatrixV0, each row is a
+   * single arraycopy.
+   *
+   * @param src
+   *   The matrix to copy from.
+   * @param srcRow
+   *   The top row of the region in src.
+   * @param srcCol
+   *   The left column of the region in src.
+   * @param dstRow
+   *   The top row of the region in this matrix.
+   * @param dstCol
+   *   The left column of the region in this matrix.
+   * @param height1
+   *   The number of rows to copy.
+   * @param width1
+   *   The number of columns to copy.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either region does not lie within its matrix.
+   */
+  public void copyRegion(Matrix<? extends T> src, int srcRow, int srcCol, int dstRow,
+      int dstCol, int height1, int width1) {
+    if (!(src instanceof VersionedMatrix || src instanceof MatrixV0)) {
+      Matrix.super.copyRegion(src, srcRow, srcCol, dstRow, dstCol, height1, width1);
+      return;
+    } // if
+    BulkCopies.Region region = new BulkCopies.Region(srcRow, srcCol, dstRow, dstCol,
+        height1, width1);
+    BulkCopies.checkRegions(src, this, region);
+    boolean up = src == this && dstRow > srcRow;
+    synchronized (this.lock) {
+      for (int i = 0; i < height1; i++) {
+        int row = up ? height1 - 1 - i : i;
+        // Fetch the destination first: if it is the same row as the
+        // source, writableRow may replace it.
+        Object[] dst = this.writableRow(dstRow + row);
+        if (src instanceof VersionedMatrix) {
+          System.arraycopy(((VersionedMatrix<?>) src).rows[srcRow + row], srcCol, dst,
+              dstCol, width1);
+        } else {
+          MatrixV0<?> other = (MatrixV0<?>) src;
+          System.arraycopy(other.backing, (srcRow + row) * other.width + srcCol, dst,
+              dstCol, width1);
+        } // if/else
+      } // for
+    } // synchronized
+  } // copyRegion(Matrix<? extends T>, int, int, int, int, int, int)
+
+  // +-----------------+---------------------------------------------
+  // | Bulk operations |
+  // +-----------------+
+
+  /**
+   * Make a new matrix by applying a function to every value, a row
+   * array at a time and in parallel when the matrix is large.
+   *
+   * @param <R>
+   *   The type of the new values.
+   * @param fn
+   *   The function.
+   *
+   * @return the results, with null as the default value.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public <R> Matrix<R> map(Function<? super T, ? extends R> fn) {
+    Object[][] mapped = new Object[this.height][this.width];
+    BulkOperations.rows(this.width, this.height).forEach((row) -> {
+      Object[] src = this.rows[row];
+      Object[] dst = mapped[row];
+      for (int col = 0; col < dst.length; col++) {
+        dst[col] = fn.apply((T) src[col]);
+      } // for
+    });
+    return new VersionedMatrix<R>(mapped, this.width, this.height, null);
+  } // map(Function<? super T, ? extends R>)
+
+  /**
+   * Replace every value with the result of applying a function to it,
+   * a row array at a time and in parallel when the matrix is large.
+   * Rows shared with snapshots are copied first, as in set.
+   *
+   * @param fn
+   *   The function.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public void replaceAll(UnaryOperator<T> fn) {
+    synchronized (this.lock) {
+      BulkOperations.rows(this.width, this.height).forEach((row) -> {
+        Object[] vals = this.writableRow(row);
+        for (int col = 0; col < vals.length; col++) {
+          vals[col] = fn.apply((T) vals[col]);
+        } // for
+      });
+    } // synchronized
+  } // replaceAll(UnaryOperator<T>)
+
+  /**
+   * Combine all the values with an associative operation, reducing each
+   * row array and then combining the rows.
+   *
+   * @param identity
+   *   The identity of the operation.
+   * @param op
+   *   The operation.
+   *
+   * @return the combined value.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public T reduce(T identity, BinaryOperator<T> op) {
+    return BulkOperations.rows(this.width, this.height).mapToObj((row) -> {
+      T result = identity;
+      for (Object val : this.rows[row]) {
+        result = op.apply(result, (T) val);
+      } // for
+      return result;
+    }).reduce(identity, op);
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the values that satisfy a predicate, a row array at a time.
+   *
+   * @param pred
+   *   The predicate.
+   *
+   * @return the number of values for which it holds.
+   */
+  @SuppressWarnings({ "unchecked" })
+  public long count(Predicate<? super T> pred) {
+    return BulkOperations.rows(this.width, this.height).mapToLong((row) -> {
+      long count = 0;
+      for (Object val : this.rows[row]) {
+        if (pred.test((T) val)) {
+          count++;
+        } // if
+      } // for
+      return count;
+    }).sum();
+  } // count(Predicate<? super T>)
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the bytes this matrix retains: the spine of rows with its
+   * spare capacity, the epochs, and every row, including rows still
+   * shared with snapshots.
+   *
+   * @return the estimate.
+   */
+  public long estimatedBytes() {
+    synchronized (this.lock) {
+      long total = MemoryBudget.OBJECT
+          + MemoryBudget.arrayBytes(this.rows.length, MemoryBudget.REFERENCE)
+          + MemoryBudget.arrayBytes(this.rowEpochs.length, Long.BYTES);
+      for (int row = 0; row < this.height; row++) {
+        total += MemoryBudget.arrayBytes(this.rows[row].length, MemoryBudget.REFERENCE);
+      } // for
+      return total;
+    } // synchronized
+  } // estimatedBytes()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Get a version of a row that may be modified without affecting any
+   * snapshot, copying it if necessary. Must be called with the lock held.
+   *
+   * @param row
+   *   The index of the row.
+   *
+   * @return the row.
+   */
+  Object[] writableRow(int row) {
+    if (this.rowEpochs[row] != this.epoch) {
+      this.rows[row] = this.rows[row].clone();
+      this.rowEpochs[row] = this.epoch;
+    } // if
+    return this.rows[row];
+  } // writableRow(int)
+
+  /**
+   * Check that a cell is within the matrix.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column are invalid.
+   */
+  void checkCell(int row, int col) {
+    if (row >= this.height || row < 0) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+    if (col >= this.width || col < 0) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " not valid for Matrix of width "
+                      + this.width
+      );
+    } // if
+  } // checkCell(int, int)
+
+  /**
+   * Create an array of length len filled with the default value.
+   *
+   * @param len
+   *   The length of the array to create.
+   *
+   * @return the new array.
+   */
+  Object[] defaultRun(int len) {
+    Object[] arr = new Object[len];
+    Arrays.fill(arr, this.defaultValue);
+    return arr;
+  } // defaultRun(int)
+
+  /**
+   * Insert a row without checking the length of its values.
+   *
+   * @param row
+   *   The position at which to insert the row.
+   * @param vals
+   *   The new row. Becomes owned by this matrix.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row index is not valid for this matrix.
+   */
+  void insertRowUnchecked(int row, Object[] vals) {
+    if (row < 0 || row > this.height) {
+      throw new IndexOutOfBoundsException(
+              "Row index "
+                      + row
+                      + " not valid for Matrix of height "
+                      + this.height
+      );
+    } // if
+
+    synchronized (this.lock) {
+      if (this.height == this.rows.length) {
+        int capacity = Math.max(4, this.rows.length + (this.rows.length >> 1));
+        this.rows = Arrays.copyOf(this.rows, capacity);
+        this.rowEpochs = Arrays.copyOf(this.rowEpochs, capacity);
+      } // if
+      int after = this.height - row;
+      System.arraycopy(this.rows, row, this.rows, row + 1, after);
+      System.arraycopy(this.rowEpochs, row, this.rowEpochs, row + 1, after);
+      this.rows[row] = vals;
+      this.rowEpochs[row] = this.epoch;
+      this.height++;
+    } // synchronized
+  } // insertRowUnchecked(int, Object[])
+
+  /**
+   * Insert a column without checking the length of its values.
+   *
+   * @param col
+   *   The position at which to insert the column.
+   * @param vals
+   *   The values with which to fill the column.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column index is not valid for this matrix.
+   */
+  void insertColUnchecked(int col, Object[] vals) {
+    if (col < 0 || col > this.width) {
+      throw new IndexOutOfBoundsException(
+              "Column index "
+                      + col
+                      + " is not appropriate for Matrix of width "
+                      + this.width
+      );
+    } // if
+
+    synchronized (this.lock) {
+      for (int i = 0; i < this.height; i++) {
+        Object[] oldRow = this.rows[i];
+        Object[] newRow = new Object[this.width + 1];
+        System.arraycopy(oldRow, 0, newRow, 0, col);
+        newRow[col] = vals[i];
+        System.arraycopy(oldRow, col, newRow, col + 1, this.width - col);
+        this.rows[i] = newRow;
+        this.rowEpochs[i] = this.epoch;
+      } // for
+      this.width++;
+    } // synchronized
+  } // insertColUnchecked(int, Object[])
+
+  /**
+   * Determine whether an index is inside a [start, end) range, where
+   * the range may run backwards.
+   *
+   * @param start
+   *   The beginning of the range.
+   * @param end
+   *   The end of the range.
+   * @param index
+   *   The index being tested.
+   *
+   * @return whether the index is in the range.
+   */
+  static boolean isWithin(int start, int end, int index) {
+    if (start < end) {
+      return start <= index && index < end;
+    } else {
+      return end < index && index <= start;
+    } // if-else
+  } // isWithin(int, int, int)
+} // class VersionedMatrix
@@ -0,0 +1,91 @@
+package edu.grinnell.csc207.main;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for undoing moves and for the GameSolver
+ * class.
+ */
+public class GameSolverTests {
+  /**
+   * Find the best score by trying every sequence of moves, copying the
+   * state at every step.
+   *
+   * @param state
+   *   The position.
+   * @param movesLeft
+   *   The number of moves still allowed.
+   * @return the best score.
+   */
+  static int bruteForce(GameState state, int movesLeft) {
+    int best = state.score();
+    if (movesLeft == 0) {
+      return best;
+    } // if
+    for (Move move : state.legalMoves()) {
+      GameState next = new GameState(state);
+      next.apply(move);
+      best = Math.max(best, bruteForce(next, movesLeft - 1));
+    } // for
+    return best;
+  } // bruteForce(GameState, int)
+
+  /**
+   * This test checks that undoing random moves restores the board and
+   * the counts exactly.
+   */
+  @Test
+  public void stroudDavidTestUndoRestoresState() {
+    Random random = new Random(207);
+    for (int game = 0; game < 40; game++) {
+      GameState state = new GameState(7, 6, game);
+      GameState original = new GameState(state);
+      long key = state.key();
+      int moves = 0;
+      while (state.totalRemaining() > 0 && moves < 8) {
+        List<Move> legal = state.legalMoves();
+        state.apply(legal.get(random.nextInt(legal.size())));
+        moves++;
+      } // while
+      assertEquals(moves, state.movesMade(), "Every move should be recorded");
+      while (state.movesMade() > 0) {
+        state.undo();
+      } // while
+      assertEquals(original.board(), state.board(), "Board should be restored");
+      assertEquals(original.countX(), state.countX(), "X count should be restored");
+      assertEquals(original.countO(), state.countO(), "O count should be restored");
+      assertEquals(original.totalRemaining(), state.totalRemaining(),
+          "Remaining moves should be restored");
+      assertEquals(key, state.key(), "Key should be restored");
+    } // for
+    assertThrows(IllegalStateException.class, () -> new GameState(3, 3, 0).undo());
+  } // stroudDavidTestUndoRestoresState()
+
+  /**
+   * This test checks that the solver agrees with an exhaustive search
+   * on small boards, and that its moves achieve its score.
+   */
+  @Test
+  public void stroudDavidTestSolverMatchesBruteForce() {
+    GameSolver solver = new GameSolver(ForkJoinPool.commonPool());
+    for (int game = 0; game < 6; game++) {
+      GameState state = new GameState(4, 4, game);
+      GameSolver.Solution solution = solver.solve(state, 3, null);
+      assertEquals(bruteForce(state, 3), solution.score(),
+          "Solver should find the best score for game " + game);
+      assertTrue(solution.moves().size() <= 3, "Solution should respect the move limit");
+
+      GameState replay = new GameState(state);
+      for (Move move : solution.moves()) {
+        replay.apply(move);
+      } // for
+      assertEquals(solution.score(), replay.score(), "Moves should achieve the score");
+    } // for
+  } // stroudDavidTestSolverMatchesBruteForce()
+} // class GameSolverTests
@@ -0,0 +1,131 @@
+package edu.grinnell.csc207.main;
+
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the GameState and GameSimulator classes.
+ */
+public class GameStateTests {
+  /**
+   * Build a board from strings, one character per cell.
+   *
+   * @param rows
+   *   The rows of the board.
+   * @return the board.
+   */
+  static Matrix<String> board(String... rows) {
+    Matrix<String> result = new MatrixV0<>(rows[0].length(), rows.length, " ");
+    for (int row = 0; row < rows.length; row++) {
+      for (int col = 0; col < rows[row].length(); col++) {
+        result.set(row, col, rows[row].substring(col, col + 1));
+      } // for col
+    } // for row
+    return result;
+  } // board(String...)
+
+  /**
+   * This test checks that removing a row eliminates neighbors that it
+   * brings together.
+   */
+  @Test
+  public void stroudDavidTestEliminationAfterRemove() {
+    GameState state = new GameState(board(
+        "X O",
+        " O ",
+        "X O"));
+    assertEquals(2, state.countX(), "Should start with two X's");
+    assertEquals(3, state.countO(), "Should start with three O's");
+
+    state.apply(Move.parse("RR 1"));
+    assertEquals(0, state.countX(), "The X's should eliminate each other");
+    assertEquals(0, state.countO(), "The O's should eliminate each other");
+    assertEquals(2, state.score(), "Both X's eliminated and no O's kept");
+    assertEquals(
+            board("   ", "   "),
+            state.board(),
+            "The board should be blank"
+    );
+    assertEquals(2, state.remaining(Move.Kind.RR), "Two row removals should remain");
+  } // stroudDavidTestEliminationAfterRemove()
+
+  /**
+   * This test checks that groups already on the board are eliminated by
+   * the first move, and that illegal moves are rejected.
+   */
+  @Test
+  public void stroudDavidTestFirstMoveSettlesBoard() {
+    GameState state = new GameState(board(
+        "XX ",
+        "  O",
+        "O  "));
+    state.apply(new Move(Move.Kind.IC, 3));
+    assertEquals(0, state.countX(), "The initial pair of X's should be eliminated");
+    assertEquals(2, state.countO(), "Separate O's should survive");
+    assertEquals(4, state.board().width(), "A column should have been inserted");
+
+    state.apply(new Move(Move.Kind.IC, 0));
+    state.apply(new Move(Move.Kind.IC, 0));
+    assertFalse(state.isLegal(new Move(Move.Kind.IC, 0)), "Only three IC moves are allowed");
+    assertThrows(IllegalArgumentException.class,
+        () -> state.apply(new Move(Move.Kind.RR, 5)));
+  } // stroudDavidTestFirstMoveSettlesBoard()
+
+  /**
+   * This test checks that reusing a game state gives the same results as
+   * starting from a fresh board.
+   */
+  @Test
+  public void stroudDavidTestSimulationReuse() {
+    GameSimulator.Strategy script = GameSimulator.scripted(List.of(
+        Move.parse("RR 3"), Move.parse("IC 2"), Move.parse("RC 0"), Move.parse("IR 5")));
+    GameState reused = new GameState(6, 5, 0);
+    for (int game = 0; game < 50; game++) {
+      int reusedScore = GameSimulator.play(reused, 10, 12, game, script);
+      int freshScore = GameSimulator.play(new GameState(10, 12, game), 10, 12, game, script);
+      assertEquals(freshScore, reusedScore, "Reused state should match fresh state");
+    } // for
+
+    GameSimulator.Results results = GameSimulator.simulate(10, 12, 0, 2000,
+        GameSimulator.randomMoves(), ForkJoinPool.commonPool());
+    assertEquals(2000, results.games(), "Every game should be recorded");
+    long total = 0;
+    for (int score = 0; score <= 120; score++) {
+      total += results.count(score);
+    } // for
+    assertEquals(2000, total, "Histogram should cover every game");
+  } // stroudDavidTestSimulationReuse()
+
+  /**
+   * This test checks that a script skips an illegal first move and plays
+   * each later move once, starting over for every game.
+   */
+  @Test
+  public void stroudDavidTestScriptSkipsIllegal() {
+    GameSimulator.Strategy script = GameSimulator.scripted(List.of(
+        Move.parse("RR 99"), Move.parse("IC 2"), Move.parse("RC 0")));
+    for (int game = 0; game < 2; game++) {
+      GameState state = new GameState(10, 12, game);
+      GameSimulator.Strategy player = script.start();
+      List<Move> played = new ArrayList<Move>();
+      Move move;
+      while ((move = player.choose(state, played.size(), null)) != null) {
+        state.apply(move);
+        played.add(move);
+      } // while
+      assertEquals(List.of(Move.parse("IC 2"), Move.parse("RC 0")), played,
+          "Each legal move played once in game " + game);
+    } // for
+    assertThrows(IllegalArgumentException.class,
+        () -> GameSimulator.simulate(10, 12, Integer.MAX_VALUE, 2, script,
+            ForkJoinPool.commonPool()), "Game numbers past an int");
+  } // stroudDavidTestScriptSkipsIllegal()
+} // class GameStateTests
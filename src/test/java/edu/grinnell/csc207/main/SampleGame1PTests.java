@@ -0,0 +1,149 @@
+package edu.grinnell.csc207.main;
+
+import edu.grinnell.csc207.util.IOUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the interactive and scripted modes of
+ * SampleGame1P and the IOUtils methods that read commands.
+ */
+public class SampleGame1PTests {
+  /**
+   * Make a reader for some text.
+   *
+   * @param text
+   *   The text.
+   * @return the reader.
+   */
+  static BufferedReader eyes(String text) {
+    return new BufferedReader(new StringReader(text));
+  } // eyes(String)
+
+  /**
+   * This test checks that a script leaves the game in the same state as
+   * making its moves directly, and prints only the requested frames.
+   *
+   * @throws Exception
+   *   If the script cannot be played.
+   */
+  @Test
+  public void stroudDavidTestReplay() throws Exception {
+    String[] moves = {"RR 3", "IC 0", "RC 5", "IR 2", "RR 0", "RC 1"};
+    GameState expected = new GameState(10, 12, 42);
+    for (String move : moves) {
+      expected.apply(Move.parse(move));
+    } // for
+
+    GameState state = new GameState(10, 12, 42);
+    StringWriter out = new StringWriter();
+    String script = "# recorded session\n" + String.join("\n\n", moves) + "\nDONE\nRR 0\n";
+    int made = SampleGame1P.replay(state, eyes(script), new PrintWriter(out, true), 4);
+    assertEquals(moves.length, made, "Moves after DONE should not be made");
+    assertEquals(expected.board(), state.board(), "Same board as direct play");
+    assertEquals(expected.score(), state.score(), "Same score as direct play");
+    assertTrue(out.toString().startsWith("After move 4 (IR 2):"), "Fourth frame printed");
+    assertFalse(out.toString().contains("After move 2"), "Other frames not printed");
+
+    StringBuilder longScript = new StringBuilder();
+    for (int i = 0; i < SampleGame1P.BATCH_SIZE + 10; i++) {
+      longScript.append(i % 2 == 0 ? "IR 0\n" : "RR 0\n");
+    } // for
+    IOException illegal = assertThrows(IOException.class,
+        () -> SampleGame1P.replay(new GameState(10, 12, 42), eyes(longScript.toString()),
+            new PrintWriter(new StringWriter()), 0));
+    assertTrue(illegal.getMessage().startsWith("Move 7:"), "Fourth IR is illegal");
+  } // stroudDavidTestReplay()
+
+  /**
+   * This test checks that interactive play applies each move to the
+   * game, reprompting for bad indices and refusing used-up moves.
+   *
+   * @throws Exception
+   *   If the input cannot be read.
+   */
+  @Test
+  public void stroudDavidTestInteractive() throws Exception {
+    GameState expected = new GameState(10, 12, 42);
+    for (String move : new String[] {"RR 3", "IC 10", "IR 0", "IR 0", "IR 0"}) {
+      expected.apply(Move.parse(move));
+    } // for
+
+    GameState state = new GameState(10, 12, 42);
+    StringWriter out = new StringWriter();
+    String input = "RR\n3\nIC\n11\nx\n10\nIR\n0\nIR\n0\nIR\n0\nIR\nDONE\n";
+    int made = SampleGame1P.play(state, eyes(input), new PrintWriter(out, true));
+    assertEquals(5, made, "Each move should be made");
+    assertEquals(expected.board(), state.board(), "Same board as direct play");
+    assertEquals(expected.score(), state.score(), "Same score as direct play");
+    assertTrue(out.toString().contains("Please enter a number from 0 to 10."),
+        "Bad column reprompted");
+    assertTrue(out.toString().contains("You have no IR moves left."), "Fourth IR refused");
+
+    assertEquals(1, SampleGame1P.play(new GameState(10, 12, 42), eyes("RC\n2\nRC\n"),
+        new PrintWriter(new StringWriter())), "End of input ends the game");
+  } // stroudDavidTestInteractive()
+
+  /**
+   * This test checks reading commands with and without prompting.
+   *
+   * @throws Exception
+   *   If the commands cannot be read.
+   */
+  @Test
+  public void stroudDavidTestReadCommands() throws Exception {
+    StringWriter out = new StringWriter();
+    PrintWriter pen = new PrintWriter(out, true);
+    BufferedReader eyes = eyes("jump\n  RC \n");
+    assertEquals("RC", IOUtils.readCommand(pen, eyes, "> ", SampleGame1P.COMMANDS),
+        "Invalid commands are skipped");
+    assertTrue(out.toString().contains("Please enter one of RR, RC"), "Reprompted");
+    assertNull(IOUtils.readCommand(pen, eyes, "> ", SampleGame1P.COMMANDS),
+        "End of input");
+
+    String[] batch = new String[2];
+    LineNumberReader lines = new LineNumberReader(eyes("RR 1\n\nIC 2\nDONE\n"));
+    assertEquals(2, IOUtils.readCommands(lines, SampleGame1P.COMMANDS, batch), "Full batch");
+    assertEquals("IC 2", batch[1], "Second command");
+    assertEquals(1, IOUtils.readCommands(lines, SampleGame1P.COMMANDS, batch), "Last batch");
+    assertEquals(0, IOUtils.readCommands(lines, SampleGame1P.COMMANDS, batch), "No more");
+
+    LineNumberReader bad = new LineNumberReader(eyes("RR 1\n# note\nXX 2\nIC 0\n"));
+    assertEquals(1, IOUtils.readCommands(bad, SampleGame1P.COMMANDS, batch),
+        "Commands before the bad line");
+    assertEquals("RR 1", batch[0], "The good command");
+    IOException e = assertThrows(IOException.class,
+        () -> IOUtils.readCommands(bad, SampleGame1P.COMMANDS, batch), "Unknown command");
+    assertTrue(e.getMessage().startsWith("Line 3:"), "Line number reported");
+  } // stroudDavidTestReadCommands()
+
+  /**
+   * This test checks that a script makes every move before a bad line,
+   * and reports where the bad line is.
+   *
+   * @throws Exception
+   *   If the game cannot be set up.
+   */
+  @Test
+  public void stroudDavidTestReplayStopsAtBadLine() throws Exception {
+    GameState expected = new GameState(10, 12, 42);
+    expected.apply(Move.parse("RR 3"));
+    expected.apply(Move.parse("IC 0"));
+
+    GameState state = new GameState(10, 12, 42);
+    IOException e = assertThrows(IOException.class, () -> SampleGame1P.replay(state,
+        eyes("RR 3\nIC 0\nJUMP 2\nRC 1\n"), new PrintWriter(new StringWriter()), 0));
+    assertTrue(e.getMessage().startsWith("Line 3:"), "Line number reported");
+    assertEquals(expected.board(), state.board(), "Moves before the bad line made");
+    assertEquals(2, state.movesMade(), "No moves after the bad line");
+  } // stroudDavidTestReplayStopsAtBadLine()
+} // class SampleGame1PTests
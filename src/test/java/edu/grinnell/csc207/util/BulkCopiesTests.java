@@ -0,0 +1,139 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for getRow, setRow, getCol, setCol and
+ * copyRegion.
+ */
+public class BulkCopiesTests {
+  /**
+   * Fill a matrix so that cell (row, col) holds row * 100 + col.
+   *
+   * @param matrix
+   *   The matrix.
+   *
+   * @return the matrix.
+   */
+  static Matrix<Integer> numbered(Matrix<Integer> matrix) {
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        matrix.set(row, col, row * 100 + col);
+      } // for col
+    } // for row
+    return matrix;
+  } // numbered(Matrix<Integer>)
+
+  /**
+   * Make one 6x5 numbered matrix of each implementation.
+   *
+   * @return suppliers of the matrices.
+   */
+  static List<Supplier<Matrix<Integer>>> implementations() {
+    List<Supplier<Matrix<Integer>>> result = new ArrayList<Supplier<Matrix<Integer>>>();
+    result.add(() -> numbered(new MatrixV0<Integer>(6, 5, 0)));
+    result.add(() -> numbered(new VersionedMatrix<Integer>(6, 5, 0)));
+    result.add(() -> numbered(new InstrumentedMatrix<Integer>(
+        new MatrixV0<Integer>(6, 5, 0), new MatrixMetrics())));
+    return result;
+  } // implementations()
+
+  /**
+   * This test checks row and column copies.
+   *
+   * @throws Exception
+   *   If an array has the wrong length.
+   */
+  @Test
+  public void stroudDavidTestRowsAndColumns() throws Exception {
+    for (Supplier<Matrix<Integer>> supplier : implementations()) {
+      Matrix<Integer> matrix = supplier.get();
+      String name = matrix.getClass().getSimpleName();
+      assertArrayEquals(new Integer[] {300, 301, 302, 303, 304, 305},
+          matrix.getRow(3, new Integer[6]), name + ": getRow");
+      assertArrayEquals(new Integer[] {4, 104, 204, 304, 404},
+          matrix.getCol(4, new Integer[5]), name + ": getCol");
+
+      matrix.setRow(1, new Integer[] {-1, -2, -3, -4, -5, -6});
+      assertEquals(-3, matrix.get(1, 2), name + ": setRow");
+      matrix.setCol(0, new Integer[] {9, 8, 7, 6, 5});
+      assertEquals(8, matrix.get(1, 0), name + ": setCol should overwrite setRow");
+      assertEquals(-2, matrix.get(1, 1), name + ": setCol should only touch its column");
+
+      assertThrows(ArraySizeException.class, () -> matrix.getRow(0, new Integer[5]));
+      assertThrows(ArraySizeException.class, () -> matrix.setCol(0, new Integer[6]));
+      assertThrows(IndexOutOfBoundsException.class, () -> matrix.getRow(5, new Integer[6]));
+      assertThrows(IndexOutOfBoundsException.class, () -> matrix.setCol(-1, new Integer[5]));
+    } // for
+  } // stroudDavidTestRowsAndColumns()
+
+  /**
+   * This test checks region copies between every pair of
+   * implementations, including overlapping copies within one matrix.
+   */
+  @Test
+  public void stroudDavidTestCopyRegion() {
+    for (Supplier<Matrix<Integer>> dstSupplier : implementations()) {
+      for (Supplier<Matrix<Integer>> srcSupplier : implementations()) {
+        Matrix<Integer> dst = dstSupplier.get();
+        Matrix<Integer> src = srcSupplier.get();
+        String name = src.getClass().getSimpleName() + " to "
+            + dst.getClass().getSimpleName();
+        src.replaceAll((val) -> -val);
+        dst.copyRegion(src, 1, 2, 3, 0, 2, 4);
+        for (int row = 0; row < 5; row++) {
+          for (int col = 0; col < 6; col++) {
+            boolean inside = row >= 3 && col < 4;
+            int expected = inside ? -((row - 2) * 100 + col + 2) : row * 100 + col;
+            assertEquals(expected, dst.get(row, col),
+                name + ": cell (" + row + ", " + col + ")");
+          } // for col
+        } // for row
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> dst.copyRegion(src, 4, 0, 0, 0, 2, 1));
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> dst.copyRegion(src, 0, 0, 0, 3, 1, 4));
+      } // for src
+    } // for dst
+
+    int[][] moves = {{0, 0, 1, 1}, {1, 1, 0, 0}, {0, 1, 1, 0}, {1, 0, 0, 1}};
+    for (Supplier<Matrix<Integer>> supplier : implementations()) {
+      for (int[] move : moves) {
+        Matrix<Integer> matrix = supplier.get();
+        String name = matrix.getClass().getSimpleName() + " overlapping";
+        matrix.copyRegion(matrix, move[0], move[1], move[2], move[3], 4, 5);
+        for (int row = 0; row < 4; row++) {
+          for (int col = 0; col < 5; col++) {
+            assertEquals((move[0] + row) * 100 + move[1] + col,
+                matrix.get(move[2] + row, move[3] + col),
+                name + ": cell (" + row + ", " + col + ")");
+          } // for col
+        } // for row
+      } // for move
+    } // for
+  } // stroudDavidTestCopyRegion()
+
+  /**
+   * This test checks that row copies into a VersionedMatrix leave
+   * snapshots alone.
+   *
+   * @throws Exception
+   *   If an array has the wrong length.
+   */
+  @Test
+  public void stroudDavidTestCopiesKeepSnapshots() throws Exception {
+    VersionedMatrix<Integer> matrix = new VersionedMatrix<Integer>(3, 3, 0);
+    MatrixSnapshot<Integer> before = matrix.snapshot();
+    matrix.setRow(0, new Integer[] {1, 2, 3});
+    matrix.copyRegion(matrix, 0, 0, 1, 0, 1, 3);
+    assertEquals(2, matrix.get(1, 1), "Matrix should change");
+    assertEquals(0, before.get(0, 1), "Snapshot should keep row 0");
+    assertEquals(0, before.get(1, 1), "Snapshot should keep row 1");
+  } // stroudDavidTestCopiesKeepSnapshots()
+} // class BulkCopiesTests
@@ -0,0 +1,121 @@
+package edu.grinnell.csc207.util;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for map, replaceAll, zipWith, reduce and
+ * count on the matrix implementations.
+ */
+public class BulkOperationsTests {
+  /**
+   * Build one matrix of each implementation, filled so that cell (row,
+   * col) holds row * width + col.
+   *
+   * @param width
+   *   The width of the matrices.
+   * @param height
+   *   The height of the matrices.
+   *
+   * @return the matrices.
+   */
+  static List<Matrix<Integer>> numbered(int width, int height) {
+    List<Matrix<Integer>> result = List.of(new MatrixV0<Integer>(width, height, 0),
+        new VersionedMatrix<Integer>(width, height, 0),
+        new InstrumentedMatrix<Integer>(new MatrixV0<Integer>(width, height, 0),
+            new MatrixMetrics()),
+        new ColumnMajorMatrix<Integer>(width, height, 0),
+        new RingBufferMatrix<Integer>(width, height, 0),
+        new RopeMatrix<Integer>(width, height, 0));
+    for (Matrix<Integer> matrix : result) {
+      for (int row = 0; row < height; row++) {
+        for (int col = 0; col < width; col++) {
+          matrix.set(row, col, row * width + col);
+        } // for col
+      } // for row
+    } // for
+    return result;
+  } // numbered(int, int)
+
+  /**
+   * This test checks every bulk operation on small matrices and on ones
+   * large enough to run in parallel, and that reduce works in row-major
+   * order.
+   *
+   * @throws Exception
+   *   If the matrices cannot be zipped.
+   */
+  @Test
+  public void stroudDavidTestBulkOperations() throws Exception {
+    for (int[] shape : new int[][] {{7, 3}, {300, 211}}) {
+      int width = shape[0];
+      int height = shape[1];
+      long n = (long) width * height;
+      for (Matrix<Integer> matrix : numbered(width, height)) {
+        String name = matrix.getClass().getSimpleName() + " " + width + "x" + height;
+        Matrix<String> mapped = matrix.map((val) -> "v" + val);
+        assertEquals("v" + (width + 2), mapped.get(1, 2), name + ": map");
+        assertEquals(width, mapped.width(), name + ": map keeps the width");
+        StringBuilder order = new StringBuilder();
+        for (long i = 0; i < n; i++) {
+          order.append(i).append(',');
+        } // for
+        assertEquals(order.toString(), matrix.map((val) -> val + ",").reduce("", String::concat),
+            name + ": reduce in row-major order");
+
+        assertEquals(n * (n - 1) / 2, (long) matrix.reduce(0, Integer::sum),
+            name + ": reduce");
+        assertEquals((n + 1) / 2, matrix.count((val) -> val % 2 == 0), name + ": count");
+
+        Matrix<Integer> copy = matrix.clone();
+        matrix.replaceAll((val) -> -val);
+        assertEquals(-(width + 1), matrix.get(1, 1), name + ": replaceAll");
+        assertEquals(width + 1, copy.get(1, 1), name + ": clone should not change");
+
+        Matrix<Integer> sums = matrix.zipWith(copy, Integer::sum);
+        assertEquals(n, sums.count((val) -> val == 0), name + ": zipWith");
+        Matrix<Integer> sameKind = matrix.zipWith(copy.clone(), Integer::sum);
+        assertEquals(n, sameKind.count((val) -> val == 0),
+            name + ": zipWith a matrix of the same kind");
+        assertThrows(ArraySizeException.class,
+            () -> matrix.zipWith(new MatrixV0<Integer>(width + 1, height), Integer::sum));
+      } // for matrix
+    } // for shape
+  } // stroudDavidTestBulkOperations()
+
+  /**
+   * This test checks that replaceAll on a VersionedMatrix leaves
+   * snapshots alone.
+   */
+  @Test
+  public void stroudDavidTestReplaceAllKeepsSnapshots() {
+    VersionedMatrix<Integer> matrix = new VersionedMatrix<Integer>(200, 200, 1);
+    MatrixSnapshot<Integer> before = matrix.snapshot();
+    matrix.replaceAll((val) -> val + 1);
+    assertEquals(2, matrix.get(199, 199), "Matrix should change");
+    assertEquals(1, before.get(199, 199), "Snapshot should not change");
+    assertEquals(40000, before.count((val) -> val == 1), "Whole snapshot should be intact");
+  } // stroudDavidTestReplaceAllKeepsSnapshots()
+
+  /**
+   * This test checks the unboxed operations of DoubleMatrix.
+   *
+   * @throws Exception
+   *   If the matrices cannot be zipped.
+   */
+  @Test
+  public void stroudDavidTestDoubleOperations() throws Exception {
+    DoubleMatrix matrix = new DoubleMatrix(250, 100, 2);
+    DoubleMatrix squares = matrix.mapDoubles((val) -> val * val);
+    assertEquals(4, squares.getDouble(99, 249), "mapDoubles");
+    DoubleMatrix diffs = squares.zipWithDoubles(matrix, (a, b) -> a - b);
+    assertEquals(2 * 25000, diffs.doubles().sum(), 1e-9, "zipWithDoubles");
+    matrix.replaceAll((val) -> val / 2);
+    assertEquals(25000, matrix.doubles().sum(), 1e-9, "replaceAll");
+    assertThrows(NullPointerException.class, () -> matrix.replaceAll((val) -> null));
+    assertEquals(25000.0, matrix.reduce(0.0, Double::sum), 1e-9, "reduce");
+  } // stroudDavidTestDoubleOperations()
+} // class BulkOperationsTests
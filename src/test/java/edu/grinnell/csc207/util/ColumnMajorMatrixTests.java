@@ -0,0 +1,117 @@
+package edu.grinnell.csc207.util;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import jdk.jfr.consumer.RecordedEvent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the ColumnMajorMatrix and
+ * AdaptiveMatrix classes.
+ */
+public class ColumnMajorMatrixTests {
+  /**
+   * This test checks that random changes have the same effect on each
+   * layout as on MatrixV0.
+   *
+   * @throws Exception
+   *   If a change does not fit.
+   */
+  @Test
+  public void stroudDavidTestSameAsMatrixV0() throws Exception {
+    Random rand = new Random(46);
+    MatrixV0<Integer> expected = new MatrixV0<Integer>(5, 3, 1);
+    ColumnMajorMatrix<Integer> columns = new ColumnMajorMatrix<Integer>(5, 3, 1);
+    assertEquals(expected, columns, "Same initial contents");
+    for (int i = 0; i < 200; i++) {
+      long seed = rand.nextLong();
+      MatrixChanges.change(expected, new Random(seed));
+      MatrixChanges.change(columns, new Random(seed));
+      assertEquals(expected, columns, "Same contents after change " + i);
+      assertEquals(expected.hashCode(), columns.hashCode(), "Same hash after change " + i);
+    } // for
+    Integer[] col = new Integer[expected.height()];
+    assertArrayEquals(expected.getCol(1, col.clone()), columns.getCol(1, col), "Same column");
+    assertEquals(expected.transpose(), columns.transpose(), "Same transpose");
+    assertEquals(columns, columns.clone(), "Clone should be equal");
+    assertThrows(IndexOutOfBoundsException.class, () -> columns.get(0, columns.width()));
+  } // stroudDavidTestSameAsMatrixV0()
+
+  /**
+   * This test checks that errors and edit events name this matrix's
+   * rows and columns, not those of the transpose that holds the cells.
+   *
+   * @throws Exception
+   *   If the recording fails.
+   */
+  @Test
+  public void stroudDavidTestOwnRowsAndColumns() throws Exception {
+    ColumnMajorMatrix<String> columns = new ColumnMajorMatrix<String>(5, 3, ".");
+    Exception e = assertThrows(IndexOutOfBoundsException.class, () -> columns.get(0, 7));
+    assertEquals("Column index 7 not valid for Matrix of width 5", e.getMessage(),
+        "Column named as a column");
+    e = assertThrows(IndexOutOfBoundsException.class, () -> columns.insertRow(4));
+    assertEquals("Row index 4 not valid for Matrix of height 3", e.getMessage(),
+        "Row named as a row");
+    e = assertThrows(IndexOutOfBoundsException.class,
+        () -> columns.fillRegion(0, 0, 4, 1, "x"));
+    assertTrue(e.getMessage().contains("height 3"), "Region checked against the height");
+    assertThrows(ArraySizeException.class, () -> columns.insertCol(0, new String[5]),
+        "A column has one value per row");
+
+    List<RecordedEvent> events = MatrixEditEventTests.record(Duration.ZERO, () -> {
+      columns.insertRow(1);
+      columns.deleteCol(4);
+    });
+    assertEquals("insertRow", events.get(0).getString("operation"), "Inserting a row");
+    assertEquals(5, events.get(0).getInt("width"), "Width before the insert");
+    assertEquals(3, events.get(0).getInt("height"), "Height before the insert");
+    assertEquals("deleteCol", events.get(1).getString("operation"), "Deleting a column");
+  } // stroudDavidTestOwnRowsAndColumns()
+
+  /**
+   * This test checks that the adaptive matrix switches layout when the
+   * mix of calls changes, and not when it is mixed.
+   *
+   * @throws Exception
+   *   If a change does not fit.
+   */
+  @Test
+  public void stroudDavidTestAdaptiveSwitches() throws Exception {
+    AdaptiveMatrix<String> matrix = new AdaptiveMatrix<String>(6, 4, ".");
+    MatrixV0<String> expected = new MatrixV0<String>(6, 4, ".");
+    matrix.set(1, 2, "a");
+    expected.set(1, 2, "a");
+    for (int i = 0; i < 100; i++) {
+      matrix.insertRow(i % 3);
+      expected.insertRow(i % 3);
+      matrix.insertCol(i % 5);
+      expected.insertCol(i % 5);
+    } // for
+    assertFalse(matrix.isColumnMajor(), "A mixed workload should not switch");
+
+    for (int i = 0; i < AdaptiveMatrix.SWITCH_AFTER; i++) {
+      matrix.deleteCol(i);
+      expected.deleteCol(i);
+    } // for
+    assertTrue(matrix.isColumnMajor(), "Column calls should switch to column-major");
+    assertEquals(expected, matrix, "Switching should keep the contents");
+    matrix.set(0, 0, "b");
+    expected.set(0, 0, "b");
+
+    for (int i = 0; i < 2 * AdaptiveMatrix.SWITCH_AFTER - 1; i++) {
+      matrix.getRow(i, new String[matrix.width()]);
+    } // for
+    assertTrue(matrix.isColumnMajor(), "Switching back needs the full swing");
+    matrix.deleteRow(3);
+    expected.deleteRow(3);
+    assertFalse(matrix.isColumnMajor(), "Row calls should switch back to row-major");
+    assertEquals(expected, matrix, "Switching back should keep the contents");
+    assertEquals(expected, matrix.clone(), "Clone should be equal");
+  } // stroudDavidTestAdaptiveSwitches()
+} // class ColumnMajorMatrixTests
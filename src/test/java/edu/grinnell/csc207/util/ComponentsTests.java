@@ -0,0 +1,101 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the Components class.
+ */
+public class ComponentsTests {
+  /**
+   * Build a matrix from strings, one character per cell.
+   *
+   * @param rows
+   *   The rows of the matrix.
+   * @return the matrix.
+   */
+  static Matrix<String> grid(String... rows) {
+    Matrix<String> result = new MatrixV0<>(rows[0].length(), rows.length, " ");
+    for (int row = 0; row < rows.length; row++) {
+      for (int col = 0; col < rows[row].length(); col++) {
+        result.set(row, col, rows[row].substring(col, col + 1));
+      } // for col
+    } // for row
+    return result;
+  } // grid(String...)
+
+  /**
+   * This test checks labels, sizes, and bounding boxes with 4-connectivity.
+   */
+  @Test
+  public void stroudDavidTestFourConnectivity() {
+    Matrix<String> board = grid(
+        "XX O",
+        " XOO",
+        "X  X");
+    ComponentLabels labels = Components.label(board, String::equals,
+        (val) -> !" ".equals(val), Components.Connectivity.FOUR);
+
+    assertEquals(4, labels.count(), "Should find four components");
+    assertEquals(0, labels.label(0, 2), "Excluded cells should have label 0");
+    assertEquals(1, labels.label(0, 0), "First component should have label 1");
+    assertEquals(1, labels.label(1, 1), "Connected X's should share a label");
+    assertEquals(3, labels.size(1), "The top-left X's should form a component of size 3");
+    assertEquals(0, labels.top(1), "Top of the first component");
+    assertEquals(0, labels.left(1), "Left of the first component");
+    assertEquals(2, labels.bottom(1), "Bottom of the first component");
+    assertEquals(2, labels.right(1), "Right of the first component");
+    assertEquals(labels.label(0, 3), labels.label(1, 2), "The O's should be connected");
+    assertNotEquals(labels.label(2, 0), labels.label(1, 1), "Diagonal X's are not 4-connected");
+    assertEquals(
+            Integer.valueOf(labels.label(2, 3)),
+            labels.labelMatrix().get(2, 3),
+            "The label matrix should match the labels"
+    );
+    assertThrows(IndexOutOfBoundsException.class, () -> labels.size(5));
+  } // stroudDavidTestFourConnectivity()
+
+  /**
+   * This test checks that diagonals connect with 8-connectivity.
+   */
+  @Test
+  public void stroudDavidTestEightConnectivity() {
+    Matrix<String> board = grid(
+        "X X",
+        " X ",
+        "X X");
+    ComponentLabels labels = Components.label(board, Components.Connectivity.EIGHT);
+    assertEquals(2, labels.count(), "The X's and the blanks should form one component each");
+    assertEquals(5, labels.size(labels.label(1, 1)), "All five X's should be connected");
+  } // stroudDavidTestEightConnectivity()
+
+  /**
+   * This test checks that the parallel labelling matches the sequential one.
+   */
+  @Test
+  public void stroudDavidTestParallelMatchesSequential() {
+    Random random = new Random(207);
+    Matrix<Integer> matrix = new MatrixV0<>(300, 1000, 0);
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        matrix.set(row, col, random.nextInt(3));
+      } // for col
+    } // for row
+
+    for (Components.Connectivity connectivity : Components.Connectivity.values()) {
+      ComponentLabels sequential = Components.label(matrix, Integer::equals,
+          (val) -> val != 0, connectivity);
+      ComponentLabels parallel = Components.labelParallel(matrix, Integer::equals,
+          (val) -> val != 0, connectivity);
+      assertEquals(sequential.count(), parallel.count(), "Component counts should match");
+      assertEquals(
+              sequential.labelMatrix(),
+              parallel.labelMatrix(),
+              "Parallel labels should match sequential labels"
+      );
+    } // for
+  } // stroudDavidTestParallelMatchesSequential()
+} // class ComponentsTests
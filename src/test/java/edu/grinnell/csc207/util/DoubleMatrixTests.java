@@ -0,0 +1,151 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the DoubleMatrix class.
+ */
+public class DoubleMatrixTests {
+  /**
+   * Make a matrix of random values.
+   *
+   * @param random
+   *   The source of the values.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the matrix.
+   */
+  static DoubleMatrix randomMatrix(Random random, int width, int height) {
+    DoubleMatrix result = new DoubleMatrix(width, height);
+    for (int i = 0; i < result.backing.length; i++) {
+      result.backing[i] = random.nextDouble() * 2 - 1;
+    } // for
+    return result;
+  } // randomMatrix(Random, int, int)
+
+  /**
+   * Multiply two matrices with the textbook triple loop.
+   *
+   * @param a
+   *   The left-hand matrix.
+   * @param b
+   *   The right-hand matrix.
+   *
+   * @return the product.
+   */
+  static DoubleMatrix naiveMultiply(DoubleMatrix a, DoubleMatrix b) {
+    DoubleMatrix result = new DoubleMatrix(b.width(), a.height());
+    for (int i = 0; i < a.height(); i++) {
+      for (int j = 0; j < b.width(); j++) {
+        double sum = 0;
+        for (int k = 0; k < a.width(); k++) {
+          sum += a.getDouble(i, k) * b.getDouble(k, j);
+        } // for k
+        result.setDouble(i, j, sum);
+      } // for j
+    } // for i
+    return result;
+  } // naiveMultiply(DoubleMatrix, DoubleMatrix)
+
+  /**
+   * Check that two matrices are equal up to rounding.
+   *
+   * @param expected
+   *   The expected matrix.
+   * @param actual
+   *   The actual matrix.
+   * @param message
+   *   What is being compared.
+   */
+  static void assertClose(DoubleMatrix expected, DoubleMatrix actual, String message) {
+    assertEquals(expected.width(), actual.width(), message + ": width");
+    assertEquals(expected.height(), actual.height(), message + ": height");
+    for (int i = 0; i < expected.backing.length; i++) {
+      assertEquals(expected.backing[i], actual.backing[i], 1e-9, message + ": cell " + i);
+    } // for
+  } // assertClose(DoubleMatrix, DoubleMatrix, String)
+
+  /**
+   * This test checks blocked and parallel multiplication against the
+   * triple loop, for both kernels and for shapes that do not fit the
+   * blocks evenly.
+   *
+   * @throws Exception
+   *   If the matrices cannot be multiplied.
+   */
+  @Test
+  public void stroudDavidTestMultiplyMatchesNaive() throws Exception {
+    Random random = new Random(207);
+    int[][] shapes = {{1, 1, 1}, {3, 5, 2}, {17, 33, 9}, {70, 130, 300}, {260, 40, 129}};
+    DoubleKernel[] kernels = {DoubleKernel.scalar(), DoubleKernel.KERNEL};
+    for (int[] shape : shapes) {
+      DoubleMatrix a = randomMatrix(random, shape[1], shape[0]);
+      DoubleMatrix b = randomMatrix(random, shape[2], shape[1]);
+      DoubleMatrix expected = naiveMultiply(a, b);
+      for (DoubleKernel kernel : kernels) {
+        assertClose(expected, a.multiply(b, kernel),
+            kernel.name() + " " + shape[0] + "x" + shape[1] + "x" + shape[2]);
+      } // for kernel
+    } // for shape
+    assertThrows(ArraySizeException.class,
+        () -> new DoubleMatrix(3, 2).multiply(new DoubleMatrix(3, 2)));
+  } // stroudDavidTestMultiplyMatchesNaive()
+
+  /**
+   * This test checks add, scale, and transpose.
+   *
+   * @throws Exception
+   *   If the matrices cannot be added.
+   */
+  @Test
+  public void stroudDavidTestAddScaleTranspose() throws Exception {
+    DoubleMatrix a = DoubleMatrix.of(new double[][] {{1, 2, 3}, {4, 5, 6}});
+    DoubleMatrix b = DoubleMatrix.of(new double[][] {{6, 5, 4}, {3, 2, 1}});
+    assertEquals(new DoubleMatrix(3, 2, 7), a.add(b), "Sum");
+    assertEquals(DoubleMatrix.of(new double[][] {{-2, -4, -6}, {-8, -10, -12}}),
+        a.scale(-2), "Scaled");
+    assertEquals(DoubleMatrix.of(new double[][] {{1, 4}, {2, 5}, {3, 6}}),
+        a.transpose(), "Transposed");
+    assertThrows(ArraySizeException.class, () -> a.add(a.transpose()));
+
+    DoubleMatrix big = randomMatrix(new Random(1), 70, 45);
+    assertEquals(big, big.transpose().transpose(), "Transposing twice is the identity");
+    assertEquals(big.getDouble(44, 3), big.transpose().getDouble(3, 44), 0,
+        "Transposed cell");
+  } // stroudDavidTestAddScaleTranspose()
+
+  /**
+   * This test checks the Matrix operations and that equality and hash
+   * codes agree with MatrixV0.
+   *
+   * @throws Exception
+   *   If a row or column cannot be inserted.
+   */
+  @Test
+  public void stroudDavidTestMatrixOperations() throws Exception {
+    DoubleMatrix doubles = new DoubleMatrix(3, 2, 1.5);
+    MatrixV0<Double> boxed = new MatrixV0<Double>(3, 2, 1.5);
+    for (Matrix<Double> m : java.util.List.<Matrix<Double>>of(doubles, boxed)) {
+      m.set(0, 1, 9.0);
+      m.insertRow(1);
+      m.insertCol(0, new Double[] {1.0, 2.0, 3.0});
+      m.deleteCol(2);
+      m.fillRegion(1, 1, 3, 2, -1.0);
+      m.fillLine(0, 0, 1, 1, 3, 3, 0.0);
+      m.deleteRow(0);
+    } // for
+    assertEquals(boxed, doubles, "DoubleMatrix should equal MatrixV0");
+    assertEquals(doubles, boxed, "Equality should be symmetric");
+    assertEquals(boxed.hashCode(), doubles.hashCode(), "Hash codes should agree");
+    assertEquals(doubles, doubles.clone(), "Clone should be equal");
+    assertThrows(NullPointerException.class, () -> doubles.set(0, 0, null));
+    assertThrows(IndexOutOfBoundsException.class, () -> doubles.get(2, 0));
+  } // stroudDavidTestMatrixOperations()
+} // class DoubleMatrixTests
@@ -0,0 +1,168 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the GridReader and GridWriter
+ * classes.
+ */
+public class GridReaderTests {
+  /**
+   * Write a matrix and read it back.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param format
+   *   The format to use.
+   *
+   * @return the matrix that was read.
+   *
+   * @throws IOException
+   *   If the text is malformed.
+   */
+  static Matrix<String> roundTrip(Matrix<String> matrix, GridFormat format)
+      throws IOException {
+    StringWriter text = new StringWriter();
+    try (GridWriter writer = new GridWriter(text, format)) {
+      writer.write(matrix);
+    } // try
+    try (GridReader reader = new GridReader(new StringReader(text.toString()), format)) {
+      return reader.read(MatrixV0::new, CellParser.strings());
+    } // try
+  } // roundTrip(Matrix<String>, GridFormat)
+
+  /**
+   * This test checks that awkward values survive writing and reading
+   * in every format that can hold them.
+   *
+   * @throws Exception
+   *   If the text is malformed.
+   */
+  @Test
+  public void stroudDavidTestRoundTrip() throws Exception {
+    MatrixV0<String> matrix = new MatrixV0<String>(4, 3, "plain");
+    matrix.set(0, 1, "a,b");
+    matrix.set(0, 2, "say \"hi\"");
+    matrix.set(1, 0, "two\nlines");
+    matrix.set(1, 1, null);
+    matrix.set(1, 2, "");
+    matrix.set(2, 3, "tab\there");
+    assertEquals(matrix, roundTrip(matrix, GridFormat.CSV), "CSV round trip");
+    assertEquals(matrix, roundTrip(matrix, GridFormat.TSV), "TSV round trip");
+
+    MatrixV0<String> column = new MatrixV0<String>(1, 3, "cell");
+    column.set(1, 0, null);
+    assertEquals(column, roundTrip(column, GridFormat.CSV), "Null cell in one column");
+    assertEquals(column, roundTrip(column, GridFormat.TSV), "Null cell in one TSV column");
+
+    MatrixV0<String> boxable = new MatrixV0<String>(3, 2, "x");
+    boxable.set(0, 0, "longer value");
+    boxable.set(1, 2, null);
+    assertEquals(boxable, roundTrip(boxable, GridFormat.BOX), "BOX round trip");
+  } // stroudDavidTestRoundTrip()
+
+  /**
+   * This test checks that the labelled output of Matrix.print can be
+   * read, and that integers parse in place.
+   *
+   * @throws Exception
+   *   If the text is malformed.
+   */
+  @Test
+  public void stroudDavidTestReadPrintedMatrix() throws Exception {
+    MatrixV0<Integer> matrix = new MatrixV0<Integer>(12, 11, 7);
+    matrix.set(10, 11, -12345);
+    matrix.set(3, 4, null);
+    StringWriter text = new StringWriter();
+    PrintWriter pen = new PrintWriter(text);
+    Matrix.print(pen, matrix, true);
+    pen.flush();
+    VersionedMatrix<Integer> target = new VersionedMatrix<Integer>(12, 11);
+    try (GridReader reader = new GridReader(new StringReader(text.toString()),
+        GridFormat.BOX)) {
+      reader.readInto(target, CellParser.integers());
+    } // try
+    assertEquals(matrix, target, "Labelled print should read back");
+  } // stroudDavidTestReadPrintedMatrix()
+
+  /**
+   * This test checks the row-at-a-time interface and the handling of
+   * line endings.
+   *
+   * @throws Exception
+   *   If the text is malformed.
+   */
+  @Test
+  public void stroudDavidTestRows() throws Exception {
+    GridReader reader = new GridReader(new StringReader("1,2,3\r\n\r\n4,,\"6\"\r7,8,9"),
+        GridFormat.CSV);
+    assertTrue(reader.nextRow(), "First row");
+    assertEquals(3, reader.cellCount(), "Three cells");
+    assertEquals(2, reader.cell(1, CellParser.integers()), "Second cell");
+    assertTrue(reader.nextRow(), "Row after the blank line");
+    assertEquals(1, reader.rowNumber(), "Blank line should be skipped");
+    assertTrue(reader.isNull(1), "Empty field should be null");
+    assertEquals(6L, reader.cell(2, CellParser.longs()), "Quoted number");
+    assertTrue(reader.nextRow(), "Carriage return ends a row");
+    assertEquals(9.0, reader.cell(2, CellParser.doubles()), "Last cell without newline");
+    assertFalse(reader.nextRow(), "End of text");
+
+    StringWriter text = new StringWriter();
+    try (GridWriter writer = new GridWriter(text, GridFormat.TSV)) {
+      writer.writeRow("a", null, "c\td");
+    } // try
+    assertEquals("a\t\t\"c\td\"\n", text.toString(), "Written row");
+  } // stroudDavidTestRows()
+
+  /**
+   * This test checks that blank lines are null cells only in a
+   * one-column grid, and that trailing blank lines are skipped.
+   *
+   * @throws Exception
+   *   If the text is malformed.
+   */
+  @Test
+  public void stroudDavidTestBlankLines() throws Exception {
+    Matrix<Integer> wide = new GridReader(new StringReader("1,2\n\n3,4\n\n\n"),
+        GridFormat.CSV).read(MatrixV0::new, CellParser.integers());
+    assertEquals(2, wide.height(), "Blank lines skipped in two columns");
+    assertEquals(4, wide.get(1, 1), "Last cell");
+
+    MatrixV0<Integer> target = new MatrixV0<Integer>(3, 2);
+    try (GridReader reader = new GridReader(new StringReader("1\t2\t3\n4\t5\t6\n\n"),
+        GridFormat.TSV)) {
+      reader.readInto(target, CellParser.integers());
+    } // try
+    assertEquals(6, target.get(1, 2), "Trailing blank line skipped");
+
+    Matrix<Integer> narrow = new GridReader(new StringReader("1\r\n\r\n\r\n4\n\n"),
+        GridFormat.CSV).read(MatrixV0::new, CellParser.integers());
+    assertEquals(4, narrow.height(), "Blank lines are null cells in one column");
+    assertNull(narrow.get(2, 0), "Blank line's cell should be null");
+    assertEquals(4, narrow.get(3, 0), "Row after the blank lines");
+  } // stroudDavidTestBlankLines()
+
+  /**
+   * This test checks that malformed text is reported.
+   */
+  @Test
+  public void stroudDavidTestMalformed() {
+    assertThrows(IOException.class, () -> new GridReader(new StringReader("1,2\n3\n"),
+        GridFormat.CSV).read(MatrixV0::new, CellParser.integers()));
+    assertThrows(IOException.class, () -> new GridReader(new StringReader("\"open,2\n"),
+        GridFormat.CSV).nextRow());
+    assertThrows(IOException.class, () -> new GridReader(new StringReader("\"a\"b,2\n"),
+        GridFormat.CSV).nextRow());
+    assertThrows(IOException.class, () -> new GridReader(new StringReader("1,x\n"),
+        GridFormat.CSV).read(MatrixV0::new, CellParser.integers()));
+    assertThrows(IOException.class, () -> new GridReader(new StringReader("1,2\n"),
+        GridFormat.CSV).readInto(new MatrixV0<Integer>(2, 2), CellParser.integers()));
+  } // stroudDavidTestMalformed()
+} // class GridReaderTests
@@ -0,0 +1,135 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the IncrementalComponents class.
+ */
+public class IncrementalComponentsTests {
+  /**
+   * Check that incrementally maintained components match a labelling
+   * computed from scratch.
+   *
+   * @param tracked
+   *   The incrementally maintained components.
+   * @param connectivity
+   *   The connectivity used by tracked.
+   * @param step
+   *   A description of the last edit, for failure messages.
+   */
+  static void assertMatchesFullLabelling(IncrementalComponents<String> tracked,
+      Components.Connectivity connectivity, String step) {
+    ComponentLabels expected = Components.label(tracked, String::equals,
+        (val) -> !" ".equals(val), connectivity);
+    assertEquals(expected.count(), tracked.count(), "Component count after " + step);
+    assertEquals(
+            expected.labelMatrix(),
+            tracked.toLabels().labelMatrix(),
+            "Labels after " + step
+    );
+    for (int row = 0; row < tracked.height(); row++) {
+      for (int col = 0; col < tracked.width(); col++) {
+        int label = expected.label(row, col);
+        assertEquals(
+                label == 0 ? 0 : expected.size(label),
+                tracked.sizeAt(row, col),
+                "Size at (" + row + ", " + col + ") after " + step
+        );
+      } // for col
+    } // for row
+  } // assertMatchesFullLabelling(IncrementalComponents<String>, Connectivity, String)
+
+  /**
+   * This test checks a single split and join.
+   */
+  @Test
+  public void stroudDavidTestSplitAndJoin() {
+    Matrix<String> board = ComponentsTests.grid(
+        "XXX",
+        "   ",
+        "XXX");
+    IncrementalComponents<String> tracked = new IncrementalComponents<>(board,
+        String::equals, (val) -> !" ".equals(val), Components.Connectivity.FOUR);
+    assertEquals(2, tracked.count(), "Two rows of X's should be two components");
+    int topLabel = tracked.label(0, 0);
+
+    tracked.set(1, 1, "X");
+    assertEquals(1, tracked.count(), "Joining the rows should leave one component");
+    assertEquals(7, tracked.sizeAt(2, 2), "The joined component should have seven cells");
+
+    tracked.set(0, 1, " ");
+    assertEquals(3, tracked.count(), "Removing the top middle should split off both corners");
+    assertEquals(1, tracked.sizeAt(0, 0), "(0, 0) should be alone");
+
+    tracked.deleteRow(0);
+    assertEquals(1, tracked.count(), "Deleting the top row should leave one component");
+    assertEquals(4, tracked.sizeAt(0, 1), "The remaining component should have four cells");
+    assertNotEquals(0, topLabel, "Labels should start at 1");
+  } // stroudDavidTestSplitAndJoin()
+
+  /**
+   * This test applies random edits and compares against full relabelling.
+   */
+  @Test
+  public void stroudDavidTestRandomEdits() throws ArraySizeException {
+    String[] values = new String[] {" ", "X", "O"};
+    for (Components.Connectivity connectivity : Components.Connectivity.values()) {
+      Random random = new Random(207);
+      Matrix<String> board = new MatrixV0<>(8, 7, " ");
+      for (int row = 0; row < board.height(); row++) {
+        for (int col = 0; col < board.width(); col++) {
+          board.set(row, col, values[random.nextInt(values.length)]);
+        } // for col
+      } // for row
+      IncrementalComponents<String> tracked = new IncrementalComponents<>(board,
+          String::equals, (val) -> !" ".equals(val), connectivity);
+      assertMatchesFullLabelling(tracked, connectivity, "construction");
+
+      for (int step = 0; step < 400; step++) {
+        int height = tracked.height();
+        int width = tracked.width();
+        String val = values[random.nextInt(values.length)];
+        switch (random.nextInt(8)) {
+          case 0:
+            if (height > 2) {
+              tracked.deleteRow(random.nextInt(height));
+            } // if
+            break;
+          case 1:
+            if (width > 2) {
+              tracked.deleteCol(random.nextInt(width));
+            } // if
+            break;
+          case 2:
+            if (height < 12) {
+              tracked.insertRow(random.nextInt(height + 1));
+            } // if
+            break;
+          case 3:
+            if (width < 12) {
+              String[] column = new String[height];
+              for (int i = 0; i < height; i++) {
+                column[i] = values[random.nextInt(values.length)];
+              } // for
+              tracked.insertCol(random.nextInt(width + 1), column);
+            } // if
+            break;
+          case 4:
+            int top = random.nextInt(height);
+            int left = random.nextInt(width);
+            tracked.fillRegion(top, left, top + random.nextInt(height - top + 1),
+                left + random.nextInt(width - left + 1), val);
+            break;
+          default:
+            tracked.set(random.nextInt(height), random.nextInt(width), val);
+            break;
+        } // switch
+        assertMatchesFullLabelling(tracked, connectivity, "step " + step);
+      } // for
+    } // for
+  } // stroudDavidTestRandomEdits()
+} // class IncrementalComponentsTests
@@ -0,0 +1,123 @@
+package edu.grinnell.csc207.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the InstrumentedMatrix, MatrixMetrics
+ * and LatencyHistogram classes.
+ */
+public class InstrumentedMatrixTests {
+  /**
+   * This test checks that the histogram reports percentiles within its
+   * stated precision.
+   */
+  @Test
+  public void stroudDavidTestHistogramPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long val = 1; val <= 100_000; val++) {
+      histogram.record(val);
+    } // for
+    assertEquals(100_000, histogram.count(), "Every value should be counted");
+    assertEquals(100_000, histogram.max(), "Max should be exact");
+    assertEquals(50_000.5, histogram.mean(), 0.001, "Mean should be exact");
+    for (double fraction : new double[] {0.01, 0.5, 0.9, 0.99, 0.999}) {
+      double expected = fraction * 100_000;
+      double actual = histogram.percentile(fraction);
+      assertTrue(actual >= expected && actual <= expected * 1.07,
+          "Percentile " + fraction + " should be close to " + expected + ", was " + actual);
+    } // for
+    assertEquals(17, histogram.percentile(0.0001 * 1.7), "Small values are exact");
+
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, histogram.percentile(1), "Top bucket should not overflow");
+    histogram.reset();
+    assertEquals(0, histogram.count(), "Reset should forget everything");
+    assertEquals(0, histogram.percentile(0.5), "Empty histogram reports 0");
+  } // stroudDavidTestHistogramPrecision()
+
+  /**
+   * This test checks that operations are counted when enabled, ignored
+   * when disabled, and that the matrix still behaves like its base.
+   *
+   * @throws Exception
+   *   If insertRow fails, which it should not.
+   */
+  @Test
+  public void stroudDavidTestCountsOperations() throws Exception {
+    MatrixMetrics metrics = new MatrixMetrics();
+    Matrix<Integer> matrix = new InstrumentedMatrix<Integer>(new MatrixV0<Integer>(4, 3, 0),
+        metrics);
+    matrix.set(1, 1, 5);
+    matrix.set(2, 3, 7);
+    assertEquals(5, matrix.get(1, 1), "Values should pass through");
+    matrix.insertRow(0, new Integer[] {1, 2, 3, 4});
+    matrix.insertCol(1);
+    matrix.deleteRow(3);
+    matrix.fillRegion(0, 0, 1, 2, 9);
+    Matrix<Integer> copy = matrix.clone();
+
+    Map<String, Long> counts = metrics.getOperationCounts();
+    assertEquals(2L, counts.get("SET"), "Two sets");
+    assertEquals(1L, counts.get("GET"), "One get");
+    assertEquals(1L, counts.get("INSERT_ROW"), "One row insert");
+    assertEquals(1L, counts.get("INSERT_COL"), "One column insert");
+    assertEquals(1L, counts.get("DELETE_ROW"), "One row delete");
+    assertEquals(1L, counts.get("CLONE"), "One clone");
+    assertNull(counts.get("DELETE_COL"), "Unused operations are omitted");
+
+    assertEquals(matrix, copy, "Clone should be equal");
+    assertEquals(matrix.hashCode(), copy.hashCode(), "Clone should hash the same");
+    assertEquals(copy.hashCode(), ((InstrumentedMatrix<Integer>) copy).base.hashCode(),
+        "Hash should match the base matrix");
+    assertEquals(1L + 3 * 5, metrics.getOperationCounts().get("GET"),
+        "Comparing reads every cell of the clone through its wrapper");
+    assertTrue(metrics.getMaxNanos().get("CLONE") >= metrics.getMedianNanos().get("CLONE"),
+        "Max should be at least the median");
+
+    metrics.setEnabled(false);
+    matrix.set(0, 0, 1);
+    copy.deleteCol(0);
+    assertEquals(2L, metrics.getOperationCounts().get("SET"), "Disabled sets are ignored");
+    assertNull(metrics.getOperationCounts().get("DELETE_COL"), "Disabled deletes are ignored");
+    assertEquals(1, matrix.get(0, 0), "Disabled matrix still works");
+  } // stroudDavidTestCountsOperations()
+
+  /**
+   * This test checks that the metrics can be read through JMX.
+   *
+   * @throws Exception
+   *   If JMX fails.
+   */
+  @Test
+  public void stroudDavidTestPublishesMXBean() throws Exception {
+    MatrixMetrics metrics = new MatrixMetrics();
+    Matrix<String> matrix = new InstrumentedMatrix<String>(new MatrixV0<String>(100, 100, "."),
+        metrics);
+    matrix.insertRow(50);
+    matrix.insertCol(50);
+    ObjectName name = metrics.register("tests");
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"), "Should be enabled");
+      long bytes = (Long) server.getAttribute(name, "BytesAllocated");
+      if (MatrixMetrics.ALLOCATION != null) {
+        assertTrue(bytes >= 100 * 100 * 4, "Inserts copy the whole backing array");
+      } // if
+      Object p99 = server.invoke(name, "percentileNanos", new Object[] {"INSERT_ROW", 0.99},
+          new String[] {String.class.getName(), double.class.getName()});
+      assertTrue((Long) p99 > 0, "Insert should take some time");
+      server.setAttribute(name, new javax.management.Attribute("Enabled", false));
+      assertFalse(metrics.isEnabled(), "JMX should be able to disable recording");
+      assertThrows(IllegalStateException.class, () -> metrics.register("tests"));
+    } finally {
+      MatrixMetrics.unregister(name);
+    } // try/finally
+  } // stroudDavidTestPublishesMXBean()
+} // class InstrumentedMatrixTests
@@ -0,0 +1,132 @@
+package edu.grinnell.csc207.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the JournaledMatrix class.
+ */
+public class JournaledMatrixTests {
+  /**
+   * Somewhere to keep the journals.
+   */
+  @TempDir
+  Path dir;
+
+  /**
+   * This test checks that a journal restores the matrix after periodic
+   * snapshots, keeping only the latest segment.
+   *
+   * @throws Exception
+   *   If the journal cannot be written or read.
+   */
+  @Test
+  public void stroudDavidTestRestore() throws Exception {
+    MatrixV0<String> expected = new MatrixV0<String>(5, 4, ".");
+    JournaledMatrix<String> journaled = new JournaledMatrix<String>(
+        new MatrixV0<String>(5, 4, "."), ".", ValueCodec.strings(), this.dir, 4);
+    for (int i = 0; i < 10; i++) {
+      expected.set(i % 4, i % 5, "v" + i);
+      journaled.set(i % 4, i % 5, "v" + i);
+    } // for
+    expected.insertRow(2);
+    journaled.insertRow(2);
+    expected.insertCol(0, new String[] {"a", "b", "c", "d", "e"});
+    journaled.insertCol(0, new String[] {"a", "b", "c", "d", "e"});
+    expected.fillRegion(0, 1, 2, 3, null);
+    journaled.fillRegion(0, 1, 2, 3, null);
+    journaled.get(0, 0);
+    assertEquals(expected, journaled, "Journaled matrix should behave like its base");
+    journaled.flush();
+
+    assertEquals(1, this.dir.toFile().list().length, "Older segments should be deleted");
+    JournaledMatrix<String> restored = JournaledMatrix.restore(this.dir, ValueCodec.strings(),
+        MatrixV0::new, 4);
+    assertEquals(expected, restored, "Restore should reproduce the matrix");
+    restored.deleteRow(0);
+    expected.deleteRow(0);
+    restored.close();
+    assertEquals(expected, JournaledMatrix.restore(this.dir, ValueCodec.strings(),
+        VersionedMatrix::new, 4), "Restore should continue the journal");
+    assertThrows(IOException.class, () -> JournaledMatrix.restore(this.dir,
+        ValueCodec.integers(), MatrixV0::new, 4), "Wrong codec");
+  } // stroudDavidTestRestore()
+
+  /**
+   * This test checks that a journal cut short restores every change
+   * written in full, that a snapshot cut short is skipped, and that a
+   * crash loses only the changes not yet committed.
+   *
+   * @throws Exception
+   *   If the journal cannot be written or read.
+   */
+  @Test
+  public void stroudDavidTestCrash() throws Exception {
+    JournaledMatrix<Integer> journaled = new JournaledMatrix<Integer>(
+        new MatrixV0<Integer>(3, 3, 0), 0, ValueCodec.integers(), this.dir, 100);
+    journaled.set(0, 0, 1);
+    journaled.set(1, 1, 2);
+    Matrix<Integer> beforeLast = journaled.clone();
+    journaled.set(2, 2, 300_000);
+    journaled.flush();
+
+    Path segment = JournaledMatrix.segmentPath(this.dir, journaled.number);
+    byte[] bytes = Files.readAllBytes(segment);
+    Files.write(segment, Arrays.copyOf(bytes, bytes.length - 1));
+    Files.write(JournaledMatrix.segmentPath(this.dir, journaled.number + 1),
+        Arrays.copyOf(bytes, 8));
+    assertEquals(beforeLast, JournaledMatrix.restore(this.dir, ValueCodec.integers(),
+        MatrixV0::new, 100), "The torn change and snapshot should be ignored");
+
+    Path grouped = this.dir.resolve("grouped");
+    JournaledMatrix<Integer> buffered = new JournaledMatrix<Integer>(
+        new MatrixV0<Integer>(3, 3, 0), 0, ValueCodec.integers(), grouped, 100, 3);
+    buffered.set(0, 0, 1);
+    buffered.set(1, 1, 2);
+    buffered.set(2, 2, 3);
+    Matrix<Integer> committed = buffered.clone();
+    buffered.set(0, 2, 4);
+    buffered.set(2, 0, 5);
+    assertEquals(committed, JournaledMatrix.restore(grouped, ValueCodec.integers(),
+        MatrixV0::new, 100), "Only the committed group survives without a flush");
+
+    Path durable = this.dir.resolve("durable");
+    JournaledMatrix<Integer> unbuffered = new JournaledMatrix<Integer>(
+        new MatrixV0<Integer>(3, 3, 0), 0, ValueCodec.integers(), durable, 100);
+    unbuffered.set(1, 2, 6);
+    assertEquals(unbuffered.clone(), JournaledMatrix.restore(durable, ValueCodec.integers(),
+        MatrixV0::new, 100), "Each change is on disk by default");
+  } // stroudDavidTestCrash()
+
+  /**
+   * This test checks that a matrix whose journal is closed can be read
+   * but not changed, so that the journal still matches it.
+   *
+   * @throws Exception
+   *   If the journal cannot be written or read.
+   */
+  @Test
+  public void stroudDavidTestClosed() throws Exception {
+    JournaledMatrix<Integer> journaled = new JournaledMatrix<Integer>(
+        new MatrixV0<Integer>(3, 2, 0), 0, ValueCodec.integers(), this.dir, 100);
+    journaled.set(1, 2, 7);
+    journaled.close();
+    journaled.close();
+    assertEquals(7, journaled.get(1, 2), "Still readable");
+    assertThrows(IllegalStateException.class, () -> journaled.set(0, 0, 1), "set");
+    assertThrows(IllegalStateException.class, () -> journaled.insertRow(0), "insertRow");
+    assertThrows(IllegalStateException.class, () -> journaled.deleteCol(0), "deleteCol");
+    assertThrows(IllegalStateException.class, () -> journaled.fillRegion(0, 0, 1, 1, 2),
+        "fillRegion");
+    assertThrows(IllegalStateException.class, () -> journaled.snapshot(), "snapshot");
+    assertEquals(journaled, JournaledMatrix.restore(this.dir, ValueCodec.integers(),
+        MatrixV0::new, 100), "Journal should match the matrix");
+  } // stroudDavidTestClosed()
+} // class JournaledMatrixTests
@@ -0,0 +1,79 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Random;
+
+/**
+ * Random changes to matrices, shared by the tests that compare one
+ * implementation against another.
+ */
+final class MatrixChanges {
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Nobody makes these.
+   */
+  private MatrixChanges() {
+  } // MatrixChanges()
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Make a random change to a matrix.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param rand
+   *   The source of randomness.
+   *
+   * @throws Exception
+   *   If the change does not fit.
+   */
+  static void change(Matrix<Integer> matrix, Random rand) throws Exception {
+    int width = matrix.width();
+    int height = matrix.height();
+    switch (rand.nextInt(9)) {
+      case 0:
+        matrix.insertRow(rand.nextInt(height + 1));
+        break;
+      case 1:
+        matrix.insertCol(rand.nextInt(width + 1));
+        break;
+      case 2:
+        Integer[] row = new Integer[width];
+        row[0] = rand.nextInt();
+        matrix.insertRow(rand.nextInt(height + 1), row);
+        break;
+      case 3:
+        Integer[] col = new Integer[height];
+        col[height - 1] = rand.nextInt();
+        matrix.insertCol(rand.nextInt(width + 1), col);
+        break;
+      case 4:
+        if (height > 1) {
+          matrix.deleteRow(rand.nextInt(height));
+        } // if
+        break;
+      case 5:
+        if (width > 1) {
+          matrix.deleteCol(rand.nextInt(width));
+        } // if
+        break;
+      case 6:
+        int top = rand.nextInt(height);
+        int left = rand.nextInt(width);
+        matrix.fillRegion(top, left, top + rand.nextInt(height - top + 1),
+            left + rand.nextInt(width - left + 1), rand.nextInt(5));
+        break;
+      case 7:
+        matrix.fillLine(0, width - 1, 1, -1, height, -1, rand.nextInt(5));
+        break;
+      default:
+        matrix.set(rand.nextInt(height), rand.nextInt(width), rand.nextInt(5));
+        break;
+    } // switch
+  } // change(Matrix<Integer>, Random)
+} // class MatrixChanges
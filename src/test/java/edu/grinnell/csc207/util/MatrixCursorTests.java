@@ -0,0 +1,95 @@
+package edu.grinnell.csc207.util;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for matrix cursors.
+ */
+public class MatrixCursorTests {
+  /**
+   * This test checks that a cursor visits exactly the cells of its
+   * region, in order, for both kinds of cursor.
+   */
+  @Test
+  public void stroudDavidTestCursorVisitsRegion() {
+    List<Matrix<Integer>> matrices = List.of(new MatrixV0<Integer>(7, 5, 0),
+        new VersionedMatrix<Integer>(7, 5, 0));
+    for (Matrix<Integer> matrix : matrices) {
+      String name = matrix.getClass().getSimpleName();
+      MatrixCursor<Integer> all = matrix.cursor();
+      int count = 0;
+      while (all.next()) {
+        assertEquals(count / 7, all.row(), name + ": row of cell " + count);
+        assertEquals(count % 7, all.col(), name + ": column of cell " + count);
+        all.set(count++);
+      } // while
+      assertEquals(35, count, name + ": every cell should be visited");
+      assertFalse(all.next(), name + ": exhausted cursor should stay exhausted");
+
+      MatrixCursor<Integer> region = matrix.cursor(1, 2, 4, 5);
+      int sum = 0;
+      int cells = 0;
+      while (region.next()) {
+        sum += region.get();
+        region.set(-1);
+        cells++;
+      } // while
+      assertEquals(9, cells, name + ": a 3x3 region has 9 cells");
+      assertEquals(9 + 10 + 11 + 16 + 17 + 18 + 23 + 24 + 25, sum, name + ": region sum");
+      assertEquals(-1, matrix.get(3, 4), name + ": inside the region should change");
+      assertEquals(26, matrix.get(3, 5), name + ": outside the region should not");
+
+      region.moveTo(2, 4);
+      assertEquals(-1, region.get(), name + ": moveTo should position the cursor");
+      assertTrue(region.next(), name + ": next after moveTo");
+      assertEquals(3, region.row(), name + ": next should wrap to the next row");
+      assertEquals(2, region.col(), name + ": next should wrap to the start column");
+      assertThrows(IndexOutOfBoundsException.class, () -> region.moveTo(0, 2));
+
+      assertFalse(matrix.cursor(2, 3, 2, 6).next(), name + ": empty region");
+      assertFalse(matrix.cursor(0, 3, 5, 3).next(), name + ": zero-width region");
+      assertThrows(IndexOutOfBoundsException.class, () -> matrix.cursor(0, 0, 6, 1));
+      assertThrows(IndexOutOfBoundsException.class, () -> matrix.cursor(0, 4, 1, 3));
+    } // for
+  } // stroudDavidTestCursorVisitsRegion()
+
+  /**
+   * This test checks that neither kind of cursor touches the matrix
+   * before its first cell or after its last, even where those positions
+   * are real cells outside the region.
+   */
+  @Test
+  public void stroudDavidTestOffCellCursorFails() {
+    List<Matrix<String>> matrices = List.of(new MatrixV0<String>(4, 4, "x"),
+        new VersionedMatrix<String>(4, 4, "x"));
+    for (Matrix<String> matrix : matrices) {
+      String name = matrix.getClass().getSimpleName();
+      MatrixCursor<String> cursor = matrix.cursor(1, 1, 2, 3);
+      assertThrows(IllegalStateException.class, () -> cursor.get(), name + ": before next");
+      assertThrows(IllegalStateException.class, () -> cursor.set("y"),
+          name + ": set before next");
+      assertTrue(cursor.next(), name + ": first cell");
+      assertEquals("x", cursor.get(), name + ": value of the first cell");
+      assertTrue(cursor.next(), name + ": second cell");
+      cursor.set("z");
+      assertFalse(cursor.next(), name + ": only two cells");
+      assertThrows(IllegalStateException.class, () -> cursor.get(), name + ": after the end");
+      assertThrows(IllegalStateException.class, () -> cursor.set("y"),
+          name + ": set after the end");
+      cursor.moveTo(1, 1);
+      assertEquals("x", cursor.get(), name + ": moveTo puts it back on a cell");
+
+      MatrixCursor<String> empty = matrix.cursor(2, 0, 2, 4);
+      assertFalse(empty.next(), name + ": empty region");
+      assertThrows(IllegalStateException.class, () -> empty.get(), name + ": empty region");
+
+      MatrixV0<String> expected = new MatrixV0<String>(4, 4, "x");
+      expected.set(1, 2, "z");
+      assertEquals(expected, matrix, name + ": only the region's cell changed");
+    } // for
+  } // stroudDavidTestOffCellCursorFails()
+} // class MatrixCursorTests
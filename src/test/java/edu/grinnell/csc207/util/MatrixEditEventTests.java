@@ -0,0 +1,102 @@
+package edu.grinnell.csc207.util;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the MatrixEditEvent class.
+ */
+public class MatrixEditEventTests {
+  /**
+   * Record the edit events emitted while running some code.
+   *
+   * @param threshold
+   *   The threshold for the events.
+   * @param code
+   *   The code to run.
+   * @return the events.
+   * @throws Exception
+   *   If the recording fails.
+   */
+  static List<RecordedEvent> record(Duration threshold, Runnable code) throws Exception {
+    Path file = Files.createTempFile("matrix-edits", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(MatrixEditEvent.class).withThreshold(threshold).withStackTrace();
+      recording.start();
+      code.run();
+      recording.stop();
+      recording.dump(file);
+      List<RecordedEvent> result = new ArrayList<RecordedEvent>();
+      for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+        if (event.getEventType().getName().equals("edu.grinnell.csc207.MatrixEdit")) {
+          result.add(event);
+        } // if
+      } // for
+      return result;
+    } finally {
+      Files.deleteIfExists(file);
+    } // try/finally
+  } // record(Duration, Runnable)
+
+  /**
+   * This test checks that structural edits are recorded with their
+   * dimensions, and that small fills are not.
+   *
+   * @throws Exception
+   *   If the recording fails.
+   */
+  @Test
+  public void stroudDavidTestEditsAreRecorded() throws Exception {
+    List<RecordedEvent> events = record(Duration.ZERO, () -> {
+      Matrix<String> matrix = new MatrixV0<String>(100, 50, ".");
+      matrix.insertRow(10);
+      matrix.deleteCol(3);
+      matrix.fillRegion(0, 0, 2, 2, "x");
+      matrix.fillRegion(0, 0, 51, 99, "y");
+      matrix.clone();
+    });
+    List<String> operations = new ArrayList<String>();
+    for (RecordedEvent event : events) {
+      operations.add(event.getString("operation"));
+    } // for
+    assertEquals(List.of("insertRow", "deleteCol", "fillRegion", "clone"), operations,
+        "Every structural edit but the small fill should be recorded");
+
+    RecordedEvent insert = events.get(0);
+    assertEquals(10, insert.getInt("index"), "Index of inserted row");
+    assertEquals(100, insert.getInt("width"), "Width before the insert");
+    assertEquals(50, insert.getInt("height"), "Height before the insert");
+    assertEquals(5100, insert.getLong("cells"), "Cells in the new backing array");
+    assertTrue(insert.getLong("bytesCopied") >= 5100 * 4, "Bytes copied");
+    assertNotNull(insert.getStackTrace(), "Stack trace should be recorded");
+    assertEquals(51L * 99, events.get(2).getLong("cells"), "Cells filled");
+  } // stroudDavidTestEditsAreRecorded()
+
+  /**
+   * This test checks that the threshold drops fast edits.
+   *
+   * @throws Exception
+   *   If the recording fails.
+   */
+  @Test
+  public void stroudDavidTestThresholdDropsFastEdits() throws Exception {
+    List<RecordedEvent> events = record(Duration.ofSeconds(10), () -> {
+      Matrix<Integer> matrix = new MatrixV0<Integer>(10, 10, 0);
+      for (int i = 0; i < 100; i++) {
+        matrix.insertCol(5);
+        matrix.deleteCol(5);
+      } // for
+    });
+    assertTrue(events.isEmpty(), "Fast edits should not be recorded");
+  } // stroudDavidTestThresholdDropsFastEdits()
+} // class MatrixEditEventTests
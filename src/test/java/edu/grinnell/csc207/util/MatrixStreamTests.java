@@ -0,0 +1,112 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the stream and spliterator methods
+ * of Matrix.
+ */
+public class MatrixStreamTests {
+  /**
+   * Fill a matrix so that cell (row, col) holds row * width + col.
+   *
+   * @param matrix
+   *   The matrix to fill.
+   *
+   * @return the matrix.
+   */
+  static Matrix<Integer> numbered(Matrix<Integer> matrix) {
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        matrix.set(row, col, row * matrix.width() + col);
+      } // for col
+    } // for row
+    return matrix;
+  } // numbered(Matrix<Integer>)
+
+  /**
+   * This test checks that sequential and parallel streams visit every
+   * value once, in order, for several implementations.
+   */
+  @Test
+  public void stroudDavidTestStreams() {
+    List<Matrix<Integer>> matrices = List.of(
+        numbered(new MatrixV0<Integer>(123, 77, 0)),
+        numbered(new VersionedMatrix<Integer>(123, 77, 0)),
+        numbered(new InstrumentedMatrix<Integer>(new MatrixV0<Integer>(123, 77, 0),
+            new MatrixMetrics())));
+    long n = 123 * 77;
+    for (Matrix<Integer> matrix : matrices) {
+      String name = matrix.getClass().getSimpleName();
+      assertEquals(n * (n - 1) / 2, matrix.stream().mapToLong(Integer::longValue).sum(),
+          name + ": sequential sum");
+      assertEquals(n * (n - 1) / 2,
+          matrix.parallelStream().mapToLong(Integer::longValue).sum(),
+          name + ": parallel sum");
+      List<Integer> ordered = matrix.parallelStream().collect(Collectors.toList());
+      for (int i = 0; i < n; i++) {
+        assertEquals(i, ordered.get(i), name + ": parallel stream should keep order");
+      } // for
+      assertTrue(matrix.cells().parallel()
+          .allMatch((cell) -> cell.value() == cell.row() * 123 + cell.col()),
+          name + ": cells should report their positions");
+      List<List<Integer>> rows = matrix.rows().collect(Collectors.toList());
+      assertEquals(77, rows.size(), name + ": one list per row");
+      assertEquals(123 * 5 + 7, rows.get(5).get(7), name + ": row contents");
+    } // for
+  } // stroudDavidTestStreams()
+
+  /**
+   * This test checks that splitting covers every cell exactly once and
+   * prefers row boundaries.
+   */
+  @Test
+  public void stroudDavidTestSplitting() {
+    Matrix<Integer> matrix = numbered(new VersionedMatrix<Integer>(100, 50, 0));
+    List<Spliterator<Integer>> pieces = new ArrayList<Spliterator<Integer>>();
+    pieces.add(matrix.spliterator());
+    for (int round = 0; round < 3; round++) {
+      List<Spliterator<Integer>> next = new ArrayList<Spliterator<Integer>>();
+      for (Spliterator<Integer> piece : pieces) {
+        Spliterator<Integer> prefix = piece.trySplit();
+        if (prefix != null) {
+          assertEquals(0, prefix.estimateSize() % 100, "Splits should fall between rows");
+          next.add(prefix);
+        } // if
+        next.add(piece);
+      } // for
+      pieces = next;
+    } // for
+    assertEquals(8, pieces.size(), "5000 cells should split three times");
+    List<Integer> seen = new ArrayList<Integer>();
+    for (Spliterator<Integer> piece : pieces) {
+      assertTrue(piece.tryAdvance(seen::add), "Every piece should have a cell");
+      piece.forEachRemaining(seen::add);
+      assertFalse(piece.tryAdvance(seen::add), "Piece should be exhausted");
+    } // for
+    assertEquals(5000, seen.size(), "Every cell should be visited once");
+    for (int i = 0; i < seen.size(); i++) {
+      assertEquals(i, seen.get(i), "Pieces should be in order");
+    } // for
+  } // stroudDavidTestSplitting()
+
+  /**
+   * This test checks the unboxed stream of DoubleMatrix.
+   */
+  @Test
+  public void stroudDavidTestDoubles() {
+    DoubleMatrix matrix = new DoubleMatrix(300, 200, 0.5);
+    matrix.setDouble(3, 4, 10.5);
+    assertEquals(300 * 200 * 0.5 + 10, matrix.doubles().parallel().sum(), 1e-9,
+        "Sum of doubles");
+    assertEquals(10.5, matrix.stream().mapToDouble(Double::doubleValue).max().getAsDouble(),
+        "Boxed stream should agree");
+  } // stroudDavidTestDoubles()
+} // class MatrixStreamTests
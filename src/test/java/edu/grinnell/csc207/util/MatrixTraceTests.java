@@ -0,0 +1,144 @@
+package edu.grinnell.csc207.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the TracingMatrix and MatrixTrace
+ * classes.
+ */
+public class MatrixTraceTests {
+  /**
+   * This test checks that replaying a trace against another
+   * implementation produces the same matrix and counts every call.
+   *
+   * @throws Exception
+   *   If the trace cannot be written or read.
+   */
+  @Test
+  public void stroudDavidTestReplayReproducesMatrix() throws Exception {
+    MatrixV0<Integer> original = new MatrixV0<Integer>(4, 3, 0);
+    original.set(0, 0, 7);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    TracingMatrix<Integer> traced = new TracingMatrix<Integer>(original, 0,
+        ValueCodec.integers(), bytes);
+    traced.set(1, 2, 300_000);
+    traced.set(2, 1, null);
+    traced.insertRow(1);
+    traced.insertCol(4, new Integer[] {1, 2, 3, 4});
+    traced.deleteRow(0);
+    traced.fillRegion(0, 1, 2, 3, -5);
+    traced.fillLine(2, 4, -1, -1, -1, -1, 9);
+    traced.get(1, 1);
+    Matrix<Integer> copy = traced.clone();
+    assertTrue(traced.equals(copy), "Clone should be equal");
+    traced.deleteCol(0);
+    traced.hashCode();
+    assertThrows(IndexOutOfBoundsException.class, () -> traced.deleteRow(10));
+    traced.close();
+
+    MatrixTrace trace = new MatrixTrace(new ByteArrayInputStream(bytes.toByteArray()));
+    assertEquals(4, trace.width(), "Initial width");
+    assertEquals(3, trace.height(), "Initial height");
+    assertEquals(0, trace.defaultValue(), "Default value");
+    assertEquals("integer", trace.codecName(), "Codec name");
+
+    Matrix<Integer> replayed = new VersionedMatrix<Integer>(4, 3, 0);
+    MatrixTrace.Report report = trace.replay(replayed);
+    assertEquals(original, replayed, "Replay should reproduce the matrix");
+    assertEquals(2, report.count("set"), "Two sets");
+    assertEquals(1, report.count("insertCol(vals)"), "One insert with values");
+    assertEquals(1, report.count("deleteRow"), "Failed calls are not traced");
+    assertEquals(1, report.count("hashCode"), "One hash");
+    assertTrue(report.totalNanos() > 0, "Replay should take time");
+  } // stroudDavidTestReplayReproducesMatrix()
+
+  /**
+   * This test checks that repeated values are written only once, and
+   * that malformed traces are rejected.
+   *
+   * @throws Exception
+   *   If the trace cannot be written.
+   */
+  @Test
+  public void stroudDavidTestTraceIsCompact() throws Exception {
+    String value = "a fairly long value that would be expensive to repeat";
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (TracingMatrix<String> traced = new TracingMatrix<String>(
+        new MatrixV0<String>(100, 100, value), value, ValueCodec.strings(), bytes)) {
+      for (int i = 0; i < 1000; i++) {
+        traced.set(i % 100, i / 10, value);
+      } // for
+    } // try
+    assertTrue(bytes.size() < 10_000 + 1000 * 5 + 200,
+        "Each cell and call should take a few bytes, not a copy of the value");
+
+    byte[] truncated = java.util.Arrays.copyOf(bytes.toByteArray(), bytes.size() - 3);
+    assertThrows(IOException.class,
+        () -> new MatrixTrace(new ByteArrayInputStream(truncated)));
+    assertThrows(IOException.class,
+        () -> new MatrixTrace(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5})));
+  } // stroudDavidTestTraceIsCompact()
+
+  /**
+   * This test checks that a closed trace stops recording, and that
+   * closing it twice writes nothing more.
+   *
+   * @throws Exception
+   *   If the trace cannot be written or read.
+   */
+  @Test
+  public void stroudDavidTestUseAfterClose() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    TracingMatrix<Integer> traced = new TracingMatrix<Integer>(
+        new MatrixV0<Integer>(3, 3, 0), 0, ValueCodec.integers(), bytes);
+    traced.set(0, 0, 1);
+    traced.close();
+    int size = bytes.size();
+    for (int i = 0; i < 10_000; i++) {
+      traced.get(1, 1);
+    } // for
+    traced.set(2, 2, 5);
+    traced.insertRow(0, new Integer[] {1, 2, 3});
+    traced.flush();
+    traced.close();
+    assertEquals(size, bytes.size(), "Nothing written after close");
+    assertEquals(5, traced.get(3, 2), "Matrix still usable after close");
+
+    MatrixTrace trace = new MatrixTrace(new ByteArrayInputStream(bytes.toByteArray()));
+    MatrixTrace.Report report = trace.replay(new MatrixV0<Integer>(3, 3, 0));
+    assertEquals(1, report.count("set"), "Only the call before close");
+    assertEquals(0, report.count("get"), "No calls after close");
+  } // stroudDavidTestUseAfterClose()
+
+  /**
+   * This test checks that the numbers kept for values stay bounded, and
+   * that values written again after they are forgotten still replay.
+   *
+   * @throws Exception
+   *   If the trace cannot be written or read.
+   */
+  @Test
+  public void stroudDavidTestForgetValues() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    TracingMatrix<Integer> traced = new TracingMatrix<Integer>(
+        new MatrixV0<Integer>(4, 4, 0), 0, ValueCodec.integers(), bytes);
+    for (int i = 1; i <= TracingMatrix.MAX_IDS + 100; i++) {
+      traced.set(i % 4, (i / 4) % 4, i);
+      assertTrue(traced.ids.size() <= TracingMatrix.MAX_IDS, "Numbers kept bounded");
+    } // for
+    traced.set(0, 0, 1);
+    traced.set(1, 1, TracingMatrix.MAX_IDS + 100);
+    traced.close();
+
+    MatrixTrace trace = new MatrixTrace(new ByteArrayInputStream(bytes.toByteArray()));
+    MatrixV0<Integer> replayed = new MatrixV0<Integer>(4, 4, 0);
+    trace.replay(replayed);
+    assertEquals(traced, replayed, "Replay should match after forgetting");
+  } // stroudDavidTestForgetValues()
+} // class MatrixTraceTests
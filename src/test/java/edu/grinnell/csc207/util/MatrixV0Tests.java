@@ -902,4 +902,72 @@ public class MatrixV0Tests {
     stroudDavidBoundsConstructor(MatrixV0::new);
     stroudDavidBoundsConstructor((i, j) -> new MatrixV0<String>(i, j, "Hello!"));
   } // stroudDavidTestBoundsConstructor()
+
+  /**
+   * Fill a matrix with distinct values.
+   *
+   * @param width The width of the matrix.
+   * @param height The height of the matrix.
+   * @return a matrix whose cell (row, col) holds row * width + col.
+   */
+  private MatrixV0<Integer> stroudDavidNumbered(int width, int height) {
+    MatrixV0<Integer> result = new MatrixV0<>(width, height, -1);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        result.set(row, col, row * width + col);
+      } // for col
+    } // for row
+    return result;
+  } // stroudDavidNumbered(int, int)
+
+  /**
+   * Check that one matrix is the transpose of another.
+   *
+   * @param original The original matrix.
+   * @param transposed The matrix that should be its transpose.
+   */
+  private void stroudDavidAssertTransposed(Matrix<Integer> original,
+      Matrix<Integer> transposed) {
+    assertEquals(original.width(), transposed.height(), "Transposed height should be width");
+    assertEquals(original.height(), transposed.width(), "Transposed width should be height");
+    for (int row = 0; row < original.height(); row++) {
+      for (int col = 0; col < original.width(); col++) {
+        assertEquals(original.get(row, col), transposed.get(col, row),
+            "Cell (" + row + ", " + col + ") should move to (" + col + ", " + row + ")");
+      } // for col
+    } // for row
+  } // stroudDavidAssertTransposed(Matrix<Integer>, Matrix<Integer>)
+
+  /**
+   * This test checks MatrixV0.transpose(), MatrixV0.transposeInPlace(),
+   * and the default Matrix.transpose() on square and non-square shapes,
+   * including ones larger than the recursion leaves.
+   */
+  @Test
+  public void stroudDavidTestTranspose() {
+    int[][] shapes = {{0, 0}, {1, 1}, {1, 7}, {7, 1}, {5, 3}, {16, 16}, {33, 33},
+        {100, 37}, {37, 100}, {64, 200}};
+    for (int[] shape : shapes) {
+      MatrixV0<Integer> original = stroudDavidNumbered(shape[0], shape[1]);
+      MatrixV0<Integer> transposed = original.transpose();
+      stroudDavidAssertTransposed(original, transposed);
+      assertEquals(original, transposed.transpose(), "Transposing twice should be the identity");
+      transposed.insertRow(0);
+      if (transposed.width() > 0) {
+        assertEquals(-1, transposed.get(0, 0), "Transposed copy should keep the default");
+      } // if
+
+      MatrixV0<Integer> inPlace = original.transpose().transpose();
+      inPlace.transposeInPlace();
+      stroudDavidAssertTransposed(original, inPlace);
+
+      VersionedMatrix<Integer> versioned = new VersionedMatrix<>(shape[0], shape[1], 0);
+      for (int row = 0; row < shape[1]; row++) {
+        for (int col = 0; col < shape[0]; col++) {
+          versioned.set(row, col, original.get(row, col));
+        } // for col
+      } // for row
+      stroudDavidAssertTransposed(original, versioned.transpose());
+    } // for
+  } // stroudDavidTestTranspose()
 } // class MatrixV0Tests
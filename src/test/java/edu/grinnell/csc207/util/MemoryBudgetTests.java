@@ -0,0 +1,138 @@
+package edu.grinnell.csc207.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the MemoryBudget and SpillableMatrix
+ * classes.
+ */
+public class MemoryBudgetTests {
+  /**
+   * A directory for spilled cells.
+   */
+  @TempDir
+  Path dir;
+
+  /**
+   * This test checks that estimates grow with the matrix and that
+   * impossible matrices are rejected when they are made.
+   */
+  @Test
+  public void stroudDavidTestEstimates() {
+    MatrixV0<Integer> small = new MatrixV0<Integer>(10, 10, 0);
+    MatrixV0<Integer> large = new MatrixV0<Integer>(100, 100, 0);
+    assertTrue(small.estimatedBytes() >= 100 * MemoryBudget.REFERENCE, "Small estimate");
+    assertTrue(large.estimatedBytes() > 50 * small.estimatedBytes(), "Large estimate");
+    assertTrue(new DoubleMatrix(100, 100).estimatedBytes() >= 100 * 100 * Double.BYTES,
+        "Doubles take eight bytes");
+    assertTrue(new VersionedMatrix<Integer>(100, 100, 0).estimatedBytes()
+        >= large.estimatedBytes(), "Rows cost at least as much as one array");
+    assertThrows(IllegalArgumentException.class, () -> new MatrixV0<Integer>(100000, 100000),
+        "Too many cells for an array");
+  } // stroudDavidTestEstimates()
+
+  /**
+   * This test checks that a reservation first forgets history, then
+   * spills to disk, and finally gives up.
+   *
+   * @throws Exception
+   *   If the cells cannot be spilled.
+   */
+  @Test
+  public void stroudDavidTestReserve() throws Exception {
+    UndoableMatrix<Integer> undoable = new UndoableMatrix<Integer>(
+        new MatrixV0<Integer>(50, 50, 0), 1000);
+    for (int i = 0; i < 500; i++) {
+      undoable.deleteRow(0);
+      undoable.insertRow(49);
+    } // for
+    SpillableMatrix<Integer> spillable = new SpillableMatrix<Integer>(
+        new MatrixV0<Integer>(50, 50, 0), 0, ValueCodec.integers(), MatrixV0::new,
+        this.dir.resolve("cells"));
+    spillable.set(3, 4, 5);
+    Matrix<Integer> expected = spillable.clone();
+
+    MemoryBudget budget = new MemoryBudget(0);
+    budget.track(undoable, (m, needed) -> {
+      long before = m.estimatedBytes();
+      m.clearHistory();
+      return before - m.estimatedBytes();
+    });
+    budget.track(spillable, (m, needed) -> m.spill());
+    long history = undoable.estimatedBytes();
+    budget.setLimit(budget.used() + 100);
+
+    budget.reserve(1000);
+    assertFalse(undoable.canUndo(), "History should be forgotten first");
+    assertTrue(undoable.estimatedBytes() < history, "Forgetting history frees memory");
+    assertFalse(spillable.isSpilled(), "Forgetting history was enough");
+    assertEquals(1000, budget.reserved(), "Reservation recorded");
+
+    budget.reserve(budget.limit() - budget.used() + 100);
+    assertTrue(spillable.isSpilled(), "Spilling should come next");
+    assertEquals(50, spillable.width(), "Width without reading back");
+    assertEquals(expected, spillable, "Cells read back from disk");
+    assertFalse(spillable.isSpilled(), "Reading brings the cells back");
+
+    assertThrows(IllegalStateException.class, () -> budget.reserve(budget.limit() * 10),
+        "Cannot reclaim that much");
+  } // stroudDavidTestReserve()
+
+  /**
+   * This test checks that reservations count against the budget until
+   * they are released.
+   */
+  @Test
+  public void stroudDavidTestReservationsAddUp() {
+    MemoryBudget budget = new MemoryBudget(1000);
+    budget.reserve(600);
+    assertThrows(IllegalStateException.class, () -> budget.reserve(600),
+        "Both reservations cannot fit");
+    budget.release(600);
+    budget.reserve(600);
+    assertEquals(600, budget.reserved(), "Released bytes can be reserved again");
+    assertThrows(IllegalArgumentException.class, () -> budget.release(601),
+        "Cannot release more than is reserved");
+  } // stroudDavidTestReservationsAddUp()
+
+  /**
+   * This test checks that a spill that fails keeps the cells in memory
+   * and leaves no file behind.
+   */
+  @Test
+  public void stroudDavidTestFailedSpill() {
+    ValueCodec<String> picky = new ValueCodec<String>() {
+      public String name() {
+        return "picky";
+      } // name()
+
+      public void write(DataOutput out, String val) throws IOException {
+        if ("bad".equals(val)) {
+          throw new IOException("Cannot write " + val);
+        } // if
+        out.writeUTF(val);
+      } // write(DataOutput, String)
+
+      public String read(DataInput in) throws IOException {
+        return in.readUTF();
+      } // read(DataInput)
+    }; // new ValueCodec<String>
+    Path file = this.dir.resolve("failed.trace");
+    SpillableMatrix<String> spillable = new SpillableMatrix<String>(
+        new MatrixV0<String>(3, 2, "ok"), "ok", picky, MatrixV0::new, file);
+    spillable.set(1, 2, "bad");
+    assertThrows(IOException.class, () -> spillable.spill(), "Value cannot be written");
+    assertFalse(spillable.isSpilled(), "Cells stay in memory");
+    assertFalse(Files.exists(file), "Partial file deleted");
+    assertEquals("bad", spillable.get(1, 2), "Cells unchanged");
+  } // stroudDavidTestFailedSpill()
+} // class MemoryBudgetTests
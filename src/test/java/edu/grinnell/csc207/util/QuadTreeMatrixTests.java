@@ -0,0 +1,74 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the QuadTreeMatrix class.
+ */
+public class QuadTreeMatrixTests {
+  /**
+   * This test checks that random changes have the same effect as on
+   * MatrixV0.
+   *
+   * @throws Exception
+   *   If a change does not fit.
+   */
+  @Test
+  public void stroudDavidTestSameAsMatrixV0() throws Exception {
+    Random rand = new Random(50);
+    MatrixV0<Integer> expected = new MatrixV0<Integer>(5, 3, 1);
+    QuadTreeMatrix<Integer> tree = new QuadTreeMatrix<Integer>(5, 3, 1);
+    for (int i = 0; i < 400; i++) {
+      long seed = rand.nextLong();
+      MatrixChanges.change(expected, new Random(seed));
+      MatrixChanges.change(tree, new Random(seed));
+      assertEquals(expected, tree, "Same contents after change " + i);
+      assertEquals(expected.hashCode(), tree.hashCode(), "Same hash after change " + i);
+    } // for
+    Matrix<Integer> copy = tree.clone();
+    assertEquals(tree, copy, "Clone should be equal");
+    copy.set(0, 0, 1234);
+    assertNotEquals(tree, copy, "Clone is independent");
+    assertNotEquals(1234, tree.get(0, 0), "Original unchanged");
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.get(0, tree.width()),
+        "Column past the edge");
+  } // stroudDavidTestSameAsMatrixV0()
+
+  /**
+   * This test checks that uniform regions stay compact, and that large
+   * uniform matrices hash and compare like MatrixV0.
+   */
+  @Test
+  public void stroudDavidTestUniformRegions() {
+    QuadTreeMatrix<String> tree = new QuadTreeMatrix<String>(1000, 1000, ".");
+    long empty = tree.estimatedBytes();
+    tree.fillRegion(100, 200, 900, 700, "x");
+    tree.fillRegion(0, 0, 1000, 1000, "y");
+    assertEquals(empty, tree.estimatedBytes(), "Filling everything collapses the tree");
+
+    tree.fillRegion(100, 200, 900, 700, "x");
+    assertTrue(tree.estimatedBytes() < 100 * 1000, "Memory follows the boundary");
+    assertEquals("x", tree.get(899, 699), "Inside the region");
+    assertEquals("y", tree.get(900, 699), "Below the region");
+
+    MatrixV0<String> expected = new MatrixV0<String>(1000, 1000, ".");
+    expected.fillRegion(0, 0, 1000, 1000, "y");
+    expected.fillRegion(100, 200, 900, 700, "x");
+    assertEquals(expected.hashCode(), tree.hashCode(), "Same hash as MatrixV0");
+    assertEquals(expected, tree, "Same contents as MatrixV0");
+
+    QuadTreeMatrix<String> other = new QuadTreeMatrix<String>(1000, 1000, "y");
+    other.fillRegion(100, 200, 900, 700, "x");
+    assertEquals(tree, other, "Separately built trees are equal");
+    tree.insertRow(500);
+    tree.deleteCol(0);
+    expected.insertRow(500);
+    expected.deleteCol(0);
+    assertEquals(expected, tree, "Shifting keeps the regions");
+    assertEquals(expected.hashCode(), tree.hashCode(), "Same hash after shifting");
+  } // stroudDavidTestUniformRegions()
+} // class QuadTreeMatrixTests
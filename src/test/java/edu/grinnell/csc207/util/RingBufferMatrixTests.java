@@ -0,0 +1,75 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the RingBufferMatrix class.
+ */
+public class RingBufferMatrixTests {
+  /**
+   * This test checks that random changes, and a window sliding around
+   * the buffer, have the same effect as on MatrixV0.
+   *
+   * @throws Exception
+   *   If a change does not fit.
+   */
+  @Test
+  public void stroudDavidTestSameAsMatrixV0() throws Exception {
+    Random rand = new Random(48);
+    MatrixV0<Integer> expected = new MatrixV0<Integer>(4, 3, 1);
+    RingBufferMatrix<Integer> ring = new RingBufferMatrix<Integer>(4, 3, 1);
+    for (int i = 0; i < 300; i++) {
+      if (i % 3 == 0) {
+        expected.deleteRow(0);
+        ring.deleteRow(0);
+        Integer[] row = new Integer[expected.width()];
+        row[0] = i;
+        expected.insertRow(expected.height(), row.clone());
+        ring.insertRow(ring.height(), row);
+      } else {
+        long seed = rand.nextLong();
+        MatrixChanges.change(expected, new Random(seed));
+        MatrixChanges.change(ring, new Random(seed));
+      } // if/else
+      assertEquals(expected, ring, "Same contents after change " + i);
+      assertEquals(expected.hashCode(), ring.hashCode(), "Same hash after change " + i);
+    } // for
+    Integer[] row = new Integer[expected.width()];
+    assertArrayEquals(expected.getRow(1, row.clone()), ring.getRow(1, row), "Same row");
+    assertEquals(ring, ring.clone(), "Clone should be equal");
+    assertThrows(IndexOutOfBoundsException.class, () -> ring.get(ring.height(), 0),
+        "Row past the bottom");
+  } // stroudDavidTestSameAsMatrixV0()
+
+  /**
+   * This test checks that a full window evicts its top row.
+   *
+   * @throws Exception
+   *   If a row does not fit.
+   */
+  @Test
+  public void stroudDavidTestEviction() throws Exception {
+    RingBufferMatrix<String> window = new RingBufferMatrix<String>(2, 0, ".", 3);
+    for (int i = 0; i < 10; i++) {
+      window.insertRow(window.height(), new String[] {"r" + i, "s" + i});
+    } // for
+    assertEquals(3, window.height(), "Height stays at the maximum");
+    assertEquals("r7", window.get(0, 0), "Oldest rows evicted");
+    assertEquals("s9", window.get(2, 1), "Newest row at the bottom");
+
+    window.insertRow(2);
+    assertEquals("r8", window.get(0, 0), "Evicted before inserting");
+    assertEquals(".", window.get(1, 0), "Inserted among the rows that remain");
+    assertEquals("r9", window.get(2, 0), "Bottom row kept");
+
+    Matrix<String> copy = window.clone();
+    copy.insertRow(3);
+    assertEquals(3, copy.height(), "Clone keeps the maximum height");
+    assertThrows(IllegalArgumentException.class,
+        () -> new RingBufferMatrix<String>(2, 4, ".", 3), "Too many rows");
+  } // stroudDavidTestEviction()
+} // class RingBufferMatrixTests
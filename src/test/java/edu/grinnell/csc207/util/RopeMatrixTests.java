@@ -0,0 +1,82 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the RopeMatrix class.
+ */
+public class RopeMatrixTests {
+  /**
+   * This test checks that random changes have the same effect as on
+   * MatrixV0.
+   *
+   * @throws Exception
+   *   If a change does not fit.
+   */
+  @Test
+  public void stroudDavidTestSameAsMatrixV0() throws Exception {
+    Random rand = new Random(49);
+    MatrixV0<Integer> expected = new MatrixV0<Integer>(4, 3, 1);
+    RopeMatrix<Integer> rope = new RopeMatrix<Integer>(4, 3, 1);
+    for (int i = 0; i < 300; i++) {
+      long seed = rand.nextLong();
+      MatrixChanges.change(expected, new Random(seed));
+      MatrixChanges.change(rope, new Random(seed));
+      assertEquals(expected, rope, "Same contents after change " + i);
+    } // for
+    assertEquals(expected.hashCode(), rope.hashCode(), "Same hash");
+    assertEquals(rope, rope.clone(), "Clone should be equal");
+    assertThrows(IndexOutOfBoundsException.class, () -> rope.get(rope.height(), 0),
+        "Row past the bottom");
+  } // stroudDavidTestSameAsMatrixV0()
+
+  /**
+   * This test checks that a tall matrix keeps its rows in order while
+   * rows are inserted and deleted in the middle, through several
+   * levels of splits and merges.
+   *
+   * @throws Exception
+   *   If a row does not fit.
+   */
+  @Test
+  public void stroudDavidTestTallEdits() throws Exception {
+    Random rand = new Random(4949);
+    MatrixV0<Integer> expected = new MatrixV0<Integer>(2, 0);
+    for (int i = 0; i < 3000; i++) {
+      expected.insertRow(i, new Integer[] {i, -i});
+    } // for
+    RopeMatrix<Integer> rope = RopeMatrix.copyOf(expected, null);
+    assertEquals(expected, rope, "Bulk load");
+
+    for (int i = 0; i < 20000; i++) {
+      int height = expected.height();
+      if (rand.nextInt(5) < 2 || height == 0) {
+        int row = rand.nextInt(height + 1);
+        expected.insertRow(row, new Integer[] {i, i});
+        rope.insertRow(row, new Integer[] {i, i});
+      } else {
+        int row = rand.nextInt(height);
+        expected.deleteRow(row);
+        rope.deleteRow(row);
+      } // if/else
+      if (i % 1000 == 0) {
+        assertEquals(expected, rope, "Same contents after edit " + i);
+      } // if
+    } // for
+    assertEquals(expected, rope, "Same contents after every edit");
+    for (int row = 0; row < expected.height(); row += 97) {
+      assertEquals(expected.get(row, 1), rope.get(row, 1), "Same row " + row);
+    } // for
+
+    for (int i = expected.height() - 1; i >= 0; i--) {
+      rope.deleteRow(i / 2);
+    } // for
+    assertEquals(0, rope.height(), "Every row deleted");
+    rope.insertRow(0);
+    assertNull(rope.get(0, 0), "Usable after emptying");
+  } // stroudDavidTestTallEdits()
+} // class RopeMatrixTests
@@ -0,0 +1,145 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the SemiringMatrices class.
+ */
+public class SemiringMatricesTests {
+  /**
+   * Make a random weighted graph with about one edge in eight.
+   *
+   * @param random
+   *   The source of the edges.
+   * @param n
+   *   The number of vertices.
+   *
+   * @return the weights, with POSITIVE_INFINITY for missing edges.
+   */
+  static DoubleMatrix randomGraph(Random random, int n) {
+    DoubleMatrix result = new DoubleMatrix(n, n, Double.POSITIVE_INFINITY);
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        if (random.nextInt(8) == 0) {
+          result.setDouble(i, j, 1 + random.nextInt(20));
+        } // if
+      } // for
+    } // for
+    return result;
+  } // randomGraph(Random, int)
+
+  /**
+   * Find all-pairs shortest paths with Floyd-Warshall.
+   *
+   * @param graph
+   *   The weights.
+   *
+   * @return the distances.
+   */
+  static DoubleMatrix floydWarshall(DoubleMatrix graph) {
+    int n = graph.width();
+    DoubleMatrix dist = graph.clone();
+    for (int i = 0; i < n; i++) {
+      dist.setDouble(i, i, Math.min(0, dist.getDouble(i, i)));
+    } // for
+    for (int k = 0; k < n; k++) {
+      for (int i = 0; i < n; i++) {
+        for (int j = 0; j < n; j++) {
+          double via = dist.getDouble(i, k) + dist.getDouble(k, j);
+          if (via < dist.getDouble(i, j)) {
+            dist.setDouble(i, j, via);
+          } // if
+        } // for j
+      } // for i
+    } // for k
+    return dist;
+  } // floydWarshall(DoubleMatrix)
+
+  /**
+   * This test checks that the min-plus closure is all-pairs shortest
+   * paths, both boxed and unboxed.
+   *
+   * @throws Exception
+   *   If the matrix is not square.
+   */
+  @Test
+  public void stroudDavidTestShortestPaths() throws Exception {
+    Random random = new Random(36);
+    for (int n : new int[] {1, 2, 7, 40, 150}) {
+      DoubleMatrix graph = randomGraph(random, n);
+      DoubleMatrix expected = floydWarshall(graph);
+      assertEquals(expected, SemiringMatrices.closure(graph, DoubleSemiring.MIN_PLUS),
+          "Unboxed shortest paths on " + n + " vertices");
+      assertEquals(expected, SemiringMatrices.closure(graph, Semiring.minPlus()),
+          "Boxed shortest paths on " + n + " vertices");
+    } // for
+    assertThrows(ArraySizeException.class,
+        () -> SemiringMatrices.closure(new DoubleMatrix(2, 3), DoubleSemiring.MIN_PLUS));
+  } // stroudDavidTestShortestPaths()
+
+  /**
+   * This test checks that every kind of product agrees with the
+   * generic one.
+   *
+   * @throws Exception
+   *   If the matrices cannot be multiplied.
+   */
+  @Test
+  public void stroudDavidTestProductsAgree() throws Exception {
+    Random random = new Random(207);
+    DoubleMatrix left = randomGraph(random, 70).transpose();
+    left.deleteRow(3);
+    DoubleMatrix right = randomGraph(random, 70);
+    right.deleteCol(5);
+    for (DoubleSemiring semiring : DoubleSemiring.values()) {
+      assertEquals(SemiringMatrices.multiply(left, right, semiring.boxed()),
+          SemiringMatrices.multiply(left, right, semiring),
+          "Products over " + semiring);
+    } // for
+
+    MatrixV0<Boolean> a = new MatrixV0<Boolean>(130, 70, false);
+    MatrixV0<Boolean> b = new MatrixV0<Boolean>(65, 130);
+    for (int i = 0; i < 300; i++) {
+      a.set(random.nextInt(70), random.nextInt(130), true);
+      b.set(random.nextInt(130), random.nextInt(65), random.nextBoolean());
+    } // for
+    MatrixV0<Boolean> noNulls = new MatrixV0<Boolean>(65, 130, false);
+    for (int row = 0; row < 130; row++) {
+      for (int col = 0; col < 65; col++) {
+        noNulls.set(row, col, Boolean.TRUE.equals(b.get(row, col)));
+      } // for
+    } // for
+    assertEquals(SemiringMatrices.multiply(a, noNulls, Semiring.orAnd()),
+        SemiringMatrices.multiply(a, b), "Bitset product should match or-and");
+    assertThrows(ArraySizeException.class, () -> SemiringMatrices.multiply(b, b));
+  } // stroudDavidTestProductsAgree()
+
+  /**
+   * This test checks reachability against the shortest paths.
+   *
+   * @throws Exception
+   *   If the matrix is not square.
+   */
+  @Test
+  public void stroudDavidTestReachability() throws Exception {
+    DoubleMatrix graph = randomGraph(new Random(5), 100);
+    MatrixV0<Boolean> edges = new MatrixV0<Boolean>(100, 100, false);
+    for (int i = 0; i < 100; i++) {
+      for (int j = 0; j < 100; j++) {
+        edges.set(i, j, graph.getDouble(i, j) < Double.POSITIVE_INFINITY);
+      } // for
+    } // for
+    DoubleMatrix dist = floydWarshall(graph);
+    Matrix<Boolean> reach = SemiringMatrices.reachability(edges);
+    for (int i = 0; i < 100; i++) {
+      for (int j = 0; j < 100; j++) {
+        assertEquals(dist.getDouble(i, j) < Double.POSITIVE_INFINITY, reach.get(i, j),
+            "Reachability from " + i + " to " + j);
+      } // for
+    } // for
+  } // stroudDavidTestReachability()
+} // class SemiringMatricesTests
@@ -0,0 +1,91 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the UndoableMatrix class.
+ */
+public class UndoableMatrixTests {
+  /**
+   * This test checks that undoing and redoing random changes steps
+   * through the same matrices as cloning before each change.
+   *
+   * @throws Exception
+   *   If a change does not fit.
+   */
+  @Test
+  public void stroudDavidTestUndoRedo() throws Exception {
+    Random rand = new Random(207);
+    UndoableMatrix<Integer> matrix = new UndoableMatrix<Integer>(
+        new MatrixV0<Integer>(4, 3, 0), 1000);
+    List<Matrix<Integer>> clones = new ArrayList<Matrix<Integer>>();
+    for (int i = 0; i < 300; i++) {
+      clones.add(matrix.clone());
+      MatrixChanges.change(matrix, rand);
+    } // for
+    Matrix<Integer> last = matrix.clone();
+    for (int i = clones.size() - 1; i >= 0; i--) {
+      matrix.undo();
+      assertEquals(clones.get(i), matrix, "Undo to step " + i);
+    } // for
+    assertFalse(matrix.canUndo(), "Everything undone");
+    for (int i = 1; i < clones.size(); i++) {
+      matrix.redo();
+      assertEquals(clones.get(i), matrix, "Redo to step " + i);
+    } // for
+    matrix.redo();
+    assertEquals(last, matrix, "Everything redone");
+    assertThrows(IllegalStateException.class, () -> matrix.redo(), "Nothing to redo");
+
+    matrix.undo();
+    matrix.set(0, 0, 99);
+    assertFalse(matrix.canRedo(), "A change forgets undone changes");
+    matrix.clearHistory();
+    assertFalse(matrix.canUndo(), "History cleared");
+  } // stroudDavidTestUndoRedo()
+
+  /**
+   * This test checks that a full history forgets its oldest changes.
+   */
+  @Test
+  public void stroudDavidTestLimit() {
+    UndoableMatrix<Integer> matrix = new UndoableMatrix<Integer>(
+        new MatrixV0<Integer>(2, 2, 0), 5);
+    for (int i = 1; i <= 40; i++) {
+      matrix.set(0, 0, i);
+    } // for
+    int undone = 0;
+    while (matrix.canUndo()) {
+      matrix.undo();
+      undone++;
+    } // while
+    assertEquals(5, undone, "Only the last five changes are kept");
+    assertEquals(35, matrix.get(0, 0), "Back to the oldest change kept");
+    assertThrows(IllegalArgumentException.class,
+        () -> new UndoableMatrix<Integer>(new MatrixV0<Integer>(1, 1), 0), "Empty history");
+  } // stroudDavidTestLimit()
+
+  /**
+   * This test checks that empty and reversed regions are filled as
+   * MatrixV0 fills them: as no-ops, with the same bounds checks, that
+   * can still be undone.
+   */
+  @Test
+  public void stroudDavidTestEmptyRegion() {
+    UndoableMatrix<Integer> matrix = new UndoableMatrix<Integer>(
+        new MatrixV0<Integer>(3, 3, 0), 10);
+    matrix.fillRegion(2, 2, 1, 1, 5);
+    matrix.fillRegion(1, 0, 1, 3, 5);
+    assertEquals(new MatrixV0<Integer>(3, 3, 0), matrix, "Nothing filled");
+    matrix.undo();
+    assertEquals(new MatrixV0<Integer>(3, 3, 0), matrix, "Undoing changes nothing");
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.fillRegion(3, 0, 2, 1, 5),
+        "Start row still checked");
+  } // stroudDavidTestEmptyRegion()
+} // class UndoableMatrixTests
@@ -0,0 +1,109 @@
+package edu.grinnell.csc207.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class implements tests for the VersionedMatrix and MatrixSnapshot classes.
+ */
+public class VersionedMatrixTests {
+  /**
+   * This test checks that a VersionedMatrix behaves like a MatrixV0
+   * under the same sequence of edits.
+   */
+  @Test
+  public void stroudDavidTestMatchesMatrixV0() throws ArraySizeException {
+    MatrixV0<String> expected = new MatrixV0<>(4, 3, "D");
+    VersionedMatrix<String> actual = new VersionedMatrix<>(4, 3, "D");
+
+    for (Matrix<String> m : java.util.List.<Matrix<String>>of(expected, actual)) {
+      m.set(1, 2, "A");
+      m.insertRow(1);
+      m.insertCol(0, new String[] {"P", "Q", "R", "S"});
+      m.fillRegion(0, 1, 2, 3, "F");
+      m.fillLine(0, 0, 1, 1, 4, 4, "L");
+      m.deleteCol(2);
+      m.insertRow(4, new String[] {"1", "2", "3", "4"});
+      m.deleteRow(0);
+    } // for
+
+    assertEquals(expected, actual, "VersionedMatrix should match MatrixV0");
+    assertEquals(actual, expected, "MatrixV0 should match VersionedMatrix");
+    assertEquals(
+            expected.hashCode(),
+            actual.hashCode(),
+            "Equal matrices should have equal hash codes"
+    );
+  } // stroudDavidTestMatchesMatrixV0()
+
+  /**
+   * This test checks that snapshots do not observe later edits.
+   */
+  @Test
+  public void stroudDavidTestSnapshotIsolation() {
+    VersionedMatrix<String> mstr = new VersionedMatrix<>(3, 3, "D");
+    mstr.set(1, 1, "MARKER");
+    Matrix<String> copy = new MatrixV0<>(3, 3, "D");
+    copy.set(1, 1, "MARKER");
+
+    MatrixSnapshot<String> snap = mstr.snapshot();
+    mstr.set(1, 1, "CHANGED");
+    mstr.fillRegion(0, 0, 3, 3, "FILLED");
+    mstr.insertRow(0);
+    mstr.deleteCol(2);
+
+    assertEquals(copy, snap, "Snapshot should not see later edits");
+    assertEquals("FILLED", mstr.get(2, 1), "Edits should be visible in the matrix");
+
+    MatrixSnapshot<String> later = mstr.snapshot();
+    assertTrue(later.version() > snap.version(), "Later snapshots should have later versions");
+    assertEquals(mstr, later, "A fresh snapshot should equal the matrix");
+    assertThrows(UnsupportedOperationException.class, () -> later.set(0, 0, "X"));
+  } // stroudDavidTestSnapshotIsolation()
+
+  /**
+   * This test checks that clones share nothing observable with the original.
+   */
+  @Test
+  public void stroudDavidTestCloneIsolation() {
+    VersionedMatrix<String> mstr = new VersionedMatrix<>(2, 2, "D");
+    Matrix<String> mclone = mstr.clone();
+    mstr.set(0, 0, "ORIGINAL");
+    mclone.set(1, 1, "CLONE");
+
+    assertEquals("D", mclone.get(0, 0), "Changing original should not affect clone");
+    assertEquals("D", mstr.get(1, 1), "Changing clone should not affect original");
+
+    Matrix<String> fromSnapshot = mstr.snapshot().clone();
+    fromSnapshot.set(0, 1, "SNAP");
+    assertEquals("D", mstr.get(0, 1), "Changing a snapshot's clone should not affect original");
+  } // stroudDavidTestCloneIsolation()
+
+  /**
+   * This test checks that a reader thread always sees consistent snapshots
+   * while the writer keeps filling the matrix.
+   */
+  @Test
+  public void stroudDavidTestConcurrentSnapshots() throws InterruptedException {
+    int size = 50;
+    VersionedMatrix<Integer> matrix = new VersionedMatrix<>(size, size, 0);
+    Thread writer = new Thread(() -> {
+      for (int i = 1; i <= 500; i++) {
+        matrix.fillRegion(0, 0, size, size, i);
+      } // for
+    });
+    writer.start();
+    while (writer.isAlive()) {
+      MatrixSnapshot<Integer> snap = matrix.snapshot();
+      Integer first = snap.get(0, 0);
+      for (int row = 0; row < size; row++) {
+        for (int col = 0; col < size; col++) {
+          // fillRegion is atomic with respect to snapshots.
+          assertEquals(first, snap.get(row, col), "Snapshot should be consistent");
+        } // for col
+      } // for row
+    } // while
+    writer.join();
+  } // stroudDavidTestConcurrentSnapshots()
+} // class VersionedMatrixTests
@@ -0,0 +1,104 @@
+package edu.grinnell.csc207.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * DoubleMatrix's inner loops written with the incubating Vector API,
+ * using the widest vectors the CPU supports. Only loaded by
+ * DoubleKernel.best() when the jdk.incubator.vector module is present.
+ *
+ * @author David William Stroud
+ */
+class VectorDoubleKernel implements DoubleKernel {
+  /**
+   * The shape of the vectors we use.
+   */
+  static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  /**
+   * Get the name of this kernel.
+   *
+   * @return the name.
+   */
+  public String name() {
+    return "vector-" + SPECIES.vectorBitSize();
+  } // name()
+
+  /**
+   * Add a multiple of one run of values to another: y += a * x.
+   *
+   * @param a
+   *   The multiplier.
+   * @param x
+   *   The array that holds the values to add.
+   * @param xOff
+   *   The index of the first value to add.
+   * @param y
+   *   The array that holds the values to add to.
+   * @param yOff
+   *   The index of the first value to add to.
+   * @param len
+   *   The number of values.
+   */
+  public void axpy(double a, double[] x, int xOff, double[] y, int yOff, int len) {
+    DoubleVector va = DoubleVector.broadcast(SPECIES, a);
+    int bound = SPECIES.loopBound(len);
+    int i = 0;
+    for (; i < bound; i += SPECIES.length()) {
+      DoubleVector vx = DoubleVector.fromArray(SPECIES, x, xOff + i);
+      DoubleVector vy = DoubleVector.fromArray(SPECIES, y, yOff + i);
+      vx.fma(va, vy).intoArray(y, yOff + i);
+    } // for
+    for (; i < len; i++) {
+      y[yOff + i] += a * x[xOff + i];
+    } // for
+  } // axpy(double, double[], int, double[], int, int)
+
+  /**
+   * Add two runs of values: out = x + y.
+   *
+   * @param x
+   *   The first values.
+   * @param y
+   *   The second values.
+   * @param out
+   *   Where to store the sums. May be x or y.
+   * @param len
+   *   The number of values.
+   */
+  public void add(double[] x, double[] y, double[] out, int len) {
+    int bound = SPECIES.loopBound(len);
+    int i = 0;
+    for (; i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, x, i).add(DoubleVector.fromArray(SPECIES, y, i))
+          .intoArray(out, i);
+    } // for
+    for (; i < len; i++) {
+      out[i] = x[i] + y[i];
+    } // for
+  } // add(double[], double[], double[], int)
+
+  /**
+   * Multiply a run of values: out = a * x.
+   *
+   * @param a
+   *   The multiplier.
+   * @param x
+   *   The values.
+   * @param out
+   *   Where to store the products. May be x.
+   * @param len
+   *   The number of values.
+   */
+  public void scale(double a, double[] x, double[] out, int len) {
+    int bound = SPECIES.loopBound(len);
+    int i = 0;
+    for (; i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, x, i).mul(a).intoArray(out, i);
+    } // for
+    for (; i < len; i++) {
+      out[i] = a * x[i];
+    } // for
+  } // scale(double, double[], double[], int)
+} // class VectorDoubleKernel